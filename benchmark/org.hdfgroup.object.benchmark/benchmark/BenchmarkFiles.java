@@ -0,0 +1,180 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+
+/**
+ * Creates the sample files of the benchmarks. The files are created in a new
+ * temporary directory, or in the directory given by the system property
+ * "benchmark.files", and their contents only depend on the parameters, so
+ * runs of the same size can be compared.
+ */
+public final class BenchmarkFiles
+{
+    /** the names of the datasets of the file created by {@link #createScalarFile(int)} */
+    public static final String CONTIGUOUS = "/contiguous";
+    public static final String CHUNKED    = "/chunked";
+    public static final String COMPRESSED = "/compressed";
+
+    /** the name of the dataset of the file created by {@link #createCompoundFile(int, int)} */
+    public static final String COMPOUND   = "/table";
+
+    private static final int   ROW_SIZE   = 1024;
+
+    private BenchmarkFiles() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /** Returns a new file in the directory of the benchmark files. */
+    public static File newFile(String prefix) throws IOException {
+        String dir = System.getProperty("benchmark.files");
+        File file;
+        if (dir == null) {
+            file = Files.createTempFile(prefix, ".h5").toFile();
+        }
+        else {
+            file = new File(dir, prefix + ".h5");
+        }
+        file.deleteOnExit();
+
+        return file;
+    }
+
+    /**
+     * Creates a file with a tree of ngroups groups, each with ndatasets small
+     * datasets, every tenth of which is compound. If links is positive, the
+     * file also has a group "/links" of ngroups groups with links hard links
+     * each, see {@link H5StressFileGenerator#createTree(String, int, int, int)}.
+     */
+    public static File createTreeFile(int ngroups, int ndatasets, int links) throws Exception {
+        File file = newFile("tree");
+        long[] dims = { 10 };
+        H5Datatype intType = new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+        String[] memberNames = { "a", "b" };
+        Datatype[] memberTypes = { intType, new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE) };
+
+        H5File h5file = new H5File(file.getPath(), FileFormat.CREATE);
+        h5file.open();
+        try {
+            for (int g = 0; g < ngroups; g++) {
+                Group group = h5file.createGroup("g" + g, null);
+                for (int d = 0; d < ndatasets; d++) {
+                    if (d % 10 == 0)
+                        h5file.createCompoundDS("c" + d, group, dims, null, null, -1, memberNames, memberTypes, null, null);
+                    else
+                        h5file.createScalarDS("d" + d, group, intType, dims, null, null, -1, null);
+                }
+            }
+
+            if (links > 0)
+                new H5StressFileGenerator(h5file, 0, 0).createTree("links", 1, ngroups, links);
+        }
+        finally {
+            h5file.close();
+        }
+
+        return file;
+    }
+
+    /**
+     * Creates a file with three 2-D float datasets of about sizeMB megabytes
+     * each: contiguous, chunked, and chunked with gzip compression. The
+     * values vary smoothly, so they compress like measured data. The
+     * datasets are written in blocks of rows, so the size is not limited by
+     * the memory of the JVM.
+     */
+    public static File createScalarFile(int sizeMB) throws Exception {
+        File file = newFile("scalar");
+        long rows = Math.max(1, (long) sizeMB * 1024 * 1024 / 4 / ROW_SIZE);
+        long[] dims = { rows, ROW_SIZE };
+        long[] chunks = { Math.min(rows, 64), 256 };
+        H5Datatype floatType = new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE);
+
+        H5StressFileGenerator.RowSource source = (start, count) -> {
+            float[] data = new float[count * ROW_SIZE];
+            long first = start * ROW_SIZE;
+            for (int i = 0; i < data.length; i++)
+                data[i] = (float) Math.sin((first + i) * 0.001) * 1000;
+            return data;
+        };
+
+        H5File h5file = new H5File(file.getPath(), FileFormat.CREATE);
+        h5file.open();
+        try {
+            H5StressFileGenerator generator = new H5StressFileGenerator(h5file, 0, 0);
+
+            Dataset dset = h5file.createScalarDS(CONTIGUOUS.substring(1), null, floatType, dims, null, null, -1, null);
+            generator.writeRows(dset, dims, 1, ROW_SIZE * 4L, source);
+            dset = h5file.createScalarDS(CHUNKED.substring(1), null, floatType, dims, null, chunks, -1, null);
+            generator.writeRows(dset, dims, chunks[0], ROW_SIZE * 4L, source);
+            dset = h5file.createScalarDS(COMPRESSED.substring(1), null, floatType, dims, null, chunks, 6, null);
+            generator.writeRows(dset, dims, chunks[0], ROW_SIZE * 4L, source);
+        }
+        finally {
+            h5file.close();
+        }
+
+        return file;
+    }
+
+    /**
+     * Creates a file with a compound dataset of nrows rows and nmembers
+     * members, alternately of int, float and double type.
+     */
+    public static File createCompoundFile(int nrows, int nmembers) throws Exception {
+        File file = newFile("compound");
+        Datatype[] types = { new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE),
+                new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE),
+                new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE) };
+
+        String[] memberNames = new String[nmembers];
+        Datatype[] memberTypes = new Datatype[nmembers];
+        List<Object> data = new ArrayList<>(nmembers);
+        for (int m = 0; m < nmembers; m++) {
+            memberNames[m] = "m" + m;
+            memberTypes[m] = types[m % types.length];
+            switch (m % types.length) {
+                case 0:
+                    int[] ivalues = new int[nrows];
+                    for (int i = 0; i < nrows; i++)
+                        ivalues[i] = i + m;
+                    data.add(ivalues);
+                    break;
+                case 1:
+                    float[] fvalues = new float[nrows];
+                    for (int i = 0; i < nrows; i++)
+                        fvalues[i] = i * 0.5f + m;
+                    data.add(fvalues);
+                    break;
+                default:
+                    double[] dvalues = new double[nrows];
+                    for (int i = 0; i < nrows; i++)
+                        dvalues[i] = i * 0.25 + m;
+                    data.add(dvalues);
+                    break;
+            }
+        }
+
+        H5File h5file = new H5File(file.getPath(), FileFormat.CREATE);
+        h5file.open();
+        try {
+            h5file.createCompoundDS(COMPOUND.substring(1), null, new long[] { nrows }, null, null, -1, memberNames,
+                    memberTypes, null, data);
+        }
+        finally {
+            h5file.close();
+        }
+
+        return file;
+    }
+}
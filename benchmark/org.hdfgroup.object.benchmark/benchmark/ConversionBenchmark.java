@@ -0,0 +1,93 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import hdf.object.Dataset;
+
+/**
+ * Measures the in-memory conversions of the object library: unsigned C
+ * integers to Java integers, and fixed-length C strings to Java strings.
+ * They do not use the HDF libraries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConversionBenchmark
+{
+    /** the number of values converted */
+    @Param({ "1000000" })
+    public int     size;
+
+    /** the length of the strings */
+    @Param({ "16" })
+    public int     length;
+
+    private byte[] bytes;
+
+    private short[] shorts;
+
+    private int[]  ints;
+
+    private short[] bytesOut;
+
+    private int[]  shortsOut;
+
+    private long[] intsOut;
+
+    private byte[] strings;
+
+    @Setup
+    public void createData() {
+        Random random = new Random(size);
+
+        bytes = new byte[size];
+        random.nextBytes(bytes);
+        shorts = new short[size];
+        ints = new int[size];
+        for (int i = 0; i < size; i++) {
+            shorts[i] = (short) random.nextInt();
+            ints[i] = random.nextInt();
+        }
+
+        bytesOut = new short[size];
+        shortsOut = new int[size];
+        intsOut = new long[size];
+
+        // printable strings, a few of them shorter than the length
+        strings = new byte[size / length * length];
+        for (int i = 0; i < strings.length; i++)
+            strings[i] = (byte) ('a' + random.nextInt(26));
+        for (int i = length - 1; i < strings.length; i += 7 * length)
+            strings[i - length / 2] = 0;
+    }
+
+    @Benchmark
+    public Object convertFromUnsignedByte() {
+        return Dataset.convertFromUnsignedC(bytes, bytesOut);
+    }
+
+    @Benchmark
+    public Object convertFromUnsignedShort() {
+        return Dataset.convertFromUnsignedC(shorts, shortsOut);
+    }
+
+    @Benchmark
+    public Object convertFromUnsignedInt() {
+        return Dataset.convertFromUnsignedC(ints, intsOut);
+    }
+
+    @Benchmark
+    public Object byteToString() {
+        return Dataset.byteToString(strings, length);
+    }
+}
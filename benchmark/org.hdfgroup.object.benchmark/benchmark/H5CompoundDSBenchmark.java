@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import hdf.object.FileFormat;
+import hdf.object.h5.H5CompoundDS;
+import hdf.object.h5.H5File;
+
+/**
+ * Measures H5CompoundDS.read() of all members of a compound dataset of
+ * nrows rows and nmembers members.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class H5CompoundDSBenchmark
+{
+    @Param({ "100000" })
+    public int           nrows;
+
+    @Param({ "16", "256" })
+    public int           nmembers;
+
+    private File         file;
+
+    private H5File       h5file;
+
+    private H5CompoundDS dataset;
+
+    @Setup
+    public void openDataset() throws Exception {
+        file = BenchmarkFiles.createCompoundFile(nrows, nmembers);
+        h5file = new H5File(file.getPath(), FileFormat.READ);
+        h5file.open();
+        dataset = (H5CompoundDS) h5file.get(BenchmarkFiles.COMPOUND);
+        dataset.init();
+    }
+
+    @TearDown
+    public void closeFile() throws Exception {
+        h5file.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public Object read() throws Exception {
+        return dataset.read();
+    }
+}
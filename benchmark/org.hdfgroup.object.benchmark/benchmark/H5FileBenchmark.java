@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hdf.object.Dataset;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.h5.H5File;
+
+/**
+ * Measures the time to open a file with a tree of ngroups groups of
+ * ndatasets datasets, and optionally ngroups groups of links hard links, and
+ * to load the whole tree and initialize every dataset, as the tree view of
+ * HDFView does when all groups are expanded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class H5FileBenchmark
+{
+    @Param({ "100" })
+    public int  ngroups;
+
+    @Param({ "1000" })
+    public int  ndatasets;
+
+    @Param({ "0" })
+    public int  links;
+
+    private File file;
+
+    @Setup
+    public void createFile() throws Exception {
+        file = BenchmarkFiles.createTreeFile(ngroups, ndatasets, links);
+    }
+
+    @TearDown
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Object open() throws Exception {
+        H5File h5file = new H5File(file.getPath(), FileFormat.READ);
+        try {
+            h5file.open();
+            return h5file.getRootObject();
+        }
+        finally {
+            h5file.close();
+        }
+    }
+
+    @Benchmark
+    public void loadTree(Blackhole bh) throws Exception {
+        H5File h5file = new H5File(file.getPath(), FileFormat.READ);
+        try {
+            h5file.open();
+            loadGroup((Group) h5file.getRootObject(), bh);
+        }
+        finally {
+            h5file.close();
+        }
+    }
+
+    private static void loadGroup(Group group, Blackhole bh) {
+        List<HObject> members = group.getMemberList();
+        for (HObject obj : members) {
+            if (obj instanceof Group) {
+                loadGroup((Group) obj, bh);
+            }
+            else if (obj instanceof Dataset) {
+                ((Dataset) obj).init();
+                bh.consume(((Dataset) obj).getDims());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import hdf.object.FileFormat;
+import hdf.object.h5.H5File;
+import hdf.object.h5.H5ScalarDS;
+
+/**
+ * Measures H5ScalarDS.read() of a whole 2-D float dataset of sizeMB
+ * megabytes with a contiguous, chunked or compressed layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class H5ScalarDSBenchmark
+{
+    @Param({ "64" })
+    public int         sizeMB;
+
+    @Param({ BenchmarkFiles.CONTIGUOUS, BenchmarkFiles.CHUNKED, BenchmarkFiles.COMPRESSED })
+    public String      layout;
+
+    private File       file;
+
+    private H5File     h5file;
+
+    private H5ScalarDS dataset;
+
+    @Setup
+    public void openDataset() throws Exception {
+        file = BenchmarkFiles.createScalarFile(sizeMB);
+        h5file = new H5File(file.getPath(), FileFormat.READ);
+        h5file.open();
+        dataset = (H5ScalarDS) h5file.get(layout);
+        dataset.init();
+    }
+
+    @TearDown
+    public void closeFile() throws Exception {
+        h5file.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public Object read() throws Exception {
+        return dataset.read();
+    }
+}
@@ -0,0 +1,431 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import hdf.hdf5lib.H5;
+import hdf.hdf5lib.HDF5Constants;
+
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.ScalarDS;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+import hdf.object.h5.H5Group;
+
+/**
+ * Generates HDF5 stress files for benchmarks and tests: deep and wide group
+ * trees with many links, large chunked and compressed images, wide compound
+ * tables, variable-length strings, object references and 3-D stacks.
+ *
+ * The contents only depend on the parameters and the seed, so files
+ * generated with the same options are identical. Large datasets are created
+ * empty and written block by block of at most BLOCK_BYTES bytes, so files
+ * much larger than the memory can be generated.
+ *
+ * Usage: H5StressFileGenerator [-seed n] [-gzip level] [-tree depth,fanout,links]
+ * [-image height,width,ncomp] [-table rows,members] [-strings count,maxlength]
+ * [-stack frames,height,width] [-refs] file.h5
+ *
+ * <pre>
+ * # a tree of 10000 groups with 1000000 links and a 4 GB RGB image
+ * H5StressFileGenerator -tree 2,100,100 -image 32768,43690,3 stress.h5
+ * </pre>
+ */
+public class H5StressFileGenerator
+{
+    /** the maximum number of bytes written at one time */
+    private static final long BLOCK_BYTES = 64L * 1024 * 1024;
+
+    private final H5File       file;
+
+    private final long         seed;
+
+    private final int          gzip;
+
+    /** the full names of the datasets created, which -refs refers to */
+    private final List<String> datasetNames = new ArrayList<>();
+
+    /**
+     * Creates a generator which adds objects to an open file.
+     *
+     * @param file
+     *            the file, open for writing
+     * @param seed
+     *            the seed of the random values
+     * @param gzip
+     *            the gzip level of the chunked datasets, 0 for no compression
+     */
+    public H5StressFileGenerator(H5File file, long seed, int gzip) {
+        this.file = file;
+        this.seed = seed;
+        this.gzip = gzip;
+    }
+
+    public static void main(String[] args) {
+        long seed = 0;
+        int gzip = 6;
+        String filename = null;
+        List<String[]> tasks = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "-gzip":
+                        gzip = Integer.parseInt(args[++i]);
+                        break;
+                    case "-refs":
+                        tasks.add(new String[] { args[i] });
+                        break;
+                    case "-tree":
+                    case "-image":
+                    case "-table":
+                    case "-strings":
+                    case "-stack":
+                        tasks.add(new String[] { args[i], args[++i] });
+                        break;
+                    default:
+                        if (args[i].startsWith("-") || (filename != null))
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        filename = args[i];
+                        break;
+                }
+            }
+
+            if (filename == null)
+                throw new IllegalArgumentException("Missing file name");
+        }
+        catch (RuntimeException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: H5StressFileGenerator [-seed n] [-gzip level] [-tree depth,fanout,links]\n"
+                    + "    [-image height,width,ncomp] [-table rows,members] [-strings count,maxlength]\n"
+                    + "    [-stack frames,height,width] [-refs] file.h5");
+            System.exit(2);
+        }
+
+        if (tasks.isEmpty()) {
+            tasks.add(new String[] { "-tree", "3,10,10" });
+            tasks.add(new String[] { "-image", "4096,4096,1" });
+            tasks.add(new String[] { "-table", "100000,64" });
+            tasks.add(new String[] { "-strings", "100000,80" });
+            tasks.add(new String[] { "-stack", "64,512,512" });
+            tasks.add(new String[] { "-refs" });
+        }
+
+        try {
+            H5File h5file = new H5File(filename, FileFormat.CREATE);
+            h5file.setNewLibBounds("Latest", "Latest");
+            h5file.open();
+            try {
+                H5StressFileGenerator generator = new H5StressFileGenerator(h5file, seed, gzip);
+                for (String[] task : tasks) {
+                    long t0 = System.nanoTime();
+                    generator.run(task);
+                    System.out.println(String.join(" ", task) + ": " + (System.nanoTime() - t0) / 1000000 + " ms");
+                }
+            }
+            finally {
+                h5file.close();
+            }
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private void run(String[] task) throws Exception {
+        if (task[0].equals("-refs")) {
+            createReferences("references");
+            return;
+        }
+
+        String[] values = task[1].split(",");
+        long[] p = new long[values.length];
+        for (int i = 0; i < values.length; i++)
+            p[i] = Long.parseLong(values[i].trim());
+
+        switch (task[0]) {
+            case "-tree":
+                createTree("tree", (int) p[0], (int) p[1], (int) p[2]);
+                break;
+            case "-image":
+                createImage("image", p[0], p[1], (p.length > 2) ? (int) p[2] : 1);
+                break;
+            case "-table":
+                createTable("table", p[0], (int) p[1]);
+                break;
+            case "-strings":
+                createStrings("strings", p[0], (int) p[1]);
+                break;
+            case "-stack":
+                createStack("stack", p[0], p[1], p[2]);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Creates a tree of groups of the given depth below the root group, in
+     * which each group has fanout subgroups, and each group at the bottom has
+     * links hard links to one small dataset. The tree has fanout^depth
+     * groups at the bottom and fanout^depth * links links.
+     *
+     * The links are created with H5Lcreate_hard instead of H5File.createLink,
+     * which creates an object for each link.
+     *
+     * @return the number of links created.
+     */
+    public long createTree(String name, int depth, int fanout, int links) throws Exception {
+        Group root = file.createGroup(name, null);
+        H5Datatype intType = new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+        Dataset target = file.createScalarDS("target", root, intType, new long[] { 10 }, null, null, -1,
+                new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+        datasetNames.add(target.getFullName());
+
+        return createTree(root, depth, fanout, links, target.getFullName());
+    }
+
+    private long createTree(Group group, int depth, int fanout, int links, String target) throws Exception {
+        long count = 0;
+
+        if (depth == 0) {
+            long gid = ((H5Group) group).open();
+            try {
+                for (int i = 0; i < links; i++)
+                    H5.H5Lcreate_hard(file.getFID(), target, gid, "l" + i, HDF5Constants.H5P_DEFAULT,
+                            HDF5Constants.H5P_DEFAULT);
+            }
+            finally {
+                ((H5Group) group).close(gid);
+            }
+
+            return links;
+        }
+
+        for (int i = 0; i < fanout; i++) {
+            Group child = file.createGroup("g" + i, group);
+            count += createTree(child, depth - 1, fanout, links, target) + 1;
+        }
+
+        // the members are not needed once the subtree is written
+        group.clear();
+
+        return count;
+    }
+
+    /**
+     * Creates an 8-bit image of height x width pixels with ncomp components
+     * per pixel, chunked in 256 x 256 tiles. The values are a smooth pattern
+     * with noise, so they compress like a photograph.
+     */
+    public Dataset createImage(String name, long height, long width, int ncomp) throws Exception {
+        long[] dims = (ncomp > 1) ? new long[] { height, width, ncomp } : new long[] { height, width };
+        long[] chunks = (ncomp > 1) ? new long[] { Math.min(height, 256), Math.min(width, 256), ncomp }
+                : new long[] { Math.min(height, 256), Math.min(width, 256) };
+        H5Datatype type = new H5Datatype(Datatype.CLASS_INTEGER, 1, Datatype.NATIVE, Datatype.SIGN_NONE);
+
+        Dataset dset = file.createImage(name, null, type, dims, null, chunks, gzip, ncomp,
+                (ncomp > 1) ? ScalarDS.INTERLACE_PIXEL : -1, null);
+
+        long rowValues = width * ncomp;
+        writeRows(dset, dims, chunks[0], rowValues, (start, count) -> {
+            Random random = new Random(seed + start);
+            byte[] data = new byte[(int) (count * rowValues)];
+            int idx = 0;
+            for (long y = start; y < start + count; y++) {
+                for (long x = 0; x < width; x++) {
+                    int v = (int) (((x * x + y * y) >> 8) + random.nextInt(16));
+                    for (int c = 0; c < ncomp; c++)
+                        data[idx++] = (byte) (v + c * 85);
+                }
+            }
+            return data;
+        });
+
+        return dset;
+    }
+
+    /**
+     * Creates a compound table of nrows rows and nmembers members,
+     * alternately of int, long, float and double type.
+     */
+    public Dataset createTable(String name, long nrows, int nmembers) throws Exception {
+        Datatype[] types = { new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE),
+                new H5Datatype(Datatype.CLASS_INTEGER, 8, Datatype.NATIVE, Datatype.NATIVE),
+                new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE),
+                new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE) };
+
+        String[] memberNames = new String[nmembers];
+        Datatype[] memberTypes = new Datatype[nmembers];
+        for (int m = 0; m < nmembers; m++) {
+            memberNames[m] = "m" + m;
+            memberTypes[m] = types[m % types.length];
+        }
+
+        long[] dims = { nrows };
+        long[] chunks = { Math.min(nrows, 4096) };
+        Dataset dset = file.createCompoundDS(name, null, dims, null, chunks, gzip, memberNames, memberTypes, null,
+                null);
+
+        writeRows(dset, dims, chunks[0], nmembers * 6L, (start, count) -> {
+            Random random = new Random(seed + start);
+            List<Object> data = new ArrayList<>(nmembers);
+            for (int m = 0; m < nmembers; m++) {
+                switch (m % types.length) {
+                    case 0:
+                        int[] ivalues = new int[count];
+                        for (int i = 0; i < count; i++)
+                            ivalues[i] = (int) (start + i) + m;
+                        data.add(ivalues);
+                        break;
+                    case 1:
+                        long[] lvalues = new long[count];
+                        for (int i = 0; i < count; i++)
+                            lvalues[i] = random.nextLong();
+                        data.add(lvalues);
+                        break;
+                    case 2:
+                        float[] fvalues = new float[count];
+                        for (int i = 0; i < count; i++)
+                            fvalues[i] = random.nextFloat() * m;
+                        data.add(fvalues);
+                        break;
+                    default:
+                        double[] dvalues = new double[count];
+                        for (int i = 0; i < count; i++)
+                            dvalues[i] = random.nextGaussian();
+                        data.add(dvalues);
+                        break;
+                }
+            }
+            return data;
+        });
+
+        return dset;
+    }
+
+    /**
+     * Creates a dataset of count variable-length strings of random letters,
+     * of 0 to maxLength characters.
+     */
+    public Dataset createStrings(String name, long count, int maxLength) throws Exception {
+        H5Datatype type = new H5Datatype(Datatype.CLASS_STRING, -1, Datatype.NATIVE, Datatype.NATIVE);
+        long[] dims = { count };
+        long[] chunks = { Math.min(count, 4096) };
+        Dataset dset = file.createScalarDS(name, null, type, dims, null, chunks, gzip, null);
+
+        // an estimate of the bytes per string: the average length of the
+        // random strings, plus the Java String and variable-length overhead
+        writeRows(dset, dims, chunks[0], maxLength / 2 + 16, (start, n) -> {
+            Random random = new Random(seed + start);
+            String[] data = new String[n];
+            char[] chars = new char[maxLength];
+            for (int i = 0; i < n; i++) {
+                int length = random.nextInt(maxLength + 1);
+                for (int j = 0; j < length; j++)
+                    chars[j] = (char) ('a' + random.nextInt(26));
+                data[i] = new String(chars, 0, length);
+            }
+            return data;
+        });
+
+        return dset;
+    }
+
+    /**
+     * Creates a stack of nframes float images of height x width pixels,
+     * chunked by frame.
+     */
+    public Dataset createStack(String name, long nframes, long height, long width) throws Exception {
+        H5Datatype type = new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE);
+        long[] dims = { nframes, height, width };
+        long[] chunks = { 1, Math.min(height, 512), Math.min(width, 512) };
+        Dataset dset = file.createScalarDS(name, null, type, dims, null, chunks, gzip, null);
+
+        writeRows(dset, dims, 1, height * width * 4, (start, count) -> {
+            Random random = new Random(seed + start);
+            float[] data = new float[(int) (count * height * width)];
+            int idx = 0;
+            for (long f = start; f < start + count; f++) {
+                for (long y = 0; y < height; y++) {
+                    for (long x = 0; x < width; x++)
+                        data[idx++] = (float) (Math.sin((x + f) * 0.01) * Math.cos((y - f) * 0.01) * 1000
+                                + random.nextGaussian());
+                }
+            }
+            return data;
+        });
+
+        return dset;
+    }
+
+    /**
+     * Creates a dataset of object references to all datasets created so far.
+     */
+    public Dataset createReferences(String name) throws Exception {
+        H5Datatype type = new H5Datatype(Datatype.CLASS_REFERENCE, Datatype.NATIVE, Datatype.NATIVE, Datatype.NATIVE);
+        int n = datasetNames.size();
+        Dataset dset = file.createScalarDS(name, null, type, new long[] { Math.max(n, 1) }, null, null, -1, null);
+
+        byte[][] refs = new byte[n][];
+        try {
+            for (int i = 0; i < n; i++)
+                refs[i] = H5.H5Rcreate_object(file.getFID(), datasetNames.get(i), HDF5Constants.H5P_DEFAULT);
+            if (n > 0)
+                dset.write(refs);
+        }
+        finally {
+            for (byte[] ref : refs) {
+                if (ref != null)
+                    H5.H5Rdestroy(ref);
+            }
+        }
+
+        return dset;
+    }
+
+    /** Creates the values of count rows, starting at row start. */
+    @FunctionalInterface
+    interface RowSource
+    {
+        Object rows(long start, int count) throws Exception;
+    }
+
+    /**
+     * Writes a dataset in blocks of whole rows of the first dimension, of
+     * about BLOCK_BYTES bytes aligned to the chunk rows.
+     */
+    void writeRows(Dataset dset, long[] dims, long chunkRows, long rowBytes, RowSource source)
+            throws Exception {
+        datasetNames.add(dset.getFullName());
+
+        dset.init();
+        long[] start = dset.getStartDims();
+        long[] selected = dset.getSelectedDims();
+        long[] stride = dset.getStride();
+        for (int i = 0; i < dims.length; i++) {
+            start[i] = 0;
+            selected[i] = dims[i];
+            stride[i] = 1;
+        }
+
+        long blockRows = Math.max(1, BLOCK_BYTES / Math.max(1, rowBytes));
+        if (blockRows > chunkRows)
+            blockRows -= blockRows % chunkRows;
+
+        for (long row = 0; row < dims[0]; row += blockRows) {
+            int count = (int) Math.min(blockRows, dims[0] - row);
+            start[0] = row;
+            selected[0] = count;
+            dset.write(source.rows(row, count));
+        }
+    }
+}
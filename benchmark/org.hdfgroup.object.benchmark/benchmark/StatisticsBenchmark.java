@@ -0,0 +1,93 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import hdf.object.DataStatistics;
+import hdf.view.Tools;
+
+/**
+ * Measures the statistics kernels of Tools, which the image and table views
+ * run on the values of a dataset, and of DataStatistics. They do not use the
+ * HDF libraries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsBenchmark
+{
+    /** the number of values */
+    @Param({ "4000000" })
+    public int      size;
+
+    /** the type of the values */
+    @Param({ "short", "float" })
+    public String   type;
+
+    private Object  data;
+
+    private double[] minmax;
+
+    @Setup
+    public void createData() {
+        Random random = new Random(size);
+
+        if (type.equals("short")) {
+            short[] values = new short[size];
+            for (int i = 0; i < size; i++)
+                values[i] = (short) (random.nextGaussian() * 1000);
+            data = values;
+        }
+        else {
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++)
+                values[i] = (float) (random.nextGaussian() * 1000);
+            data = values;
+        }
+
+        minmax = new double[2];
+        Tools.findMinMax(data, minmax, null);
+    }
+
+    @Benchmark
+    public double[] findMinMax() {
+        double[] result = new double[2];
+        Tools.findMinMax(data, result, null);
+        return result;
+    }
+
+    @Benchmark
+    public int[] findDataDist() {
+        int[] dist = new int[256];
+        Tools.findDataDist(data, dist, minmax);
+        return dist;
+    }
+
+    @Benchmark
+    public double[] computeStatistics() {
+        double[] avgstd = new double[2];
+        Tools.computeStatistics(data, avgstd, null);
+        return avgstd;
+    }
+
+    @Benchmark
+    public double[] autoContrastCompute() {
+        double[] params = new double[2];
+        Tools.autoContrastCompute(data, params, false);
+        return params;
+    }
+
+    @Benchmark
+    public DataStatistics dataStatistics() {
+        return DataStatistics.compute(data, null, minmax, 256);
+    }
+}
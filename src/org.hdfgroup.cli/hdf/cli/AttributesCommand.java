@@ -0,0 +1,63 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import hdf.object.Attribute;
+import hdf.object.FileFormat;
+import hdf.object.HObject;
+import hdf.object.MetaDataContainer;
+
+/**
+ * Prints the attributes of the objects of a file, or of the objects below a
+ * group given by -path.
+ */
+final class AttributesCommand extends Command
+{
+    AttributesCommand() {
+        super("attrs", "-path");
+    }
+
+    @Override
+    protected void process(String filename, PrintWriter out) throws Exception {
+        FileFormat file = openFile(filename);
+
+        try {
+            out.println(filename);
+            for (HObject obj : getObjects(file, getOption("-path", null))) {
+                if (!(obj instanceof MetaDataContainer))
+                    continue;
+
+                List<?> attrs = ((MetaDataContainer) obj).getMetadata();
+                if ((attrs == null) || attrs.isEmpty())
+                    continue;
+
+                out.println("  " + obj.getFullName());
+                for (Object item : attrs) {
+                    Attribute attr = (Attribute) item;
+                    out.println("    " + attr.getAttributeName() + ": "
+                            + attr.getAttributeDatatype().getDescription() + " "
+                            + Arrays.toString(attr.getAttributeDims()) + " = " + attr.toAttributeString(", "));
+                }
+            }
+        }
+        finally {
+            file.close();
+        }
+    }
+}
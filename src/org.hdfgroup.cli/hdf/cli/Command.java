@@ -0,0 +1,256 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+
+/**
+ * Command is the base class of the commands of {@link HDFCli}. A command is
+ * configured by its options and then run on each file, possibly by several
+ * threads at the same time, so it must not change its state while it runs.
+ */
+abstract class Command
+{
+    private final String              name;
+
+    private final Set<String>         optionNames;
+
+    private final Map<String, String> options = new HashMap<>();
+
+    /**
+     * @param name
+     *            the name of the command
+     * @param optionNames
+     *            the names of the options of the command, e.g. "-path"
+     */
+    protected Command(String name, String... optionNames) {
+        this.name = name;
+        this.optionNames = new HashSet<>(Arrays.asList(optionNames));
+    }
+
+    /**
+     * Creates the command of a name.
+     *
+     * @param name
+     *            the name of the command
+     *
+     * @return the command
+     *
+     * @throws IllegalArgumentException if there is no such command
+     */
+    static Command forName(String name) {
+        switch (name) {
+            case "list":
+                return new ListCommand();
+            case "attrs":
+                return new AttributesCommand();
+            case "stats":
+                return new StatisticsCommand();
+            case "export":
+                return new ExportCommand();
+            case "convert":
+                return new ConvertCommand();
+            default:
+                throw new IllegalArgumentException("Unknown command " + name);
+        }
+    }
+
+    /** @return the name of the command */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Sets an option of the command.
+     *
+     * @throws IllegalArgumentException if the command has no such option
+     */
+    void setOption(String option, String value) {
+        if (!optionNames.contains(option))
+            throw new IllegalArgumentException("Unknown option " + option + " of command " + name);
+
+        options.put(option, value);
+    }
+
+    /**
+     * Checks the values of the options before any file is processed.
+     *
+     * @throws IllegalArgumentException if an option has an invalid value
+     */
+    void checkOptions() {
+    }
+
+    protected String getOption(String option, String defaultValue) {
+        return options.getOrDefault(option, defaultValue);
+    }
+
+    protected int getIntOption(String option, int defaultValue) {
+        String value = options.get(option);
+        if (value == null)
+            return defaultValue;
+
+        try {
+            int n = Integer.parseInt(value);
+            if (n >= 0)
+                return n;
+        }
+        catch (NumberFormatException ex) {
+            // reported below
+        }
+
+        throw new IllegalArgumentException("Invalid value of option " + option + ": " + value);
+    }
+
+    /**
+     * Checks that an option has one of the given values.
+     *
+     * @throws IllegalArgumentException if the option has another value
+     */
+    protected void checkChoice(String option, String... choices) {
+        String value = options.get(option);
+        if ((value != null) && !Arrays.asList(choices).contains(value))
+            throw new IllegalArgumentException("Invalid value of option " + option + ": " + value);
+    }
+
+    /**
+     * Runs the command on a file.
+     *
+     * @param filename
+     *            the file
+     *
+     * @return the output of the command.
+     *
+     * @throws Exception if the file cannot be processed
+     */
+    String run(String filename) throws Exception {
+        StringWriter text = new StringWriter();
+        try (PrintWriter out = new PrintWriter(text)) {
+            process(filename, out);
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Processes a file and prints the output.
+     *
+     * @param filename
+     *            the file
+     * @param out
+     *            the output of the file
+     *
+     * @throws Exception if the file cannot be processed
+     */
+    protected abstract void process(String filename, PrintWriter out) throws Exception;
+
+    /**
+     * Opens an HDF file for reading. Groups are loaded when their members are
+     * first accessed, so objects given by path are found without walking the
+     * whole file.
+     *
+     * @param filename
+     *            the file
+     *
+     * @return the open file
+     *
+     * @throws Exception if the file is not of a known format or cannot be
+     *             opened
+     */
+    protected static FileFormat openFile(String filename) throws Exception {
+        if (!new File(filename).exists())
+            throw new Exception("File does not exist");
+
+        for (FileFormat format : FileFormat.getFileFormats()) {
+            if (format.isThisType(filename)) {
+                FileFormat file = format.createInstance(filename, FileFormat.READ);
+                file.setLazyLoad(true);
+                file.open();
+                return file;
+            }
+        }
+
+        throw new Exception("Unsupported file format");
+    }
+
+    /**
+     * Returns the object at a path and, if it is a group, all objects below
+     * it in depth-first order. Groups which are reached by several paths are
+     * listed once.
+     *
+     * @param file
+     *            the open file
+     * @param path
+     *            the path of the object, or null for the root group
+     *
+     * @return the objects
+     *
+     * @throws Exception if there is no object at the path or the members of a
+     *             group cannot be loaded
+     */
+    protected static List<HObject> getObjects(FileFormat file, String path) throws Exception {
+        HObject start = ((path == null) || path.equals("/")) ? file.getRootObject() : file.get(path);
+        if (start == null)
+            throw new Exception("Object " + path + " not found");
+
+        List<HObject> objects = new ArrayList<>();
+        addObjects(start, objects, new HashSet<>());
+
+        return objects;
+    }
+
+    private static void addObjects(HObject obj, List<HObject> objects, Set<String> groups) throws Exception {
+        objects.add(obj);
+        if (!(obj instanceof Group) || !groups.add(Arrays.toString(obj.getOID())))
+            return;
+
+        List<HObject> members = ((Group) obj).getMemberList();
+        if (!((Group) obj).isMemberListLoaded())
+            throw new Exception("Failed to load the members of " + obj.getFullName());
+        if (members != null) {
+            for (HObject member : members)
+                addObjects(member, objects, groups);
+        }
+    }
+
+    /**
+     * Returns the file to which an output of a file is written, in the
+     * directory of the -out option or else of the file. The name is the name
+     * of the file without extension, followed by the given suffix.
+     */
+    protected File getOutputFile(String filename, String suffix) {
+        File file = new File(filename);
+        String dir = getOption("-out", file.getAbsoluteFile().getParent());
+
+        String base = file.getName();
+        int dot = base.lastIndexOf('.');
+        if (dot > 0)
+            base = base.substring(0, dot);
+
+        return new File(dir, base + suffix);
+    }
+}
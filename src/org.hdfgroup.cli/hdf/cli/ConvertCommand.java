@@ -0,0 +1,94 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.PrintWriter;
+
+import javax.imageio.ImageIO;
+
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.ScalarDS;
+
+/**
+ * Converts image files (JPEG, PNG, GIF, BMP) into HDF5 or HDF4 files with one
+ * 24-bit true color image, the same way as HDFView does.
+ */
+final class ConvertCommand extends Command
+{
+    ConvertCommand() {
+        super("convert", "-to", "-out");
+    }
+
+    @Override
+    void checkOptions() {
+        checkChoice("-to", "hdf5", "hdf4");
+
+        String dir = getOption("-out", null);
+        if ((dir != null) && !new File(dir).isDirectory())
+            throw new IllegalArgumentException("Output directory " + dir + " does not exist");
+    }
+
+    @Override
+    protected void process(String filename, PrintWriter out) throws Exception {
+        boolean toHDF4 = getOption("-to", "hdf5").equals("hdf4");
+        String formatName = toHDF4 ? FileFormat.FILE_TYPE_HDF4 : FileFormat.FILE_TYPE_HDF5;
+        FileFormat format = FileFormat.getFileFormat(formatName);
+        if (format == null)
+            throw new Exception("Unsupported destination file type " + formatName);
+
+        File imgFile = new File(filename);
+        BufferedImage image = ImageIO.read(imgFile);
+        if (image == null)
+            throw new Exception("Failed to read image");
+
+        int h = image.getHeight();
+        int w = image.getWidth();
+        byte[] data = new byte[3 * h * w];
+
+        // read the pixels a row at a time instead of one by one
+        int[] row = new int[w];
+        int idx = 0;
+        for (int i = 0; i < h; i++) {
+            image.getRGB(0, i, w, 1, row, 0, w);
+            for (int rgb : row) {
+                data[idx++] = (byte) (rgb >> 16);
+                data[idx++] = (byte) (rgb >> 8);
+                data[idx++] = (byte) rgb;
+            }
+        }
+
+        // RGB pixel interlace
+        long[] dims = toHDF4 ? new long[] { w, h, 3 } : new long[] { h, w, 3 };
+
+        File outFile = getOutputFile(filename, toHDF4 ? ".hdf" : ".h5");
+        FileFormat newfile = format.createInstance(outFile.getPath(), FileFormat.CREATE);
+        newfile.open();
+        try {
+            Group pgroup = (Group) newfile.getRootObject();
+            Datatype type = newfile.createDatatype(Datatype.CLASS_CHAR, 1, Datatype.NATIVE, Datatype.SIGN_NONE);
+            newfile.createImage(imgFile.getName(), pgroup, type, dims, null, null, -1, 3, ScalarDS.INTERLACE_PIXEL,
+                    data);
+        }
+        finally {
+            newfile.close();
+        }
+
+        out.println(filename + " -> " + outFile.getPath());
+    }
+}
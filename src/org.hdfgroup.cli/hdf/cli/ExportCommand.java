@@ -0,0 +1,124 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.ByteOrder;
+
+import hdf.object.BinaryIO;
+import hdf.object.Dataset;
+import hdf.object.DatasetTextExporter;
+import hdf.object.DatasetTextTask;
+import hdf.object.FileFormat;
+import hdf.object.HObject;
+import hdf.object.Utils;
+
+/**
+ * Writes the numerical datasets of a file, or the datasets below a group
+ * given by -path, to text or binary files. Each output file is named after
+ * the file and the path of the dataset. The datasets are read block by block,
+ * so datasets larger than the memory can be exported.
+ */
+final class ExportCommand extends Command
+{
+    ExportCommand() {
+        super("export", "-path", "-format", "-delimiter", "-order", "-out");
+    }
+
+    @Override
+    void checkOptions() {
+        checkChoice("-format", "text", "binary");
+        checkChoice("-order", "native", "little", "big");
+
+        String dir = getOption("-out", null);
+        if ((dir != null) && !new File(dir).isDirectory())
+            throw new IllegalArgumentException("Output directory " + dir + " does not exist");
+    }
+
+    private String getDelimiter() {
+        String delimiter = getOption("-delimiter", "tab");
+        switch (delimiter) {
+            case "tab":
+                return "\t";
+            case "space":
+                return " ";
+            case "comma":
+                return ",";
+            case "colon":
+                return ":";
+            case "semicolon":
+                return ";";
+            default:
+                return delimiter;
+        }
+    }
+
+    private ByteOrder getByteOrder() {
+        switch (getOption("-order", "native")) {
+            case "little":
+                return ByteOrder.LITTLE_ENDIAN;
+            case "big":
+                return ByteOrder.BIG_ENDIAN;
+            default:
+                return ByteOrder.nativeOrder();
+        }
+    }
+
+    @Override
+    protected void process(String filename, PrintWriter out) throws Exception {
+        boolean binary = getOption("-format", "text").equals("binary");
+        FileFormat file = openFile(filename);
+
+        try {
+            out.println(filename);
+            for (HObject obj : getObjects(file, getOption("-path", null))) {
+                if (!DatasetTextTask.isSupported(obj))
+                    continue;
+
+                Dataset dset = (Dataset) obj;
+                dset.init();
+
+                String suffix = dset.getFullName().replace('/', '_') + (binary ? ".bin" : ".txt");
+                File outFile = getOutputFile(filename, suffix);
+                if (binary)
+                    exportBinary(dset, outFile);
+                else
+                    new DatasetTextExporter(dset, outFile, getDelimiter(), true).call();
+
+                out.println("  " + dset.getFullName() + " -> " + outFile.getPath());
+            }
+        }
+        finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes all values of a dataset to a binary file, through a copy of the
+     * dataset so the selection of the dataset is not changed.
+     */
+    private void exportBinary(Dataset dset, File outFile) throws Exception {
+        Dataset reader = Utils.copyDataset(dset);
+        long[] dims = reader.getDims();
+        for (int i = 0; i < reader.getRank(); i++) {
+            reader.getStartDims()[i] = 0;
+            reader.getSelectedDims()[i] = dims[i];
+            reader.getStride()[i] = 1;
+        }
+
+        BinaryIO.write(reader, outFile, getByteOrder());
+    }
+}
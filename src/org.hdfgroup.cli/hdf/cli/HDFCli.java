@@ -0,0 +1,295 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * HDFCli runs a command on a batch of HDF files without a display, so the
+ * features of HDFView can be scripted. It depends only on the object layer.
+ *
+ * The files are processed by a pool of -jobs threads. The output of each
+ * file is collected while the file is processed and printed in the order of
+ * the files; errors are printed to the error stream, and the exit status is 1
+ * if any file failed. Statistics and text export process each dataset block
+ * by block in parallel on the common fork/join pool or, with -threads, on a
+ * fork/join pool of that many threads for each job.
+ *
+ * <pre>
+ * java -cp hdfobject.jar:hdfcli.jar:... hdf.cli.HDFCli -jobs 4 stats -bins 64 *.h5
+ * </pre>
+ */
+public final class HDFCli
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(HDFCli.class);
+
+    /** the number of files per job whose output may wait to be printed */
+    private static final int    MAX_PENDING_FILES = 4;
+
+    private static final String USAGE =
+            "Usage: hdfcli [options] <command> [command options] <file>...\n"
+            + "\n"
+            + "Options:\n"
+            + "  -jobs <n>        the number of files processed at the same time (default 1)\n"
+            + "  -threads <n>     the number of threads processing the blocks of a dataset\n"
+            + "                   in each job (default: the number of processors)\n"
+            + "  -files <list>    read more file names from a text file, one per line\n"
+            + "  -help            print this message\n"
+            + "\n"
+            + "Commands:\n"
+            + "  list     [-path <object>]\n"
+            + "           print the objects of each file, or of a group\n"
+            + "  attrs    [-path <object>]\n"
+            + "           print the attributes of the objects\n"
+            + "  stats    [-path <object>] [-bins <n>]\n"
+            + "           print the statistics of all values of the numerical datasets\n"
+            + "  export   [-path <object>] [-format text|binary] [-delimiter <d>]\n"
+            + "           [-order native|little|big] [-out <dir>]\n"
+            + "           write the numerical datasets to text or binary files named after\n"
+            + "           the file and the dataset; the delimiter is tab, space, comma,\n"
+            + "           colon, semicolon or any text (default tab)\n"
+            + "  convert  [-to hdf5|hdf4] [-out <dir>]\n"
+            + "           convert image files into HDF files\n";
+
+    private HDFCli() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the command line and exits with its status.
+     *
+     * @param args
+     *            the command line
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs a command line.
+     *
+     * @param args
+     *            the command line
+     * @param out
+     *            the stream to print the output of the files to
+     * @param err
+     *            the stream to print errors to
+     *
+     * @return 0 if all files were processed, 1 if any file failed and 2 if
+     *         the command line is invalid.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        int jobs = 1;
+        int threads = 0;
+        Command command = null;
+        List<String> files = new ArrayList<>();
+
+        try {
+            int i = 0;
+            for (; (i < args.length) && args[i].startsWith("-"); i++) {
+                if (args[i].equals("-help") || args[i].equals("-h")) {
+                    out.print(USAGE);
+                    return 0;
+                }
+
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value of option " + args[i]);
+
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "-jobs":
+                        jobs = parsePositive(args[i - 1], value);
+                        break;
+                    case "-threads":
+                        threads = parsePositive(args[i - 1], value);
+                        break;
+                    case "-files":
+                        files.addAll(readFileList(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+
+            if (i >= args.length)
+                throw new IllegalArgumentException("Missing command");
+
+            command = Command.forName(args[i++]);
+            for (; i < args.length; i++) {
+                if (args[i].startsWith("-") && (args[i].length() > 1)) {
+                    if (i + 1 >= args.length)
+                        throw new IllegalArgumentException("Missing value of option " + args[i]);
+                    command.setOption(args[i], args[++i]);
+                }
+                else {
+                    files.add(args[i]);
+                }
+            }
+
+            command.checkOptions();
+            if (files.isEmpty())
+                throw new IllegalArgumentException("No input files");
+        }
+        catch (IllegalArgumentException ex) {
+            err.println("hdfcli: " + ex.getMessage());
+            err.print(USAGE);
+            return 2;
+        }
+
+        return runBatch(command, files, jobs, threads, out, err);
+    }
+
+    private static int parsePositive(String option, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0)
+                return n;
+        }
+        catch (NumberFormatException ex) {
+            log.debug("parsePositive(): {} {}", option, value);
+        }
+
+        throw new IllegalArgumentException("Invalid value of option " + option + ": " + value);
+    }
+
+    private static List<String> readFileList(String listFile) {
+        List<String> names = new ArrayList<>();
+
+        try {
+            for (String line : Files.readAllLines(Paths.get(listFile), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty())
+                    names.add(line);
+            }
+        }
+        catch (IOException ex) {
+            throw new IllegalArgumentException("Cannot read file list " + listFile + ": " + ex.getMessage());
+        }
+
+        return names;
+    }
+
+    /**
+     * Runs a command on each file with a pool of threads and prints the
+     * output of the files in order. At most MAX_PENDING_FILES files per job
+     * are queued, so the output held in memory does not grow with the
+     * number of files.
+     *
+     * If threads is not 0, each job runs its files in a fork/join pool of
+     * its own with that many threads, so the parallel work of the object
+     * library on the blocks of a dataset runs in that pool instead of the
+     * common pool.
+     */
+    private static int runBatch(Command command, List<String> files, int jobs, int threads, PrintStream out,
+            PrintStream err) {
+        ExecutorService executor = Executors.newFixedThreadPool(jobs, r -> {
+            Thread t = new Thread(r, "hdfcli " + command.getName());
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<ForkJoinPool> blockPools = new ArrayList<>();
+        for (int i = 0; (threads > 0) && (i < jobs); i++)
+            blockPools.add(new ForkJoinPool(threads));
+
+        // at most one file per job runs at a time, so a pool is always free
+        BlockingQueue<ForkJoinPool> freePools = blockPools.isEmpty() ? null : new LinkedBlockingQueue<>(blockPools);
+
+        long startTime = System.nanoTime();
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        ArrayDeque<String> pendingNames = new ArrayDeque<>();
+        int failures = 0;
+
+        try {
+            for (String filename : files) {
+                pending.add(executor.submit(() -> runFile(command, filename, freePools)));
+                pendingNames.add(filename);
+
+                while (pending.size() >= MAX_PENDING_FILES * jobs)
+                    failures += report(pendingNames.poll(), pending.poll(), out, err);
+            }
+
+            while (!pending.isEmpty())
+                failures += report(pendingNames.poll(), pending.poll(), out, err);
+        }
+        finally {
+            executor.shutdownNow();
+            for (ForkJoinPool pool : blockPools)
+                pool.shutdownNow();
+        }
+
+        log.debug("runBatch(): {} {} files, {} failed, {} ms", command.getName(), files.size(), failures,
+                (System.nanoTime() - startTime) / 1000000);
+
+        return (failures == 0) ? 0 : 1;
+    }
+
+    /**
+     * Runs a command on a file, in a fork/join pool taken from freePools
+     * unless it is null.
+     */
+    private static String runFile(Command command, String filename, BlockingQueue<ForkJoinPool> freePools)
+            throws Exception {
+        if (freePools == null)
+            return command.run(filename);
+
+        ForkJoinPool pool = freePools.take();
+        try {
+            return pool.submit(() -> command.run(filename)).get();
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw ex;
+        }
+        finally {
+            freePools.add(pool);
+        }
+    }
+
+    /** Prints the output of a file, and returns 1 if the file failed. */
+    private static int report(String filename, Future<String> result, PrintStream out, PrintStream err) {
+        try {
+            out.print(result.get());
+            out.flush();
+            return 0;
+        }
+        catch (ExecutionException ex) {
+            Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+            log.debug("report(): {} failed:", filename, cause);
+            err.println(filename + ": " + cause.getMessage());
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            err.println(filename + ": interrupted");
+        }
+
+        return 1;
+    }
+}
@@ -0,0 +1,61 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import hdf.object.Dataset;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+
+/**
+ * Prints the objects of a file, or of a group given by -path, one per line
+ * with the kind of object and, for datasets, the dimensions and type.
+ */
+final class ListCommand extends Command
+{
+    ListCommand() {
+        super("list", "-path");
+    }
+
+    @Override
+    protected void process(String filename, PrintWriter out) throws Exception {
+        FileFormat file = openFile(filename);
+
+        try {
+            out.println(filename);
+            for (HObject obj : getObjects(file, getOption("-path", null))) {
+                out.print("  " + obj.getFullName() + "  ");
+                if (obj instanceof Group) {
+                    out.println("Group");
+                }
+                else if (obj instanceof Dataset) {
+                    Dataset dset = (Dataset) obj;
+                    dset.init();
+                    out.println("Dataset " + Arrays.toString(dset.getDims()) + " "
+                            + dset.getDatatype().getDescription());
+                }
+                else {
+                    out.println(obj.getClass().getSimpleName());
+                }
+            }
+        }
+        finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.cli;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import hdf.object.DataStatistics;
+import hdf.object.Dataset;
+import hdf.object.DatasetStatisticsTask;
+import hdf.object.FileFormat;
+import hdf.object.HObject;
+
+/**
+ * Prints the statistics of all values of the numerical datasets of a file,
+ * or of the datasets below a group given by -path. The datasets are read
+ * block by block, see {@link DatasetStatisticsTask}, and -bins adds a
+ * histogram with that many bins.
+ */
+final class StatisticsCommand extends Command
+{
+    StatisticsCommand() {
+        super("stats", "-path", "-bins");
+    }
+
+    @Override
+    void checkOptions() {
+        getIntOption("-bins", 0);
+    }
+
+    @Override
+    protected void process(String filename, PrintWriter out) throws Exception {
+        int nbins = getIntOption("-bins", 0);
+        FileFormat file = openFile(filename);
+
+        try {
+            out.println(filename);
+            for (HObject obj : getObjects(file, getOption("-path", null))) {
+                if (!DatasetStatisticsTask.isSupported(obj))
+                    continue;
+
+                Dataset dset = (Dataset) obj;
+                dset.init();
+                DataStatistics stats = new DatasetStatisticsTask(dset, nbins).call();
+
+                out.println("  " + dset.getFullName() + "  " + Arrays.toString(dset.getDims()));
+                out.println("    count=" + stats.getCount() + " nan=" + stats.getNaNCount() + " min="
+                        + stats.getMin() + " max=" + stats.getMax() + " mean=" + stats.getMean() + " stddev="
+                        + stats.getStandardDeviation());
+                if (stats.getHistogram() != null)
+                    out.println("    histogram " + Arrays.toString(stats.getHistogramRange()) + " "
+                            + Arrays.toString(stats.getHistogram()));
+            }
+        }
+        finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/** the hdf command-line module */
+module org.hdfgroup.cli {
+    exports hdf.cli;
+
+    requires org.hdfgroup.object;
+    requires java.desktop;
+    requires org.slf4j;
+}
@@ -0,0 +1,356 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hdf.object.Attribute;
+import hdf.object.CompoundDS;
+import hdf.object.Dataset;
+import hdf.object.FileFormat;
+import hdf.object.Utils;
+
+/**
+ * FramePrefetcher reads frames of a dataset with three or more dimensions on
+ * a background thread, so that a data view can flip to the next frame without
+ * waiting for the file.
+ *
+ * A frame is the current selection of the dataset with the start of the frame
+ * dimension, selectedIndex[2], set to the frame index. The frames are read by
+ * a private copy of the dataset object, so the selection and data buffer of
+ * the displayed dataset are never touched by the background thread.
+ *
+ * Frames are returned exactly as read() returns them, e.g. unsigned integers
+ * are not converted, and are handed over to the dataset with
+ * {@link Dataset#setLoadedData(Object)}. A frame is removed from the cache
+ * when it is taken, since the dataset may reuse or modify its buffer.
+ *
+ * <pre>
+ * Object frame = prefetcher.take(idx);
+ * if (frame != null)
+ *     dataset.setLoadedData(frame);
+ * data = dataset.getData();
+ * prefetcher.prefetch(idx + 1);
+ * </pre>
+ */
+public class FramePrefetcher
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FramePrefetcher.class);
+
+    /** The selection of the dataset when a frame was requested. */
+    private static final class Selection {
+        private final long[]    start;
+        private final long[]    count;
+        private final long[]    stride;
+        private final int[]     selectedIndex;
+        private final boolean[] members;
+        private final boolean   convertByteToString;
+
+        /** the selection without the frame index */
+        private final String    key;
+
+        Selection(Dataset dset) {
+            start = dset.getStartDims().clone();
+            count = dset.getSelectedDims().clone();
+            stride = dset.getStride().clone();
+            selectedIndex = dset.getSelectedIndex().clone();
+            convertByteToString = dset.getConvertByteToString();
+
+            if (dset instanceof CompoundDS) {
+                CompoundDS compound = (CompoundDS) dset;
+                members = new boolean[compound.getMemberCount()];
+                for (int i = 0; i < members.length; i++)
+                    members[i] = compound.isMemberSelected(i);
+            }
+            else
+                members = null;
+
+            long[] offset = start.clone();
+            offset[selectedIndex[2]] = 0;
+            key = Arrays.toString(offset) + Arrays.toString(count) + Arrays.toString(stride)
+                    + Arrays.toString(selectedIndex) + Arrays.toString(members) + convertByteToString;
+        }
+
+        void apply(Dataset dset, long frame) {
+            System.arraycopy(start, 0, dset.getStartDims(), 0, start.length);
+            System.arraycopy(count, 0, dset.getSelectedDims(), 0, count.length);
+            System.arraycopy(stride, 0, dset.getStride(), 0, stride.length);
+            System.arraycopy(selectedIndex, 0, dset.getSelectedIndex(), 0, selectedIndex.length);
+            dset.getStartDims()[selectedIndex[2]] = frame;
+            dset.setConvertByteToString(convertByteToString);
+
+            if (members != null) {
+                CompoundDS compound = (CompoundDS) dset;
+                compound.setAllMemberSelection(false);
+                for (int i = 0; i < members.length; i++) {
+                    if (members[i])
+                        compound.selectMember(i);
+                }
+            }
+        }
+    }
+
+    private final Dataset dataset;
+
+    private final int capacity;
+
+    /** the single background thread which reads the frames */
+    private final ExecutorService executor;
+
+    /** the copy of the dataset used by the background thread */
+    private Dataset reader = null;
+
+    /** the frames read ahead, in least recently requested order */
+    private final Map<Long, Object> frames = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** the frames being read, in the order they were requested */
+    private final Map<Long, Future<?>> pending = new LinkedHashMap<>();
+
+    /** the selection, without the frame index, of the cached and pending frames */
+    private String selectionKey = null;
+
+    /** incremented whenever the cached frames become invalid */
+    private long generation = 0;
+
+    private long hitCount = 0;
+
+    private long missCount = 0;
+
+    /**
+     * Creates a prefetcher for the frames of a dataset.
+     *
+     * @param dset
+     *            the dataset whose frames are read.
+     * @param capacity
+     *            the maximum number of frames read ahead and kept.
+     */
+    public FramePrefetcher(Dataset dset, int capacity) {
+        this.dataset = dset;
+        this.capacity = Math.max(1, capacity);
+
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Prefetch " + dset.getName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns true if the frames of a data object can be read in the
+     * background.
+     *
+     * Only datasets with three or more dimensions in HDF5 files, whose library
+     * serializes concurrent calls, are prefetched.
+     *
+     * @param dataObject
+     *            the data object shown in a data view.
+     *
+     * @return true if the frames of the object can be prefetched.
+     */
+    public static boolean isSupported(Object dataObject) {
+        if (!(dataObject instanceof Dataset) || (dataObject instanceof Attribute))
+            return false;
+
+        Dataset dset = (Dataset) dataObject;
+        if ((dset.getRank() < 3) || (dset.getFileFormat() == null))
+            return false;
+
+        FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+
+        return (h5format != null) && dset.getFileFormat().isThisType(h5format);
+    }
+
+    /**
+     * Starts reading a frame in the background with the current selection of
+     * the dataset. Must be called by the thread which owns the dataset.
+     *
+     * If more than the maximum number of frames are being read, the oldest
+     * request which has not started yet is dropped.
+     *
+     * @param frame
+     *            the index of the frame in the frame dimension.
+     */
+    public void prefetch(long frame) {
+        if (executor.isShutdown())
+            return;
+
+        long[] dims = dataset.getDims();
+        int[] selectedIndex = dataset.getSelectedIndex();
+        if ((frame < 0) || (frame >= dims[selectedIndex[2]]))
+            return;
+
+        final Selection selection = new Selection(dataset);
+
+        synchronized (this) {
+            checkSelection(selection.key);
+
+            if (frames.containsKey(frame) || pending.containsKey(frame))
+                return;
+
+            Iterator<Future<?>> it = pending.values().iterator();
+            while ((pending.size() >= capacity) && it.hasNext()) {
+                it.next().cancel(false);
+                it.remove();
+            }
+
+            final long gen = generation;
+            log.trace("prefetch(): frame={}", frame);
+            pending.put(frame, executor.submit(() -> readFrame(selection, frame, gen)));
+        }
+    }
+
+    /**
+     * Returns a frame which was read in the background and removes it from the
+     * cache. If the frame is still being read, waits for the read to finish.
+     * Must be called by the thread which owns the dataset.
+     *
+     * @param frame
+     *            the index of the frame in the frame dimension.
+     *
+     * @return the data of the frame with the current selection of the dataset,
+     *         or null if the frame was not prefetched.
+     */
+    public Object take(long frame) {
+        String key = new Selection(dataset).key;
+        Future<?> future;
+
+        synchronized (this) {
+            checkSelection(key);
+
+            Object data = frames.remove(frame);
+            if (data != null) {
+                hitCount++;
+                log.trace("take(): frame={} cached, hits={} misses={}", frame, hitCount, missCount);
+                return data;
+            }
+
+            future = pending.get(frame);
+            if (future == null) {
+                missCount++;
+                log.trace("take(): frame={} not prefetched, hits={} misses={}", frame, hitCount, missCount);
+                return null;
+            }
+        }
+
+        try {
+            future.get();
+        }
+        catch (Exception ex) {
+            log.debug("take(): frame={} read failure: ", frame, ex);
+        }
+
+        synchronized (this) {
+            Object data = frames.remove(frame);
+            if (data != null)
+                hitCount++;
+            else
+                missCount++;
+
+            return data;
+        }
+    }
+
+    /**
+     * Drops all frames which were read ahead, e.g. because the data in the
+     * file has changed.
+     */
+    public synchronized void invalidate() {
+        log.trace("invalidate(): dropping {} frames", frames.size());
+        generation++;
+        frames.clear();
+
+        for (Future<?> future : pending.values())
+            future.cancel(false);
+        pending.clear();
+    }
+
+    /**
+     * Drops all frames and stops the background thread.
+     */
+    public void dispose() {
+        invalidate();
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the number of frames which were taken from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of frames which had to be read by the caller.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Drops the cached frames if the selection of the dataset has changed
+     * other than in the frame dimension.
+     */
+    private void checkSelection(String key) {
+        if (!key.equals(selectionKey)) {
+            if (selectionKey != null)
+                invalidate();
+            selectionKey = key;
+        }
+    }
+
+    /**
+     * Reads a frame on the background thread and adds it to the cache unless
+     * the cache was invalidated in the meantime.
+     */
+    private void readFrame(Selection selection, long frame, long gen) {
+        Object data = null;
+
+        try {
+            if (reader == null)
+                reader = Utils.copyDataset(dataset);
+
+            selection.apply(reader, frame);
+            data = reader.read();
+        }
+        catch (Exception ex) {
+            log.debug("readFrame(): frame={} read failure: ", frame, ex);
+        }
+        catch (OutOfMemoryError err) {
+            log.debug("readFrame(): frame={} out of memory", frame);
+        }
+
+        synchronized (this) {
+            if (gen != generation)
+                return;
+
+            pending.remove(frame);
+            if (data == null)
+                return;
+
+            frames.put(frame, data);
+            Iterator<Long> it = frames.keySet().iterator();
+            while ((frames.size() > capacity) && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+}
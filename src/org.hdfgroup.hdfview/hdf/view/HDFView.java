@@ -81,12 +81,14 @@ import hdf.view.MetaDataView.MetaDataView;
 import hdf.view.TableView.TableView;
 import hdf.view.TreeView.DefaultTreeView;
 import hdf.view.TreeView.TreeView;
+import hdf.view.dialog.IOStatisticsDialog;
 import hdf.view.dialog.ImageConversionDialog;
 import hdf.view.dialog.InputDialog;
 import hdf.view.dialog.UserOptionsDialog;
 import hdf.view.dialog.UserOptionsGeneralPage;
 import hdf.view.dialog.UserOptionsHDFPage;
 import hdf.view.dialog.UserOptionsNode;
+import hdf.view.dialog.UserOptionsPerformancePage;
 import hdf.view.dialog.UserOptionsViewModulesPage;
 
 
@@ -881,11 +883,13 @@ public class HDFView implements DataViewManager
                 UserOptionsNode one = new UserOptionsNode("general", new UserOptionsGeneralPage());
                 UserOptionsNode two = new UserOptionsNode("hdf", new UserOptionsHDFPage());
                 UserOptionsNode three = new UserOptionsNode("modules", new UserOptionsViewModulesPage());
+                UserOptionsNode four = new UserOptionsNode("performance", new UserOptionsPerformancePage());
 
                 // Add the nodes
                 mgr.addToRoot(one);
                 mgr.addToRoot(two);
                 mgr.addToRoot(three);
+                mgr.addToRoot(four);
 
                 // Create the preferences dialog
                 userOptionDialog = new UserOptionsDialog(shell, mgr, rootDir);
@@ -917,6 +921,15 @@ public class HDFView implements DataViewManager
             }
         });
 
+        item = new MenuItem(toolsMenu, SWT.PUSH);
+        item.setText("I/O &Statistics");
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                new IOStatisticsDialog(shell, treeView.getCurrentFiles()).open();
+            }
+        });
+
         new MenuItem(toolsMenu, SWT.SEPARATOR);
 
         item = new MenuItem(toolsMenu, SWT.PUSH);
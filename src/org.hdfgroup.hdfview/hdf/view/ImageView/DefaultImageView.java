@@ -24,17 +24,13 @@ import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
-import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBufferInt;
-import java.awt.image.DirectColorModel;
 import java.awt.image.FilteredImageSource;
 import java.awt.image.ImageFilter;
 import java.awt.image.ImageObserver;
 import java.awt.image.ImageProducer;
-import java.awt.image.IndexColorModel;
 import java.awt.image.PixelGrabber;
 import java.awt.image.RGBImageFilter;
-import java.awt.image.WritableRaster;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -52,6 +48,9 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.IntStream;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ScrolledComposite;
@@ -101,11 +100,15 @@ import org.eclipse.swt.widgets.ToolBar;
 import org.eclipse.swt.widgets.ToolItem;
 import org.eclipse.swt.widgets.TreeItem;
 
+import hdf.object.DataStatistics;
+import hdf.object.DatasetStatisticsTask;
 import hdf.object.Group;
 import hdf.object.HObject;
 import hdf.object.ScalarDS;
+import hdf.object.Utils;
 import hdf.view.Chart;
 import hdf.view.DefaultFileFilter;
+import hdf.view.FramePrefetcher;
 import hdf.view.Tools;
 import hdf.view.ViewProperties;
 import hdf.view.ViewProperties.BITMASK_OP;
@@ -115,6 +118,7 @@ import hdf.view.DataView.DataViewFactoryProducer;
 import hdf.view.DataView.DataViewManager;
 import hdf.view.PaletteView.PaletteView;
 import hdf.view.TreeView.TreeView;
+import hdf.view.dialog.DatasetStatisticsDialog;
 import hdf.view.dialog.NewDatasetDialog;
 
 /**
@@ -167,6 +171,9 @@ public class DefaultImageView implements ImageView
     /** ROTATE IMAGE COUNTER CLOCKWISE 90 DEGREE. */
     public static final int         ROTATE_CCW_90 = 11;
 
+    /** The maximum width or height of the overview of a tiled image. */
+    private static final int        MAX_OVERVIEW_SIZE = 2048;
+
     /**
      * The main HDFView.
      */
@@ -259,6 +266,19 @@ public class DefaultImageView implements ImageView
     private long                    curFrame = 0;
     private long                    maxFrame = 1;
 
+    /** Reads the page next to the displayed one in the background */
+    private FramePrefetcher         framePrefetcher = null;
+
+    /**
+     * The tiles of a very large image. The image itself is then an overview
+     * which selects every overviewStride-th row and column of the dataset.
+     */
+    private ImageTilePyramid        tilePyramid = null;
+    private int                     overviewStride = 1;
+
+    /** The selection of the dataset before it was changed to the overview */
+    private long[]                  tiledStartBackup, tiledSelectedBackup, tiledStrideBackup;
+
     private BufferedImage           bufferedImage;
 
     private ContrastSlider          contrastSlider;
@@ -332,6 +352,17 @@ public class DefaultImageView implements ImageView
                     dataset.clearData();
                 }
 
+                if (framePrefetcher != null) {
+                    framePrefetcher.dispose();
+                    framePrefetcher = null;
+                }
+
+                if (tilePyramid != null) {
+                    tilePyramid.dispose();
+                    tilePyramid = null;
+                    restoreTiledSelection();
+                }
+
                 if (curFont != null)
                     curFont.dispose();
 
@@ -479,6 +510,11 @@ public class DefaultImageView implements ImageView
         if (rank > 2) {
             curFrame = start[selectedIndex[2]] + indexBase;
             maxFrame = (indexBase == 1) ? dims[selectedIndex[2]] : dims[selectedIndex[2]] - 1;
+
+            if (is3D && (ViewProperties.getFrameCacheSize() > 0) && FramePrefetcher.isSupported(dataset)) {
+                framePrefetcher = new FramePrefetcher(dataset, ViewProperties.getFrameCacheSize());
+                framePrefetcher.prefetch(start[selectedIndex[2]] + 1);
+            }
         }
 
         sb.append(" [ dims");
@@ -947,7 +983,7 @@ public class DefaultImageView implements ImageView
             @Override
             public void widgetSelected(SelectionEvent e) {
                 if (contrastSlider == null)
-                    contrastSlider = new ContrastSlider(shell, SWT.NONE, image.getSource());
+                    contrastSlider = new ContrastSlider(shell, SWT.NONE, image);
                 contrastSlider.open();
             }
         });
@@ -1025,21 +1061,19 @@ public class DefaultImageView implements ImageView
             @Override
             public void widgetSelected(SelectionEvent e) {
                 try {
-                    double[] minmax = new double[2];
-                    double[] stat = new double[2];
-
                     Object theData = null;
                     theData = getSelectedData();
 
                     if (theData == null)
                         theData = data;
 
-                    Tools.findMinMax(theData, minmax, dataset.getFillValue());
-                    if (Tools.computeStatistics(theData, stat, dataset.getFillValue()) > 0) {
+                    // min, max, mean and standard deviation in one pass
+                    DataStatistics stat = DataStatistics.compute(theData, dataset.getFillValue(), null, 0);
+                    if ((stat != null) && (stat.getCount() > 0)) {
                         String statistics = "Min                      = "
-                                + minmax[0] + "\nMax                      = "
-                                + minmax[1] + "\nMean                     = "
-                                + stat[0] + "\nStandard deviation = " + stat[1];
+                                + stat.getMin() + "\nMax                      = "
+                                + stat.getMax() + "\nMean                     = "
+                                + stat.getMean() + "\nStandard deviation = " + stat.getStandardDeviation();
 
                         Tools.showInformation(shell, "Statistics", statistics);
                     }
@@ -1051,6 +1085,16 @@ public class DefaultImageView implements ImageView
             }
         });
 
+        item = new MenuItem(menu, SWT.PUSH);
+        item.setText("Show Statistics of Whole Dataset");
+        item.setEnabled(DatasetStatisticsTask.isSupported(dataset));
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                new DatasetStatisticsDialog(shell, dataset).open();
+            }
+        });
+
         new MenuItem(menu, SWT.SEPARATOR);
 
         item = new MenuItem(menu, SWT.PUSH);
@@ -1119,7 +1163,7 @@ public class DefaultImageView implements ImageView
             @Override
             public void widgetSelected(SelectionEvent e) {
                 if (contrastSlider == null)
-                    contrastSlider = new ContrastSlider(shell, SWT.NONE, image.getSource());
+                    contrastSlider = new ContrastSlider(shell, SWT.NONE, image);
                 contrastSlider.open();
             }
         });
@@ -1431,6 +1475,10 @@ public class DefaultImageView implements ImageView
         if (dataset.getRank() > 2)
             dataset.getSelectedDims()[dataset.getSelectedIndex()[2]] = 1;
 
+        // Show a very large image from tiles, and load only an overview of it
+        if ((tilePyramid == null) && isTiledImage())
+            setupTiledImage();
+
         data = dataset.getData();
         if ((bitmask != null) && Tools.applyBitmask(data, bitmask, bitmaskOP))
             doAutoGainContrast = false;
@@ -1439,7 +1487,7 @@ public class DefaultImageView implements ImageView
             data = dataset.convertFromUnsignedC();
             isUnsignedConverted = true;
             doAutoGainContrast = doAutoGainContrast ||
-                    (ViewProperties.isAutoContrast() && noPalette && isLocalFile);
+                    (ViewProperties.isAutoContrast() && noPalette && isLocalFile && (tilePyramid == null));
         }
         else
             doAutoGainContrast = false;
@@ -1462,9 +1510,110 @@ public class DefaultImageView implements ImageView
             Tools.findMinMax(data, dataRange, null);
         }
 
+        if (tilePyramid != null)
+            tilePyramid.setColorMapping(dataRange, imagePalette, convertByteData);
+
         image = createIndexedImage(imageByteData, imagePalette, w, h);
     }
 
+    /**
+     * Returns true if the image plane is too large to be loaded at once and
+     * should be shown from tiles. Only a complete, untransposed indexed image
+     * without a bitmask is tiled.
+     */
+    private boolean isTiledImage() {
+        int tiledSize = ViewProperties.getTiledImageSize();
+        if ((tiledSize <= 0) || isTrueColor || (bitmask != null) || !dataset.isDefaultImageOrder())
+            return false;
+
+        int rank = dataset.getRank();
+        if (rank < 2)
+            return false;
+
+        int[] selectedIndex = dataset.getSelectedIndex();
+        long[] dims = dataset.getDims();
+        long[] start = dataset.getStartDims();
+        long[] selected = dataset.getSelectedDims();
+        long[] stride = dataset.getStride();
+
+        for (int i = 0; i < 2; i++) {
+            int d = selectedIndex[i];
+            if ((start[d] != 0) || (stride[d] != 1) || (selected[d] != dims[d]))
+                return false;
+        }
+
+        return Math.max(dims[selectedIndex[0]], dims[selectedIndex[1]]) > tiledSize;
+    }
+
+    /**
+     * Changes the selection of the dataset to an overview of the image plane
+     * and creates the tile pyramid for the full resolution.
+     */
+    private void setupTiledImage() {
+        int rank = dataset.getRank();
+        int[] selectedIndex = dataset.getSelectedIndex();
+        long[] dims = dataset.getDims();
+        long[] selected = dataset.getSelectedDims();
+        long[] stride = dataset.getStride();
+        long h = dims[selectedIndex[0]];
+        long w = dims[selectedIndex[1]];
+
+        int maxLevel = 0;
+        while ((Math.max(w, h) >> maxLevel) > MAX_OVERVIEW_SIZE)
+            maxLevel++;
+        if (maxLevel == 0)
+            return;
+
+        tiledStartBackup = dataset.getStartDims().clone();
+        tiledSelectedBackup = selected.clone();
+        tiledStrideBackup = stride.clone();
+
+        overviewStride = 1 << maxLevel;
+        selected[selectedIndex[0]] = (h + overviewStride - 1) / overviewStride;
+        selected[selectedIndex[1]] = (w + overviewStride - 1) / overviewStride;
+        stride[selectedIndex[0]] = overviewStride;
+        stride[selectedIndex[1]] = overviewStride;
+        dataset.clearData();
+
+        log.debug("setupTiledImage(): {}x{} image, overview stride={} rank={}", w, h, overviewStride, rank);
+
+        tilePyramid = new ImageTilePyramid(display, dataset, w, h, maxLevel, () -> {
+            if ((imageComponent != null) && !imageComponent.isDisposed())
+                imageComponent.redraw();
+        });
+    }
+
+    /**
+     * Sets the selection of the dataset back to what it was before the image
+     * was tiled.
+     */
+    private void restoreTiledSelection() {
+        if ((dataset == null) || (tiledStartBackup == null))
+            return;
+
+        int rank = dataset.getRank();
+        long[] start = dataset.getStartDims();
+        System.arraycopy(tiledSelectedBackup, 0, dataset.getSelectedDims(), 0, rank);
+        System.arraycopy(tiledStrideBackup, 0, dataset.getStride(), 0, rank);
+
+        // keep the current frame
+        int[] selectedIndex = dataset.getSelectedIndex();
+        start[selectedIndex[0]] = tiledStartBackup[selectedIndex[0]];
+        start[selectedIndex[1]] = tiledStartBackup[selectedIndex[1]];
+
+        dataset.clearData();
+        tiledStartBackup = null;
+    }
+
+    /**
+     * Returns true if the tiles are drawn over the overview image, i.e. the
+     * image is tiled and shown without flipping, rotation or image filters.
+     */
+    private boolean isTiledView() {
+        return (tilePyramid != null) && (image == bufferedImage) && (rotateCount == 0) && !isHorizontalFlipped
+                && !isVerticalFlipped;
+    }
+
     /**
      * @throws Exception
      * @throws OutOfMemoryError
@@ -1519,14 +1668,17 @@ public class DefaultImageView implements ImageView
         if (gb == null)
             gb = gainBias;
 
-        autoGainData = Tools.autoContrastApply(data, autoGainData, gb, range, dataset.getDatatype().isUnsigned());
-
-        if (autoGainData != null) {
-            if ((imageByteData == null) || (imageByteData.length != Array.getLength(data))) {
-                imageByteData = new byte[Array.getLength(data)];
-            }
-            retValue = (Tools.autoContrastConvertImageBuffer(autoGainData, imageByteData, true) >= 0);
+        if ((imageByteData == null) || (imageByteData.length != Array.getLength(data))) {
+            imageByteData = new byte[Array.getLength(data)];
         }
+
+        // adjust and convert the data in one parallel pass; the buffer of the
+        // adjusted data is reused for the following pages
+        Object adjusted = Tools.autoContrastApplyToImageBuffer(data, autoGainData, imageByteData, gb, range,
+                dataset.getDatatype().isUnsigned());
+
+        if (adjusted != null)
+            autoGainData = adjusted;
         else
             retValue = false;
 
@@ -1541,7 +1693,9 @@ public class DefaultImageView implements ImageView
 
     // implementing ImageObserver
     private void zoomIn() {
-        if (zoomFactor >= 1)
+        if ((tilePyramid != null) && (zoomFactor >= 1))
+            zoomTo(zoomFactor * 2);
+        else if (zoomFactor >= 1)
             zoomTo(zoomFactor + 1.0f);
         else
             zoomTo(zoomFactor + 0.125f);
@@ -1549,7 +1703,9 @@ public class DefaultImageView implements ImageView
 
     // implementing ImageObserver
     private void zoomOut() {
-        if (zoomFactor > 1)
+        if ((tilePyramid != null) && (zoomFactor > 1))
+            zoomTo(zoomFactor / 2);
+        else if (zoomFactor > 1)
             zoomTo(zoomFactor - 1.0f);
         else
             zoomTo(zoomFactor - 0.125f);
@@ -1557,8 +1713,11 @@ public class DefaultImageView implements ImageView
 
     // implementing ImageObserver
     private void zoomTo(float zf) {
-        if (zf > 8)
-            zf = 8;
+        // a tiled image can be zoomed in to its full resolution
+        float maxZoom = 8.0f * overviewStride;
+
+        if (zf > maxZoom)
+            zf = maxZoom;
         else if (zf < 0.125)
             zf = 0.125f;
 
@@ -2046,6 +2205,9 @@ public class DefaultImageView implements ImageView
     public void setPalette(byte[][] pal) {
         imagePalette = pal;
         paletteComponent.updatePalette(pal);
+
+        if (tilePyramid != null)
+            tilePyramid.setColorMapping(dataRange, pal, convertByteData);
     }
 
     private void gotoPage(long idx) {
@@ -2064,14 +2226,27 @@ public class DefaultImageView implements ImageView
             return;
         }
 
+        long prevFrame = start[selectedIndex[2]];
         start[selectedIndex[2]] = idx;
         curFrame = idx + indexBase;
         dataset.clearData();
+
+        // Use the page if it has been read in the background already
+        if (framePrefetcher != null)
+            dataset.setLoadedData(framePrefetcher.take(idx));
+
+        if (tilePyramid != null)
+            tilePyramid.clear();
+
         image = null;
         gainBias = null;
         imageComponent.setImage(getImage());
         frameField.setText(String.valueOf(curFrame));
 
+        // Read the next page in the direction of travel while this one is shown
+        if (framePrefetcher != null)
+            framePrefetcher.prefetch((idx < prevFrame) ? idx - 1 : idx + 1);
+
         isHorizontalFlipped = false;
         isVerticalFlipped = false;
         rotateCount = 0;
@@ -2094,75 +2269,11 @@ public class DefaultImageView implements ImageView
      * @return the image object
      */
     private org.eclipse.swt.graphics.Image convertBufferedImageToSWTImage(BufferedImage image) {
-        if (image.getColorModel() instanceof DirectColorModel) {
-            DirectColorModel colorModel = (DirectColorModel) image.getColorModel();
-            PaletteData palette = new PaletteData(colorModel.getRedMask(),
-                    colorModel.getGreenMask(), colorModel.getBlueMask());
-            ImageData imgData = new ImageData(image.getWidth(),
-                    image.getHeight(), colorModel.getPixelSize(), palette);
-
-            for (int y = 0; y < imgData.height; y++) {
-                for (int x = 0; x < imgData.width; x++) {
-                    int rgb = image.getRGB(x, y);
-                    int pixel = palette.getPixel(new RGB((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF));
-                    imgData.setPixel(x, y, pixel);
-                    if (colorModel.hasAlpha()) {
-                        imgData.setAlpha(x, y, (rgb >> 24) & 0xFF);
-                    }
-                }
-            }
-
-            return new org.eclipse.swt.graphics.Image(display, imgData);
-        }
-        else if (image.getColorModel() instanceof IndexColorModel) {
-            IndexColorModel colorModel = (IndexColorModel) image.getColorModel();
-            int size = colorModel.getMapSize();
-            byte[] reds = new byte[size];
-            byte[] greens = new byte[size];
-            byte[] blues = new byte[size];
-            colorModel.getReds(reds);
-            colorModel.getGreens(greens);
-            colorModel.getBlues(blues);
-            RGB[] rgbs = new RGB[size];
-            for (int i = 0; i < rgbs.length; i++) {
-                rgbs[i] = new RGB(reds[i] & 0xFF, greens[i] & 0xFF, blues[i] & 0xFF);
-            }
-            PaletteData palette = new PaletteData(rgbs);
-            ImageData imgData = new ImageData(image.getWidth(),
-                    image.getHeight(), colorModel.getPixelSize(), palette);
-            imgData.transparentPixel = colorModel.getTransparentPixel();
-            WritableRaster raster = image.getRaster();
-            int[] pixelArray = new int[1];
-            for (int y = 0; y < imgData.height; y++) {
-                for (int x = 0; x < imgData.width; x++) {
-                    raster.getPixel(x, y, pixelArray);
-                    imgData.setPixel(x, y, pixelArray[0]);
-                }
-            }
-
-            return new org.eclipse.swt.graphics.Image(display, imgData);
-        }
-        else if (image.getColorModel() instanceof ComponentColorModel) {
-            ComponentColorModel colorModel = (ComponentColorModel) image.getColorModel();
-            //ASSUMES: 3 BYTE BGR IMAGE TYPE
-            PaletteData palette = new PaletteData(0x0000FF, 0x00FF00,0xFF0000);
-            ImageData imgData = new ImageData(image.getWidth(), image.getHeight(),
-                    colorModel.getPixelSize(), palette);
-            //This is valid because we are using a 3-byte Data model with no transparent pixels
-            imgData.transparentPixel = -1;
-            WritableRaster raster = image.getRaster();
-            int[] pixelArray = new int[3];
-            for (int y = 0; y < imgData.height; y++) {
-                for (int x = 0; x < imgData.width; x++) {
-                    raster.getPixel(x, y, pixelArray);
-                    int pixel = palette.getPixel(new RGB(pixelArray[0], pixelArray[1], pixelArray[2]));
-                    imgData.setPixel(x, y, pixel);
-                }
-            }
-            return new org.eclipse.swt.graphics.Image(display, imgData);
-        }
+        ImageData imgData = Tools.convertBufferedImageToImageData(image);
+        if (imgData == null)
+            return null;
 
-        return null;
+        return new org.eclipse.swt.graphics.Image(display, imgData);
     }
 
     /**
@@ -2281,6 +2392,9 @@ public class DefaultImageView implements ImageView
             imageByteData = Tools.getBytes(data, newRange, w, h, !dataset.isDefaultImageOrder(),
                     dataset.getFilteredImageValues(), true, null, invalidValueIndex);
 
+            if (tilePyramid != null)
+                tilePyramid.setColorMapping(newRange, imagePalette, true);
+
             image = createIndexedImage(imageByteData, imagePalette, w, h);
             setImage(image);
             zoomTo(zoomFactor);
@@ -2306,7 +2420,7 @@ public class DefaultImageView implements ImageView
             return;
 
         ArrayList<HObject> list = new ArrayList<>(dataset.getFileFormat().getNumberOfMembers() + 5);
-        Iterator<HObject> it = ((Group) root).depthFirstMemberList().iterator();
+        Iterator<HObject> it = ((Group) root).depthFirstMemberList(false).iterator();
 
         list.add(dataset.getFileFormat().getRootObject());
 
@@ -2618,8 +2732,11 @@ public class DefaultImageView implements ImageView
 
                     org.eclipse.swt.graphics.Rectangle sourceBounds = convertedImage.getBounds();
 
-                    gc.drawImage(convertedImage, 0, 0, sourceBounds.width, sourceBounds.height,
-                            0, 0, imageSize.width, imageSize.height);
+                    if (isTiledView())
+                        paintTiles(gc, new org.eclipse.swt.graphics.Rectangle(e.x, e.y, e.width, e.height));
+                    else
+                        gc.drawImage(convertedImage, 0, 0, sourceBounds.width, sourceBounds.height,
+                                0, 0, imageSize.width, imageSize.height);
 
                     if ((selectedArea.width > 0) && (selectedArea.height > 0)) {
                         gc.setForeground(Display.getCurrent().getSystemColor(SWT.COLOR_RED));
@@ -2635,6 +2752,65 @@ public class DefaultImageView implements ImageView
             return false;
         }
 
+        /**
+         * Draws the visible part of a tiled image: the overview first, then the
+         * tiles of the level which matches the zoom on top of it. Tiles which
+         * are not loaded yet are requested, and the overview shows through
+         * until they arrive.
+         */
+        private void paintTiles(GC gc, org.eclipse.swt.graphics.Rectangle clip) {
+            org.eclipse.swt.graphics.Rectangle sourceBounds = convertedImage.getBounds();
+            double zoom = (double) imageSize.width / sourceBounds.width;
+
+            int sx0 = Math.max(0, (int) Math.floor(clip.x / zoom));
+            int sy0 = Math.max(0, (int) Math.floor(clip.y / zoom));
+            int sx1 = Math.min(sourceBounds.width, (int) Math.ceil((clip.x + clip.width) / zoom));
+            int sy1 = Math.min(sourceBounds.height, (int) Math.ceil((clip.y + clip.height) / zoom));
+            if ((sx1 <= sx0) || (sy1 <= sy0))
+                return;
+
+            int dx0 = (int) Math.round(sx0 * zoom);
+            int dy0 = (int) Math.round(sy0 * zoom);
+            gc.drawImage(convertedImage, sx0, sy0, sx1 - sx0, sy1 - sy0,
+                    dx0, dy0, (int) Math.round(sx1 * zoom) - dx0, (int) Math.round(sy1 * zoom) - dy0);
+
+            // screen pixels per pixel of the full resolution image
+            double scale = zoom / overviewStride;
+            int level = tilePyramid.getLevel(scale);
+            if (level >= tilePyramid.getMaxLevel())
+                return;
+
+            long span = tilePyramid.getTileSpan(level);
+            long step = 1L << level;
+            long tx0 = (long) (clip.x / scale) / span;
+            long ty0 = (long) (clip.y / scale) / span;
+            long tx1 = Math.min((long) ((clip.x + clip.width) / scale), tilePyramid.getWidth() - 1) / span;
+            long ty1 = Math.min((long) ((clip.y + clip.height) / scale), tilePyramid.getHeight() - 1) / span;
+
+            // A paint may cover only part of the view, so the requests to keep
+            // are those for the tiles in the visible part of the scroller
+            Point origin = imageScroller.getOrigin();
+            org.eclipse.swt.graphics.Rectangle client = imageScroller.getClientArea();
+            tilePyramid.cancelStaleRequests(level, (long) (origin.x / scale) / span, (long) (origin.y / scale) / span,
+                    (long) ((origin.x + client.width) / scale) / span, (long) ((origin.y + client.height) / scale) / span);
+
+            for (long ty = ty0; ty <= ty1; ty++) {
+                for (long tx = tx0; tx <= tx1; tx++) {
+                    org.eclipse.swt.graphics.Image tile = tilePyramid.getTile(level, tx, ty);
+                    if (tile == null)
+                        continue;
+
+                    org.eclipse.swt.graphics.Rectangle tileBounds = tile.getBounds();
+                    int x0 = (int) Math.round(tx * span * scale);
+                    int y0 = (int) Math.round(ty * span * scale);
+                    int x1 = (int) Math.round((tx * span + tileBounds.width * step) * scale);
+                    int y1 = (int) Math.round((ty * span + tileBounds.height * step) * scale);
+
+                    gc.drawImage(tile, 0, 0, tileBounds.width, tileBounds.height, x0, y0, x1 - x0, y1 - y0);
+                }
+            }
+        }
+
         /**
          * Create an image using multiple step bilinear, see details at
          * http://today.java.net/pub/a/today/2007/04/03/perils-of-image-getscaledinstance.html
@@ -2724,9 +2900,9 @@ public class DefaultImageView implements ImageView
 
             strBuff.setLength(0); // reset the string buffer
             strBuff.append("x=")
-                   .append(x + indexBase)
+                   .append((long) x * overviewStride + indexBase)
                    .append(",   y=")
-                   .append(y + indexBase)
+                   .append((long) y * overviewStride + indexBase)
                    .append(",   value=");
 
             if (isTrueColor) {
@@ -2999,6 +3175,9 @@ public class DefaultImageView implements ImageView
         // contrast level [0, 4]
         float contrastLevel = 0;
 
+        // the adjusted value of each color component
+        private final int[] lut = new int[256];
+
         public BrightnessFilter(int blevel, int clevel) {
             if (blevel < -100)
                 brightLevel = -100;
@@ -3021,89 +3200,65 @@ public class DefaultImageView implements ImageView
                 contrastLevel = 0;
 
             canFilterIndexColorModel = true;
-        }
 
-        @Override
-        public int filterRGB(int x, int y, int rgb) {
-            // adjust brightness first, then adjust contrast
-            // it gives more color depth
+            // the components are adjusted independently, so all levels are
+            // computed once and each pixel is a table lookup
+            for (int i = 0; i < 256; i++)
+                lut[i] = adjust(i);
+        }
 
+        /** adjusts brightness first, then contrast; it gives more color depth */
+        private int adjust(int c) {
             if (brightLevel != 0) {
-                int r = (rgb & 0x00ff0000) >> 16;
-                int g = (rgb & 0x0000ff00) >> 8;
-                int b = (rgb & 0x000000ff);
-
-                r += brightLevel;
-                g += brightLevel;
-                b += brightLevel;
-
-                if (r < 0)
-                    r = 0;
-                if (r > 255)
-                    r = 255;
-                if (g < 0)
-                    g = 0;
-                if (g > 255)
-                    g = 255;
-                if (b < 0)
-                    b = 0;
-                if (b > 255)
-                    b = 255;
-
-                r = (r << 16) & 0x00ff0000;
-                g = (g << 8) & 0x0000ff00;
-                b = b & 0x000000ff;
-
-                rgb = ((rgb & 0xff000000) | r | g | b);
+                c += brightLevel;
+
+                if (c < 0)
+                    c = 0;
+                if (c > 255)
+                    c = 255;
             }
 
             // do not compare float using !=0 or ==0
             if (contrastLevel > 0.000001) {
-                int r = (rgb & 0x00ff0000) >> 16;
-                    int g = (rgb & 0x0000ff00) >> 8;
-                    int b = (rgb & 0x000000ff);
-
-                    float f = r / 255f;
-                    f -= 0.5;
-                    f *= contrastLevel;
-                    f += 0.5;
-                    f *= 255f;
-                    if (f < 0)
-                        f = 0;
-                    if (f > 255)
-                        f = 255;
-                    r = (int) f;
-
-                    f = g / 255f;
-                    f -= 0.5;
-                    f *= contrastLevel;
-                    f += 0.5;
-                    f *= 255f;
-                    if (f < 0)
-                        f = 0;
-                    if (f > 255)
-                        f = 255;
-                    g = (int) f;
-
-                    f = b / 255f;
-                    f -= 0.5;
-                    f *= contrastLevel;
-                    f += 0.5;
-                    f *= 255f;
-                    if (f < 0)
-                        f = 0;
-                    if (f > 255)
-                        f = 255;
-                    b = (int) f;
-
-                    r = (r << 16) & 0x00ff0000;
-                    g = (g << 8) & 0x0000ff00;
-                    b = b & 0x000000ff;
-
-                    rgb = ((rgb & 0xff000000) | r | g | b);
+                float f = c / 255f;
+                f -= 0.5;
+                f *= contrastLevel;
+                f += 0.5;
+                f *= 255f;
+                if (f < 0)
+                    f = 0;
+                if (f > 255)
+                    f = 255;
+                c = (int) f;
             }
 
-            return rgb;
+            return c;
+        }
+
+        @Override
+        public int filterRGB(int x, int y, int rgb) {
+            return (rgb & 0xff000000) | (lut[(rgb >> 16) & 0xff] << 16) | (lut[(rgb >> 8) & 0xff] << 8)
+                    | lut[rgb & 0xff];
+        }
+
+        /**
+         * Filters a whole image. The rows are read in bulk and filtered in
+         * parallel, without going through an image producer.
+         */
+        public BufferedImage filter(final BufferedImage src) {
+            final int w = src.getWidth();
+            final int h = src.getHeight();
+            BufferedImage dst = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            final int[] pixels = ((DataBufferInt) dst.getRaster().getDataBuffer()).getData();
+
+            IntStream.range(0, h).parallel().forEach(y -> {
+                int offset = y * w;
+                src.getRGB(0, y, w, 1, pixels, offset, w);
+                for (int i = offset; i < offset + w; i++)
+                    pixels[i] = filterRGB(0, y, pixels[i]);
+            });
+
+            return dst;
         }
     }
 
@@ -3502,45 +3657,147 @@ public class DefaultImageView implements ImageView
 
     /**
      * Makes animation for 3D images.
+     *
+     * The frames are produced by a pipeline of two background threads: one
+     * reads the next slices of the dataset, the other converts them to bytes
+     * and SWT image data. The stages are connected by bounded queues, so they
+     * run at most a few frames ahead of the display. The display thread only
+     * creates the SWT image of a frame when the frame is due.
+     *
+     * Frames are shown at the selected frame rate. A frame which is not ready
+     * when it is due, or which is skipped to catch up after the display thread
+     * fell behind, is counted as dropped.
      */
     private class Animation extends Dialog
     {
         private static final int MAX_ANIMATION_IMAGE_SIZE = 300;
 
-        /* A list of frames to display for animation */
-        private org.eclipse.swt.graphics.Image[] frames = null;
+        /* Keep the frames of a loop in memory if they take no more bytes than this */
+        private static final long MAX_CACHED_FRAME_BYTES = 64L * 1024 * 1024;
+
+        /* How long to wait for a pipeline thread to finish when the animation stops */
+        private static final long STOP_TIMEOUT_MS = 2000;
+
+        /* A frame on its way from the file to the screen */
+        private class Frame
+        {
+            private final int index;
+            private Object    data = null;
+            private ImageData imageData = null;
+
+            private Frame(int index) {
+                this.index = index;
+            }
+        }
+
+        /* The dataset object the frames are read from */
+        private ScalarDS reader = null;
+
+        /* True if the frames are read and converted by background threads */
+        private boolean isPipelined = false;
+
+        /* The queues between reading and conversion, and between conversion and display */
+        private final BlockingQueue<Frame> readQueue;
+        private final BlockingQueue<Frame> imageQueue;
+
+        /*
+         * The converted frames of one loop, or null if they are too large to
+         * keep. The pipeline threads take a local copy of the reference, since
+         * it is set to null when the animation is closed.
+         */
+        private volatile ImageData[] cachedFrames = null;
+
+        private final int w;
+        private final int h;
+        private final double[] range;
+        private final List<Number> invalidValues;
+        private final PaletteData paletteData;
+
+        private volatile boolean isRunning = false;
+        private Thread readThread = null;
+        private Thread convertThread = null;
 
         private Shell shell;
         private Canvas canvas; // Canvas to draw the image
+        private Label statusLabel;
+        private org.eclipse.swt.graphics.Image currentImage = null;
         private int numberOfImages = 0;
         private int currentFrame = 0;
+        private int shownFrame = 0;
         private int sleepTime = 200;
 
+        /* Frame rate statistics */
+        private long nextFrameTime = 0;
+        private long statusTime = 0;
+        private int  framesSinceStatus = 0;
+        private long framesShown = 0;
+        private long framesDropped = 0;
+        private long framesStalled = 0;
+
         public Animation(Shell parent, int style, ScalarDS dataset) {
             super(parent, style);
 
             long[] dims = dataset.getDims();
-            long[] stride = dataset.getStride();
-            long[] start = dataset.getStartDims();
             long[] selected = dataset.getSelectedDims();
             int[] selectedIndex = dataset.getSelectedIndex();
-            int rank = dataset.getRank();
             if (animationSpeed != 0)
                 sleepTime = 1000 / animationSpeed;
 
-            // back up the start and selected size
-            long[] tstart = new long[rank];
-            long[] tselected = new long[rank];
-            long[] tstride = new long[rank];
-            System.arraycopy(start, 0, tstart, 0, rank);
-            System.arraycopy(selected, 0, tselected, 0, rank);
-            System.arraycopy(stride, 0, tstride, 0, rank);
-
             int strideN = 1;
             int maxSize = (int) Math.max(selected[selectedIndex[0]], selected[selectedIndex[1]]);
             if (maxSize > MAX_ANIMATION_IMAGE_SIZE)
                 strideN = (int) ((double) maxSize / (double) MAX_ANIMATION_IMAGE_SIZE + 0.5);
 
+            h = (int) (dims[selectedIndex[0]] / strideN);
+            w = (int) (dims[selectedIndex[1]] / strideN);
+            numberOfImages = (int) dims[selectedIndex[2]];
+
+            range = (dataRange == null) ? null : dataRange.clone();
+            invalidValues = (dataset.getFilteredImageValues() == null) ? null
+                    : new ArrayList<>(dataset.getFilteredImageValues());
+            paletteData = createPaletteData((imagePalette == null) ? Tools.createGrayPalette() : imagePalette);
+
+            int depth = Math.max(2, ViewProperties.getFrameCacheSize());
+            readQueue = new ArrayBlockingQueue<>(depth);
+            imageQueue = new ArrayBlockingQueue<>(depth);
+
+            if ((long) w * h * numberOfImages <= MAX_CACHED_FRAME_BYTES)
+                cachedFrames = new ImageData[numberOfImages];
+
+            // read the frames with a second object of the dataset, so that
+            // the selection of the displayed image is never changed
+            try {
+                reader = (ScalarDS) Utils.copyDataset(dataset);
+                setAnimationSelection(reader, dataset, strideN);
+                isPipelined = FramePrefetcher.isSupported(dataset);
+            }
+            catch (Exception ex) {
+                log.debug("Animation: cannot create a second dataset object: ", ex);
+                reader = null;
+            }
+
+            if (!isPipelined)
+                loadAllFrames(dataset, strideN);
+        }
+
+        /*
+         * Selects every strideN-th row and column of a single frame of a dataset.
+         */
+        private void setAnimationSelection(ScalarDS dset, ScalarDS from, int strideN) {
+            int rank = dset.getRank();
+            long[] dims = dset.getDims();
+            long[] start = dset.getStartDims();
+            long[] selected = dset.getSelectedDims();
+            long[] stride = dset.getStride();
+            int[] selectedIndex = dset.getSelectedIndex();
+
+            if (from != dset) {
+                System.arraycopy(from.getStartDims(), 0, start, 0, rank);
+                System.arraycopy(from.getSelectedDims(), 0, selected, 0, rank);
+                System.arraycopy(from.getStride(), 0, stride, 0, rank);
+                System.arraycopy(from.getSelectedIndex(), 0, selectedIndex, 0, selectedIndex.length);
+            }
+
             start[selectedIndex[0]] = 0;
             start[selectedIndex[1]] = 0;
             start[selectedIndex[2]] = 0;
@@ -3550,36 +3807,36 @@ public class DefaultImageView implements ImageView
             stride[selectedIndex[0]] = strideN;
             stride[selectedIndex[1]] = strideN;
             stride[selectedIndex[2]] = 1;
+        }
 
-            Object data3d = null;
-            byte[] byteData = null;
-            int h = (int) selected[selectedIndex[0]];
-            int w = (int) selected[selectedIndex[1]];
-            int size = w * h;
+        /*
+         * Reads and converts all frames up front, for files which cannot be
+         * read by a background thread.
+         */
+        private void loadAllFrames(ScalarDS dataset, int strideN) {
+            ScalarDS dset = (reader != null) ? reader : dataset;
+            int rank = dset.getRank();
+            long[] start = dset.getStartDims();
+            long[] selected = dset.getSelectedDims();
+            long[] stride = dset.getStride();
 
-            numberOfImages = (int) dims[selectedIndex[2]];
-            frames = new org.eclipse.swt.graphics.Image[numberOfImages];
+            // back up the start and selected size
+            long[] tstart = new long[rank];
+            long[] tselected = new long[rank];
+            long[] tstride = new long[rank];
+            System.arraycopy(start, 0, tstart, 0, rank);
+            System.arraycopy(selected, 0, tselected, 0, rank);
+            System.arraycopy(stride, 0, tstride, 0, rank);
+
+            if (dset == dataset)
+                setAnimationSelection(dset, dataset, strideN);
 
-            BufferedImage frameImage;
+            cachedFrames = new ImageData[numberOfImages];
             try {
                 for (int i = 0; i < numberOfImages; i++) {
-                    start[selectedIndex[2]] = i;
-
-                    dataset.clearData();
-                    try {
-                        data3d = dataset.read();
-                    }
-                    catch (Exception err) {
-                        continue;
-                    }
-
-                    byteData = new byte[size];
-
-                    byteData = Tools.getBytes(data3d, dataRange, w, h, false, dataset.getFilteredImageValues(),
-                            true, byteData);
-
-                    frameImage = (BufferedImage) createIndexedImage(byteData, imagePalette, w, h);
-                    frames[i] = convertBufferedImageToSWTImage(frameImage);
+                    Object data3d = readFrame(dset, i);
+                    if (data3d != null)
+                        cachedFrames[i] = convertFrame(data3d);
                 }
             }
             finally {
@@ -3590,6 +3847,162 @@ public class DefaultImageView implements ImageView
             }
         }
 
+        private Object readFrame(ScalarDS dset, int index) {
+            dset.getStartDims()[dset.getSelectedIndex()[2]] = index;
+            dset.clearData();
+
+            try {
+                return dset.read();
+            }
+            catch (Exception ex) {
+                log.debug("Animation: frame {} read failure: ", index, ex);
+            }
+            catch (OutOfMemoryError err) {
+                log.debug("Animation: frame {} out of memory", index);
+            }
+
+            return null;
+        }
+
+        private ImageData convertFrame(Object data3d) {
+            byte[] byteData = Tools.getBytes(data3d, range, w, h, false, invalidValues, true, null);
+            if (byteData == null)
+                return null;
+
+            return new ImageData(w, h, 8, paletteData, 1, byteData);
+        }
+
+        private PaletteData createPaletteData(byte[][] palette) {
+            RGB[] rgbs = new RGB[palette[0].length];
+            for (int i = 0; i < rgbs.length; i++)
+                rgbs[i] = new RGB(palette[0][i] & 0xFF, palette[1][i] & 0xFF, palette[2][i] & 0xFF);
+
+            return new PaletteData(rgbs);
+        }
+
+        /*
+         * The first stage of the pipeline: reads the frames in a loop.
+         */
+        private void readFrames() {
+            int index = 0;
+
+            try {
+                while (isRunning) {
+                    Frame frame = new Frame(index);
+                    ImageData[] frames = cachedFrames;
+                    if ((frames == null) || (frames[index] == null))
+                        frame.data = readFrame(reader, index);
+
+                    readQueue.put(frame);
+
+                    if (++index >= numberOfImages)
+                        index = 0;
+                }
+            }
+            catch (InterruptedException ex) {
+                log.trace("Animation: read stage stopped");
+            }
+        }
+
+        /*
+         * The second stage of the pipeline: converts the frames to image data.
+         */
+        private void convertFrames() {
+            try {
+                while (isRunning) {
+                    Frame frame = readQueue.take();
+                    ImageData[] frames = cachedFrames;
+
+                    if ((frames != null) && (frames[frame.index] != null))
+                        frame.imageData = frames[frame.index];
+                    else if (frame.data != null) {
+                        frame.imageData = convertFrame(frame.data);
+                        frame.data = null;
+                        if (frames != null)
+                            frames[frame.index] = frame.imageData;
+                    }
+
+                    imageQueue.put(frame);
+                }
+            }
+            catch (InterruptedException ex) {
+                log.trace("Animation: convert stage stopped");
+            }
+        }
+
+        private void startPipeline() {
+            if (!isPipelined)
+                return;
+
+            isRunning = true;
+
+            readThread = new Thread(this::readFrames, "Animation read " + dataset.getName());
+            readThread.setDaemon(true);
+            readThread.start();
+
+            convertThread = new Thread(this::convertFrames, "Animation convert " + dataset.getName());
+            convertThread.setDaemon(true);
+            convertThread.start();
+        }
+
+        /*
+         * Stops the pipeline threads and waits for them to finish, so that
+         * neither of them still reads a frame or fills the frame cache once
+         * the animation is torn down.
+         */
+        private void stopPipeline() {
+            isRunning = false;
+
+            if (readThread != null)
+                readThread.interrupt();
+            if (convertThread != null)
+                convertThread.interrupt();
+
+            joinThread(readThread);
+            joinThread(convertThread);
+
+            readThread = null;
+            convertThread = null;
+            readQueue.clear();
+            imageQueue.clear();
+        }
+
+        private void joinThread(Thread thread) {
+            if (thread == null)
+                return;
+
+            try {
+                thread.join(STOP_TIMEOUT_MS);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+
+            // a read of the file cannot be interrupted; the thread ends when it returns
+            if (thread.isAlive())
+                log.debug("Animation: {} did not stop within {} ms", thread.getName(), STOP_TIMEOUT_MS);
+        }
+
+        /*
+         * Returns the next frame which is ready to be shown, or null if the
+         * pipeline has not produced it yet.
+         */
+        private Frame pollFrame() {
+            if (isPipelined)
+                return imageQueue.poll();
+
+            ImageData[] frames = cachedFrames;
+            if (frames == null)
+                return null;
+
+            Frame frame = new Frame(currentFrame);
+            frame.imageData = frames[currentFrame];
+            if (++currentFrame >= numberOfImages)
+                currentFrame = 0;
+
+            return frame;
+        }
+
         public void open() {
             Shell parent = getParent();
             shell = new Shell(parent, SWT.SHELL_TRIM | SWT.APPLICATION_MODAL);
@@ -3605,13 +4018,13 @@ public class DefaultImageView implements ImageView
                 public void paintControl(PaintEvent e) {
                     GC gc = e.gc;
 
-                    if (frames == null)
+                    if ((currentImage == null) || currentImage.isDisposed())
                         return;
 
                     org.eclipse.swt.graphics.Rectangle canvasBounds = canvas.getBounds();
-                    int x = ((canvasBounds.width / 2) - (frames[currentFrame].getBounds().width / 2));
-                    int y = ((canvasBounds.height / 2) - (frames[currentFrame].getBounds().height / 2));
-                    gc.drawImage(frames[currentFrame], x, y);
+                    int x = ((canvasBounds.width / 2) - (currentImage.getBounds().width / 2));
+                    int y = ((canvasBounds.height / 2) - (currentImage.getBounds().height / 2));
+                    gc.drawImage(currentImage, x, y);
 
                     gc.dispose();
                 }
@@ -3620,14 +4033,24 @@ public class DefaultImageView implements ImageView
             canvas.addDisposeListener(new DisposeListener() {
                 @Override
                 public void widgetDisposed(DisposeEvent arg0) {
-                    /* Make sure to dispose of all generated images */
-                    for (int i = 0; i < frames.length; i++) {
-                        if (frames[i] != null && !frames[i].isDisposed())
-                            frames[i].dispose();
-                    }
+                    stopPipeline();
+
+                    /* Make sure to dispose of the generated image */
+                    if ((currentImage != null) && !currentImage.isDisposed())
+                        currentImage.dispose();
+                    currentImage = null;
+                    cachedFrames = null;
+
+                    log.debug("Animation: {} frames shown, {} frames dropped, {} stalls", framesShown, framesDropped,
+                            framesStalled);
                 }
             });
 
+            statusLabel = new Label(shell, SWT.LEFT);
+            statusLabel.setFont(curFont);
+            statusLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+            statusLabel.setText("Target " + (1000 / sleepTime) + " frames/second");
+
             Button closeButton = new Button(shell, SWT.PUSH);
             closeButton.setFont(curFont);
             closeButton.setText("&Close");
@@ -3641,7 +4064,7 @@ public class DefaultImageView implements ImageView
 
             shell.pack();
 
-            shell.setSize(MAX_ANIMATION_IMAGE_SIZE, MAX_ANIMATION_IMAGE_SIZE);
+            shell.setSize(MAX_ANIMATION_IMAGE_SIZE, MAX_ANIMATION_IMAGE_SIZE + 50);
 
             org.eclipse.swt.graphics.Rectangle parentBounds = parent.getBounds();
             Point shellSize = shell.getSize();
@@ -3650,6 +4073,8 @@ public class DefaultImageView implements ImageView
 
             shell.open();
 
+            startPipeline();
+
             Runnable runnable = new AnimationThread();
 
             /**
@@ -3657,6 +4082,8 @@ public class DefaultImageView implements ImageView
              *
              * @see java.lang.Thread
              */
+            nextFrameTime = System.nanoTime() + sleepTime * 1000000L;
+            statusTime = System.nanoTime();
             Display.getDefault().timerExec(sleepTime, runnable);
 
             Display openDisplay = parent.getDisplay();
@@ -3666,21 +4093,62 @@ public class DefaultImageView implements ImageView
             }
 
             openDisplay.timerExec(-1, runnable);
+            stopPipeline();
         }
 
         private class AnimationThread implements Runnable
         {
             @Override
             public void run() {
-                if ((frames == null) || (canvas == null))
+                if ((canvas == null) || canvas.isDisposed())
                     return;
 
-                if (++currentFrame >= numberOfImages)
-                    currentFrame = 0;
+                final long period = sleepTime * 1000000L;
+                long now = System.nanoTime();
+
+                // If the display thread fell behind, skip the frames which are
+                // overdue so that the animation keeps its frame rate
+                long missed = (now - nextFrameTime) / period;
+                for (long i = 0; i < missed; i++) {
+                    if (pollFrame() != null)
+                        framesDropped++;
+                    nextFrameTime += period;
+                }
 
-                canvas.redraw();
+                // A frame which is not ready yet is a stall: the current image
+                // stays up and no frame is skipped. A frame which cannot be
+                // read or converted is dropped.
+                Frame frame = pollFrame();
+                if (frame == null) {
+                    framesStalled++;
+                }
+                else if (frame.imageData == null) {
+                    framesDropped++;
+                }
+                else {
+                    org.eclipse.swt.graphics.Image img = new org.eclipse.swt.graphics.Image(display, frame.imageData);
+                    if ((currentImage != null) && !currentImage.isDisposed())
+                        currentImage.dispose();
+                    currentImage = img;
+                    shownFrame = frame.index;
+                    framesShown++;
+                    framesSinceStatus++;
+
+                    canvas.redraw();
+                }
+
+                if (now - statusTime >= 1000000000L) {
+                    double fps = framesSinceStatus * 1.0e9 / (now - statusTime);
+                    statusLabel.setText("Frame " + (shownFrame + indexBase) + " of " + numberOfImages + "   "
+                            + String.format("%.1f", fps) + " of " + (1000 / sleepTime) + " frames/second   "
+                            + framesDropped + " dropped   " + framesStalled + " stalls");
+                    statusTime = now;
+                    framesSinceStatus = 0;
+                }
 
-                Display.getCurrent().timerExec(sleepTime, this);
+                nextFrameTime += period;
+                int delay = (int) Math.max(1, (nextFrameTime - System.nanoTime()) / 1000000L);
+                Display.getCurrent().timerExec(delay, this);
             }
         }
     }
@@ -3993,15 +4461,24 @@ public class DefaultImageView implements ImageView
         private String bLabel = "Brightness";
         private String cLabel = "Contrast";
 
-        ImageProducer imageProducer;
+        /** the time in milliseconds a slider must rest before the auto gain is previewed */
+        private static final int AUTO_GAIN_PREVIEW_DELAY = 150;
+
+        BufferedImage sourceImage;
         double[] autoGainBias = {0, 0};
         int bLevel = 0;
         int cLevel = 0;
 
-        public ContrastSlider(Shell parent, int style, ImageProducer producer) {
+        /** applies the levels of the sliders with the auto gain, once they rest */
+        private final Runnable autoGainPreview = () -> {
+            if ((shell != null) && !shell.isDisposed())
+                applyBrightContrast(brightSlider.getSelection() - 100, cntrastSlider.getSelection() - 100);
+        };
+
+        public ContrastSlider(Shell parent, int style, Image source) {
             super(parent, style);
 
-            imageProducer = producer;
+            sourceImage = Tools.toBufferedImage(source);
         }
 
         public void open() {
@@ -4058,6 +4535,7 @@ public class DefaultImageView implements ImageView
                 public void widgetSelected(SelectionEvent e) {
                     int value = ((Scale) e.widget).getSelection();
                     brightField.setText(String.valueOf(value - 100));
+                    previewBrightContrast();
                 }
             });
 
@@ -4101,6 +4579,7 @@ public class DefaultImageView implements ImageView
                 public void widgetSelected(SelectionEvent e) {
                     int value = ((Scale) e.widget).getSelection();
                     contrastField.setText(String.valueOf(value - 100));
+                    previewBrightContrast();
                 }
             });
 
@@ -4174,7 +4653,24 @@ public class DefaultImageView implements ImageView
             }
         }
 
+        /**
+         * Shows the levels of the sliders while they are dragged. Brightness
+         * and contrast are a table lookup per pixel and are applied at once.
+         * The auto gain converts the raw data again, so it is applied when a
+         * slider has rested for AUTO_GAIN_PREVIEW_DELAY; each move restarts
+         * the timer.
+         */
+        private void previewBrightContrast() {
+            if (doAutoGainContrast && gainBias != null)
+                shell.getDisplay().timerExec(AUTO_GAIN_PREVIEW_DELAY, autoGainPreview);
+            else
+                applyBrightContrast(brightSlider.getSelection() - 100, cntrastSlider.getSelection() - 100);
+        }
+
         private void applyBrightContrast(int blevel, int clevel) {
+            // a pending preview would override the levels applied here
+            shell.getDisplay().timerExec(-1, autoGainPreview);
+
             // separate autogain and simple contrast process
             if (doAutoGainContrast && gainBias!= null) {
                 autoGainBias[0] = gainBias[0]*(1+(clevel)/100.0);
@@ -4182,8 +4678,7 @@ public class DefaultImageView implements ImageView
                 applyAutoGain(autoGainBias, null);
             }
             else {
-                ImageFilter filter = new BrightnessFilter(blevel, clevel);
-                image = Tools.toBufferedImage(toolkit.createImage(new FilteredImageSource(imageProducer, filter)));
+                image = new BrightnessFilter(blevel, clevel).filter(sourceImage);
                 imageComponent.setImage(image);
                 zoomTo(zoomFactor);
             }
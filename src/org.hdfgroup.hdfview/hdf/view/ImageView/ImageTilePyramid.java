@@ -0,0 +1,444 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.ImageView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+import hdf.object.Dataset;
+import hdf.object.FileFormat;
+import hdf.object.ScalarDS;
+import hdf.object.Utils;
+import hdf.view.Tools;
+
+/**
+ * ImageTilePyramid renders the image plane of a very large dataset from
+ * square tiles which are read from file on demand at several resolutions.
+ *
+ * Level 0 is the full resolution; level n selects every 2<sup>n</sup>-th row
+ * and column of the plane. A tile holds TILE_SIZE x TILE_SIZE pixels of its
+ * level, so a tile of a coarse level covers a large area of the image with a
+ * small, strided read. A view asks for the tiles of the level which matches
+ * its zoom and only for the tiles which are visible.
+ *
+ * Tiles are identified by (level, x, y) and kept as SWT images in a least
+ * recently used cache. For HDF5 files the tiles are read by a background
+ * thread from a private copy of the dataset and the view is repainted when a
+ * tile arrives; for other files they are read when requested. All methods
+ * must be called on the display thread.
+ */
+class ImageTilePyramid
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ImageTilePyramid.class);
+
+    /** The width and height in pixels of a tile. */
+    static final int TILE_SIZE = 256;
+
+    /** The maximum number of tile images kept, 16 MB of 8-bit indexed pixels. */
+    private static final int MAX_TILES = 256;
+
+    /** The position of a tile in the pyramid. */
+    private static final class TileKey {
+        private final int  level;
+        private final long x;
+        private final long y;
+
+        TileKey(int level, long x, long y) {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TileKey))
+                return false;
+
+            TileKey other = (TileKey) obj;
+            return (level == other.level) && (x == other.x) && (y == other.y);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) ((level * 31 + x) * 31 + y);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + level + "," + x + "," + y + ")";
+        }
+    }
+
+    private final Display display;
+
+    private final ScalarDS dataset;
+
+    /** the size of the image plane at full resolution */
+    private final long width;
+    private final long height;
+
+    /** the coarsest level, which is shown by the overview image */
+    private final int maxLevel;
+
+    /** called when a tile has been loaded */
+    private final Runnable repaint;
+
+    /** the background thread which reads the tiles, or null to read them when requested */
+    private final ExecutorService executor;
+
+    /** the copy of the dataset the tiles are read from */
+    private ScalarDS reader = null;
+
+    /** the mapping of data values to colors */
+    private double[] range = null;
+    private byte[][] palette = null;
+    private PaletteData paletteData = null;
+    private boolean convertByteData = false;
+
+    /** the loaded tiles, in least recently used order */
+    private final Map<TileKey, Image> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+    /** the tiles being read */
+    private final Map<TileKey, Future<?>> pending = new HashMap<>();
+
+    /** the tiles which could not be read */
+    private final Set<TileKey> failed = new HashSet<>();
+
+    /** incremented whenever the loaded tiles become invalid */
+    private long generation = 0;
+
+    /**
+     * Creates a tile pyramid for the image plane of a dataset.
+     *
+     * @param display
+     *            the display the tile images are created on.
+     * @param dataset
+     *            the dataset shown in the image view.
+     * @param width
+     *            the width of the image plane at full resolution.
+     * @param height
+     *            the height of the image plane at full resolution.
+     * @param maxLevel
+     *            the coarsest level, at which the whole image is shown by the
+     *            overview image of the view.
+     * @param repaint
+     *            called on the display thread when a tile has been loaded.
+     */
+    ImageTilePyramid(Display display, ScalarDS dataset, long width, long height, int maxLevel, Runnable repaint) {
+        this.display = display;
+        this.dataset = dataset;
+        this.width = width;
+        this.height = height;
+        this.maxLevel = maxLevel;
+        this.repaint = repaint;
+
+        // only the HDF5 library serializes calls from several threads
+        if (isHDF5(dataset)) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "Tiles " + dataset.getName());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        else
+            executor = null;
+    }
+
+    private static boolean isHDF5(Dataset dset) {
+        FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+
+        return (h5format != null) && (dset.getFileFormat() != null) && dset.getFileFormat().isThisType(h5format);
+    }
+
+    /**
+     * Sets how data values are mapped to colors. The loaded tiles are dropped
+     * if the mapping has changed.
+     *
+     * @param newRange
+     *            the data range mapped to the 256 colors of the palette.
+     * @param newPalette
+     *            the palette.
+     * @param convertByte
+     *            true if byte data is scaled to the data range.
+     */
+    void setColorMapping(double[] newRange, byte[][] newPalette, boolean convertByte) {
+        if ((newRange == null) || (newPalette == null))
+            return;
+
+        if (Arrays.equals(range, newRange) && (palette == newPalette) && (convertByteData == convertByte))
+            return;
+
+        log.trace("setColorMapping(): range={}", newRange);
+        clear();
+
+        range = newRange.clone();
+        palette = newPalette;
+        convertByteData = convertByte;
+
+        RGB[] rgbs = new RGB[palette[0].length];
+        for (int i = 0; i < rgbs.length; i++)
+            rgbs[i] = new RGB(palette[0][i] & 0xFF, palette[1][i] & 0xFF, palette[2][i] & 0xFF);
+        paletteData = new PaletteData(rgbs);
+    }
+
+    /**
+     * @return the coarsest level, which is shown by the overview image.
+     */
+    int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Returns the coarsest level which still has at least one pixel for every
+     * screen pixel.
+     *
+     * @param scale
+     *            the number of screen pixels per pixel of the full resolution
+     *            image.
+     *
+     * @return the level to draw at the given scale.
+     */
+    int getLevel(double scale) {
+        int level = 0;
+        while ((level < maxLevel) && (scale * (2L << level) <= 1.0))
+            level++;
+
+        return level;
+    }
+
+    /**
+     * @param level
+     *            the level.
+     *
+     * @return the number of full resolution pixels covered by a tile in each
+     *         direction at the given level.
+     */
+    long getTileSpan(int level) {
+        return (long) TILE_SIZE << level;
+    }
+
+    /**
+     * @return the width of the image plane at full resolution.
+     */
+    long getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the image plane at full resolution.
+     */
+    long getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the image of a tile. If the tile is not loaded, it is requested
+     * and null is returned, unless the tiles are read synchronously.
+     *
+     * @param level
+     *            the level of the tile.
+     * @param x
+     *            the column of the tile at its level.
+     * @param y
+     *            the row of the tile at its level.
+     *
+     * @return the image of the tile, or null if it is not loaded yet.
+     */
+    Image getTile(int level, long x, long y) {
+        if (paletteData == null)
+            return null;
+
+        TileKey key = new TileKey(level, x, y);
+        Image tile = tiles.get(key);
+        if ((tile != null) || failed.contains(key))
+            return tile;
+
+        if (pending.containsKey(key))
+            return null;
+
+        final long[] start = dataset.getStartDims().clone();
+        final int[] selectedIndex = dataset.getSelectedIndex().clone();
+        final double[] tileRange = range.clone();
+        final PaletteData tilePalette = paletteData;
+        final boolean tileConvertByte = convertByteData;
+        final long gen = generation;
+
+        if (executor == null) {
+            addTile(key, gen, loadTile(key, start, selectedIndex, tileRange, tilePalette, tileConvertByte));
+            return tiles.get(key);
+        }
+
+        pending.put(key, executor.submit(() -> {
+            final ImageData imageData = loadTile(key, start, selectedIndex, tileRange, tilePalette, tileConvertByte);
+            if (!display.isDisposed())
+                display.asyncExec(() -> addTile(key, gen, imageData));
+        }));
+
+        return null;
+    }
+
+    /**
+     * Cancels the requests for tiles outside the visible part of the image,
+     * e.g. tiles which were scrolled out of view, or tiles of another level
+     * after a zoom, before they were read.
+     *
+     * @param level
+     *            the level of the visible tiles.
+     * @param x0
+     *            the first visible column of tiles.
+     * @param y0
+     *            the first visible row of tiles.
+     * @param x1
+     *            the last visible column of tiles.
+     * @param y1
+     *            the last visible row of tiles.
+     */
+    void cancelStaleRequests(int level, long x0, long y0, long x1, long y1) {
+        Iterator<Map.Entry<TileKey, Future<?>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TileKey, Future<?>> entry = it.next();
+            TileKey key = entry.getKey();
+            boolean isVisible = (key.level == level) && (key.x >= x0) && (key.x <= x1) && (key.y >= y0)
+                    && (key.y <= y1);
+            if (!isVisible && entry.getValue().cancel(false))
+                it.remove();
+        }
+    }
+
+    /**
+     * Drops all tiles, e.g. when a different frame is shown.
+     */
+    void clear() {
+        generation++;
+
+        for (Future<?> future : pending.values())
+            future.cancel(false);
+        pending.clear();
+        failed.clear();
+
+        for (Image tile : tiles.values())
+            tile.dispose();
+        tiles.clear();
+    }
+
+    /**
+     * Drops all tiles and stops the background thread.
+     */
+    void dispose() {
+        clear();
+
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    private void addTile(TileKey key, long gen, ImageData imageData) {
+        if (gen != generation)
+            return;
+
+        pending.remove(key);
+        if (imageData == null) {
+            failed.add(key);
+            return;
+        }
+
+        tiles.put(key, new Image(display, imageData));
+
+        List<Image> evicted = new ArrayList<>();
+        Iterator<Image> it = tiles.values().iterator();
+        while ((tiles.size() > MAX_TILES) && it.hasNext()) {
+            evicted.add(it.next());
+            it.remove();
+        }
+        for (Image tile : evicted)
+            tile.dispose();
+
+        if (executor != null)
+            repaint.run();
+    }
+
+    /**
+     * Reads a tile and converts it to image data. Called by the background
+     * thread, or by the display thread when tiles are read synchronously.
+     */
+    private ImageData loadTile(TileKey key, long[] baseStart, int[] selectedIndex, double[] tileRange,
+            PaletteData tilePalette, boolean tileConvertByte) {
+        try {
+            if (reader == null)
+                reader = (ScalarDS) Utils.copyDataset(dataset);
+
+            int rank = reader.getRank();
+            long[] start = reader.getStartDims();
+            long[] count = reader.getSelectedDims();
+            long[] stride = reader.getStride();
+
+            System.arraycopy(baseStart, 0, start, 0, rank);
+            System.arraycopy(selectedIndex, 0, reader.getSelectedIndex(), 0, selectedIndex.length);
+            Arrays.fill(count, 1);
+            Arrays.fill(stride, 1);
+
+            long step = 1L << key.level;
+            long x0 = key.x * getTileSpan(key.level);
+            long y0 = key.y * getTileSpan(key.level);
+            int tw = (int) Math.min(TILE_SIZE, (width - x0 + step - 1) / step);
+            int th = (int) Math.min(TILE_SIZE, (height - y0 + step - 1) / step);
+            if ((tw <= 0) || (th <= 0))
+                return null;
+
+            start[selectedIndex[0]] = y0;
+            start[selectedIndex[1]] = x0;
+            count[selectedIndex[0]] = th;
+            count[selectedIndex[1]] = tw;
+            stride[selectedIndex[0]] = step;
+            stride[selectedIndex[1]] = step;
+
+            reader.clearData();
+            Object raw = reader.read();
+            if (reader.getDatatype().isUnsigned())
+                raw = Dataset.convertFromUnsignedC(raw, null);
+
+            byte[] bytes = Tools.getBytes(raw, tileRange, tw, th, false, dataset.getFilteredImageValues(),
+                    tileConvertByte, null, null);
+            if (bytes == null)
+                return null;
+
+            log.trace("loadTile(): tile {} {}x{}", key, tw, th);
+            return new ImageData(tw, th, 8, tilePalette, 1, bytes);
+        }
+        catch (Exception ex) {
+            log.debug("loadTile(): tile {} read failure: ", key, ex);
+        }
+        catch (OutOfMemoryError err) {
+            log.debug("loadTile(): tile {} out of memory", key);
+        }
+
+        return null;
+    }
+}
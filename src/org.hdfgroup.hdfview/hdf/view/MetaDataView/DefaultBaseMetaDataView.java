@@ -579,7 +579,7 @@ public abstract class DefaultBaseMetaDataView implements MetaDataView {
             /* Retrieve the number of subgroups and datasets in the root group */
             HObject root = theFile.getRootObject();
             HObject theObj = null;
-            Iterator<HObject> it = ((Group) root).depthFirstMemberList().iterator();
+            Iterator<HObject> it = ((Group) root).depthFirstMemberList(false).iterator();
             int groupCount = 0;
             int datasetCount = 0;
 
@@ -784,13 +784,13 @@ public abstract class DefaultBaseMetaDataView implements MetaDataView {
         Attribute attr = null;
         if (isH5) {
             NewScalarAttributeDialog dialog = new NewScalarAttributeDialog(display.getShells()[0], obj,
-                    ((Group) root).breadthFirstMemberList());
+                    ((Group) root).breadthFirstMemberList(false));
             dialog.open();
             attr = dialog.getAttribute();
         }
         else {
             NewStringAttributeDialog dialog = new NewStringAttributeDialog(display.getShells()[0], obj,
-                    ((Group) root).breadthFirstMemberList());
+                    ((Group) root).breadthFirstMemberList(false));
             dialog.open();
             attr = dialog.getAttribute();
         }
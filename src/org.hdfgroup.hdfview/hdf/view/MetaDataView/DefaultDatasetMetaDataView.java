@@ -249,6 +249,25 @@ public class DefaultDatasetMetaDataView extends DefaultLinkMetaDataView implemen
         if (labelInfo == null) labelInfo = "UNKNOWN";
         label.setText(labelInfo);
 
+        /* Dataset chunk cache section */
+        if (d.getChunkSize() != null) {
+            label = new Label(datasetLayoutGroup, SWT.LEFT);
+            label.setFont(curFont);
+            label.setText("Chunk Cache: ");
+
+            long cacheBytes = d.getChunkCacheBytesInUse();
+            if (cacheBytes <= 0)
+                cacheBytes = Dataset.DEFAULT_CHUNK_CACHE_SIZE;
+            labelInfo = "SIZE: " + cacheBytes + ", " + d.getChunkCacheOverflows() + " of "
+                    + d.getChunkCacheReads() + " reads did not fit";
+
+            label = new Label(datasetLayoutGroup, SWT.RIGHT);
+            label.setFont(curFont);
+            label.setToolTipText("Size of the raw data chunk cache, and the number of reads whose chunks "
+                    + "were larger than the cache");
+            label.setText(labelInfo);
+        }
+
         /* Dataset fill value info section */
         label = new Label(datasetLayoutGroup, SWT.LEFT);
         label.setFont(curFont);
@@ -15,9 +15,6 @@
 package hdf.view.PaletteView;
 
 import java.awt.Image;
-import java.awt.Toolkit;
-import java.awt.image.IndexColorModel;
-import java.awt.image.MemoryImageSource;
 import java.util.ArrayList;
 import java.util.Vector;
 
@@ -393,30 +390,12 @@ public class DefaultPaletteView extends Dialog implements PaletteView
             palette[2][i] = (byte) paletteData[2][i];
         }
 
-        IndexColorModel colorModel = new IndexColorModel(
-                8,   // bits - the number of bits each pixel occupies
-                256, // size - the size of the color component arrays
-                palette[0],  // r - the array of red color components
-                palette[1],  // g - the array of green color components
-                palette[2]); // b - the array of blue color components
-
+        // the image bytes are indices into the palette, so the image is
+        // recolored with a lookup per pixel, without converting the data again
         long w = dataset.getWidth();
         long h = dataset.getHeight();
-        MemoryImageSource memoryImageSource = null;
-
-        try {
-            memoryImageSource = (MemoryImageSource) originalImage.getSource();
-        }
-        catch (Exception err) {
-            memoryImageSource = null;
-        }
-
-        if (memoryImageSource == null)
-            memoryImageSource = new MemoryImageSource((int) w, (int) h, colorModel, imageView.getImageByteData(), 0, (int) w);
-        else
-            memoryImageSource.newPixels(imageView.getImageByteData(), colorModel, 0, (int) w);
 
-        currentImage = Tools.toBufferedImage(Toolkit.getDefaultToolkit().createImage(memoryImageSource));
+        currentImage = Tools.createIndexedImage(null, imageView.getImageByteData(), palette, w, h);
     }
 
     /** The canvas that paints the data lines. */
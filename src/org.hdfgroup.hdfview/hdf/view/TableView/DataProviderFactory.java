@@ -16,14 +16,24 @@ package hdf.view.TableView;
 import java.lang.reflect.Array;
 import java.math.BigInteger;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
 
+import hdf.object.Attribute;
 import hdf.object.CompoundDataFormat;
 import hdf.object.DataFormat;
+import hdf.object.Dataset;
 import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.ScalarDS;
 import hdf.object.Utils;
 import hdf.object.h5.H5ReferenceType;
 import hdf.view.Tools;
@@ -75,6 +85,73 @@ public class DataProviderFactory
         return dataProvider;
     }
 
+    /**
+     * Returns true if the data of a data object can be shown by a
+     * PagedDataProvider, i.e. read from the file block by block as it is
+     * scrolled into view.
+     *
+     * Only datasets of integer or floating-point type, shown untransposed with
+     * the rows of the table in the slower changing dimension, are paged.
+     *
+     * @param dataObject
+     *        the data object
+     * @param dataTransposed
+     *        if the data should be transposed
+     *
+     * @return true if a PagedDataProvider can be used for the data object.
+     */
+    public static boolean isPageable(final DataFormat dataObject, final boolean dataTransposed) {
+        if (!(dataObject instanceof ScalarDS) || (dataObject instanceof Attribute) || dataTransposed)
+            return false;
+
+        Datatype dtype = dataObject.getDatatype();
+        if ((dtype == null) || !(dtype.isInteger() || dtype.isFloat()))
+            return false;
+
+        int[] selectedIndex = dataObject.getSelectedIndex();
+
+        return (dataObject.getRank() == 1) || (selectedIndex[0] < selectedIndex[1]);
+    }
+
+    /**
+     * Get a Data Display Provider which reads the data of a dataset from the
+     * file in blocks of rows and columns as they are scrolled into view,
+     * instead of using a data buffer with the whole selection.
+     *
+     * @param dataObject
+     *        the data object, see {@link #isPageable(DataFormat, boolean)}
+     * @param maxBlocks
+     *        the maximum number of blocks kept in memory
+     *
+     * @return the provider instance
+     *
+     * @throws Exception if the first block cannot be read
+     */
+    public static PagedDataProvider getPagedDataProvider(final DataFormat dataObject, final int maxBlocks) throws Exception {
+        if (!isPageable(dataObject, false)) {
+            log.debug("getPagedDataProvider(DataFormat): data object cannot be paged");
+            return null;
+        }
+
+        dataFormatReference = dataObject;
+
+        /*
+         * Read the blocks with a second object of the dataset, whose data buffer is
+         * never loaded, so that read() always returns a new array for each block.
+         */
+        Dataset dset = (Dataset) dataObject;
+        Dataset reader = dset;
+        try {
+            reader = Utils.copyDataset(dset);
+        }
+        catch (Exception ex) {
+            log.debug("getPagedDataProvider(): reading with the displayed dataset: ", ex);
+            dset.clearData();
+        }
+
+        return new PagedDataProvider(dset, reader, maxBlocks);
+    }
+
     private static final HDFDataProvider getDataProvider(final Datatype dtype, final Object dataBuf, final boolean dataTransposed) throws Exception {
         HDFDataProvider dataProvider = null;
 
@@ -213,26 +290,30 @@ public class DataProviderFactory
          * @return physical location in 1D notation
          */
         public int physicalLocationToBufIndex(int rowIndex, int columnIndex) {
-            long index = rowIndex * colCount + columnIndex;
-
-            if (rank > 1) {
-                log.trace("physicalLocationToBufIndex({}, {}): rank > 1; adjusting for multi-dimensional dataset", rowIndex, columnIndex);
-
-                if (isDataTransposed && isNaturalOrder)
-                    index = columnIndex * rowCount + rowIndex;
-                else if (!isDataTransposed && !isNaturalOrder)
-                    // Reshape Data
-                    index = rowIndex * colCount + columnIndex;
-                else if (isDataTransposed && !isNaturalOrder)
-                    // Transpose Data
-                    index = columnIndex * rowCount + rowIndex;
-                else
-                    index = rowIndex * colCount + columnIndex;
-            }
+            int index = bufIndex(rowIndex, columnIndex);
 
             log.trace("physicalLocationToBufIndex({}, {}, {}): finish", rowIndex, columnIndex, index);
 
-            return (int) index;
+            return index;
+        }
+
+        /**
+         * Translates a set of physical table coordinates to an index into the
+         * data buffer without logging, for the per-cell paths of the providers.
+         *
+         * @param rowIndex
+         *        the row
+         * @param columnIndex
+         *        the column
+         *
+         * @return physical location in 1D notation
+         */
+        protected final int bufIndex(int rowIndex, int columnIndex) {
+            // the data is laid out column by column when it is transposed
+            if ((rank > 1) && isDataTransposed)
+                return (int) (columnIndex * rowCount + rowIndex);
+
+            return (int) (rowIndex * colCount + columnIndex);
         }
 
         @Override
@@ -513,6 +594,383 @@ public class DataProviderFactory
         }
     }
 
+    /**
+     * A DataProvider which reads the data of a dataset from the file in blocks
+     * of BLOCK_ROWS rows and BLOCK_COLS columns of the current selection as
+     * they are requested by the table. The most recently used blocks are kept
+     * in memory, so scrolling through a table of any size uses a bounded amount
+     * of memory.
+     *
+     * Each block is shown by its own data provider of the dataset's type. The
+     * provider is read-only; values cannot be changed in a paged table.
+     *
+     * For HDF5 files, the block next to the one shown in the direction the
+     * table is scrolled is read ahead by a background thread, so that a block
+     * is usually in memory by the time it scrolls into view.
+     */
+    public static class PagedDataProvider extends HDFDataProvider
+    {
+        private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PagedDataProvider.class);
+
+        /** the number of rows in a block */
+        public static final int BLOCK_ROWS = 256;
+
+        /** the number of columns in a block */
+        public static final int BLOCK_COLS = 256;
+
+        /** the displayed dataset, whose selection is paged */
+        private final Dataset dataset;
+
+        /** the dataset object which reads the blocks */
+        private final Dataset reader;
+
+        private final Datatype dtype;
+
+        private final int maxBlocks;
+
+        /** the blocks read from the file, in least recently used order */
+        private final Map<Long, HDFDataProvider> blocks;
+
+        private long colBlockCount;
+
+        /** the key and provider of the block used last */
+        private long lastKey = -1;
+        private HDFDataProvider lastBlock = null;
+
+        /** the block row and column used last, from which the scroll direction is found */
+        private long lastBlockRow = 0;
+        private long lastBlockCol = 0;
+
+        /** the background thread which reads blocks ahead, or null if blocks are only read when needed */
+        private final ExecutorService executor;
+
+        /** the blocks being read ahead, in the order they were requested */
+        private final Map<Long, Future<Object>> pending = new LinkedHashMap<>();
+
+        private long readCount = 0;
+
+        private long prefetchCount = 0;
+
+        PagedDataProvider(final Dataset dataset, final Dataset reader, final int maxBlocks) throws Exception {
+            super(dataset.getDatatype(), readBlock(new BlockSelection(dataset), reader, 0, 0, BLOCK_ROWS, BLOCK_COLS), false);
+
+            this.dataset = dataset;
+            this.reader = reader;
+            this.dtype = dataset.getDatatype();
+            this.maxBlocks = Math.max(1, maxBlocks);
+            this.blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+            colBlockCount = (colCount + BLOCK_COLS - 1) / BLOCK_COLS;
+
+            // the block read by the constructor
+            addBlock(0, createBlock(dataBuf, 0, 0));
+
+            // only the HDF5 library serializes calls from several threads, and
+            // the reader must not be the displayed dataset, whose selection
+            // the table may change at any time
+            FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+            if ((reader != dataset) && (h5format != null) && (dataset.getFileFormat() != null)
+                    && dataset.getFileFormat().isThisType(h5format)) {
+                executor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "Blocks " + dataset.getName());
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            else
+                executor = null;
+        }
+
+        @Override
+        public Object getDataValue(int columnIndex, int rowIndex) {
+            HDFDataProvider block = getBlock(rowIndex, columnIndex);
+            if (block == null)
+                theValue = DataFactoryUtils.errStr;
+            else
+                theValue = block.getDataValue(columnIndex % BLOCK_COLS, rowIndex % BLOCK_ROWS);
+
+            return theValue;
+        }
+
+        /**
+         * Returns a value as it is stored in the data buffer of its block, e.g.
+         * an Integer for an unsigned short, without any conversion for display.
+         *
+         * @param columnIndex
+         *        the column
+         * @param rowIndex
+         *        the row
+         *
+         * @return the value, or null if its block could not be read.
+         */
+        public Object getBufferValue(int columnIndex, int rowIndex) {
+            HDFDataProvider block = getBlock(rowIndex, columnIndex);
+            if (block == null)
+                return null;
+
+            return Array.get(block.dataBuf, block.physicalLocationToBufIndex(rowIndex % BLOCK_ROWS, columnIndex % BLOCK_COLS));
+        }
+
+        @Override
+        public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+            log.debug("setDataValue({}, {}): paged data cannot be changed", rowIndex, columnIndex);
+        }
+
+        /**
+         * Returns the data buffer of the first block, which has the same type as
+         * the data buffer of the whole selection.
+         *
+         * @return the data of the first block.
+         */
+        public Object getSampleData() {
+            return dataBuf;
+        }
+
+        /**
+         * @return the number of blocks read from the file.
+         */
+        public long getReadCount() {
+            return readCount;
+        }
+
+        /**
+         * @return the number of blocks read from the file ahead of their use.
+         */
+        public long getPrefetchCount() {
+            return prefetchCount;
+        }
+
+        /**
+         * Stops reading blocks ahead. Called when the table is closed.
+         */
+        public void dispose() {
+            cancelPending();
+
+            if (executor != null)
+                executor.shutdownNow();
+        }
+
+        /**
+         * Drops all blocks, e.g. after the selection of the dataset has
+         * changed to another frame or the data in the file has changed.
+         */
+        public void invalidate() {
+            log.trace("invalidate(): dropping {} blocks", blocks.size());
+
+            cancelPending();
+            blocks.clear();
+            lastKey = -1;
+            lastBlock = null;
+
+            if (rank > 1) {
+                rowCount = dataset.getHeight();
+                colCount = dataset.getWidth();
+            }
+            else {
+                rowCount = (int) dataset.getSelectedDims()[0];
+                colCount = 1;
+            }
+
+            colBlockCount = (colCount + BLOCK_COLS - 1) / BLOCK_COLS;
+        }
+
+        /**
+         * Returns the provider of the block which contains a cell, reading the
+         * block from the file if it is not in memory.
+         */
+        private HDFDataProvider getBlock(int rowIndex, int columnIndex) {
+            long blockRow = rowIndex / BLOCK_ROWS;
+            long blockCol = columnIndex / BLOCK_COLS;
+            long key = blockRow * colBlockCount + blockCol;
+
+            if (key == lastKey)
+                return lastBlock;
+
+            HDFDataProvider block = blocks.get(key);
+            if (block == null) {
+                long row0 = blockRow * BLOCK_ROWS;
+                long col0 = blockCol * BLOCK_COLS;
+
+                try {
+                    Object buf = takePrefetched(key);
+                    if (buf == null)
+                        buf = readBlock(new BlockSelection(dataset), reader, row0, col0, BLOCK_ROWS, BLOCK_COLS);
+                    block = createBlock(buf, row0, col0);
+                }
+                catch (Exception ex) {
+                    log.debug("getBlock({}, {}): failure: ", blockRow, blockCol, ex);
+                    return null;
+                }
+
+                addBlock(key, block);
+            }
+
+            prefetch(Long.signum(blockRow - lastBlockRow), Long.signum(blockCol - lastBlockCol), blockRow, blockCol);
+
+            lastKey = key;
+            lastBlock = block;
+            lastBlockRow = blockRow;
+            lastBlockCol = blockCol;
+
+            return block;
+        }
+
+        /**
+         * Starts reading the block next to the given block in the direction
+         * the table was scrolled in, unless it is in memory or being read.
+         * Requests for blocks which are no longer next are cancelled.
+         */
+        private void prefetch(long dRow, long dCol, long blockRow, long blockCol) {
+            if ((executor == null) || ((dRow == 0) && (dCol == 0)))
+                return;
+
+            long nextRow = blockRow + dRow;
+            long nextCol = blockCol + dCol;
+            if ((nextRow < 0) || (nextRow * BLOCK_ROWS >= rowCount) || (nextCol < 0) || (nextCol >= colBlockCount))
+                return;
+
+            long key = nextRow * colBlockCount + nextCol;
+            if (blocks.containsKey(key) || pending.containsKey(key))
+                return;
+
+            Iterator<Future<Object>> it = pending.values().iterator();
+            while (it.hasNext()) {
+                it.next().cancel(false);
+                it.remove();
+            }
+
+            // the selection of the displayed dataset is copied on this thread
+            final BlockSelection selection = new BlockSelection(dataset);
+            final long row0 = nextRow * BLOCK_ROWS;
+            final long col0 = nextCol * BLOCK_COLS;
+
+            log.trace("prefetch(): block row={} col={}", nextRow, nextCol);
+            pending.put(key, executor.submit(() -> readBlock(selection, reader, row0, col0, BLOCK_ROWS, BLOCK_COLS)));
+        }
+
+        /**
+         * Returns the buffer of a block which was read ahead, waiting for the
+         * read to finish if it is still running, or null if the block was not
+         * read ahead or could not be read.
+         */
+        private Object takePrefetched(long key) {
+            Future<Object> future = pending.remove(key);
+            if (future == null)
+                return null;
+
+            try {
+                Object buf = future.get();
+                prefetchCount++;
+                return buf;
+            }
+            catch (Exception ex) {
+                log.debug("takePrefetched(): block {} read ahead failure: ", key, ex);
+                return null;
+            }
+        }
+
+        private void cancelPending() {
+            for (Future<Object> future : pending.values())
+                future.cancel(false);
+            pending.clear();
+        }
+
+        private void addBlock(long key, HDFDataProvider block) {
+            readCount++;
+            blocks.put(key, block);
+
+            Iterator<Long> it = blocks.keySet().iterator();
+            while ((blocks.size() > maxBlocks) && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        /**
+         * Creates the data provider of the dataset's type for a block.
+         */
+        private HDFDataProvider createBlock(Object buf, long row0, long col0) throws Exception {
+            dataFormatReference = dataset;
+
+            HDFDataProvider block = getDataProvider(dtype, buf, false);
+            block.rowCount = Math.min(BLOCK_ROWS, rowCount - row0);
+            block.colCount = (rank > 1) ? Math.min(BLOCK_COLS, colCount - col0) : 1;
+
+            return block;
+        }
+
+        /** A copy of the selection of a dataset, from which blocks are read. */
+        private static final class BlockSelection
+        {
+            private final int    rank;
+            private final int[]  selectedIndex;
+            private final long[] start;
+            private final long[] selected;
+            private final long[] stride;
+
+            BlockSelection(Dataset dset) {
+                rank = dset.getRank();
+                selectedIndex = dset.getSelectedIndex().clone();
+                start = dset.getStartDims().clone();
+                selected = dset.getSelectedDims().clone();
+                stride = (dset.getStride() == null) ? null : dset.getStride().clone();
+            }
+        }
+
+        /**
+         * Reads a block of rows and columns of a selection of a dataset with
+         * the reader object of the dataset. The selection of the reader is
+         * restored afterwards. Reads by the table and by the background thread
+         * are serialized on the reader.
+         */
+        private static Object readBlock(BlockSelection sel, Dataset reader, long row0, long col0, long nRows,
+                long nCols) throws Exception {
+            int rank = sel.rank;
+            int[] selectedIndex = sel.selectedIndex;
+            long[] selected = sel.selected;
+
+            synchronized (reader) {
+                long[] start = reader.getStartDims();
+                long[] count = reader.getSelectedDims();
+                long[] stride = reader.getStride();
+                long[] startBackup = start.clone();
+                long[] countBackup = count.clone();
+                long[] strideBackup = (stride == null) ? null : stride.clone();
+
+                try {
+                    System.arraycopy(sel.start, 0, start, 0, rank);
+                    System.arraycopy(selected, 0, count, 0, rank);
+                    if ((stride != null) && (sel.stride != null))
+                        System.arraycopy(sel.stride, 0, stride, 0, rank);
+
+                    int d = selectedIndex[0];
+                    start[d] += row0 * ((stride == null) ? 1 : stride[d]);
+                    count[d] = Math.min(nRows, selected[d] - row0);
+
+                    if (rank > 1) {
+                        d = selectedIndex[1];
+                        start[d] += col0 * ((stride == null) ? 1 : stride[d]);
+                        count[d] = Math.min(nCols, selected[d] - col0);
+                    }
+
+                    log.trace("readBlock(): row0={} col0={} start={} count={}", row0, col0, start, count);
+
+                    Object buf = reader.read();
+                    if (reader.getDatatype().isUnsigned())
+                        buf = Dataset.convertFromUnsignedC(buf, null);
+
+                    return buf;
+                }
+                finally {
+                    System.arraycopy(startBackup, 0, start, 0, rank);
+                    System.arraycopy(countBackup, 0, count, 0, rank);
+                    if (strideBackup != null)
+                        System.arraycopy(strideBackup, 0, stride, 0, rank);
+                }
+            }
+        }
+    }
+
     /*
      * A DataProvider for Compound datatype datasets which is a composite of
      * DataProviders, one for each selected member of the Compound datatype.
@@ -1260,10 +1718,19 @@ public class DataProviderFactory
         }
     }
 
+    /*
+     * A DataProvider for integer and floating-point datatypes. Cell values are
+     * read from the primitive array of the data buffer directly instead of
+     * through java.lang.reflect.Array, and are boxed with valueOf(), which
+     * reuses the cached objects of small integers. Unsigned 8, 16 and 32-bit
+     * integers have been converted to the next larger type when the data was
+     * loaded; unsigned 64-bit integers are shown as BigInteger.
+     */
     private static class NumericalDataProvider extends HDFDataProvider
     {
         private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(NumericalDataProvider.class);
 
+        /** if the values are unsigned 64-bit integers */
         private final boolean isUINT64;
 
         private final long    typeSize;
@@ -1277,6 +1744,14 @@ public class DataProviderFactory
 
         @Override
         public Object getDataValue(int columnIndex, int rowIndex) {
+            if (!isUINT64) {
+                Object value = getPrimitiveValue(rowIndex, columnIndex);
+                if (value != null) {
+                    theValue = value;
+                    return theValue;
+                }
+            }
+
             super.getDataValue(columnIndex, rowIndex);
 
             try {
@@ -1310,6 +1785,37 @@ public class DataProviderFactory
 
             return theValue;
         }
+
+        /*
+         * Returns a cell value from the primitive array of the data buffer, or
+         * null if the buffer is not a primitive numerical array, e.g. after it
+         * was replaced by a buffer of another type.
+         */
+        private Object getPrimitiveValue(int rowIndex, int columnIndex) {
+            Object buf = dataBuf;
+
+            try {
+                int index = bufIndex(rowIndex, columnIndex);
+
+                if (buf instanceof int[])
+                    return Integer.valueOf(((int[]) buf)[index]);
+                else if (buf instanceof double[])
+                    return Double.valueOf(((double[]) buf)[index]);
+                else if (buf instanceof float[])
+                    return Float.valueOf(((float[]) buf)[index]);
+                else if (buf instanceof long[])
+                    return Long.valueOf(((long[]) buf)[index]);
+                else if (buf instanceof short[])
+                    return Short.valueOf(((short[]) buf)[index]);
+                else if (buf instanceof byte[])
+                    return Byte.valueOf(((byte[]) buf)[index]);
+            }
+            catch (Exception ex) {
+                return DataFactoryUtils.errStr;
+            }
+
+            return null;
+        }
     }
 
     private static class EnumDataProvider extends HDFDataProvider
@@ -20,10 +20,8 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.StringSelection;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -31,6 +29,8 @@ import java.io.PrintWriter;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -124,7 +124,12 @@ import hdf.hdf5lib.HDF5Constants;
 
 import hdf.object.CompoundDS;
 import hdf.object.DataFormat;
+import hdf.object.DataStatistics;
 import hdf.object.Dataset;
+import hdf.object.DatasetStatisticsTask;
+import hdf.object.DatasetTextExporter;
+import hdf.object.DatasetTextImporter;
+import hdf.object.DatasetTextTask;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
@@ -136,6 +141,7 @@ import hdf.object.h5.H5ReferenceType;
 
 import hdf.view.Chart;
 import hdf.view.DefaultFileFilter;
+import hdf.view.FramePrefetcher;
 import hdf.view.HDFView;
 import hdf.view.Tools;
 import hdf.view.ViewProperties;
@@ -143,7 +149,10 @@ import hdf.view.ViewProperties.BITMASK_OP;
 import hdf.view.DataView.DataViewManager;
 import hdf.view.TableView.DataDisplayConverterFactory.HDFDisplayConverter;
 import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
+import hdf.view.TableView.DataProviderFactory.PagedDataProvider;
 import hdf.view.TreeView.TreeView;
+import hdf.view.dialog.DatasetStatisticsDialog;
+import hdf.view.dialog.DatasetTextDialog;
 import hdf.view.dialog.InputDialog;
 import hdf.view.dialog.MathConversionDialog;
 import hdf.view.dialog.NewDatasetDialog;
@@ -213,6 +222,21 @@ public abstract class DefaultBaseTableView implements TableView
     private long                            curDataFrame = 0;
     private long                            maxDataFrame = 1;
 
+    /** Reads the frame next to the displayed one in the background */
+    private FramePrefetcher                 framePrefetcher = null;
+
+    /** the maximum number of blocks of a paged table kept in memory */
+    private static final int                PAGED_BLOCK_CACHE_SIZE = 64;
+
+    /** the number of values above which a table is exported to text straight from the file */
+    private static final long               STREAMED_EXPORT_SIZE = 1024L * 1024;
+
+    /**
+     * status if the data is read from file block by block as it is scrolled
+     * into view; dataValue then only holds the first block
+     */
+    protected boolean                       isPagedView = false;
+
     /** The index base used for display row and column numbers of data */
     protected int                           indexBase = 0;
 
@@ -328,6 +352,14 @@ public abstract class DefaultBaseTableView implements TableView
                     }
                 }
 
+                if (framePrefetcher != null) {
+                    framePrefetcher.dispose();
+                    framePrefetcher = null;
+                }
+
+                if (dataProvider instanceof PagedDataProvider)
+                    ((PagedDataProvider) dataProvider).dispose();
+
                 dataValue = null;
                 dataTable = null;
 
@@ -653,6 +685,12 @@ public abstract class DefaultBaseTableView implements TableView
         int width = 700 + (ViewProperties.getFontSize() - 12) * 15;
         int height = 500 + (ViewProperties.getFontSize() - 12) * 10;
         shell.setSize(width, height);
+
+        if ((rank > 2) && !isPagedView && (ViewProperties.getFrameCacheSize() > 0)
+                && FramePrefetcher.isSupported(dataObject)) {
+            framePrefetcher = new FramePrefetcher((Dataset) dataObject, ViewProperties.getFrameCacheSize());
+            framePrefetcher.prefetch(start[selectedIndex[2]] + 1);
+        }
     }
 
     /**
@@ -849,7 +887,7 @@ public abstract class DefaultBaseTableView implements TableView
                 if (root == null) return;
 
                 ArrayList<HObject> list = new ArrayList<>(((HObject) dataObject).getFileFormat().getNumberOfMembers() + 5);
-                Iterator<HObject> it = ((Group) root).depthFirstMemberList().iterator();
+                Iterator<HObject> it = ((Group) root).depthFirstMemberList(false).iterator();
 
                 while (it.hasNext())
                     list.add(it.next());
@@ -916,18 +954,20 @@ public abstract class DefaultBaseTableView implements TableView
                             return;
                         }
                     }
+                    else if ((theData == null) && isPagedView) {
+                        Tools.showError(theShell, "Statistics", "Please select the data for a table which is read while scrolling.");
+                        return;
+                    }
                     else if (theData == null) {
                         theData = dataValue;
                     }
 
-                    double[] minmax = new double[2];
-                    double[] stat = new double[2];
-
-                    Tools.findMinMax(theData, minmax, fillValue);
-                    if (Tools.computeStatistics(theData, stat, fillValue) > 0) {
-                        String stats = "Min                      = " + minmax[0] + "\nMax                      = "
-                                + minmax[1] + "\nMean                     = " + stat[0] + "\nStandard deviation = "
-                                + stat[1];
+                    // min, max, mean and standard deviation in one pass
+                    DataStatistics stat = DataStatistics.compute(theData, fillValue, null, 0);
+                    if ((stat != null) && (stat.getCount() > 0)) {
+                        String stats = "Min                      = " + stat.getMin() + "\nMax                      = "
+                                + stat.getMax() + "\nMean                     = " + stat.getMean() + "\nStandard deviation = "
+                                + stat.getStandardDeviation();
                         Tools.showInformation(theShell, "Statistics", stats);
                     }
 
@@ -940,6 +980,16 @@ public abstract class DefaultBaseTableView implements TableView
             }
         });
 
+        item = new MenuItem(tableMenu, SWT.PUSH);
+        item.setText("Show Statistics of Whole Dataset");
+        item.setEnabled(DatasetStatisticsTask.isSupported(dataObject));
+        item.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                new DatasetStatisticsDialog(theShell, (Dataset) dataObject).open();
+            }
+        });
+
         new MenuItem(tableMenu, SWT.SEPARATOR);
 
         item = new MenuItem(tableMenu, SWT.PUSH);
@@ -1033,7 +1083,7 @@ public abstract class DefaultBaseTableView implements TableView
 
         item = new MenuItem(importMenu, SWT.PUSH);
         item.setText("Text File");
-        item.setEnabled(!isReadOnly);
+        item.setEnabled(!isReadOnly || isStreamedImport());
         item.addSelectionListener(new SelectionAdapter() {
             @Override
             public void widgetSelected(SelectionEvent e) {
@@ -1064,6 +1114,15 @@ public abstract class DefaultBaseTableView implements TableView
                     return;
                 }
 
+                if (isPagedView) {
+                    if (!Tools.showConfirm(theShell, "Import Data From Text File",
+                            "Do you want to replace the selected values in the file?"))
+                        return;
+
+                    importTextDataStreamed(chosenFile);
+                    return;
+                }
+
                 if (!Tools.showConfirm(theShell, "Import Data From Text File", "Do you want to paste selected data?"))
                     return;
 
@@ -1105,6 +1164,16 @@ public abstract class DefaultBaseTableView implements TableView
         if (dataObject.getRank() > 2)
             dataObject.getSelectedDims()[dataObject.getSelectedIndex()[2]] = 1;
 
+        // Read a very large selection block by block while scrolling
+        if (isPagedData()) {
+            dataProvider = DataProviderFactory.getPagedDataProvider(dataObject, PAGED_BLOCK_CACHE_SIZE);
+            dataValue = ((PagedDataProvider) dataProvider).getSampleData();
+            isPagedView = true;
+            isReadOnly = true;
+            log.trace("loadData(): paged view");
+            return;
+        }
+
         dataValue = null;
         try {
             log.trace("loadData(): call getData()");
@@ -1117,6 +1186,23 @@ public abstract class DefaultBaseTableView implements TableView
         }
     }
 
+    /**
+     * Returns true if the selection of the data object is too large to be
+     * loaded at once and is read from file block by block while scrolling.
+     */
+    private boolean isPagedData() {
+        int pagedSize = ViewProperties.getPagedTableSize();
+        if ((pagedSize <= 0) || (bitmask != null) || isDisplayTypeChar || isStdRef || isRegRef || isObjRef)
+            return false;
+
+        long size = 1;
+        long[] selected = dataObject.getSelectedDims();
+        for (int i = 0; i < dataObject.getRank(); i++)
+            size *= selected[i];
+
+        return (size > pagedSize) && DataProviderFactory.isPageable(dataObject, isDataTransposed);
+    }
+
     /**
      * Create a data table for a data object.
      *
@@ -1508,6 +1594,9 @@ public abstract class DefaultBaseTableView implements TableView
             return;
         }
 
+        if (framePrefetcher != null)
+            framePrefetcher.invalidate();
+
         try {
             dataObject.write();
         }
@@ -1556,13 +1645,19 @@ public abstract class DefaultBaseTableView implements TableView
     public void refreshDataTable() {
         log.trace("refreshDataTable()");
 
-        shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
-        dataValue = dataObject.refreshData();
-        shell.setCursor(null);
-
         long[] dims = dataObject.getDims();
         log.trace("refreshDataTable() dims:{}", dims);
-        dataProvider.updateDataBuffer(dataValue);
+
+        if (isPagedView) {
+            ((PagedDataProvider) dataProvider).invalidate();
+        }
+        else {
+            shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
+            dataValue = dataObject.refreshData();
+            shell.setCursor(null);
+
+            dataProvider.updateDataBuffer(dataValue);
+        }
         ((RowHeaderDataProvider)rowHeaderDataProvider).updateRows(dataObject);
         log.trace("refreshDataTable(): rows={} : cols={}", dataProvider.getRowCount(), dataProvider.getColumnCount());
 
@@ -1661,15 +1756,27 @@ public abstract class DefaultBaseTableView implements TableView
             return;
         }
 
+        long prevFrame = start[selectedIndex[2]];
         start[selectedIndex[2]] = idx;
         curDataFrame = idx + indexBase;
         frameField.setText(String.valueOf(curDataFrame));
 
         dataObject.clearData();
 
+        // the blocks of the new frame are read as they are shown
+        if (isPagedView) {
+            ((PagedDataProvider) dataProvider).invalidate();
+            dataTable.doCommand(new VisualRefreshCommand());
+            return;
+        }
+
         shell.setCursor(display.getSystemCursor(SWT.CURSOR_WAIT));
 
         try {
+            // Use the frame if it has been read in the background already
+            if (framePrefetcher != null)
+                ((Dataset) dataObject).setLoadedData(framePrefetcher.take(idx));
+
             dataValue = dataObject.getData();
 
             /*
@@ -1695,6 +1802,10 @@ public abstract class DefaultBaseTableView implements TableView
         dataProvider.updateDataBuffer(dataValue);
 
         dataTable.doCommand(new VisualRefreshCommand());
+
+        // Read the next frame in the direction of travel while this one is shown
+        if ((framePrefetcher != null) && (dataValue != null))
+            framePrefetcher.prefetch((idx < prevFrame) ? idx - 1 : idx + 1);
     }
 
     /**
@@ -1867,8 +1978,6 @@ public abstract class DefaultBaseTableView implements TableView
                 return;
         }
 
-        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(chosenFile)));
-
         String delName = ViewProperties.getDataDelimiter();
         String delimiter = "";
 
@@ -1888,6 +1997,19 @@ public abstract class DefaultBaseTableView implements TableView
         else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SEMI_COLON))
             delimiter = ";" + delimiter;
 
+        if (isStreamedExport()) {
+            DatasetTextDialog exportDialog = new DatasetTextDialog(shell,
+                    new DatasetTextExporter((Dataset) dataObject, chosenFile, delimiter, false),
+                    "Export", "Writing to " + fname);
+            long rows = exportDialog.open();
+            if (rows >= 0)
+                viewer.showStatus("Data saved to: " + fname + " (" + rows + " rows, "
+                        + (long) exportDialog.getRowsPerSecond() + " rows/s)");
+            return;
+        }
+
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(chosenFile)));
+
         int cols = selectionLayer.getPreferredColumnCount();
         int rows = selectionLayer.getPreferredRowCount();
 
@@ -1906,6 +2028,85 @@ public abstract class DefaultBaseTableView implements TableView
         viewer.showStatus("Data saved to: " + fname);
     }
 
+    /**
+     * Returns true if the table is saved as text by reading the selection from
+     * the file block by block, instead of formatting each cell of the table.
+     * This is done for large selections of plain numbers whose values have
+     * not been changed, which are written exactly as the table shows them.
+     */
+    private boolean isStreamedExport() {
+        if (!DatasetTextTask.isSupported(dataObject) || !DataProviderFactory.isPageable(dataObject, isDataTransposed))
+            return false;
+
+        if (showAsHex || showAsBin || (numberFormat != normalFormat) || (bitmask != null)
+                || (isEnumConverted && dataObject.getDatatype().isEnum()))
+            return false;
+
+        if (isPagedView)
+            return true;
+
+        long size = 1;
+        long[] selected = dataObject.getSelectedDims();
+        for (int i = 0; i < dataObject.getRank(); i++)
+            size *= selected[i];
+
+        return (size > STREAMED_EXPORT_SIZE) && !dataProvider.getIsValueChanged();
+    }
+
+    /**
+     * Returns true if a text file is imported into the selection of a paged
+     * view, which does not hold the values, by writing the values to the file
+     * block by block.
+     */
+    private boolean isStreamedImport() {
+        return isPagedView && !((HObject) dataObject).getFileFormat().isReadOnly()
+                && DatasetTextTask.isSupported(dataObject);
+    }
+
+    /**
+     * Imports a text file into the selection of a paged view and shows the
+     * new values.
+     *
+     * @param chosenFile
+     *            the text file to import.
+     */
+    private void importTextDataStreamed(File chosenFile) {
+        String delName = ViewProperties.getDataDelimiter();
+        String delimiter = "";
+
+        if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_TAB))
+            delimiter = "\t";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SPACE))
+            delimiter = " ";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COMMA))
+            delimiter = ",";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COLON))
+            delimiter = ":";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SEMI_COLON))
+            delimiter = ";";
+
+        DatasetTextImporter importer;
+        try {
+            importer = new DatasetTextImporter((Dataset) dataObject, chosenFile, delimiter, false);
+        }
+        catch (Exception ex) {
+            log.debug("importTextDataStreamed(): ", ex);
+            Tools.showError(shell, "Import Data From Text File", ex.getMessage());
+            return;
+        }
+
+        DatasetTextDialog importDialog = new DatasetTextDialog(shell, importer, "Import",
+                "Reading from " + chosenFile.getAbsolutePath());
+        long rows = importDialog.open();
+
+        // the values in the file have changed even if the import failed
+        refreshDataTable();
+
+        if (rows >= 0)
+            viewer.showStatus("Data imported from: " + chosenFile.getAbsolutePath() + " (" + rows + " rows, "
+                    + (long) importDialog.getRowsPerSecond() + " rows/s)");
+    }
+
     /** Save data as text (from TextView). */
     // private void saveAsTextTextView() throws Exception {
     // FileDialog fChooser = new FileDialog(shell, SWT.SAVE);
@@ -2064,26 +2265,32 @@ public abstract class DefaultBaseTableView implements TableView
                 return;
         }
 
-        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(chosenFile))) {
-            if (dataObject instanceof ScalarDS) {
-                ((ScalarDS) dataObject).convertToUnsignedC();
-                Object data = dataObject.getData();
-                ByteOrder bo = ByteOrder.nativeOrder();
+        if (dataObject instanceof ScalarDS) {
+            ByteOrder bo = ByteOrder.nativeOrder();
 
-                if (binaryOrder == 1)
-                    bo = ByteOrder.nativeOrder();
-                else if (binaryOrder == 2)
-                    bo = ByteOrder.LITTLE_ENDIAN;
-                else if (binaryOrder == 3)
-                    bo = ByteOrder.BIG_ENDIAN;
+            if (binaryOrder == 1)
+                bo = ByteOrder.nativeOrder();
+            else if (binaryOrder == 2)
+                bo = ByteOrder.LITTLE_ENDIAN;
+            else if (binaryOrder == 3)
+                bo = ByteOrder.BIG_ENDIAN;
 
-                Tools.saveAsBinary(out, data, bo);
-
-                viewer.showStatus("Data saved to: " + fname);
+            if (isPagedView) {
+                // only the rows in view are loaded; stream the selection from the file
+                Tools.saveAsBinary((Dataset) dataObject, chosenFile, bo);
             }
-            else
-                viewer.showError("Data not saved - not a ScalarDS");
+            else {
+                try (FileChannel channel = FileChannel.open(chosenFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    ((ScalarDS) dataObject).convertToUnsignedC();
+                    Tools.saveAsBinary(channel, dataObject.getData(), bo);
+                }
+            }
+
+            viewer.showStatus("Data saved to: " + fname);
         }
+        else
+            viewer.showError("Data not saved - not a ScalarDS");
     }
 
     /**
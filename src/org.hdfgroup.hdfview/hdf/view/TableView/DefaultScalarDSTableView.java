@@ -76,6 +76,7 @@ import hdf.view.HDFView;
 import hdf.view.Tools;
 import hdf.view.ViewProperties;
 import hdf.view.DataView.DataViewManager;
+import hdf.view.TableView.DataProviderFactory.PagedDataProvider;
 import hdf.view.dialog.InputDialog;
 
 /**
@@ -145,6 +146,11 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
     protected void loadData(DataFormat dataObject) throws Exception {
         super.loadData(dataObject);
 
+        if (isPagedView) {
+            fillValue = dataObject.getFillValue();
+            return;
+        }
+
         try {
             if (Tools.applyBitmask(dataValue, bitmask, bitmaskOP)) {
                 isReadOnly = true;
@@ -643,7 +649,9 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
     protected NatTable createTable(Composite parent, DataFormat dataObject) {
         // Create body layer
         try {
-            dataProvider = DataProviderFactory.getDataProvider(dataObject, dataValue, isDataTransposed);
+            // a paged data provider is created when the data is loaded
+            if (!isPagedView)
+                dataProvider = DataProviderFactory.getDataProvider(dataObject, dataValue, isDataTransposed);
 
             log.trace("createTable(): rows={} : cols={}", dataProvider.getRowCount(), dataProvider.getColumnCount());
 
@@ -719,7 +727,7 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
         log.trace("getSelectedData() data size: {}", size);
 
         // the whole table is selected
-        if ((dataTable.getPreferredColumnCount() - 1 == selectedCols.length)
+        if (!isPagedView && (dataTable.getPreferredColumnCount() - 1 == selectedCols.length)
                 && (dataTable.getPreferredRowCount() - 1 == selectedRows.length))
             return dataValue;
 
@@ -771,6 +779,17 @@ public class DefaultScalarDSTableView extends DefaultBaseTableView implements Ta
         int idxDst = 0;
         log.trace("getSelectedData(): Rows.length={} Cols.length={}", selectedRows.length,
                 selectedCols.length);
+        // the selected values of a paged table are read from its blocks
+        if (isPagedView) {
+            PagedDataProvider pagedProvider = (PagedDataProvider) dataProvider;
+            for (int i = 0; i < selectedRows.length; i++) {
+                for (int j = 0; j < selectedCols.length; j++)
+                    Array.set(selectedData, idxDst++, pagedProvider.getBufferValue(selectedCols[j], selectedRows[i]));
+            }
+
+            return selectedData;
+        }
+
         for (int i = 0; i < selectedRows.length; i++) {
             for (int j = 0; j < selectedCols.length; j++) {
                 idxSrc = selectedRows[i] * w + selectedCols[j];
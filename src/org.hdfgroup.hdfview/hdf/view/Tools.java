@@ -19,10 +19,16 @@ import java.awt.Image;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
 import java.awt.image.MemoryImageSource;
 import java.awt.image.PixelGrabber;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -42,30 +48,37 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
-import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.DoubleBuffer;
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.nio.LongBuffer;
-import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 
+import hdf.object.BinaryIO;
+import hdf.object.DataStatistics;
+import hdf.object.Dataset;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
 import hdf.object.ScalarDS;
+import hdf.object.Utils;
 
 import hdf.view.ViewProperties.BITMASK_OP;
 
@@ -98,12 +111,12 @@ public final class Tools {
     /**  */
     public static final BigInteger MAX_UINT64      = new BigInteger("18446744073709551615");
 
-    private static final int       FLOAT_BUFFER_SIZE = 524288;
-    private static final int       INT_BUFFER_SIZE = 524288;
-    private static final int       SHORT_BUFFER_SIZE = 1048576;
-    private static final int       LONG_BUFFER_SIZE = 262144;
-    private static final int       DOUBLE_BUFFER_SIZE = 262144;
-    private static final int       BYTE_BUFFER_SIZE = 2097152;
+    /** the number of pixels converted to image bytes by one task */
+    private static final int       BAND_PIXELS = 1 << 18;
+    /** the width and height of the tiles in which transposed images are converted */
+    private static final int       TRANSPOSE_TILE = 64;
+    /** the number of pixels converted to SWT image data by one task */
+    private static final int       IMAGE_BAND_PIXELS = 1 << 18;
 
     /** Key for JPEG image file type. */
     public static final String     FILE_TYPE_JPEG  = "JPEG";
@@ -784,6 +797,214 @@ public final class Tools {
         return bimage;
     }
 
+    /**
+     * Converts a BufferedImage to SWT ImageData.
+     *
+     * The pixels are copied a scanline at a time, directly from the data
+     * buffer when its layout matches that of the ImageData, and the rows are
+     * converted in parallel bands for large images. Images with a
+     * DirectColorModel, an IndexColorModel or a 3-byte ComponentColorModel
+     * are supported.
+     *
+     * @param image
+     *            the BufferedImage to be converted.
+     *
+     * @return the image data, or null if the color model is not supported.
+     */
+    public static ImageData convertBufferedImageToImageData(final BufferedImage image) {
+        final ColorModel cm = image.getColorModel();
+        final WritableRaster raster = image.getRaster();
+        final int w = image.getWidth();
+        final int h = image.getHeight();
+        final ImageData imgData;
+        final RowConverter converter;
+
+        if (cm instanceof DirectColorModel) {
+            final DirectColorModel colorModel = (DirectColorModel) cm;
+            final PaletteData palette = new PaletteData(colorModel.getRedMask(), colorModel.getGreenMask(),
+                    colorModel.getBlueMask());
+            imgData = new ImageData(w, h, colorModel.getPixelSize(), palette);
+            if (colorModel.hasAlpha())
+                imgData.alphaData = new byte[w * h];
+
+            final int colorMask = colorModel.getRedMask() | colorModel.getGreenMask() | colorModel.getBlueMask();
+            final boolean isPacked = (raster.getDataBuffer() instanceof DataBufferInt)
+                    && (raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                    && ((imgData.depth == 24) || (imgData.depth == 32))
+                    && (!colorModel.hasAlpha() || ((colorModel.getAlphaMask() == 0xff000000) && !colorModel.isAlphaPremultiplied()));
+
+            if (isPacked) {
+                // the packed pixel already has the layout of the palette
+                final int[] src = ((DataBufferInt) raster.getDataBuffer()).getData();
+                final SinglePixelPackedSampleModel sm = (SinglePixelPackedSampleModel) raster.getSampleModel();
+                final int srcOffset = raster.getDataBuffer().getOffset();
+                final int bytesPerPixel = imgData.depth / 8;
+
+                converter = (y, rgbs) -> {
+                    int s = srcOffset + sm.getOffset(-raster.getSampleModelTranslateX(), y - raster.getSampleModelTranslateY());
+                    int d = y * imgData.bytesPerLine;
+                    int a = y * w;
+                    byte[] dst = imgData.data;
+                    for (int x = 0; x < w; x++) {
+                        int p = src[s + x];
+                        int pixel = p & colorMask;
+                        if (bytesPerPixel == 4)
+                            dst[d++] = (byte) (pixel >>> 24);
+                        dst[d++] = (byte) (pixel >>> 16);
+                        dst[d++] = (byte) (pixel >>> 8);
+                        dst[d++] = (byte) pixel;
+                        if (imgData.alphaData != null)
+                            imgData.alphaData[a + x] = (byte) (p >>> 24);
+                    }
+                };
+            }
+            else {
+                converter = (y, rgbs) -> {
+                    image.getRGB(0, y, w, 1, rgbs, 0, w);
+                    for (int x = 0; x < w; x++) {
+                        int rgb = rgbs[x];
+                        if (imgData.alphaData != null)
+                            imgData.alphaData[y * w + x] = (byte) (rgb >>> 24);
+                        rgbs[x] = toDirectPixel(palette, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                    }
+                    imgData.setPixels(0, y, w, rgbs, 0);
+                };
+            }
+        }
+        else if (cm instanceof IndexColorModel) {
+            IndexColorModel colorModel = (IndexColorModel) cm;
+            int size = colorModel.getMapSize();
+            byte[] reds = new byte[size];
+            byte[] greens = new byte[size];
+            byte[] blues = new byte[size];
+            colorModel.getReds(reds);
+            colorModel.getGreens(greens);
+            colorModel.getBlues(blues);
+            RGB[] rgbs = new RGB[size];
+            for (int i = 0; i < rgbs.length; i++) {
+                rgbs[i] = new RGB(reds[i] & 0xFF, greens[i] & 0xFF, blues[i] & 0xFF);
+            }
+            PaletteData palette = new PaletteData(rgbs);
+            imgData = new ImageData(w, h, colorModel.getPixelSize(), palette);
+            imgData.transparentPixel = colorModel.getTransparentPixel();
+
+            final boolean isBytes = (imgData.depth == 8) && (raster.getDataBuffer() instanceof DataBufferByte)
+                    && (raster.getSampleModel() instanceof PixelInterleavedSampleModel)
+                    && (((PixelInterleavedSampleModel) raster.getSampleModel()).getPixelStride() == 1);
+
+            if (isBytes) {
+                // one byte per pixel, which is the palette index
+                final byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+                final PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel) raster.getSampleModel();
+                final int srcOffset = raster.getDataBuffer().getOffset();
+
+                converter = (y, pixels) -> System.arraycopy(src, srcOffset + sm.getOffset(-raster.getSampleModelTranslateX(),
+                        y - raster.getSampleModelTranslateY()), imgData.data, y * imgData.bytesPerLine, w);
+            }
+            else {
+                converter = (y, pixels) -> {
+                    raster.getSamples(0, y, w, 1, 0, pixels);
+                    imgData.setPixels(0, y, w, pixels, 0);
+                };
+            }
+        }
+        else if (cm instanceof ComponentColorModel) {
+            ComponentColorModel colorModel = (ComponentColorModel) cm;
+            //ASSUMES: 3 BYTE BGR IMAGE TYPE
+            final PaletteData palette = new PaletteData(0x0000FF, 0x00FF00, 0xFF0000);
+            // gray images, with or without alpha, have fewer than three bands
+            // and are converted to 24-bit RGB
+            final boolean isGray = raster.getNumBands() < 3;
+            imgData = new ImageData(w, h, isGray ? 24 : colorModel.getPixelSize(), palette);
+            //This is valid because we are using a 3-byte Data model with no transparent pixels
+            imgData.transparentPixel = -1;
+
+            final boolean isBGR = (imgData.depth == 24) && (raster.getDataBuffer() instanceof DataBufferByte)
+                    && (raster.getSampleModel() instanceof PixelInterleavedSampleModel)
+                    && (((PixelInterleavedSampleModel) raster.getSampleModel()).getPixelStride() == 3)
+                    && Arrays.equals(((PixelInterleavedSampleModel) raster.getSampleModel()).getBandOffsets(),
+                            new int[] { 2, 1, 0 });
+
+            if (isBGR) {
+                // the bytes of each pixel are blue, green and red, as in the ImageData
+                final byte[] src = ((DataBufferByte) raster.getDataBuffer()).getData();
+                final PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel) raster.getSampleModel();
+
+                // the offset of a pixel is that of its red byte, which is the last one
+                final int srcOffset = raster.getDataBuffer().getOffset() - 2;
+
+                converter = (y, pixels) -> System.arraycopy(src, srcOffset + sm.getOffset(-raster.getSampleModelTranslateX(),
+                        y - raster.getSampleModelTranslateY()), imgData.data, y * imgData.bytesPerLine, w * 3);
+            }
+            else if (isGray) {
+                // getRGB scales the gray sample to eight bits and copies it to red, green and blue
+                converter = (y, rgbs) -> {
+                    image.getRGB(0, y, w, 1, rgbs, 0, w);
+                    for (int x = 0; x < w; x++) {
+                        int rgb = rgbs[x];
+                        rgbs[x] = toDirectPixel(palette, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                    }
+                    imgData.setPixels(0, y, w, rgbs, 0);
+                };
+            }
+            else {
+                final int nbands = raster.getNumBands();
+
+                converter = (y, pixels) -> {
+                    int[] samples = raster.getPixels(0, y, w, 1, (int[]) null);
+                    for (int x = 0; x < w; x++) {
+                        int i = x * nbands;
+                        pixels[x] = toDirectPixel(palette, samples[i], samples[i + 1], samples[i + 2]);
+                    }
+                    imgData.setPixels(0, y, w, pixels, 0);
+                };
+            }
+        }
+        else {
+            return null;
+        }
+
+        int bandRows = Math.max(1, IMAGE_BAND_PIXELS / Math.max(1, w));
+        int nbands = (h + bandRows - 1) / bandRows;
+
+        IntStream bands = IntStream.range(0, nbands);
+        if (nbands > 1)
+            bands = bands.parallel();
+
+        bands.forEach(band -> {
+            int[] rowBuffer = new int[w];
+            int y1 = Math.min(h, (band + 1) * bandRows);
+            for (int y = band * bandRows; y < y1; y++)
+                converter.convertRow(y, rowBuffer);
+        });
+
+        return imgData;
+    }
+
+    /** Converts a row of a BufferedImage into ImageData. */
+    @FunctionalInterface
+    private interface RowConverter {
+        /**
+         * @param y
+         *            the row to convert.
+         * @param rowBuffer
+         *            a scratch buffer of one int per pixel of the row.
+         */
+        void convertRow(int y, int[] rowBuffer);
+    }
+
+    /** Returns the pixel value of a color in a direct palette, as PaletteData.getPixel does. */
+    private static int toDirectPixel(PaletteData palette, int red, int green, int blue) {
+        int pixel = 0;
+        int shift = palette.redShift;
+        pixel |= ((shift < 0) ? red << -shift : red >>> shift) & palette.redMask;
+        shift = palette.greenShift;
+        pixel |= ((shift < 0) ? green << -shift : green >>> shift) & palette.greenMask;
+        shift = palette.blueShift;
+        pixel |= ((shift < 0) ? blue << -shift : blue >>> shift) & palette.blueMask;
+        return pixel;
+    }
+
     /**
      * Convert an array of raw data into array of a byte data.
      *
@@ -923,101 +1144,306 @@ public final class Tools {
             }
         }
         double ratio = (min == max) ? 1.00d : (double) (255.00 / (max - min));
-        long idxSrc = 0;
-        long idxDst = 0;
+
         switch (dname) {
             case 'S':
-                short[] s = (short[]) rawData;
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++) {
-                        idxSrc = idxDst = j * h + i;
-                        if (isTransposed)
-                            idxDst = i * w + j;
-                        byteData[(int)idxDst] = toByte(s[(int)idxSrc], ratio, min, max, fillValue, (int)idxSrc, list);
-                    }
-                }
+            case 'I':
+            case 'J':
+            case 'F':
+            case 'D':
+                convertToBytes(rawData, dname, byteData, w, h, isTransposed, min, max, ratio,
+                        new FilteredValues(fillValue), list);
                 break;
 
-            case 'I':
-                int[] ia = (int[]) rawData;
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++) {
-                        idxSrc = idxDst = (j * h + i);
-                        if (isTransposed)
-                            idxDst = i * w + j;
-                        byteData[(int)idxDst] = toByte(ia[(int)idxSrc], ratio, min, max, fillValue, (int)idxSrc, list);
-                    }
-                }
+            default:
+                byteData = null;
                 break;
+        } // (dname)
 
-            case 'J':
-                long[] l = (long[]) rawData;
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++) {
-                        idxSrc = idxDst = j * h + i;
-                        if (isTransposed)
-                            idxDst = i * w + j;
-                        byteData[(int)idxDst] = toByte(l[(int)idxSrc], ratio, min, max, fillValue, (int)idxSrc, list);
+        return byteData;
+    }
+
+    /**
+     * Converts the raw data into image bytes in bands of rows, which are
+     * processed in parallel for large images.
+     *
+     * The value at index j * h + i of the raw data is converted to the pixel at
+     * index i * w + j if the data is transposed, and to the pixel at the same
+     * index otherwise. Values out of [min, max], filtered values, NaN and
+     * infinite values become 0, and their indices are added to the list. A
+     * transposed image is converted in square tiles, so that neither the reads
+     * nor the writes stride through the whole array.
+     *
+     * Integer data whose data range [min, max] spans at most 65536 values,
+     * e.g. 8- and 16-bit images, is converted through a lookup table of the
+     * image byte of each value in the range, so that changing the data range
+     * or the filtered values costs a table lookup per pixel.
+     */
+    private static void convertToBytes(final Object rawData, final char dname, final byte[] byteData, long w, long h,
+            final boolean isTransposed, double min, double max, double ratio, FilteredValues filter,
+            List<Integer> list) {
+        final int width = (int) w;
+        final int height = (int) h;
+        final int npixels = width * height;
+        final ByteMapping mapping = new ByteMapping(min, max, ratio, filter);
+        mapping.createLookupTable(dname, npixels);
+
+        // rows of the output image per band, so that a band holds at least BAND_PIXELS pixels
+        final int bandRows = TRANSPOSE_TILE * Math.max(1, BAND_PIXELS / (TRANSPOSE_TILE * width));
+        final int nbands = isTransposed ? (height + bandRows - 1) / bandRows : (npixels + BAND_PIXELS - 1) / BAND_PIXELS;
+
+        final List<List<Integer>> bandInvalid = new ArrayList<>(Collections.nCopies(nbands, (List<Integer>) null));
+
+        IntStream bands = IntStream.range(0, nbands);
+        if (nbands > 1)
+            bands = bands.parallel();
+
+        bands.forEach(band -> {
+            List<Integer> invalid = (list == null) ? null : new ArrayList<>();
+
+            if (!isTransposed) {
+                int from = band * BAND_PIXELS;
+                int to = Math.min(npixels, from + BAND_PIXELS);
+                convertStrip(rawData, dname, from, 1, byteData, from, to - from, mapping, invalid);
+            }
+            else {
+                int rowFrom = band * bandRows;
+                int rowTo = Math.min(height, rowFrom + bandRows);
+                for (int i0 = rowFrom; i0 < rowTo; i0 += TRANSPOSE_TILE) {
+                    int i1 = Math.min(rowTo, i0 + TRANSPOSE_TILE);
+                    for (int j0 = 0; j0 < width; j0 += TRANSPOSE_TILE) {
+                        int n = Math.min(width, j0 + TRANSPOSE_TILE) - j0;
+                        for (int i = i0; i < i1; i++)
+                            convertStrip(rawData, dname, j0 * height + i, height, byteData, i * width + j0, n,
+                                    mapping, invalid);
                     }
                 }
-                break;
+            }
 
-            case 'F':
-                float[] f = (float[]) rawData;
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++) {
-                        idxSrc = idxDst = j * h + i;
-                        if (isTransposed)
-                            idxDst = i * w + j;
-                        byteData[(int)idxDst] = toByte(f[(int)idxSrc], ratio, min, max, fillValue, (int)idxSrc, list);
-                    }
+            bandInvalid.set(band, invalid);
+        });
+
+        if (list != null) {
+            for (List<Integer> invalid : bandInvalid)
+                list.addAll(invalid);
+        }
+    }
+
+    /**
+     * Converts n values of the raw data, starting at srcIdx and srcStride
+     * apart, into consecutive image bytes starting at dstIdx.
+     */
+    private static void convertStrip(Object rawData, char dname, int srcIdx, int srcStride, byte[] byteData, int dstIdx,
+            int n, ByteMapping mapping, List<Integer> list) {
+        final int[] lut = mapping.lut;
+        final int off = mapping.lutOffset;
+
+        switch (dname) {
+            case 'B': {
+                byte[] a = (byte[]) rawData;
+                if (lut != null) {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = fromTable(lookup(lut, a[srcIdx] - off), srcIdx, list);
+                }
+                else {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
                 }
                 break;
-
-            case 'D':
-                double[] d = (double[]) rawData;
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++) {
-                        idxSrc = idxDst = j * h + i;
-                        if (isTransposed)
-                            idxDst = i * w + j;
-                        byteData[(int)idxDst] = toByte(d[(int)idxSrc], ratio, min, max, fillValue, (int)idxSrc, list);
-                    }
+            }
+            case 'S': {
+                short[] a = (short[]) rawData;
+                if (lut != null) {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = fromTable(lookup(lut, a[srcIdx] - off), srcIdx, list);
+                }
+                else {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
                 }
                 break;
-
+            }
+            case 'I': {
+                int[] a = (int[]) rawData;
+                if (lut != null) {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = fromTable(lookup(lut, a[srcIdx] - off), srcIdx, list);
+                }
+                else {
+                    for (int k = 0; k < n; k++, srcIdx += srcStride)
+                        byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
+                }
+                break;
+            }
+            case 'J': {
+                long[] a = (long[]) rawData;
+                for (int k = 0; k < n; k++, srcIdx += srcStride)
+                    byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
+                break;
+            }
+            case 'F': {
+                float[] a = (float[]) rawData;
+                for (int k = 0; k < n; k++, srcIdx += srcStride)
+                    byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
+                break;
+            }
+            case 'D': {
+                double[] a = (double[]) rawData;
+                for (int k = 0; k < n; k++, srcIdx += srcStride)
+                    byteData[dstIdx + k] = toByte(a[srcIdx], mapping, srcIdx, list);
+                break;
+            }
             default:
-                byteData = null;
                 break;
-        } // (dname)
+        }
+    }
 
-        return byteData;
+    /** Returns the entry of the lookup table at an index, or -1 for an index out of the table. */
+    private static int lookup(int[] lut, int index) {
+        return ((index >= 0) && (index < lut.length)) ? lut[index] : -1;
     }
 
-    private static byte toByte(double in, double ratio, double min, double max, double[] fill, int idx,  List<Integer> list) {
-        byte out = 0;
+    private static byte toByte(double in, ByteMapping mapping, int idx, List<Integer> list) {
+        return fromTable(mapping.map(in), idx, list);
+    }
 
-        if (in < min || in > max || isFillValue(in, fill) || isNaNINF(in)) {
-            out = 0;
+    /** Returns an image byte of the lookup table, or 0 for an invalid value, whose index is added to the list. */
+    private static byte fromTable(int value, int idx, List<Integer> list) {
+        if (value < 0) {
             if (list != null)
                 list.add(idx);
+            return 0;
         }
-        else
-            out = (byte) ((in-min)*ratio);
 
-        return out;
+        return (byte) value;
     }
 
-    private static boolean isFillValue(double in, double[] fill) {
-        if (fill == null)
+    /**
+     * The mapping of raw values to image bytes, with an optional lookup table
+     * of the image byte of each integer value in [min, max].
+     */
+    private static final class ByteMapping {
+        /** the largest number of values in a lookup table */
+        private static final int LUT_MAX_SIZE = 1 << 16;
+
+        private final double         min;
+        private final double         max;
+        private final double         ratio;
+        private final FilteredValues filter;
+
+        /**
+         * the image byte of the raw values from lutOffset, or -1 for invalid
+         * values; values out of the table are out of [min, max]
+         */
+        int[] lut;
+        int   lutOffset;
+
+        ByteMapping(double min, double max, double ratio, FilteredValues filter) {
+            this.min = min;
+            this.max = max;
+            this.ratio = ratio;
+            this.filter = filter;
+        }
+
+        /** Returns the image byte of a raw value, from 0 to 255, or -1 if the value is invalid. */
+        int map(double in) {
+            if (in < min || in > max || filter.contains(in) || isNaNINF(in))
+                return -1;
+
+            return ((byte) ((in-min)*ratio)) & 0xff;
+        }
+
+        /**
+         * Builds the lookup table for 8-bit data, and for 16-bit or 32-bit
+         * integer data whose range [min, max] holds at most LUT_MAX_SIZE
+         * integers and no more than the number of pixels, e.g. unsigned
+         * 16-bit data converted to int.
+         *
+         * Only the values in [min, max] are in the table, since all others
+         * are invalid, so the raw data need not be scanned for its range. The
+         * table depends on the range and the filtered values, and costs at
+         * most one evaluation per value of the range.
+         */
+        void createLookupTable(char dname, int npixels) {
+            int nvalues = 0;
+
+            if (dname == 'B') {
+                lutOffset = Byte.MIN_VALUE;
+                nvalues = 256;
+            }
+            else if (((dname == 'S') || (dname == 'I')) && (Math.ceil(min) <= Math.floor(max))) {
+                double lo = Math.max(Math.ceil(min), (dname == 'S') ? Short.MIN_VALUE : Integer.MIN_VALUE);
+                double hi = Math.min(Math.floor(max), (dname == 'S') ? Short.MAX_VALUE : Integer.MAX_VALUE);
+                if ((lo <= hi) && (hi - lo < Math.min(LUT_MAX_SIZE, npixels))) {
+                    lutOffset = (int) lo;
+                    nvalues = (int) (hi - lo) + 1;
+                }
+            }
+
+            if (nvalues > 0) {
+                lut = new int[nvalues];
+                for (int k = 0; k < nvalues; k++)
+                    lut[k] = map(lutOffset + k);
+            }
+        }
+    }
+
+    /**
+     * A set of filtered image values with constant-time lookup. The values
+     * are kept in an open-addressing hash table of their bit patterns.
+     */
+    private static final class FilteredValues {
+        /** the bits of a NaN which Double.doubleToLongBits never returns */
+        private static final long EMPTY = 0x7ff0000000000001L;
+
+        private final long[] table;
+        private final int    mask;
+
+        FilteredValues(double[] values) {
+            if ((values == null) || (values.length == 0)) {
+                table = null;
+                mask = 0;
+                return;
+            }
+
+            int capacity = Integer.highestOneBit(values.length * 4 - 1) << 1;
+            table = new long[capacity];
+            mask = capacity - 1;
+            Arrays.fill(table, EMPTY);
+
+            for (double v : values) {
+                long bits = bits(v);
+                int slot = hash(bits) & mask;
+                while ((table[slot] != EMPTY) && (table[slot] != bits))
+                    slot = (slot + 1) & mask;
+                table[slot] = bits;
+            }
+        }
+
+        boolean contains(double v) {
+            if (table == null)
+                return false;
+
+            long bits = bits(v);
+            int slot = hash(bits) & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == bits)
+                    return true;
+                slot = (slot + 1) & mask;
+            }
+
             return false;
+        }
 
-        for (int i = 0; i < fill.length; i++) {
-            if (fill[i] == in)
-                return true;
+        /** -0.0 equals 0.0, as with == */
+        private static long bits(double v) {
+            return Double.doubleToLongBits((v == 0) ? 0.0 : v);
         }
 
-        return false;
+        private static int hash(long bits) {
+            long h = bits * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
     }
 
     private static byte[] convertByteData(byte[] rawData, double[] minmax, long w, long h, boolean isTransposed,
@@ -1050,12 +1476,8 @@ public final class Tools {
             // do not convert data, just transpose the data
             minmax[0] = 0;
             minmax[1] = 255;
-            if (isTransposed) {
-                for (long i = 0; i < h; i++) {
-                    for (long j = 0; j < w; j++)
-                        byteData[(int)(i * w + j)] = rawData[(int)(j * h + i)];
-                }
-            }
+            if (isTransposed)
+                transposeBytes(rawData, byteData, (int) w, (int) h);
             return byteData;
         }
 
@@ -1063,27 +1485,35 @@ public final class Tools {
         double min = minmax[0];
         double max = minmax[1];
         double ratio = (min == max) ? 1.00d : (double) (255.00 / (max - min));
-        long idxSrc = 0;
-        long idxDst = 0;
-        for (long i = 0; i < h; i++) {
-            for (long j = 0; j < w; j++) {
-                idxSrc = idxDst =j * h + i;
-                if (isTransposed)
-                    idxDst = i * w + j;
-
-                if (rawData[(int) idxSrc] > max || rawData[(int) idxSrc] < min) {
-                    byteData[(int)idxDst] = (byte) 0;
-                    if (list!=null)
-                        list.add((int)idxSrc);
-                }
-                else
-                    byteData[(int)idxDst] = (byte) ((rawData[(int)idxSrc] - min) * ratio);
-            }
-        }
+        convertToBytes(rawData, 'B', byteData, w, h, isTransposed, min, max, ratio, new FilteredValues(null), list);
 
         return byteData;
     }
 
+    /**
+     * Transposes a w x h byte image into an h x w image in square tiles, with
+     * bands of tiles processed in parallel for large images.
+     */
+    private static void transposeBytes(final byte[] rawData, final byte[] byteData, final int w, final int h) {
+        int nbands = (h + TRANSPOSE_TILE - 1) / TRANSPOSE_TILE;
+
+        IntStream bands = IntStream.range(0, nbands);
+        if ((long) w * h > BAND_PIXELS)
+            bands = bands.parallel();
+
+        bands.forEach(band -> {
+            int i0 = band * TRANSPOSE_TILE;
+            int i1 = Math.min(h, i0 + TRANSPOSE_TILE);
+            for (int j0 = 0; j0 < w; j0 += TRANSPOSE_TILE) {
+                int j1 = Math.min(w, j0 + TRANSPOSE_TILE);
+                for (int i = i0; i < i1; i++) {
+                    for (int j = j0; j < j1; j++)
+                        byteData[i * w + j] = rawData[j * h + i];
+                }
+            }
+        });
+    }
+
     /**
      * Create and initialize a new instance of the given class.
      *
@@ -1178,14 +1608,24 @@ public final class Tools {
         if ((data == null) || (params == null) || (Array.getLength(data) <= 0) || (params.length < 2))
             return -1;
 
-        retval = autoContrastComputeMinMax(data, minmax);
+        // mean, standard deviation, min and max in one parallel pass
+        DataStatistics stats = DataStatistics.compute(data, null, null, 0);
+        if (stats == null)
+            return -1;
 
-        // force the min_max method so we can look at the target grids data sets
-        if ((retval < 0) || (minmax[1] - minmax[0] < 10))
-            retval = findMinMax(data, minmax, null);
+        minmax[0] = stats.getMean() - 3.0 * stats.getStandardDeviation();
+        minmax[1] = stats.getMean() + 3.0 * stats.getStandardDeviation();
 
-        if (retval < 0)
-            return -1;
+        // force the min_max method so we can look at the target grids data sets
+        if (minmax[1] - minmax[0] < 10) {
+            if (stats.getCount() > 0) {
+                minmax[0] = stats.getMin();
+                minmax[1] = stats.getMax();
+            }
+            else {
+                minmax[0] = minmax[1] = Array.getDouble(data, 0);
+            }
+        }
 
         String cname = data.getClass().getName();
         char dname = cname.charAt(cname.lastIndexOf('[') + 1);
@@ -1259,38 +1699,101 @@ public final class Tools {
      */
     public static Object autoContrastApply(Object dataIN, Object dataOUT, double[] params, double[] minmax,
             boolean isUnsigned) {
-        int size = 0;
-        double min = -MAX_INT64;
-        double max = MAX_INT64;
+        // input and output array must be the same size
+        if ((dataIN != null) && (dataOUT != null) && (Array.getLength(dataIN) != Array.getLength(dataOUT)))
+            return null;
+
+        final Object out = autoContrastOutput(dataIN, dataOUT, params);
+        if (out == null)
+            return null;
+
+        final double gain = params[0];
+        final double bias = params[1];
+        final double min = (minmax == null) ? -MAX_INT64 : minmax[0];
+        final double max = (minmax == null) ? MAX_INT64 : minmax[1];
+
+        forEachBand(Array.getLength(dataIN),
+                (from, to) -> autoContrastApply(dataIN, out, gain, bias, min, max, isUnsigned, from, to));
+
+        return out;
+    }
+
+    /**
+     * Applies autocontrast parameters to image raw data and converts the
+     * result to image bytes in one parallel pass. Each band of the data is
+     * adjusted and converted while it is in the cache.
+     *
+     * The adjusted values are not negative, so they are converted to bytes as
+     * unsigned values by {@link #autoContrastConvertImageBuffer(Object, byte[], boolean)}.
+     *
+     * @param dataIN
+     *            the original data array of signed/unsigned integers
+     * @param dataOUT
+     *            the buffer for the adjusted data, which is reused if it has
+     *            the type and size of the original data; or null
+     * @param dst
+     *            the destination array of image bytes
+     * @param params
+     *            the auto gain parameter. params[0]=gain, params[1]=bias
+     * @param minmax
+     *            the data range. minmax[0]=min, minmax[1]=max
+     * @param isUnsigned
+     *            the flag to indicate if the data array is unsigned integer
+     *
+     * @return the buffer with the adjusted data; otherwise, returns null
+     */
+    public static Object autoContrastApplyToImageBuffer(Object dataIN, Object dataOUT, byte[] dst, double[] params,
+            double[] minmax, boolean isUnsigned) {
+        final Object out = autoContrastOutput(dataIN, dataOUT, params);
+        if ((out == null) || (dst == null) || (dst.length != Array.getLength(dataIN)))
+            return null;
+
+        final double gain = params[0];
+        final double bias = params[1];
+        final double min = (minmax == null) ? -MAX_INT64 : minmax[0];
+        final double max = (minmax == null) ? MAX_INT64 : minmax[1];
+
+        forEachBand(dst.length, (from, to) -> {
+            autoContrastApply(dataIN, out, gain, bias, min, max, isUnsigned, from, to);
+            autoContrastConvertImageBuffer(out, dst, true, from, to);
+        });
+
+        return out;
+    }
 
+    /**
+     * Returns the output array of the autocontrast of a data array: the given
+     * array if it has the type and size of the data, otherwise a new array;
+     * null if the data or the parameters are not valid.
+     */
+    private static Object autoContrastOutput(Object dataIN, Object dataOUT, double[] params) {
         if ((dataIN == null) || (params == null) || (params.length < 2))
             return null;
 
-        if (minmax != null) {
-            min = minmax[0];
-            max = minmax[1];
-        }
-        // input and output array must be the same size
-        size = Array.getLength(dataIN);
-        if ((dataOUT != null) && (size != Array.getLength(dataOUT)))
+        char dname = Utils.getJavaObjectRuntimeClass(dataIN);
+        if ((dname != 'B') && (dname != 'S') && (dname != 'I') && (dname != 'J'))
             return null;
 
-        double gain = params[0];
-        double bias = params[1];
+        int size = Array.getLength(dataIN);
+        if ((dataOUT == null) || (dataOUT.getClass() != dataIN.getClass()) || (size != Array.getLength(dataOUT)))
+            return Array.newInstance(dataIN.getClass().getComponentType(), size);
+
+        return dataOUT;
+    }
+
+    /** Applies autocontrast parameters to the values of a data array from index from to index to. */
+    private static void autoContrastApply(Object dataIN, Object dataOUT, double gain, double bias, double min,
+            double max, boolean isUnsigned, int from, int to) {
         double valueOut;
         double valueIn;
-        String cname = dataIN.getClass().getName();
-        char dname = cname.charAt(cname.lastIndexOf('[') + 1);
 
-        switch (dname) {
+        switch (Utils.getJavaObjectRuntimeClass(dataIN)) {
             case 'B':
                 byte[] bIn = (byte[]) dataIN;
-                if (dataOUT == null)
-                    dataOUT = new byte[size];
                 byte[] bOut = (byte[]) dataOUT;
                 byte bMax = (byte) MAX_INT8;
 
-                for (int i = 0; i < size; i++) {
+                for (int i = from; i < to; i++) {
                     valueIn = Math.max(bIn[i], min);
                     valueIn = Math.min(valueIn, max);
                     valueOut = (valueIn + bias) * gain;
@@ -1301,15 +1804,13 @@ public final class Tools {
                 break;
             case 'S':
                 short[] sIn = (short[]) dataIN;
-                if (dataOUT == null)
-                    dataOUT = new short[size];
                 short[] sOut = (short[]) dataOUT;
                 short sMax = (short) MAX_INT16;
 
                 if (isUnsigned)
                     sMax = (short) MAX_UINT8; // data was upgraded from unsigned byte
 
-                for (int i = 0; i < size; i++) {
+                for (int i = from; i < to; i++) {
                     valueIn = Math.max(sIn[i], min);
                     valueIn = Math.min(valueIn, max);
                     valueOut = (valueIn + bias) * gain;
@@ -1320,14 +1821,12 @@ public final class Tools {
                 break;
             case 'I':
                 int[] iIn = (int[]) dataIN;
-                if (dataOUT == null)
-                    dataOUT = new int[size];
                 int[] iOut = (int[]) dataOUT;
                 int iMax = (int) MAX_INT32;
                 if (isUnsigned)
                     iMax = (int) MAX_UINT16; // data was upgraded from unsigned short
 
-                for (int i = 0; i < size; i++) {
+                for (int i = from; i < to; i++) {
                     valueIn = Math.max(iIn[i], min);
                     valueIn = Math.min(valueIn, max);
                     valueOut = (valueIn + bias) * gain;
@@ -1338,14 +1837,12 @@ public final class Tools {
                 break;
             case 'J':
                 long[] lIn = (long[]) dataIN;
-                if (dataOUT == null)
-                    dataOUT = new long[size];
                 long[] lOut = (long[]) dataOUT;
                 long lMax = MAX_INT64;
                 if (isUnsigned)
                     lMax = MAX_UINT32; // data was upgraded from unsigned int
 
-                for (int i = 0; i < size; i++) {
+                for (int i = from; i < to; i++) {
                     valueIn = Math.max(lIn[i], min);
                     valueIn = Math.min(valueIn, max);
                     valueOut = (valueIn + bias) * gain;
@@ -1357,8 +1854,6 @@ public final class Tools {
             default:
                 break;
         } // (dname)
-
-        return dataOUT;
     }
 
     /**
@@ -1387,65 +1882,85 @@ public final class Tools {
      * @return non-negative if successful; otherwise, returns negative
      */
     public static int autoContrastConvertImageBuffer(Object src, byte[] dst, boolean isUnsigned) {
-        int retval = 0;
-
         if ((src == null) || (dst == null) || (dst.length != Array.getLength(src)))
             return -1;
 
-        int size = dst.length;
-        String cname = src.getClass().getName();
-        char dname = cname.charAt(cname.lastIndexOf('[') + 1);
-        switch (dname) {
+        char dname = Utils.getJavaObjectRuntimeClass(src);
+        if ((dname != 'B') && (dname != 'S') && (dname != 'I') && (dname != 'J'))
+            return -1;
+
+        forEachBand(dst.length, (from, to) -> autoContrastConvertImageBuffer(src, dst, isUnsigned, from, to));
+
+        return 0;
+    }
+
+    /** Converts the values of image raw data from index from to index to into bytes. */
+    private static void autoContrastConvertImageBuffer(Object src, byte[] dst, boolean isUnsigned, int from, int to) {
+        switch (Utils.getJavaObjectRuntimeClass(src)) {
             case 'B':
                 byte[] bSrc = (byte[]) src;
                 if (isUnsigned) {
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = bSrc[i];
                 }
                 else {
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((bSrc[i] & 0x7F) << 1);
                 }
                 break;
             case 'S':
                 short[] sSrc = (short[]) src;
                 if (isUnsigned) { // data was upgraded from unsigned byte
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) sSrc[i];
                 }
                 else {
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((sSrc[i] >> 7) & 0xFF);
                 }
                 break;
             case 'I':
                 int[] iSrc = (int[]) src;
                 if (isUnsigned) { // data was upgraded from unsigned short
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((iSrc[i] >> 8) & 0xFF);
                 }
                 else {
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((iSrc[i] >> 23) & 0xFF);
                 }
                 break;
             case 'J':
                 long[] lSrc = (long[]) src;
                 if (isUnsigned) { // data was upgraded from unsigned int
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((lSrc[i] >> 24) & 0xFF);
                 }
                 else {
-                    for (int i = 0; i < size; i++)
+                    for (int i = from; i < to; i++)
                         dst[i] = (byte) ((lSrc[i] >> 55) & 0xFF);
                 }
                 break;
             default:
-                retval = -1;
                 break;
         } // (dname)
+    }
 
-        return retval;
+    /** An operation on the elements of an array from index from to index to. */
+    @FunctionalInterface
+    private interface BandOperation {
+        void apply(int from, int to);
+    }
+
+    /** Applies an operation to bands of BAND_PIXELS elements, in parallel if there are several bands. */
+    private static void forEachBand(int size, BandOperation op) {
+        int nbands = (size + BAND_PIXELS - 1) / BAND_PIXELS;
+
+        IntStream bands = IntStream.range(0, nbands);
+        if (nbands > 1)
+            bands = bands.parallel();
+
+        bands.forEach(band -> op.apply(band * BAND_PIXELS, Math.min(size, (band + 1) * BAND_PIXELS)));
     }
 
     /**
@@ -1494,121 +2009,25 @@ public final class Tools {
      * @return non-negative if successful; otherwise, returns negative
      */
     public static int findMinMax(Object data, double[] minmax, Object fillValue) {
-        int retval = 1;
-
         if ((data == null) || (minmax == null) || (Array.getLength(data) <= 0) || (Array.getLength(minmax) < 2))
             return -1;
 
-        int n = Array.getLength(data);
-        double fill = 0.0;
-        boolean hasFillValue = (fillValue != null && fillValue.getClass().isArray());
-
-        String cname = data.getClass().getName();
-        char dname = cname.charAt(cname.lastIndexOf('[') + 1);
-        log.trace("findMinMax() cname={} : dname={}", cname, dname);
-
-        minmax[0] = Float.MAX_VALUE;
-        minmax[1] = -Float.MAX_VALUE;
-
-        switch (dname) {
-            case 'B':
-                byte[] b = (byte[]) data;
-                minmax[0] = minmax[1] = b[0];
-
-                if (hasFillValue)
-                    fill = ((byte[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && b[i] == fill)
-                        continue;
-                    if (minmax[0] > b[i])
-                        minmax[0] = b[i];
-                    if (minmax[1] < b[i])
-                        minmax[1] = b[i];
-                }
-                break;
-            case 'S':
-                short[] s = (short[]) data;
-                minmax[0] = minmax[1] = s[0];
-
-                if (hasFillValue)
-                    fill = ((short[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && s[i] == fill)
-                        continue;
-                    if (minmax[0] > s[i])
-                        minmax[0] = s[i];
-                    if (minmax[1] < s[i])
-                        minmax[1] = s[i];
-                }
-                break;
-            case 'I':
-                int[] ia = (int[]) data;
-                minmax[0] = minmax[1] = ia[0];
-
-                if (hasFillValue)
-                    fill = ((int[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && ia[i] == fill)
-                        continue;
-                    if (minmax[0] > ia[i])
-                        minmax[0] = ia[i];
-                    if (minmax[1] < ia[i])
-                        minmax[1] = ia[i];
-                }
-                break;
-            case 'J':
-                long[] l = (long[]) data;
-                minmax[0] = minmax[1] = l[0];
-
-                if (hasFillValue)
-                    fill = ((long[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && l[i] == fill)
-                        continue;
-                    if (minmax[0] > l[i])
-                        minmax[0] = l[i];
-                    if (minmax[1] < l[i])
-                        minmax[1] = l[i];
-                }
-                break;
-            case 'F':
-                float[] f = (float[]) data;
-                minmax[0] = minmax[1] = f[0];
-
-                if (hasFillValue)
-                    fill = ((float[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if ((hasFillValue && f[i] == fill) || isNaNINF(f[i]))
-                        continue;
-                    if (minmax[0] > f[i])
-                        minmax[0] = f[i];
-                    if (minmax[1] < f[i])
-                        minmax[1] = f[i];
-                }
+        DataStatistics stats = DataStatistics.compute(data, fillValue, null, 0);
+        if (stats == null) {
+            log.trace("findMinMax() unsupported type {}", data.getClass().getName());
+            return -1;
+        }
 
-                break;
-            case 'D':
-                double[] d = (double[]) data;
-                minmax[0] = minmax[1] = d[0];
-
-                if (hasFillValue)
-                    fill = ((double[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if ((hasFillValue && d[i] == fill) || isNaNINF(d[i]))
-                        continue;
-
-                    if (minmax[0] > d[i])
-                        minmax[0] = d[i];
-                    if (minmax[1] < d[i])
-                        minmax[1] = d[i];
-                }
-                break;
-            default:
-                retval = -1;
-                break;
-        } // (dname)
+        if (stats.getCount() > 0) {
+            minmax[0] = stats.getMin();
+            minmax[1] = stats.getMax();
+        }
+        else {
+            // only fill values, NaN or infinite values
+            minmax[0] = minmax[1] = Array.getDouble(data, 0);
+        }
 
-        return retval;
+        return 1;
     }
 
     /**
@@ -1624,31 +2043,18 @@ public final class Tools {
      * @return non-negative if successful; otherwise, returns negative
      */
     public static int findDataDist(Object data, int[] dataDist, double[] minmax) {
-        int retval = 0;
-        double delt = 1;
-
-        if ((data == null) || (minmax == null) || dataDist == null)
+        if ((data == null) || (minmax == null) || (dataDist == null) || (dataDist.length == 0))
             return -1;
 
-        int n = Array.getLength(data);
-
-        if (minmax[1] != minmax[0])
-            delt = (dataDist.length - 1) / (minmax[1] - minmax[0]);
-
-        for (int i = 0; i < dataDist.length; i++)
-            dataDist[i] = 0;
-
-        int idx;
-        double val;
-        for (int i = 0; i < n; i++) {
-            val = ((Number) Array.get(data, i)).doubleValue();
-            if (val>=minmax[0] && val <=minmax[1]) {
-                idx = (int) ((val - minmax[0]) * delt);
-                dataDist[idx]++;
-            } // don't count invalid values
+        DataStatistics stats = DataStatistics.compute(data, null, minmax, dataDist.length);
+        if ((stats == null) || (stats.getHistogram() == null)) {
+            log.trace("findDataDist() unsupported type {}", data.getClass().getName());
+            return -1;
         }
 
-        return retval;
+        System.arraycopy(stats.getHistogram(), 0, dataDist, 0, dataDist.length);
+
+        return 0;
     }
 
     /**
@@ -1665,150 +2071,26 @@ public final class Tools {
      * @return non-negative if successful; otherwise, returns negative
      */
     public static int computeStatistics(Object data, double[] avgstd, Object fillValue) {
-        int retval = 1;
-        double sum = 0;
-        double avg = 0.0;
-        double var = 0.0;
-        double diff = 0.0;
-        double fill = 0.0;
-
         if ((data == null) || (avgstd == null) || (Array.getLength(data) <= 0) || (Array.getLength(avgstd) < 2)) {
             return -1;
         }
 
-        int n = Array.getLength(data);
-        boolean hasFillValue = (fillValue != null && fillValue.getClass().isArray());
-
-        String cname = data.getClass().getName();
-        char dname = cname.charAt(cname.lastIndexOf('[') + 1);
-        log.trace("computeStatistics() cname={} : dname={}", cname, dname);
-
-        int npoints = 0;
-        switch (dname) {
-            case 'B':
-                byte[] b = (byte[]) data;
-                if (hasFillValue) fill = ((byte[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && b[i] == fill) continue;
-                    sum += b[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && b[i] == fill)
-                            continue;
-                        diff = b[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            case 'S':
-                short[] s = (short[]) data;
-                if (hasFillValue) fill = ((short[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && s[i] == fill) continue;
-                    sum += s[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && s[i] == fill)
-                            continue;
-                        diff = s[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            case 'I':
-                int[] ia = (int[]) data;
-                if (hasFillValue) fill = ((int[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && ia[i] == fill) continue;
-                    sum += ia[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && ia[i] == fill)
-                            continue;
-                        diff = ia[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            case 'J':
-                long[] l = (long[]) data;
-                if (hasFillValue) fill = ((long[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && l[i] == fill) continue;
-                    sum += l[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && l[i] == fill)
-                            continue;
-                        diff = l[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            case 'F':
-                float[] f = (float[]) data;
-                if (hasFillValue) fill = ((float[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && f[i] == fill) continue;
-                    sum += f[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && f[i] == fill)
-                            continue;
-                        diff = f[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            case 'D':
-                double[] d = (double[]) data;
-                if (hasFillValue) fill = ((double[]) fillValue)[0];
-                for (int i = 0; i < n; i++) {
-                    if (hasFillValue && d[i] == fill) continue;
-                    sum += d[i];
-                    npoints++;
-                }
-                if (npoints > 0) {
-                    avg = sum / npoints;
-                    for (int i = 0; i < n; i++) {
-                        if (hasFillValue && d[i] == fill)
-                            continue;
-                        diff = d[i] - avg;
-                        var += diff * diff;
-                    }
-                }
-                break;
-            default:
-                retval = -1;
-                break;
-        } // (dname)
+        DataStatistics stats = DataStatistics.compute(data, fillValue, null, 0);
+        if (stats == null) {
+            log.trace("computeStatistics() unsupported type {}", data.getClass().getName());
+            return -1;
+        }
 
-        if (npoints <= 1) {
-            if (npoints < 1)
-                avgstd[0] = fill;
-            avgstd[1] = 0;
+        if (stats.getCount() < 1) {
+            boolean hasFillValue = (fillValue != null && fillValue.getClass().isArray());
+            avgstd[0] = hasFillValue ? Array.getDouble(fillValue, 0) : 0;
         }
         else {
-            avgstd[0] = avg;
-            avgstd[1] = Math.sqrt(var / (npoints - 1));
+            avgstd[0] = stats.getMean();
         }
+        avgstd[1] = stats.getStandardDeviation();
 
-        return retval;
+        return 1;
     }
 
     /**
@@ -1824,168 +2106,54 @@ public final class Tools {
      * @throws Exception if a failure occurred
      */
     public static void saveAsBinary(DataOutputStream out, Object data, ByteOrder order) throws Exception {
-        String cname = data.getClass().getName();
-        char dname = cname.charAt(cname.lastIndexOf('[') + 1);
-        ByteBuffer bb = null;
-
-        int size = Array.getLength(data);
+        BinaryIO.write(Channels.newChannel(out), data, order);
 
-        if (dname == 'B') {
-            byte[] bdata = (byte[]) data;
-
-            bb = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
-            bb.order(order);
+        out.flush();
+        out.close();
+    }
 
-            int remainingSize = size - BYTE_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + BYTE_BUFFER_SIZE;
-                else
-                    allocValue = BYTE_BUFFER_SIZE;
-                bb.clear();
-                bb.put(bdata, (iterationNumber * BYTE_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue);
-                remainingSize = remainingSize - BYTE_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -BYTE_BUFFER_SIZE);
-
-            out.flush();
-            out.close();
-        }
-        else if (dname == 'S') {
-            short[] sdata = (short[]) data;
-            bb = ByteBuffer.allocate(SHORT_BUFFER_SIZE * 2);
-            bb.order(order);
-
-            ShortBuffer sb = bb.asShortBuffer();
-            int remainingSize = size - SHORT_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + SHORT_BUFFER_SIZE;
-                else
-                    allocValue = SHORT_BUFFER_SIZE;
-                bb.clear();
-                sb.clear();
-                sb.put(sdata, (iterationNumber * SHORT_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue * 2);
-                remainingSize = remainingSize - SHORT_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -SHORT_BUFFER_SIZE);
-
-            out.flush();
-            out.close();
-        }
-        else if (dname == 'I') {
-            int[] idata = (int[]) data;
-            bb = ByteBuffer.allocate(INT_BUFFER_SIZE * 4);
-            bb.order(order);
-
-            IntBuffer ib = bb.asIntBuffer();
-            int remainingSize = size - INT_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + INT_BUFFER_SIZE;
-                else
-                    allocValue = INT_BUFFER_SIZE;
-                bb.clear();
-                ib.clear();
-                ib.put(idata, (iterationNumber * INT_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue * 4);
-                remainingSize = remainingSize - INT_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -INT_BUFFER_SIZE);
-
-            out.flush();
-            out.close();
-        }
-        else if (dname == 'J') {
-            long[] ldata = (long[]) data;
-
-            bb = ByteBuffer.allocate(LONG_BUFFER_SIZE * 8);
-            bb.order(order);
-
-            LongBuffer lb = bb.asLongBuffer();
-            int remainingSize = size - LONG_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + LONG_BUFFER_SIZE;
-                else
-                    allocValue = LONG_BUFFER_SIZE;
-                bb.clear();
-                lb.clear();
-                lb.put(ldata, (iterationNumber * LONG_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue * 8);
-                remainingSize = remainingSize - LONG_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -LONG_BUFFER_SIZE);
-
-            out.flush();
-            out.close();
-        }
-        else if (dname == 'F') {
-            float[] fdata = (float[]) data;
-
-            bb = ByteBuffer.allocate(FLOAT_BUFFER_SIZE * 4);
-            bb.order(order);
-
-            FloatBuffer fb = bb.asFloatBuffer();
-            int remainingSize = size - FLOAT_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + FLOAT_BUFFER_SIZE;
-                else
-                    allocValue = FLOAT_BUFFER_SIZE;
-                bb.clear();
-                fb.clear();
-                fb.put(fdata, (iterationNumber * FLOAT_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue * 4);
-                remainingSize = remainingSize - FLOAT_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -FLOAT_BUFFER_SIZE);
-
-            out.flush();
-            out.close();
-        }
-        else if (dname == 'D') {
-            double[] ddata = (double[]) data;
-
-            bb = ByteBuffer.allocate(DOUBLE_BUFFER_SIZE * 8);
-            bb.order(order);
-
-            DoubleBuffer db = bb.asDoubleBuffer();
-            int remainingSize = size - DOUBLE_BUFFER_SIZE;
-            int allocValue = 0;
-            int iterationNumber = 0;
-            do {
-                if (remainingSize <= 0)
-                    allocValue = remainingSize + DOUBLE_BUFFER_SIZE;
-                else
-                    allocValue = DOUBLE_BUFFER_SIZE;
-                bb.clear();
-                db.clear();
-                db.put(ddata, (iterationNumber * DOUBLE_BUFFER_SIZE), allocValue);
-                out.write(bb.array(), 0, allocValue * 8);
-                remainingSize = remainingSize - DOUBLE_BUFFER_SIZE;
-                iterationNumber++;
-            } while (remainingSize > -DOUBLE_BUFFER_SIZE);
+    /**
+     * Save the data as binary to a file channel, at the current position of
+     * the channel.
+     *
+     * @param channel
+     *            the file channel
+     * @param data
+     *            the raw data array
+     * @param order
+     *            the order of bytes
+     *
+     * @throws IOException if the data cannot be written
+     *
+     * @see BinaryIO#write(java.nio.channels.WritableByteChannel, Object, ByteOrder)
+     */
+    public static void saveAsBinary(FileChannel channel, Object data, ByteOrder order) throws IOException {
+        BinaryIO.write(channel, data, order);
+    }
 
-            out.flush();
-            out.close();
-        }
+    /**
+     * Save the current selection of a dataset as binary, reading it from the
+     * file block by block instead of loading the whole selection.
+     *
+     * @param dset
+     *            the dataset of integer or floating-point type
+     * @param file
+     *            the file to write; an existing file is replaced
+     * @param order
+     *            the order of bytes
+     *
+     * @throws Exception if the dataset cannot be read or the file cannot be
+     *             written
+     *
+     * @see BinaryIO#write(Dataset, File, ByteOrder)
+     */
+    public static void saveAsBinary(Dataset dset, File file, ByteOrder order) throws Exception {
+        BinaryIO.write(dset, file, order);
     }
 
     /**
-     * Reads data from a binary file into a buffer.
+     * Reads data from a binary file into a buffer. If the file is shorter
+     * than the buffer, only the values in the file are read.
      *
      * @param dataOut
      *            the output stream
@@ -1995,206 +2163,21 @@ public final class Tools {
      *            the new byte order, either BIG_ENDIAN or LITTLE_ENDIAN
      *
      * @return true if successful; otherwise, false.
+     *
+     * @see BinaryIO#read(File, Object, ByteOrder)
      */
     public static boolean getBinaryDataFromFile(Object dataOut, String fileName, ByteOrder order) {
         if (dataOut == null)
             return false;
 
-        String fname = fileName;
-        BufferedInputStream in = null;
-        ByteBuffer byteBuffer = null;
         boolean valChanged = false;
 
-        try (FileInputStream inputFile = new FileInputStream(fname)) {
-            long fileSize = inputFile.getChannel().size();
-            in = new BufferedInputStream(inputFile);
-
-            int datasetSize = Array.getLength(dataOut);
-            String cname = dataOut.getClass().getName();
-            char dname = cname.charAt(cname.lastIndexOf('[') + 1);
-
-            if (dname == 'B') {
-                long datasetByteSize = datasetSize;
-                byteBuffer = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetByteSize);
-
-                int remainingSize = bufferSize - (BYTE_BUFFER_SIZE);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                byte[] byteArray = new byte[BYTE_BUFFER_SIZE];
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (BYTE_BUFFER_SIZE);
-                    else
-                        allocValue = (BYTE_BUFFER_SIZE);
-
-                    in.read(byteBuffer.array(), 0, allocValue);
-
-                    byteBuffer.get(byteArray, 0, allocValue);
-                    System.arraycopy(byteArray, 0, dataOut, (iterationNumber * BYTE_BUFFER_SIZE), allocValue);
-                    byteBuffer.clear();
-                    remainingSize = remainingSize - (BYTE_BUFFER_SIZE);
-                    iterationNumber++;
-                } while (remainingSize > -(BYTE_BUFFER_SIZE));
-
-                valChanged = true;
-            }
-            else if (dname == 'S') {
-                long datasetShortSize = (long) datasetSize * 2;
-                byteBuffer = ByteBuffer.allocate(SHORT_BUFFER_SIZE * 2);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetShortSize);
-                int remainingSize = bufferSize - (SHORT_BUFFER_SIZE * 2);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                ShortBuffer sb = byteBuffer.asShortBuffer();
-                short[] shortArray = new short[SHORT_BUFFER_SIZE];
-
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (SHORT_BUFFER_SIZE * 2);
-                    else
-                        allocValue = (SHORT_BUFFER_SIZE * 2);
-                    in.read(byteBuffer.array(), 0, allocValue);
-                    sb.get(shortArray, 0, allocValue / 2);
-                    System.arraycopy(shortArray, 0, dataOut, (iterationNumber * SHORT_BUFFER_SIZE), allocValue / 2);
-                    byteBuffer.clear();
-                    sb.clear();
-                    remainingSize = remainingSize - (SHORT_BUFFER_SIZE * 2);
-                    iterationNumber++;
-                } while (remainingSize > -(SHORT_BUFFER_SIZE * 2));
-
-                valChanged = true;
-            }
-            else if (dname == 'I') {
-                long datasetIntSize = (long) datasetSize * 4;
-                byteBuffer = ByteBuffer.allocate(INT_BUFFER_SIZE * 4);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetIntSize);
-                int remainingSize = bufferSize - (INT_BUFFER_SIZE * 4);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                int[] intArray = new int[INT_BUFFER_SIZE];
-                byte[] tmpBuf = byteBuffer.array();
-                IntBuffer ib = byteBuffer.asIntBuffer();
-
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (INT_BUFFER_SIZE * 4);
-                    else
-                        allocValue = (INT_BUFFER_SIZE * 4);
-                    in.read(tmpBuf, 0, allocValue);
-                    ib.get(intArray, 0, allocValue / 4);
-                    System.arraycopy(intArray, 0, dataOut, (iterationNumber * INT_BUFFER_SIZE), allocValue / 4);
-                    byteBuffer.clear();
-                    ib.clear();
-                    remainingSize = remainingSize - (INT_BUFFER_SIZE * 4);
-                    iterationNumber++;
-                } while (remainingSize > -(INT_BUFFER_SIZE * 4));
-
-                valChanged = true;
-            }
-            else if (dname == 'J') {
-                long datasetLongSize = (long) datasetSize * 8;
-                byteBuffer = ByteBuffer.allocate(LONG_BUFFER_SIZE * 8);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetLongSize);
-                int remainingSize = bufferSize - (LONG_BUFFER_SIZE * 8);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                long[] longArray = new long[LONG_BUFFER_SIZE];
-                LongBuffer lb = byteBuffer.asLongBuffer();
-
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (LONG_BUFFER_SIZE * 8);
-                    else
-                        allocValue = (LONG_BUFFER_SIZE * 8);
-
-                    in.read(byteBuffer.array(), 0, allocValue);
-                    lb.get(longArray, 0, allocValue / 8);
-                    System.arraycopy(longArray, 0, dataOut, (iterationNumber * LONG_BUFFER_SIZE), allocValue / 8);
-                    byteBuffer.clear();
-                    lb.clear();
-                    remainingSize = remainingSize - (LONG_BUFFER_SIZE * 8);
-                    iterationNumber++;
-                } while (remainingSize > -(LONG_BUFFER_SIZE * 8));
-
-                valChanged = true;
-            }
-            else if (dname == 'F') {
-                long datasetFloatSize = (long) datasetSize * 4;
-                byteBuffer = ByteBuffer.allocate(FLOAT_BUFFER_SIZE * 4);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetFloatSize);
-                int remainingSize = bufferSize - (FLOAT_BUFFER_SIZE * 4);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                FloatBuffer fb = byteBuffer.asFloatBuffer();
-                float[] floatArray = new float[FLOAT_BUFFER_SIZE];
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (FLOAT_BUFFER_SIZE * 4);
-                    else
-                        allocValue = (FLOAT_BUFFER_SIZE * 4);
-
-                    in.read(byteBuffer.array(), 0, allocValue);
-                    fb.get(floatArray, 0, allocValue / 4);
-                    System.arraycopy(floatArray, 0, dataOut, (iterationNumber * FLOAT_BUFFER_SIZE), allocValue / 4);
-                    byteBuffer.clear();
-                    fb.clear();
-                    remainingSize = remainingSize - (FLOAT_BUFFER_SIZE * 4);
-                    iterationNumber++;
-                } while (remainingSize > -(FLOAT_BUFFER_SIZE * 4));
-
-                valChanged = true;
-            }
-            else if (dname == 'D') {
-                long datasetDoubleSize = (long) datasetSize * 8;
-                byteBuffer = ByteBuffer.allocate(DOUBLE_BUFFER_SIZE * 8);
-                byteBuffer.order(order);
-
-                int bufferSize = (int) Math.min(fileSize, datasetDoubleSize);
-                int remainingSize = bufferSize - (DOUBLE_BUFFER_SIZE * 8);
-                int allocValue = 0;
-                int iterationNumber = 0;
-                DoubleBuffer db = byteBuffer.asDoubleBuffer();
-                double[] doubleArray = new double[DOUBLE_BUFFER_SIZE];
-
-                do {
-                    if (remainingSize <= 0)
-                        allocValue = remainingSize + (DOUBLE_BUFFER_SIZE * 8);
-                    else
-                        allocValue = (DOUBLE_BUFFER_SIZE * 8);
-
-                    in.read(byteBuffer.array(), 0, allocValue);
-                    db.get(doubleArray, 0, allocValue / 8);
-                    System.arraycopy(doubleArray, 0, dataOut, (iterationNumber * DOUBLE_BUFFER_SIZE), allocValue / 8);
-                    byteBuffer.clear();
-                    db.clear();
-                    remainingSize = remainingSize - (DOUBLE_BUFFER_SIZE * 8);
-                    iterationNumber++;
-                } while (remainingSize > -(DOUBLE_BUFFER_SIZE * 8));
-
-                valChanged = true;
-            }
+        try {
+            BinaryIO.read(new File(fileName), dataOut, order);
+            valChanged = true;
         }
         catch (Exception es) {
-            es.printStackTrace();
-        }
-        finally {
-            try {
-                in.close();
-            }
-            catch (IOException ex) {
-                // Empty on purpose
-            }
+            log.debug("getBinaryDataFromFile(): failed to read {}:", fileName, es);
         }
 
         return valChanged;
@@ -71,6 +71,9 @@ import hdf.hdf5lib.HDF5Constants;
 import hdf.object.CompoundDS;
 import hdf.object.DataFormat;
 import hdf.object.Dataset;
+import hdf.object.DatasetTextExporter;
+import hdf.object.DatasetTextImporter;
+import hdf.object.DatasetTextTask;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
@@ -89,7 +92,9 @@ import hdf.view.DataView.DataViewFactory;
 import hdf.view.DataView.DataViewFactoryProducer;
 import hdf.view.DataView.DataViewManager;
 import hdf.view.MetaDataView.MetaDataView;
+import hdf.view.TableView.TableView;
 import hdf.view.dialog.DataOptionDialog;
+import hdf.view.dialog.DatasetTextDialog;
 import hdf.view.dialog.InputDialog;
 import hdf.view.dialog.NewCompoundDatasetDialog;
 import hdf.view.dialog.NewDatasetDialog;
@@ -167,6 +172,7 @@ public class DefaultTreeView implements TreeView {
     private MenuItem                      openVirtualFilesMenuItem;
     private MenuItem                      addDatasetMenuItem;
     private MenuItem                      exportDatasetMenuItem;
+    private MenuItem                      importTextMenuItem;
     private MenuItem                      addTableMenuItem;
     private MenuItem                      addDatatypeMenuItem;
     private MenuItem                      addLinkMenuItem;
@@ -502,6 +508,8 @@ public class DefaultTreeView implements TreeView {
                 // tree from redrawing until all the items are created
                 tree.setRedraw(false);
 
+                loadGroupItems(item);
+
                 if(item.getItemCount() > 0)
                     item.setImage(theGroup.hasAttribute() ? folderOpenIconA : folderOpenIcon);
 
@@ -541,6 +549,8 @@ public class DefaultTreeView implements TreeView {
 
                 int position = parentItem.indexOf(item);
                 HObject obj = ((Group) parentItem.getData()).getMember(position);
+                if (obj == null)
+                    return;
 
                 item.setData(obj);
                 item.setFont(curFont);
@@ -548,7 +558,7 @@ public class DefaultTreeView implements TreeView {
                 item.setImage(getObjectTypeImage(obj));
 
                 if(obj instanceof Group)
-                    item.setItemCount(((Group) obj).getMemberList().size());
+                    item.setItemCount(getGroupItemCount((Group) obj));
             }
         });
 
@@ -1092,6 +1102,23 @@ public class DefaultTreeView implements TreeView {
             }
         });
 
+        new MenuItem(exportDatasetMenu, SWT.SEPARATOR);
+
+        importTextMenuItem = new MenuItem(exportDatasetMenu, SWT.PUSH);
+        importTextMenuItem.setText("Import Data from Text File");
+        importTextMenuItem.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                try {
+                    importDataFromTextFile();
+                }
+                catch (Exception ex) {
+                    shell.getDisplay().beep();
+                    Tools.showError(shell, "Import Dataset", ex.getMessage());
+                }
+            }
+        });
+
         // Add listener to dynamically enable/disable menu items based
         // on selection in tree
         menu.addMenuListener(new MenuAdapter() {
@@ -1164,6 +1191,7 @@ public class DefaultTreeView implements TreeView {
                         Dataset dataset = (Dataset) selectedObject;
                         if ((dataset instanceof ScalarDS))
                             exportDatasetMenuItem.setEnabled(true);
+                        importTextMenuItem.setEnabled(isWritable && DatasetTextTask.isSupported(dataset));
                         openVirtualFilesMenuItem.setEnabled(true);
                     }
                     else {
@@ -1672,8 +1700,8 @@ public class DefaultTreeView implements TreeView {
                     // Tell SWT how many members this group has so they can
                     // be populated when the group is expanded
                     if (obj instanceof Group) {
-                        newItem.setItemCount(((Group) obj).getMemberList().size());
-                        log.debug("populateTree(): group members size {}:", ((Group) obj).getMemberList().size());
+                        newItem.setItemCount(getGroupItemCount((Group) obj));
+                        log.debug("populateTree(): group members size {}:", newItem.getItemCount());
                     }
                 }
             }
@@ -1690,6 +1718,40 @@ public class DefaultTreeView implements TreeView {
         return rootItem;
     }
 
+    /**
+     * Returns the number of child TreeItems to create for a group. A group
+     * whose members have not been loaded yet gets a single placeholder item,
+     * so that it can be expanded; the real number of items is set by
+     * loadGroupItems() when the group is expanded.
+     *
+     * @param group
+     *            the group to count the members of
+     *
+     * @return the number of child TreeItems of the group
+     */
+    private int getGroupItemCount(Group group) {
+        if (group.isMemberListLoaded())
+            return group.getNumberOfMembersInMemory();
+
+        return (group.getNumberOfMembersInFile() > 0) ? 1 : 0;
+    }
+
+    /**
+     * Loads the members of the group of a TreeItem if they are not yet in
+     * memory and updates the number of child TreeItems to match.
+     *
+     * @param item
+     *            the TreeItem of the group being expanded
+     */
+    private void loadGroupItems(TreeItem item) {
+        if (!(item.getData() instanceof Group))
+            return;
+
+        int count = ((Group) item.getData()).getNumberOfMembersInMemory();
+        if (item.getItemCount() != count)
+            item.setItemCount(count);
+    }
+
     /**
      * Recursively expand/collapse a given selected TreeItem.
      *
@@ -1704,6 +1766,9 @@ public class DefaultTreeView implements TreeView {
         if(item == null || !(item.getData() instanceof Group))
             return;
 
+        if (expand)
+            loadGroupItems(item);
+
         TreeItem[] toExpand = item.getItems();
 
         item.setExpanded(expand);
@@ -2297,6 +2362,21 @@ public class DefaultTreeView implements TreeView {
         }
 
         try {
+            // numerical HDF5 datasets are streamed to text block by block
+            if ((binaryOrder == 99) && DatasetTextTask.isSupported(dataset)) {
+                if (!dataset.isInited())
+                    dataset.init();
+
+                DatasetTextDialog exportDialog = new DatasetTextDialog(shell,
+                        new DatasetTextExporter(dataset, chosenFile, getTextDelimiter(), true),
+                        "Export", "Writing to " + chosenFile.getAbsolutePath());
+                long rows = exportDialog.open();
+                if (rows >= 0)
+                    viewer.showStatus("Data saved to: " + filename + " (" + rows + " rows, "
+                            + (long) exportDialog.getRowsPerSecond() + " rows/s)");
+                return;
+            }
+
             selectedObject.getFileFormat().exportDataset(filename, dataset, binaryOrder);
             viewer.showStatus("Data saved to: " + filename);
         }
@@ -2306,6 +2386,80 @@ public class DefaultTreeView implements TreeView {
         }
     }
 
+    /**
+     * Imports a text file into all values of the selected dataset.
+     *
+     * @throws Exception if a failure occurred
+     */
+    private void importDataFromTextFile() throws Exception {
+        if (!DatasetTextTask.isSupported(selectedObject) || (selectedItem == null))
+            return;
+
+        String filename = null;
+        Dataset dataset = (Dataset) selectedObject;
+        String currentDir = dataset.getFile().substring(0, dataset.getFile().lastIndexOf(File.separator));
+        String msgtext = "Import Dataset Data From Text File --- " + dataset.getName();
+        if (((HDFView) viewer).getTestState()) {
+            filename = currentDir + File.separator + new InputDialog(shell, msgtext, "").open();
+        }
+        else {
+            FileDialog fChooser = new FileDialog(shell, SWT.OPEN);
+            fChooser.setFilterPath(currentDir);
+            fChooser.setText(msgtext);
+
+            DefaultFileFilter filter = DefaultFileFilter.getFileFilterText();
+            fChooser.setFilterExtensions(new String[] {"*", filter.getExtensions()});
+            fChooser.setFilterNames(new String[] {"All Files", filter.getDescription()});
+            fChooser.setFilterIndex(1);
+
+            filename = fChooser.open();
+        }
+        if (filename == null)
+            return;
+
+        File chosenFile = new File(filename);
+        if (!chosenFile.exists()) {
+            Tools.showError(shell, "Import Dataset", "Data import error: " + filename + " does not exist.");
+            return;
+        }
+
+        if (!Tools.showConfirm(shell, "Import Dataset", "Do you want to replace the values of the dataset?"))
+            return;
+
+        if (!dataset.isInited())
+            dataset.init();
+
+        DatasetTextDialog importDialog = new DatasetTextDialog(shell,
+                new DatasetTextImporter(dataset, chosenFile, getTextDelimiter(), true),
+                "Import", "Reading from " + chosenFile.getAbsolutePath());
+        long rows = importDialog.open();
+
+        // show the new values in an open table of the dataset
+        DataView view = viewer.getDataView(dataset);
+        if (view instanceof TableView)
+            ((TableView) view).refreshDataTable();
+
+        if (rows >= 0)
+            viewer.showStatus("Data imported from: " + filename + " (" + rows + " rows, "
+                    + (long) importDialog.getRowsPerSecond() + " rows/s)");
+    }
+
+    /** Returns the delimiter between values of exported or imported text selected in the user options. */
+    private static String getTextDelimiter() {
+        String delName = ViewProperties.getDataDelimiter();
+
+        if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SPACE))
+            return " ";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COMMA))
+            return ",";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_COLON))
+            return ":";
+        else if (delName.equalsIgnoreCase(ViewProperties.DELIMITER_SEMI_COLON))
+            return ";";
+
+        return "\t";
+    }
+
     /** enable/disable GUI components */
     private static void setEnabled(List<MenuItem> list, boolean b) {
         if (list == null)
@@ -2454,6 +2608,12 @@ public class DefaultTreeView implements TreeView {
             }
             else
                 fileFormat.setIndexOrder(fileFormat.getIndexOrder(ViewProperties.getIndexOrder()));
+
+            fileFormat.setLazyLoad(ViewProperties.isLazyLoad());
+            fileFormat.setDatasetCacheSize(ViewProperties.getDatasetCacheSize());
+
+            int chunkCacheMB = ViewProperties.getChunkCacheSize();
+            fileFormat.setChunkCacheSize((chunkCacheMB > 0) ? chunkCacheMB * 1024L * 1024L : chunkCacheMB);
         }
 
         return initFile(fileFormat);
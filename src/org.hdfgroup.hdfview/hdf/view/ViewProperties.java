@@ -192,6 +192,24 @@ public class ViewProperties extends PreferenceStore
     /** default index order */
     private static String            indexOrder             = "H5_ITER_INC";
 
+    /** flag to indicate if the members of a group are loaded only when the group is expanded */
+    private static boolean           isLazyLoad             = false;
+
+    /** the maximum number of dataset identifiers kept open per HDF5 file */
+    private static int               datasetCacheSize       = 32;
+
+    /** the size in MB of the chunk cache of a dataset; -1 for the library default, 0 to size it automatically */
+    private static int               chunkCacheSize         = -1;
+
+    /** the number of frames of a dataset which are read ahead and kept per data view; 0 disables prefetching */
+    private static int               frameCacheSize         = 4;
+
+    /** images wider or higher than this many pixels are shown from tiles; 0 to always load the whole image */
+    private static int               tiledImageSize         = 8192;
+
+    /** the number of values above which a table reads its data in blocks while scrolling */
+    private static int               pagedTableSize         = 4 * 1024 * 1024;
+
     /** a list of most recent files */
     private static ArrayList<String> recentFiles            = new ArrayList<>(MAX_RECENT_FILES + 5);
 
@@ -328,6 +346,12 @@ public class ViewProperties extends PreferenceStore
         setDefault("image.origin", ORIGIN_UL);
         setDefault("h5file.indexType", "H5_INDEX_NAME");
         setDefault("h5file.indexOrder", "H5_ITER_INC");
+        setDefault("h5file.lazyload", false);
+        setDefault("h5file.datasetcachesize", 32);
+        setDefault("h5file.chunkcachesize", -1);
+        setDefault("data.framecachesize", 4);
+        setDefault("image.tiledsize", 8192);
+        setDefault("data.pagedsize", 4 * 1024 * 1024);
         setDefault("h4toh5.converter", "");
         setDefault("file.extension", "hdf, h4, hdf4, h5, hdf5, he2, he5");
         setDefault("timer.refresh", 1000);
@@ -1480,6 +1504,17 @@ public class ViewProperties extends PreferenceStore
         if (!isDefault("h5file.indexOrder"))
             setIndexOrder(propVal);
 
+        setLazyLoad(getBoolean("h5file.lazyload"));
+
+        setDatasetCacheSize(getInt("h5file.datasetcachesize"));
+
+        setChunkCacheSize(getInt("h5file.chunkcachesize"));
+
+        setFrameCacheSize(getInt("data.framecachesize"));
+
+        setTiledImageSize(getInt("image.tiledsize"));
+        setPagedTableSize(getInt("data.pagedsize"));
+
         propVal = getString("h4toh5.converter");
         if (!isDefault("h4toh5.converter"))
             setH4toH5(propVal);
@@ -1588,6 +1623,17 @@ public class ViewProperties extends PreferenceStore
 
         if (indexOrder != null) setValue("h5file.indexOrder", indexOrder);
 
+        setValue("h5file.lazyload", isLazyLoad);
+
+        setValue("h5file.datasetcachesize", datasetCacheSize);
+
+        setValue("h5file.chunkcachesize", chunkCacheSize);
+
+        setValue("data.framecachesize", frameCacheSize);
+
+        setValue("image.tiledsize", tiledImageSize);
+        setValue("data.pagedsize", pagedTableSize);
+
         if (usersGuide != null) setValue("users.guide", usersGuide);
 
         if (workDir != null) setValue("work.dir", workDir);
@@ -2064,6 +2110,141 @@ public class ViewProperties extends PreferenceStore
         isReadOnly = b;
     }
 
+    /**
+     * Returns true if the members of a group are loaded from the file only when
+     * the group is expanded in the tree.
+     *
+     * @return true if groups are loaded on demand; otherwise, returns false.
+     */
+    public static boolean isLazyLoad() {
+        return isLazyLoad;
+    }
+
+    /**
+     * Set the flag to indicate if the members of a group are loaded from the
+     * file only when the group is expanded in the tree.
+     *
+     * @param b
+     *            the flag to indicate if groups are loaded on demand.
+     */
+    public static void setLazyLoad(boolean b) {
+        isLazyLoad = b;
+    }
+
+    /**
+     * Returns the maximum number of dataset identifiers which are kept open
+     * per HDF5 file, so that paging through a dataset does not reopen it.
+     *
+     * @return the maximum number of open dataset identifiers per file.
+     */
+    public static int getDatasetCacheSize() {
+        return datasetCacheSize;
+    }
+
+    /**
+     * Set the maximum number of dataset identifiers which are kept open per
+     * HDF5 file.
+     *
+     * @param n
+     *            the maximum number of open dataset identifiers; 0 disables
+     *            the cache.
+     */
+    public static void setDatasetCacheSize(int n) {
+        datasetCacheSize = Math.max(0, n);
+    }
+
+    /**
+     * Returns the size in MB of the raw data chunk cache of a dataset.
+     *
+     * @return the size of the chunk cache in MB, -1 for the library default,
+     *         or 0 if the chunk cache is sized from the chunks touched by the
+     *         selection.
+     */
+    public static int getChunkCacheSize() {
+        return chunkCacheSize;
+    }
+
+    /**
+     * Set the size in MB of the raw data chunk cache of a dataset.
+     *
+     * @param n
+     *            the size of the chunk cache in MB, -1 for the library
+     *            default, or 0 to size it from the chunks touched by the
+     *            selection.
+     */
+    public static void setChunkCacheSize(int n) {
+        chunkCacheSize = Math.max(-1, n);
+    }
+
+    /**
+     * Returns the number of frames of a dataset with three or more dimensions
+     * which are read ahead in the background and kept by a data view.
+     *
+     * @return the number of cached frames per data view; 0 if frames are not
+     *         prefetched.
+     */
+    public static int getFrameCacheSize() {
+        return frameCacheSize;
+    }
+
+    /**
+     * Set the number of frames of a dataset which are read ahead in the
+     * background and kept by a data view.
+     *
+     * @param n
+     *            the number of cached frames per data view; 0 disables
+     *            prefetching.
+     */
+    public static void setFrameCacheSize(int n) {
+        frameCacheSize = Math.max(0, n);
+    }
+
+    /**
+     * Returns the image size above which an image is shown from tiles which
+     * are read at the resolution of the current zoom, instead of reading the
+     * whole image.
+     *
+     * @return the width or height in pixels above which images are tiled; 0
+     *         if images are never tiled.
+     */
+    public static int getTiledImageSize() {
+        return tiledImageSize;
+    }
+
+    /**
+     * Set the image size above which an image is shown from tiles.
+     *
+     * @param n
+     *            the width or height in pixels above which images are tiled;
+     *            0 to always read the whole image.
+     */
+    public static void setTiledImageSize(int n) {
+        tiledImageSize = Math.max(0, n);
+    }
+
+    /**
+     * Returns the number of values in a table above which the table reads
+     * only the blocks of rows and columns scrolled into view, instead of
+     * reading the whole selection.
+     *
+     * @return the number of values above which tables are paged; 0 if tables
+     *         are never paged.
+     */
+    public static int getPagedTableSize() {
+        return pagedTableSize;
+    }
+
+    /**
+     * Set the number of values in a table above which the table is paged.
+     *
+     * @param n
+     *            the number of values above which tables are paged; 0 to
+     *            always read the whole selection.
+     */
+    public static void setPagedTableSize(int n) {
+        pagedTableSize = Math.max(0, n);
+    }
+
     /**
      * Returns true if default file access is read SWMR.
      *
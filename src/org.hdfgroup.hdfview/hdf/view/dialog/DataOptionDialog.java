@@ -18,13 +18,9 @@ import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
-import java.awt.image.ComponentColorModel;
-import java.awt.image.DirectColorModel;
 import java.awt.image.FilteredImageSource;
 import java.awt.image.ImageFilter;
 import java.awt.image.ImageProducer;
-import java.awt.image.IndexColorModel;
-import java.awt.image.WritableRaster;
 import java.util.BitSet;
 import java.util.StringTokenizer;
 import java.util.Vector;
@@ -42,9 +38,7 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Point;
-import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
@@ -1904,80 +1898,11 @@ public class DataOptionDialog extends Dialog {
         private org.eclipse.swt.graphics.Image convertBufferedImageToSWTImage(BufferedImage image) {
             Display display = this.getDisplay();
 
-            if (image.getColorModel() instanceof DirectColorModel) {
-                DirectColorModel colorModel = (DirectColorModel) image
-                        .getColorModel();
-                PaletteData palette = new PaletteData(colorModel.getRedMask(),
-                        colorModel.getGreenMask(), colorModel.getBlueMask());
-                ImageData data = new ImageData(image.getWidth(),
-                        image.getHeight(), colorModel.getPixelSize(),
-                        palette);
-
-                for (int y = 0; y < data.height; y++) {
-                    for (int x = 0; x < data.width; x++) {
-                        int rgb = image.getRGB(x, y);
-                        int pixel = palette.getPixel(new RGB((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF));
-                        data.setPixel(x, y, pixel);
-                        if (colorModel.hasAlpha()) {
-                            data.setAlpha(x, y, (rgb >> 24) & 0xFF);
-                        }
-                    }
-                }
-
-                return new org.eclipse.swt.graphics.Image(display, data);
-            }
-            else if (image.getColorModel() instanceof IndexColorModel) {
-                IndexColorModel colorModel = (IndexColorModel) image
-                        .getColorModel();
-                int size = colorModel.getMapSize();
-                byte[] reds = new byte[size];
-                byte[] greens = new byte[size];
-                byte[] blues = new byte[size];
-                colorModel.getReds(reds);
-                colorModel.getGreens(greens);
-                colorModel.getBlues(blues);
-                RGB[] rgbs = new RGB[size];
-                for (int i = 0; i < rgbs.length; i++) {
-                    rgbs[i] = new RGB(reds[i] & 0xFF, greens[i] & 0xFF,
-                            blues[i] & 0xFF);
-                }
-                PaletteData palette = new PaletteData(rgbs);
-                ImageData data = new ImageData(image.getWidth(),
-                        image.getHeight(), colorModel.getPixelSize(),
-                        palette);
-                data.transparentPixel = colorModel.getTransparentPixel();
-                WritableRaster raster = image.getRaster();
-                int[] pixelArray = new int[1];
-                for (int y = 0; y < data.height; y++) {
-                    for (int x = 0; x < data.width; x++) {
-                        raster.getPixel(x, y, pixelArray);
-                        data.setPixel(x, y, pixelArray[0]);
-                    }
-                }
-
-                return new org.eclipse.swt.graphics.Image(display, data);
-            }
-            else if (image.getColorModel() instanceof ComponentColorModel) {
-                ComponentColorModel colorModel = (ComponentColorModel) image.getColorModel();
-                //ASSUMES: 3 BYTE BGR IMAGE TYPE
-                PaletteData palette = new PaletteData(0x0000FF, 0x00FF00,0xFF0000);
-                ImageData data = new ImageData(image.getWidth(), image.getHeight(),
-                        colorModel.getPixelSize(), palette);
-                //This is valid because we are using a 3-byte Data model with no transparent pixels
-                data.transparentPixel = -1;
-                WritableRaster raster = image.getRaster();
-                int[] pixelArray = new int[3];
-                for (int y = 0; y < data.height; y++) {
-                    for (int x = 0; x < data.width; x++) {
-                        raster.getPixel(x, y, pixelArray);
-                        int pixel = palette.getPixel(new RGB(pixelArray[0], pixelArray[1], pixelArray[2]));
-                        data.setPixel(x, y, pixel);
-                    }
-                }
-                return new org.eclipse.swt.graphics.Image(display, data);
-            }
+            ImageData imgData = Tools.convertBufferedImageToImageData(image);
+            if (imgData == null)
+                return null;
 
-            return null;
+            return new org.eclipse.swt.graphics.Image(display, imgData);
         }
     }
 }
@@ -0,0 +1,250 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.dialog;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Dialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.ProgressBar;
+import org.eclipse.swt.widgets.Shell;
+
+import hdf.object.DataStatistics;
+import hdf.object.Dataset;
+import hdf.object.DatasetStatisticsTask;
+import hdf.view.Chart;
+import hdf.view.Tools;
+import hdf.view.ViewProperties;
+
+/**
+ * DatasetStatisticsDialog computes the statistics and histogram of all
+ * values of a dataset in the background, shows the progress and lets the user
+ * cancel the computation. The results are shown when it is done.
+ */
+public class DatasetStatisticsDialog extends Dialog {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetStatisticsDialog.class);
+
+    /** the number of bins of the histogram */
+    private static final int HISTOGRAM_BINS = 256;
+
+    /** the interval in milliseconds between updates of the progress bar */
+    private static final int UPDATE_INTERVAL = 100;
+
+    private final Dataset   dataset;
+
+    private Font            curFont;
+
+    private Shell           shell;
+    private ProgressBar     progressBar;
+    private Label           statusLabel;
+    private Label           resultLabel;
+    private Button          histogramButton;
+    private Button          closeButton;
+
+    private DataStatistics  result;
+
+    /**
+     * Creates a dialog for the statistics of a dataset.
+     *
+     * @param parent
+     *        the dialog parent shell
+     * @param dset
+     *        the dataset, see {@link DatasetStatisticsTask#isSupported(Object)}
+     */
+    public DatasetStatisticsDialog(Shell parent, Dataset dset) {
+        super(parent, SWT.APPLICATION_MODAL);
+        this.dataset = dset;
+
+        try {
+            curFont = new Font(
+                    Display.getCurrent(),
+                    ViewProperties.getFontType(),
+                    ViewProperties.getFontSize(),
+                    SWT.NORMAL);
+        }
+        catch (Exception ex) {
+            curFont = null;
+        }
+    }
+
+    /**
+     * Opens the dialog, starts the computation and waits until the dialog is
+     * closed.
+     *
+     * @return the statistics, or null if the computation was cancelled or
+     *         failed.
+     */
+    public DataStatistics open() {
+        Shell parent = getParent();
+        shell = new Shell(parent, SWT.TITLE | SWT.BORDER | SWT.APPLICATION_MODAL | SWT.RESIZE);
+        shell.setFont(curFont);
+        shell.setText("Statistics - " + dataset.getPath() + dataset.getName());
+        shell.setLayout(new GridLayout(1, true));
+
+        statusLabel = new Label(shell, SWT.NONE);
+        statusLabel.setFont(curFont);
+        statusLabel.setText("Reading all values of the dataset...");
+        statusLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        progressBar = new ProgressBar(shell, SWT.HORIZONTAL | SWT.SMOOTH);
+        progressBar.setMinimum(0);
+        progressBar.setMaximum(1000);
+        GridData barData = new GridData(SWT.FILL, SWT.FILL, true, false);
+        barData.minimumWidth = 400;
+        progressBar.setLayoutData(barData);
+
+        resultLabel = new Label(shell, SWT.NONE);
+        resultLabel.setFont(curFont);
+        resultLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+
+        Composite buttonComposite = new Composite(shell, SWT.NONE);
+        buttonComposite.setLayout(new GridLayout(2, true));
+        buttonComposite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        histogramButton = new Button(buttonComposite, SWT.PUSH);
+        histogramButton.setFont(curFont);
+        histogramButton.setText(" Show &Histogram ");
+        histogramButton.setEnabled(false);
+        histogramButton.setLayoutData(new GridData(SWT.END, SWT.FILL, true, false));
+        histogramButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                showHistogram();
+            }
+        });
+
+        closeButton = new Button(buttonComposite, SWT.PUSH);
+        closeButton.setFont(curFont);
+        closeButton.setText(" &Cancel ");
+        closeButton.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false));
+        closeButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                shell.dispose();
+            }
+        });
+
+        final DatasetStatisticsTask task = new DatasetStatisticsTask(dataset, HISTOGRAM_BINS);
+        final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Statistics " + dataset.getName());
+            t.setDaemon(true);
+            return t;
+        });
+        final Future<DataStatistics> future = executor.submit(task);
+        executor.shutdown();
+
+        shell.addDisposeListener(new DisposeListener() {
+            @Override
+            public void widgetDisposed(DisposeEvent e) {
+                // stop reading if the dialog is closed before the task is done
+                task.cancel();
+                if (curFont != null) curFont.dispose();
+            }
+        });
+
+        shell.pack();
+
+        shell.setMinimumSize(shell.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+
+        Rectangle parentBounds = parent.getBounds();
+        Point shellSize = shell.getSize();
+        shell.setLocation((parentBounds.x + (parentBounds.width / 2)) - (shellSize.x / 2),
+                          (parentBounds.y + (parentBounds.height / 2)) - (shellSize.y / 2));
+
+        shell.open();
+
+        final Display display = parent.getDisplay();
+        display.timerExec(UPDATE_INTERVAL, new Runnable() {
+            @Override
+            public void run() {
+                if (shell.isDisposed())
+                    return;
+
+                progressBar.setSelection((int) (task.getProgress() * 1000));
+
+                if (future.isDone())
+                    showResult(future);
+                else
+                    display.timerExec(UPDATE_INTERVAL, this);
+            }
+        });
+
+        while (!shell.isDisposed()) {
+            if (!display.readAndDispatch())
+                display.sleep();
+        }
+
+        return result;
+    }
+
+    private void showResult(Future<DataStatistics> future) {
+        try {
+            result = future.get();
+        }
+        catch (Exception ex) {
+            log.debug("showResult(): failed to compute statistics:", ex);
+            Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+            Tools.showError(shell, "Statistics", cause.getMessage());
+            shell.dispose();
+            return;
+        }
+
+        closeButton.setText("   &Close   ");
+        progressBar.setSelection(progressBar.getMaximum());
+
+        if ((result == null) || (result.getCount() == 0)) {
+            statusLabel.setText("The dataset has no valid values.");
+        }
+        else {
+            statusLabel.setText("Statistics of all values of the dataset:");
+            resultLabel.setText("Count                    = " + result.getCount()
+                    + "\nNaN count              = " + result.getNaNCount()
+                    + "\nMin                      = " + result.getMin()
+                    + "\nMax                      = " + result.getMax()
+                    + "\nMean                     = " + result.getMean()
+                    + "\nStandard deviation = " + result.getStandardDeviation());
+            histogramButton.setEnabled(result.getHistogram() != null);
+        }
+
+        shell.pack();
+        shell.setMinimumSize(shell.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+    }
+
+    private void showHistogram() {
+        int[] histogram = result.getHistogram();
+        double[][] chartData = new double[1][histogram.length];
+        for (int i = 0; i < histogram.length; i++)
+            chartData[0][i] = histogram[i];
+
+        Chart cv = new Chart(shell, "Histogram - " + dataset.getPath() + dataset.getName(),
+                Chart.HISTOGRAM, chartData, result.getHistogramRange(), null);
+        cv.open();
+    }
+}
@@ -0,0 +1,230 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.dialog;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Dialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.ProgressBar;
+import org.eclipse.swt.widgets.Shell;
+
+import hdf.object.DatasetTextExporter;
+import hdf.object.DatasetTextTask;
+
+import hdf.view.Tools;
+import hdf.view.ViewProperties;
+
+/**
+ * DatasetTextDialog runs the export of a dataset to a text file, or the
+ * import of a text file into a dataset, in the background. It shows the
+ * progress and the number of rows transferred per second, and lets the user
+ * cancel the task. The dialog is closed when the task is done; a partly
+ * exported file is deleted if the export is cancelled or fails.
+ */
+public class DatasetTextDialog extends Dialog {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetTextDialog.class);
+
+    /** the interval in milliseconds between updates of the progress bar */
+    private static final int UPDATE_INTERVAL = 100;
+
+    private final DatasetTextTask       task;
+
+    private final String                title;
+
+    private final String                message;
+
+    private Font                        curFont;
+
+    private Shell                       shell;
+    private ProgressBar                 progressBar;
+    private Label                       rateLabel;
+
+    private long                        rowCount = -1;
+
+    /**
+     * Creates a dialog for a text export or import task.
+     *
+     * @param parent
+     *        the dialog parent shell
+     * @param task
+     *        the export or import task
+     * @param title
+     *        the title of the dialog
+     * @param message
+     *        the message shown above the progress bar
+     */
+    public DatasetTextDialog(Shell parent, DatasetTextTask task, String title, String message) {
+        super(parent, SWT.APPLICATION_MODAL);
+        this.task = task;
+        this.title = title;
+        this.message = message;
+
+        try {
+            curFont = new Font(
+                    Display.getCurrent(),
+                    ViewProperties.getFontType(),
+                    ViewProperties.getFontSize(),
+                    SWT.NORMAL);
+        }
+        catch (Exception ex) {
+            curFont = null;
+        }
+    }
+
+    /**
+     * Opens the dialog, starts the task and waits until it is done or
+     * cancelled.
+     *
+     * @return the number of rows transferred, or -1 if the task was cancelled
+     *         or failed.
+     */
+    public long open() {
+        Shell parent = getParent();
+        shell = new Shell(parent, SWT.TITLE | SWT.BORDER | SWT.APPLICATION_MODAL | SWT.RESIZE);
+        shell.setFont(curFont);
+        shell.setText(title + " - " + task.getDataset().getPath() + task.getDataset().getName());
+        shell.setLayout(new GridLayout(1, true));
+
+        Label label = new Label(shell, SWT.NONE);
+        label.setFont(curFont);
+        label.setText(message);
+        label.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        progressBar = new ProgressBar(shell, SWT.HORIZONTAL | SWT.SMOOTH);
+        progressBar.setMinimum(0);
+        progressBar.setMaximum(1000);
+        GridData barData = new GridData(SWT.FILL, SWT.FILL, true, false);
+        barData.minimumWidth = 400;
+        progressBar.setLayoutData(barData);
+
+        rateLabel = new Label(shell, SWT.NONE);
+        rateLabel.setFont(curFont);
+        rateLabel.setText("0 rows");
+        rateLabel.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        Button cancelButton = new Button(shell, SWT.PUSH);
+        cancelButton.setFont(curFont);
+        cancelButton.setText(" &Cancel ");
+        cancelButton.setLayoutData(new GridData(SWT.CENTER, SWT.FILL, true, false));
+        cancelButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                shell.dispose();
+            }
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, title + " " + task.getDataset().getName());
+            t.setDaemon(true);
+            return t;
+        });
+        final Future<Long> future = executor.submit(task);
+        executor.shutdown();
+
+        shell.addDisposeListener(new DisposeListener() {
+            @Override
+            public void widgetDisposed(DisposeEvent e) {
+                // stop the task if the dialog is closed before it is done
+                task.cancel();
+                if (curFont != null) curFont.dispose();
+            }
+        });
+
+        shell.pack();
+
+        shell.setMinimumSize(shell.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+
+        Rectangle parentBounds = parent.getBounds();
+        Point shellSize = shell.getSize();
+        shell.setLocation((parentBounds.x + (parentBounds.width / 2)) - (shellSize.x / 2),
+                          (parentBounds.y + (parentBounds.height / 2)) - (shellSize.y / 2));
+
+        shell.open();
+
+        final Display display = parent.getDisplay();
+        display.timerExec(UPDATE_INTERVAL, new Runnable() {
+            @Override
+            public void run() {
+                if (shell.isDisposed())
+                    return;
+
+                progressBar.setSelection((int) (task.getProgress() * 1000));
+                rateLabel.setText(task.getRowCount() + " rows, " + (long) task.getRowsPerSecond() + " rows/s");
+
+                if (future.isDone())
+                    finish(future);
+                else
+                    display.timerExec(UPDATE_INTERVAL, this);
+            }
+        });
+
+        while (!shell.isDisposed()) {
+            if (!display.readAndDispatch())
+                display.sleep();
+        }
+
+        if (rowCount < 0) {
+            // wait for the cancelled task to close the file
+            try {
+                future.get();
+            }
+            catch (Exception ex) {
+                log.trace("open(): task stopped: ", ex);
+            }
+
+            File file = task.getFile();
+            if ((task instanceof DatasetTextExporter) && file.exists() && !file.delete())
+                log.debug("open(): failed to delete incomplete file {}", file);
+        }
+
+        return rowCount;
+    }
+
+    /**
+     * @return the number of rows transferred per second by the task.
+     */
+    public double getRowsPerSecond() {
+        return task.getRowsPerSecond();
+    }
+
+    private void finish(Future<Long> future) {
+        try {
+            rowCount = future.get();
+        }
+        catch (Exception ex) {
+            log.debug("finish(): {} failed:", title, ex);
+            Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+            Tools.showError(shell, title, cause.getMessage());
+        }
+
+        shell.dispose();
+    }
+}
@@ -0,0 +1,283 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.dialog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Dialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+
+import hdf.object.FileFormat;
+import hdf.object.IOStatistics;
+import hdf.view.ViewProperties;
+
+/**
+ * IOStatisticsDialog shows the I/O statistics of all files and of each open
+ * file: the number of reads and writes, the bytes moved, the time spent in
+ * the library, the datasets opened, the time to load the file structure and
+ * the time of the conversions of unsigned integers and of bytes to strings.
+ * Below, the read and write latency and hyperslab size histograms of the
+ * selected row are shown. The same statistics are exported over JMX, see
+ * {@link IOStatistics}.
+ */
+public class IOStatisticsDialog extends Dialog {
+
+    private static final String[] COLUMN_NAMES = { "File", "Reads", "MB Read", "Read ms", "Max Read ms", "Writes",
+            "MB Written", "Write ms", "Datasets Opened", "Tree Loads", "Tree Load ms", "Unsigned Conversions",
+            "Unsigned ms", "String Conversions", "String ms" };
+
+    private static final String[] HISTOGRAM_COLUMN_NAMES = { "Range", "Read Latency (us)", "Write Latency (us)",
+            "Hyperslab Size (points)" };
+
+    private final List<FileFormat> files;
+
+    private Font                   curFont;
+
+    private Shell                  shell;
+    private Table                  table;
+    private Table                  histogramTable;
+
+    /** the statistics shown in each row of the table */
+    private final List<IOStatistics> rowStatistics = new ArrayList<>();
+
+    /**
+     * Creates a dialog for the I/O statistics of the open files.
+     *
+     * @param parent
+     *        the dialog parent shell
+     * @param files
+     *        the open files
+     */
+    public IOStatisticsDialog(Shell parent, List<FileFormat> files) {
+        super(parent, SWT.APPLICATION_MODAL);
+        this.files = files;
+
+        try {
+            curFont = new Font(
+                    Display.getCurrent(),
+                    ViewProperties.getFontType(),
+                    ViewProperties.getFontSize(),
+                    SWT.NORMAL);
+        }
+        catch (Exception ex) {
+            curFont = null;
+        }
+    }
+
+    /** Opens the dialog and waits until it is closed. */
+    public void open() {
+        Shell parent = getParent();
+        shell = new Shell(parent, SWT.TITLE | SWT.CLOSE | SWT.BORDER | SWT.APPLICATION_MODAL | SWT.RESIZE);
+        shell.setFont(curFont);
+        shell.setText("I/O Statistics");
+        shell.setLayout(new GridLayout(1, true));
+
+        table = new Table(shell, SWT.BORDER | SWT.FULL_SELECTION);
+        table.setFont(curFont);
+        table.setHeaderVisible(true);
+        table.setLinesVisible(true);
+        GridData tableData = new GridData(SWT.FILL, SWT.FILL, true, true);
+        tableData.minimumWidth = 600;
+        tableData.minimumHeight = 150;
+        table.setLayoutData(tableData);
+
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            TableColumn column = new TableColumn(table, (i == 0) ? SWT.LEFT : SWT.RIGHT);
+            column.setText(COLUMN_NAMES[i]);
+        }
+
+        table.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                showHistograms();
+            }
+        });
+
+        Label histogramLabel = new Label(shell, SWT.LEFT);
+        histogramLabel.setFont(curFont);
+        histogramLabel.setText("Histograms of the selected row:");
+
+        histogramTable = new Table(shell, SWT.BORDER | SWT.FULL_SELECTION);
+        histogramTable.setFont(curFont);
+        histogramTable.setHeaderVisible(true);
+        histogramTable.setLinesVisible(true);
+        GridData histogramData = new GridData(SWT.FILL, SWT.FILL, true, true);
+        histogramData.minimumHeight = 200;
+        histogramTable.setLayoutData(histogramData);
+
+        for (int i = 0; i < HISTOGRAM_COLUMN_NAMES.length; i++) {
+            TableColumn column = new TableColumn(histogramTable, (i == 0) ? SWT.LEFT : SWT.RIGHT);
+            column.setText(HISTOGRAM_COLUMN_NAMES[i]);
+        }
+
+        Composite buttonComposite = new Composite(shell, SWT.NONE);
+        buttonComposite.setLayout(new GridLayout(3, true));
+        buttonComposite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        Button refreshButton = new Button(buttonComposite, SWT.PUSH);
+        refreshButton.setFont(curFont);
+        refreshButton.setText(" &Refresh ");
+        refreshButton.setLayoutData(new GridData(SWT.END, SWT.FILL, true, false));
+        refreshButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                refresh();
+            }
+        });
+
+        Button resetButton = new Button(buttonComposite, SWT.PUSH);
+        resetButton.setFont(curFont);
+        resetButton.setText(" R&eset ");
+        resetButton.setLayoutData(new GridData(SWT.CENTER, SWT.FILL, true, false));
+        resetButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                IOStatistics.getGlobal().reset();
+                for (FileFormat file : files)
+                    file.getIOStatistics().reset();
+                refresh();
+            }
+        });
+
+        Button closeButton = new Button(buttonComposite, SWT.PUSH);
+        closeButton.setFont(curFont);
+        closeButton.setText("   &Close   ");
+        closeButton.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false));
+        closeButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                shell.dispose();
+            }
+        });
+
+        shell.addDisposeListener(new DisposeListener() {
+            @Override
+            public void widgetDisposed(DisposeEvent e) {
+                if (curFont != null) curFont.dispose();
+            }
+        });
+
+        refresh();
+
+        shell.pack();
+
+        shell.setMinimumSize(shell.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+
+        Rectangle parentBounds = parent.getBounds();
+        Point shellSize = shell.getSize();
+        shell.setLocation((parentBounds.x + (parentBounds.width / 2)) - (shellSize.x / 2),
+                          (parentBounds.y + (parentBounds.height / 2)) - (shellSize.y / 2));
+
+        shell.open();
+
+        Display display = parent.getDisplay();
+        while (!shell.isDisposed()) {
+            if (!display.readAndDispatch())
+                display.sleep();
+        }
+    }
+
+    private void refresh() {
+        int selected = Math.max(0, table.getSelectionIndex());
+
+        table.removeAll();
+        rowStatistics.clear();
+
+        addRow("All files", IOStatistics.getGlobal());
+        for (FileFormat file : files)
+            addRow(file.getName(), file.getIOStatistics());
+
+        for (TableColumn column : table.getColumns())
+            column.pack();
+
+        table.setSelection(Math.min(selected, table.getItemCount() - 1));
+        showHistograms();
+    }
+
+    /** Shows the histograms of the selected row, up to the last bin which is not empty. */
+    private void showHistograms() {
+        histogramTable.removeAll();
+
+        int selected = table.getSelectionIndex();
+        if (selected < 0)
+            return;
+
+        IOStatistics stats = rowStatistics.get(selected);
+        long[] reads = stats.getReadLatencyHistogram();
+        long[] writes = stats.getWriteLatencyHistogram();
+        long[] sizes = stats.getHyperslabSizeHistogram();
+
+        int nbins = 0;
+        for (int i = 0; i < IOStatistics.HISTOGRAM_BINS; i++) {
+            if ((reads[i] != 0) || (writes[i] != 0) || (sizes[i] != 0))
+                nbins = i + 1;
+        }
+
+        for (int i = 0; i < nbins; i++) {
+            String range;
+            if (i == IOStatistics.HISTOGRAM_BINS - 1)
+                range = ">= " + (1L << i);
+            else
+                range = ((i == 0) ? 0 : (1L << i)) + " - " + ((1L << (i + 1)) - 1);
+
+            TableItem item = new TableItem(histogramTable, SWT.NONE);
+            item.setText(new String[] { range, String.valueOf(reads[i]), String.valueOf(writes[i]),
+                    String.valueOf(sizes[i]) });
+        }
+
+        for (TableColumn column : histogramTable.getColumns())
+            column.pack();
+    }
+
+    private void addRow(String name, IOStatistics stats) {
+        rowStatistics.add(stats);
+
+        TableItem item = new TableItem(table, SWT.NONE);
+        item.setText(new String[] {
+                name,
+                String.valueOf(stats.getReadCount()),
+                String.format("%.1f", stats.getBytesRead() / 1048576.0),
+                String.format("%.1f", stats.getReadTimeMillis()),
+                String.format("%.1f", stats.getMaxReadMillis()),
+                String.valueOf(stats.getWriteCount()),
+                String.format("%.1f", stats.getBytesWritten() / 1048576.0),
+                String.format("%.1f", stats.getWriteTimeMillis()),
+                String.valueOf(stats.getDatasetOpenCount()),
+                String.valueOf(stats.getTreeLoadCount()),
+                String.format("%.1f", stats.getTreeLoadMillis()),
+                String.valueOf(stats.getUnsignedConversionCount()),
+                String.format("%.1f", stats.getUnsignedConversionMillis()),
+                String.valueOf(stats.getStringConversionCount()),
+                String.format("%.1f", stats.getStringConversionMillis()) });
+    }
+}
@@ -35,10 +35,11 @@ import hdf.view.ViewProperties;
 public class UserOptionsHDFPage extends UserOptionsDefaultPage {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(UserOptionsHDFPage.class);
 
-    private Text fileExtField;
+    private Text fileExtField, datasetCacheField;
     private Button checkConvertEnum, checkShowRegRefValues, helpButton;
     private Button checkNativeOrder, checkDecOrder, checkIncOrder;
     private Button checkIndexName, checkIndexCreateOrder;
+    private Button checkLazyLoad;
     private Button earlyLibVersion, early18LibVersion, early110LibVersion, early112LibVersion, early114LibVersion, earlyLateLibVersion;
     private Button lateLibVersion, late18LibVersion, late110LibVersion, late112LibVersion, late114LibVersion, lateLateLibVersion;
 
@@ -143,6 +144,17 @@ public class UserOptionsHDFPage extends UserOptionsDefaultPage {
                 ViewProperties.setIndexOrder("H5_ITER_DEC");
         }
 
+        if (checkLazyLoad != null)
+            ViewProperties.setLazyLoad(checkLazyLoad.getSelection());
+
+        if (datasetCacheField != null) {
+            try {
+                ViewProperties.setDatasetCacheSize(Integer.parseInt(datasetCacheField.getText()));
+            }
+            catch (Exception ex) {
+            }
+        }
+
         if (checkConvertEnum != null)
             ViewProperties.setConvertEnum(checkConvertEnum.getSelection());
         if (checkShowRegRefValues != null)
@@ -188,6 +200,9 @@ public class UserOptionsHDFPage extends UserOptionsDefaultPage {
         checkIncOrder.setSelection(indexOrder.compareTo("H5_ITER_INC") == 0);
         checkDecOrder.setSelection(indexOrder.compareTo("H5_ITER_DEC") == 0);
         checkNativeOrder.setSelection(indexOrder.compareTo("H5_ITER_NATIVE") == 0);
+
+        checkLazyLoad.setSelection(ViewProperties.isLazyLoad());
+        datasetCacheField.setText(String.valueOf(ViewProperties.getDatasetCacheSize()));
     }
 
     /**
@@ -370,6 +385,29 @@ public class UserOptionsHDFPage extends UserOptionsDefaultPage {
         checkNativeOrder.setText("Native");
         checkNativeOrder.setLayoutData(new GridData(SWT.CENTER, SWT.FILL, true, false));
 
+        org.eclipse.swt.widgets.Group fileStructureGroup = new org.eclipse.swt.widgets.Group(composite, SWT.NONE);
+        fileStructureGroup.setLayout(new GridLayout(2, false));
+        fileStructureGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
+        fileStructureGroup.setFont(curFont);
+        fileStructureGroup.setText("File Structure");
+
+        checkLazyLoad = new Button(fileStructureGroup, SWT.CHECK);
+        checkLazyLoad.setFont(curFont);
+        checkLazyLoad.setText("Load HDF5 Groups When Expanded");
+        checkLazyLoad.setToolTipText("Read the members of a group only when the group is expanded, "
+                + "instead of loading the whole file structure when the file is opened");
+        checkLazyLoad.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, false, false, 2, 1));
+
+        label = new Label(fileStructureGroup, SWT.RIGHT);
+        label.setFont(curFont);
+        label.setText("Open Datasets Kept per File: ");
+
+        datasetCacheField = new Text(fileStructureGroup, SWT.SINGLE | SWT.BORDER);
+        datasetCacheField.setFont(curFont);
+        datasetCacheField.setToolTipText("Number of datasets which are kept open after a read, "
+                + "so that paging through a dataset does not reopen it; 0 closes datasets after every read");
+        datasetCacheField.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
         load();
         return composite;
     }
@@ -0,0 +1,244 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.view.dialog;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Text;
+
+import hdf.view.ViewProperties;
+
+/**
+ * UserOptionsPerformancePage.java - Configuration page for settings which
+ * trade memory for I/O speed.
+ */
+public class UserOptionsPerformancePage extends UserOptionsDefaultPage {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(UserOptionsPerformancePage.class);
+
+    private Button checkChunkCacheDefault, checkChunkCacheAuto, checkChunkCacheFixed;
+    private Text chunkCacheField;
+    private Text frameCacheField;
+    private Text tiledImageField;
+    private Text pagedTableField;
+
+    /**
+     * Configuration page for performance settings.
+     */
+    public UserOptionsPerformancePage() {
+        super("Performance Settings");
+    }
+
+    /**
+     * Performs special processing when this page's Defaults button has been pressed.
+     */
+    @Override
+    public void performDefaults() {
+        super.performDefaults();
+        getPreferenceStore();
+
+    }
+
+    /**
+     * Notifies that the OK button if this page's container has been pressed.
+     *
+     * @return <code>false</code> to abort the container's OK processing and <code>true</code> to allow
+     *         the OK to happen
+     */
+    @Override
+    public boolean performOk() {
+        getPreferenceStore();
+
+        if (checkChunkCacheDefault != null) {
+            if (checkChunkCacheAuto.getSelection())
+                ViewProperties.setChunkCacheSize(0);
+            else if (checkChunkCacheFixed.getSelection()) {
+                try {
+                    int size = Integer.parseInt(chunkCacheField.getText());
+                    ViewProperties.setChunkCacheSize((size > 0) ? size : -1);
+                }
+                catch (Exception ex) {
+                    log.debug("performOk(): invalid chunk cache size {}", chunkCacheField.getText());
+                }
+            }
+            else
+                ViewProperties.setChunkCacheSize(-1);
+        }
+
+        if (frameCacheField != null) {
+            try {
+                ViewProperties.setFrameCacheSize(Integer.parseInt(frameCacheField.getText()));
+            }
+            catch (Exception ex) {
+                log.debug("performOk(): invalid frame cache size {}", frameCacheField.getText());
+            }
+        }
+
+        if (tiledImageField != null) {
+            try {
+                ViewProperties.setTiledImageSize(Integer.parseInt(tiledImageField.getText()));
+            }
+            catch (Exception ex) {
+                log.debug("performOk(): invalid tiled image size {}", tiledImageField.getText());
+            }
+        }
+
+        if (pagedTableField != null) {
+            try {
+                ViewProperties.setPagedTableSize(Integer.parseInt(pagedTableField.getText()));
+            }
+            catch (Exception ex) {
+                log.debug("performOk(): invalid paged table size {}", pagedTableField.getText());
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Loads all stored values in the <code>FieldEditor</code>s.
+     */
+    protected void load() {
+        getPreferenceStore();
+
+        int chunkCacheSize = ViewProperties.getChunkCacheSize();
+        checkChunkCacheDefault.setSelection(chunkCacheSize < 0);
+        checkChunkCacheAuto.setSelection(chunkCacheSize == 0);
+        checkChunkCacheFixed.setSelection(chunkCacheSize > 0);
+        chunkCacheField.setText((chunkCacheSize > 0) ? String.valueOf(chunkCacheSize) : "16");
+        chunkCacheField.setEnabled(chunkCacheSize > 0);
+
+        frameCacheField.setText(String.valueOf(ViewProperties.getFrameCacheSize()));
+
+        tiledImageField.setText(String.valueOf(ViewProperties.getTiledImageSize()));
+
+        pagedTableField.setText(String.valueOf(ViewProperties.getPagedTableSize()));
+    }
+
+    /**
+     * Creates and returns the SWT control for the customized body of this
+     * preference page under the given parent composite.
+     *
+     * @param parent the parent composite
+     * @return the new control
+     */
+    @Override
+    protected Control createContents(Composite parent) {
+        Composite composite = new Composite(parent, SWT.NONE);
+        composite.setLayout(new GridLayout(1, false));
+
+        org.eclipse.swt.widgets.Group chunkCacheGroup = new org.eclipse.swt.widgets.Group(composite, SWT.NONE);
+        chunkCacheGroup.setLayout(new GridLayout(3, false));
+        chunkCacheGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+        chunkCacheGroup.setFont(curFont);
+        chunkCacheGroup.setText("HDF5 Chunk Cache per Dataset");
+
+        checkChunkCacheDefault = new Button(chunkCacheGroup, SWT.RADIO);
+        checkChunkCacheDefault.setFont(curFont);
+        checkChunkCacheDefault.setText("Library Default (1 MB)");
+        checkChunkCacheDefault.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, false, false, 3, 1));
+
+        checkChunkCacheAuto = new Button(chunkCacheGroup, SWT.RADIO);
+        checkChunkCacheAuto.setFont(curFont);
+        checkChunkCacheAuto.setText("Automatic");
+        checkChunkCacheAuto.setToolTipText("Size the chunk cache to hold all chunks touched by the selected "
+                + "subset, so that the next frame or page is read from memory");
+        checkChunkCacheAuto.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, false, false, 3, 1));
+
+        checkChunkCacheFixed = new Button(chunkCacheGroup, SWT.RADIO);
+        checkChunkCacheFixed.setFont(curFont);
+        checkChunkCacheFixed.setText("Fixed Size: ");
+        checkChunkCacheFixed.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, false, false));
+        checkChunkCacheFixed.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                chunkCacheField.setEnabled(checkChunkCacheFixed.getSelection());
+            }
+        });
+
+        chunkCacheField = new Text(chunkCacheGroup, SWT.SINGLE | SWT.BORDER);
+        chunkCacheField.setFont(curFont);
+        chunkCacheField.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        Label label = new Label(chunkCacheGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("MB");
+
+        org.eclipse.swt.widgets.Group frameCacheGroup = new org.eclipse.swt.widgets.Group(composite, SWT.NONE);
+        frameCacheGroup.setLayout(new GridLayout(2, false));
+        frameCacheGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+        frameCacheGroup.setFont(curFont);
+        frameCacheGroup.setText("Frame Prefetching");
+
+        label = new Label(frameCacheGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("Frames Cached per View: ");
+        label.setToolTipText("Number of frames of a dataset with three or more dimensions which are read "
+                + "ahead in the background while paging; 0 disables prefetching");
+
+        frameCacheField = new Text(frameCacheGroup, SWT.SINGLE | SWT.BORDER);
+        frameCacheField.setFont(curFont);
+        frameCacheField.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        org.eclipse.swt.widgets.Group tiledImageGroup = new org.eclipse.swt.widgets.Group(composite, SWT.NONE);
+        tiledImageGroup.setLayout(new GridLayout(3, false));
+        tiledImageGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+        tiledImageGroup.setFont(curFont);
+        tiledImageGroup.setText("Large Images");
+
+        label = new Label(tiledImageGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("Show Images from Tiles Above: ");
+        label.setToolTipText("Images wider or higher than this are shown from tiles read at the resolution "
+                + "of the current zoom; 0 always reads the whole image");
+
+        tiledImageField = new Text(tiledImageGroup, SWT.SINGLE | SWT.BORDER);
+        tiledImageField.setFont(curFont);
+        tiledImageField.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        label = new Label(tiledImageGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("pixels");
+
+        org.eclipse.swt.widgets.Group pagedTableGroup = new org.eclipse.swt.widgets.Group(composite, SWT.NONE);
+        pagedTableGroup.setLayout(new GridLayout(3, false));
+        pagedTableGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+        pagedTableGroup.setFont(curFont);
+        pagedTableGroup.setText("Large Tables");
+
+        label = new Label(pagedTableGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("Read Tables while Scrolling Above: ");
+        label.setToolTipText("Tables with more values than this read only the rows and columns scrolled into "
+                + "view, and are read-only; 0 always reads the whole selection");
+
+        pagedTableField = new Text(pagedTableGroup, SWT.SINGLE | SWT.BORDER);
+        pagedTableField.setFont(curFont);
+        pagedTableField.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
+
+        label = new Label(pagedTableGroup, SWT.LEFT);
+        label.setFont(curFont);
+        label.setText("values");
+
+        load();
+        return composite;
+    }
+}
@@ -0,0 +1,311 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BinaryIO writes the values of primitive numerical arrays and datasets to
+ * raw binary files in a given byte order, and reads them back.
+ *
+ * The values are converted to and from the byte order in bulk, through typed
+ * views of direct or mapped byte buffers, and are transferred through a
+ * FileChannel in large blocks.
+ */
+public final class BinaryIO
+{
+    /** the size in bytes of the buffer in which binary data is converted for writing */
+    private static final int  BUFFER_SIZE = 1 << 22;
+
+    /** the maximum number of bytes of a binary file mapped into memory at one time */
+    private static final int  MAP_SIZE = 1 << 28;
+
+    /** the maximum number of values of a dataset read at one time */
+    private static final long BLOCK_POINTS = 1L << 22;
+
+    private BinaryIO() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the values of an array to a channel, at the current position of
+     * the channel.
+     *
+     * @param channel
+     *            the channel
+     * @param data
+     *            the primitive numerical array
+     * @param order
+     *            the order of bytes
+     *
+     * @throws IOException if the data cannot be written
+     */
+    public static void write(WritableByteChannel channel, Object data, ByteOrder order) throws IOException {
+        write(channel, -1, newBuffer(order), data, 0, Array.getLength(data));
+    }
+
+    /**
+     * Writes the current selection of a dataset to a file, reading it from
+     * the dataset block by block instead of loading the whole selection.
+     *
+     * The blocks are aligned to the chunks of the dataset, see
+     * {@link Dataset#blockIterator(long)}, and each row of a block is written
+     * at its position in the file, so the file has the same layout as the
+     * data buffer of the whole selection. Selections larger than the memory
+     * can be written. The values are written as stored in the file, e.g.
+     * unsigned integers are not converted.
+     *
+     * @param dset
+     *            the dataset of integer or floating-point type
+     * @param file
+     *            the file to write; an existing file is replaced
+     * @param order
+     *            the order of bytes
+     *
+     * @throws Exception if the dataset cannot be read or the file cannot be
+     *             written
+     */
+    public static void write(Dataset dset, File file, ByteOrder order) throws Exception {
+        write(dset, file, order, BLOCK_POINTS);
+    }
+
+    /**
+     * Writes the current selection of a dataset to a file, reading at most
+     * maxBlockPoints values from the dataset at one time.
+     *
+     * @param dset
+     *            the dataset of integer or floating-point type
+     * @param file
+     *            the file to write; an existing file is replaced
+     * @param order
+     *            the order of bytes
+     * @param maxBlockPoints
+     *            the maximum number of values read at one time
+     *
+     * @throws Exception if the dataset cannot be read or the file cannot be
+     *             written
+     *
+     * @see #write(Dataset, File, ByteOrder)
+     */
+    public static void write(Dataset dset, File file, ByteOrder order, long maxBlockPoints) throws Exception {
+        int rank = dset.getRank();
+        long[] selected = dset.getSelectedDims();
+
+        // the number of values between consecutive indices of each dimension
+        long[] selStrides = new long[rank];
+        long npoints = 1;
+        for (int i = rank - 1; i >= 0; i--) {
+            selStrides[i] = npoints;
+            npoints *= selected[i];
+        }
+
+        ByteBuffer buf = newBuffer(order);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (npoints == 0)
+                return;
+
+            DatasetBlockIterator it = dset.blockIterator(maxBlockPoints);
+            while (it.hasNext()) {
+                DatasetBlock block = it.next();
+                Object data = block.getData();
+                long[] offset = block.getSelectionOffset();
+                long[] count = block.getSelectedDims();
+                int elemSize = getElementSize(data);
+
+                // the trailing dimensions which the block covers completely
+                // are written together with the dimension before them
+                int runDim = rank - 1;
+                while ((runDim > 0) && (count[runDim] == selected[runDim]))
+                    runDim--;
+
+                int runLength = 1;
+                for (int i = runDim; i < rank; i++)
+                    runLength *= (int) count[i];
+
+                long[] index = new long[runDim];
+                int from = 0;
+                do {
+                    long pos = offset[runDim] * selStrides[runDim];
+                    for (int i = 0; i < runDim; i++)
+                        pos += (offset[i] + index[i]) * selStrides[i];
+
+                    write(channel, pos * elemSize, buf, data, from, runLength);
+                    from += runLength;
+                } while (nextIndex(index, count));
+            }
+        }
+    }
+
+    /**
+     * Reads the values of an array from a binary file.
+     *
+     * The file is mapped into memory in windows of at most MAP_SIZE bytes,
+     * and the values are copied into the array in bulk through a typed view
+     * of the mapped bytes in the given byte order. If the file is shorter
+     * than the array, only the values in the file are read.
+     *
+     * @param file
+     *            the file to read
+     * @param dataOut
+     *            the primitive numerical array to fill
+     * @param order
+     *            the order of bytes
+     *
+     * @return the number of values read.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static long read(File file, Object dataOut, ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            char type = Utils.getJavaObjectRuntimeClass(dataOut);
+            int elemSize = getElementSize(dataOut);
+            long nvalues = Math.min(channel.size() / elemSize, Array.getLength(dataOut));
+            int maxValues = MAP_SIZE / elemSize;
+
+            for (long from = 0; from < nvalues; from += maxValues) {
+                int n = (int) Math.min(maxValues, nvalues - from);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, from * elemSize, (long) n * elemSize);
+                mapped.order(order);
+
+                switch (type) {
+                    case 'B':
+                        mapped.get((byte[]) dataOut, (int) from, n);
+                        break;
+                    case 'S':
+                        mapped.asShortBuffer().get((short[]) dataOut, (int) from, n);
+                        break;
+                    case 'I':
+                        mapped.asIntBuffer().get((int[]) dataOut, (int) from, n);
+                        break;
+                    case 'J':
+                        mapped.asLongBuffer().get((long[]) dataOut, (int) from, n);
+                        break;
+                    case 'F':
+                        mapped.asFloatBuffer().get((float[]) dataOut, (int) from, n);
+                        break;
+                    case 'D':
+                        mapped.asDoubleBuffer().get((double[]) dataOut, (int) from, n);
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            return nvalues;
+        }
+    }
+
+    /** Steps to the next index of a block in row-major order. */
+    private static boolean nextIndex(long[] index, long[] count) {
+        for (int i = index.length - 1; i >= 0; i--) {
+            if (++index[i] < count[i])
+                return true;
+            index[i] = 0;
+        }
+
+        return false;
+    }
+
+    private static ByteBuffer newBuffer(ByteOrder order) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buf.order(order);
+
+        return buf;
+    }
+
+    /**
+     * Returns the size in bytes of a value of a primitive numerical array, or
+     * throws an IllegalArgumentException for other objects.
+     */
+    private static int getElementSize(Object data) {
+        switch (Utils.getJavaObjectRuntimeClass(data)) {
+            case 'B':
+                return 1;
+            case 'S':
+                return 2;
+            case 'I':
+            case 'F':
+                return 4;
+            case 'J':
+            case 'D':
+                return 8;
+            default:
+                throw new IllegalArgumentException("Unsupported data type: " + ((data == null) ? null : data.getClass()));
+        }
+    }
+
+    /**
+     * Writes count values of an array, starting at index from, to a channel.
+     * The values are converted in bulk into the buffer, whose byte order is
+     * used. The values are written at the given position of a file channel,
+     * or at the current position of the channel if the position is negative.
+     */
+    private static void write(WritableByteChannel channel, long position, ByteBuffer buf, Object data,
+            int from, int count) throws IOException {
+        char type = Utils.getJavaObjectRuntimeClass(data);
+        int elemSize = getElementSize(data);
+        int maxValues = buf.capacity() / elemSize;
+
+        while (count > 0) {
+            int n = Math.min(count, maxValues);
+
+            buf.clear();
+            switch (type) {
+                case 'B':
+                    buf.put((byte[]) data, from, n);
+                    break;
+                case 'S':
+                    buf.asShortBuffer().put((short[]) data, from, n);
+                    break;
+                case 'I':
+                    buf.asIntBuffer().put((int[]) data, from, n);
+                    break;
+                case 'J':
+                    buf.asLongBuffer().put((long[]) data, from, n);
+                    break;
+                case 'F':
+                    buf.asFloatBuffer().put((float[]) data, from, n);
+                    break;
+                case 'D':
+                    buf.asDoubleBuffer().put((double[]) data, from, n);
+                    break;
+                default:
+                    break;
+            }
+            buf.position(0);
+            buf.limit(n * elemSize);
+
+            while (buf.hasRemaining()) {
+                if (position < 0)
+                    channel.write(buf);
+                else
+                    position += ((FileChannel) channel).write(buf, position);
+            }
+
+            from += n;
+            count -= n;
+        }
+    }
+}
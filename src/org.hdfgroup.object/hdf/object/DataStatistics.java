@@ -0,0 +1,425 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * DataStatistics computes the count, minimum, maximum, mean, standard
+ * deviation and, optionally, a histogram of a primitive numerical array in a
+ * single pass.
+ *
+ * Large arrays are split into segments which are processed in parallel by the
+ * fork/join pool of the calling thread, or else the common pool. Each segment is summarized by its own DataStatistics,
+ * and the partial results are merged; the mean and the sum of squared
+ * deviations are combined with the pairwise update of Chan et al., so the
+ * result does not depend on how the array was split. The values are read from
+ * the typed array, without boxing.
+ *
+ * Fill values, NaN and infinite values are excluded; NaN values are counted
+ * separately. The histogram counts the values in a given range
+ * [histMin, histMax] into nbins bins.
+ *
+ * Results of several arrays, e.g. the blocks of a large dataset, are
+ * accumulated by calling {@link #add(Object)} for each array, or by merging
+ * the statistics of each array with {@link #merge(DataStatistics)}.
+ *
+ * <pre>
+ * DataStatistics stats = DataStatistics.compute(data, fillValue, null, 0);
+ * double min = stats.getMin();
+ * double stdev = stats.getStandardDeviation();
+ * </pre>
+ */
+public final class DataStatistics
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DataStatistics.class);
+
+    /** the number of values below which an array segment is not split further */
+    private static final int SEGMENT_SIZE = 1 << 15;
+
+    private final boolean hasFillValue;
+    private final double  fill;
+
+    private final double  histMin;
+    private final double  histMax;
+    private final double  histScale;
+
+    private long          count = 0;
+    private long          nanCount = 0;
+    private double        min = Double.POSITIVE_INFINITY;
+    private double        max = Double.NEGATIVE_INFINITY;
+    private double        mean = 0;
+
+    /** the sum of squared deviations from the mean */
+    private double        m2 = 0;
+
+    private final int[]   histogram;
+
+    /**
+     * Creates empty statistics.
+     *
+     * @param fillValue
+     *            the fill value to exclude, as an array whose first element is
+     *            the value, or null.
+     * @param histRange
+     *            the range of values {min, max} counted in the histogram, or
+     *            null for no histogram.
+     * @param nbins
+     *            the number of bins of the histogram.
+     */
+    public DataStatistics(Object fillValue, double[] histRange, int nbins) {
+        double fillVal = 0;
+        boolean isFillValid = false;
+
+        if ((fillValue != null) && fillValue.getClass().isArray() && (Array.getLength(fillValue) > 0)) {
+            try {
+                fillVal = Array.getDouble(fillValue, 0);
+                isFillValid = true;
+            }
+            catch (Exception ex) {
+                log.debug("DataStatistics(): fill value {} is not numerical", fillValue);
+            }
+        }
+
+        hasFillValue = isFillValid;
+        fill = fillVal;
+
+        if ((histRange != null) && (histRange.length > 1) && (nbins > 0)) {
+            histMin = histRange[0];
+            histMax = histRange[1];
+            histScale = (histMax != histMin) ? (nbins - 1) / (histMax - histMin) : 1;
+            histogram = new int[nbins];
+        }
+        else {
+            histMin = histMax = histScale = 0;
+            histogram = null;
+        }
+    }
+
+    /** Creates empty statistics with the same fill value and histogram range. */
+    private DataStatistics(DataStatistics settings) {
+        hasFillValue = settings.hasFillValue;
+        fill = settings.fill;
+        histMin = settings.histMin;
+        histMax = settings.histMax;
+        histScale = settings.histScale;
+        histogram = (settings.histogram == null) ? null : new int[settings.histogram.length];
+    }
+
+    /**
+     * Computes the statistics of an array.
+     *
+     * @param data
+     *            the primitive numerical array.
+     * @param fillValue
+     *            the fill value to exclude, as an array whose first element is
+     *            the value, or null.
+     * @param histRange
+     *            the range of values {min, max} counted in the histogram, or
+     *            null for no histogram.
+     * @param nbins
+     *            the number of bins of the histogram.
+     *
+     * @return the statistics, or null if the data is not a primitive
+     *         numerical array.
+     */
+    public static DataStatistics compute(Object data, Object fillValue, double[] histRange, int nbins) {
+        if (!isSupported(data))
+            return null;
+
+        return new DataStatistics(fillValue, histRange, nbins).add(data);
+    }
+
+    /**
+     * Returns true if the statistics of an object can be computed, i.e. the
+     * object is an array of byte, short, int, long, float or double.
+     *
+     * @param data
+     *            the data object.
+     *
+     * @return true if the data is a primitive numerical array.
+     */
+    public static boolean isSupported(Object data) {
+        return (data instanceof byte[]) || (data instanceof short[]) || (data instanceof int[])
+                || (data instanceof long[]) || (data instanceof float[]) || (data instanceof double[]);
+    }
+
+    /**
+     * Adds the values of an array to the statistics.
+     *
+     * @param data
+     *            the primitive numerical array.
+     *
+     * @return this object.
+     *
+     * @throws IllegalArgumentException
+     *             if the data is not a primitive numerical array.
+     */
+    public DataStatistics add(Object data) {
+        if (!isSupported(data))
+            throw new IllegalArgumentException("Unsupported data type: " + ((data == null) ? null : data.getClass()));
+
+        int n = Array.getLength(data);
+        if (n <= SEGMENT_SIZE) {
+            DataStatistics part = new DataStatistics(this);
+            part.addSegment(data, 0, n);
+            merge(part);
+        }
+        else {
+            merge(new SegmentTask(this, data, 0, n).invoke());
+        }
+
+        return this;
+    }
+
+    /**
+     * Merges the statistics of other values into these statistics. Both must
+     * have been created with the same fill value and histogram range.
+     *
+     * @param other
+     *            the statistics to merge.
+     */
+    public void merge(DataStatistics other) {
+        if (other == null)
+            return;
+
+        if (other.count == 0) {
+            nanCount += other.nanCount;
+            return;
+        }
+
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        }
+        else {
+            long n = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / n;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        }
+
+        count += other.count;
+        nanCount += other.nanCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        if ((histogram != null) && (other.histogram != null)) {
+            for (int i = 0; i < histogram.length; i++)
+                histogram[i] += other.histogram[i];
+        }
+    }
+
+    /**
+     * @return the number of values, without fill values, NaN and infinite
+     *         values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of NaN values.
+     */
+    public long getNaNCount() {
+        return nanCount;
+    }
+
+    /**
+     * @return the minimum value, or positive infinity if there are no values.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximum value, or negative infinity if there are no values.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean value, or 0 if there are no values.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the sample standard deviation, or 0 if there are less than two
+     *         values.
+     */
+    public double getStandardDeviation() {
+        return (count > 1) ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+
+    /**
+     * @return the histogram counts, or null if no histogram was requested.
+     */
+    public int[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return the range of values {min, max} counted in the histogram, or null
+     *         if no histogram was requested.
+     */
+    public double[] getHistogramRange() {
+        return (histogram == null) ? null : new double[] { histMin, histMax };
+    }
+
+    /**
+     * Computes the statistics of a segment of an array. The values are added
+     * in two passes over the segment, which is small enough to stay in the
+     * cache: the first finds the count, range, sum and histogram, the second
+     * the squared deviations from the mean of the segment.
+     */
+    private void addSegment(Object data, int from, int to) {
+        double sum = 0;
+
+        switch (Utils.getJavaObjectRuntimeClass(data)) {
+            case 'B': {
+                byte[] a = (byte[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            case 'S': {
+                short[] a = (short[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            case 'I': {
+                int[] a = (int[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            case 'J': {
+                long[] a = (long[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            case 'F': {
+                float[] a = (float[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            case 'D': {
+                double[] a = (double[]) data;
+                for (int i = from; i < to; i++)
+                    sum += accept(a[i]);
+                setMean(sum);
+                for (int i = from; i < to; i++)
+                    acceptDeviation(a[i]);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private boolean isValid(double v) {
+        return !(hasFillValue && (v == fill)) && !Double.isNaN(v) && !Double.isInfinite(v);
+    }
+
+    /** Counts a value in the first pass and returns what it adds to the sum. */
+    private double accept(double v) {
+        if (!isValid(v)) {
+            if (Double.isNaN(v))
+                nanCount++;
+            return 0;
+        }
+
+        count++;
+        if (v < min)
+            min = v;
+        if (v > max)
+            max = v;
+
+        if ((histogram != null) && (v >= histMin) && (v <= histMax))
+            histogram[(int) ((v - histMin) * histScale)]++;
+
+        return v;
+    }
+
+    private void setMean(double sum) {
+        mean = (count > 0) ? sum / count : 0;
+    }
+
+    private void acceptDeviation(double v) {
+        if (isValid(v)) {
+            double diff = v - mean;
+            m2 += diff * diff;
+        }
+    }
+
+    /** Splits an array into segments and merges their statistics. */
+    private static final class SegmentTask extends RecursiveTask<DataStatistics>
+    {
+        private static final long serialVersionUID = -4312571834602214618L;
+
+        private final transient DataStatistics settings;
+        private final transient Object         data;
+        private final int                      from;
+        private final int                      to;
+
+        SegmentTask(DataStatistics settings, Object data, int from, int to) {
+            this.settings = settings;
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected DataStatistics compute() {
+            DataStatistics result = new DataStatistics(settings);
+
+            if (to - from <= SEGMENT_SIZE) {
+                result.addSegment(data, from, to);
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                SegmentTask left = new SegmentTask(settings, data, from, mid);
+                left.fork();
+                DataStatistics right = new SegmentTask(settings, data, mid, to).compute();
+                result.merge(left.join());
+                result.merge(right);
+            }
+
+            return result;
+        }
+    }
+}
@@ -147,6 +147,40 @@ public abstract class Dataset extends HObject implements DataFormat
      */
     protected long[]          chunkSize;
 
+    /** The chunk cache of the dataset is sized by the library default. */
+    public static final long  CHUNK_CACHE_DEFAULT = -1;
+
+    /** The chunk cache of the dataset is sized from its chunks and the current selection. */
+    public static final long  CHUNK_CACHE_AUTO = 0;
+
+    /** The size in bytes of the default chunk cache of the HDF5 library. */
+    public static final long  DEFAULT_CHUNK_CACHE_SIZE = 1024L * 1024L;
+
+    /** The largest chunk cache in bytes chosen by CHUNK_CACHE_AUTO. */
+    public static final long  MAX_AUTO_CHUNK_CACHE_SIZE = 256L * 1024L * 1024L;
+
+    /**
+     * The size in bytes of the chunk cache, CHUNK_CACHE_DEFAULT or
+     * CHUNK_CACHE_AUTO. Only used if isChunkCacheSizeSet is true; otherwise
+     * the chunk cache size of the file applies.
+     */
+    private long              chunkCacheSize      = CHUNK_CACHE_DEFAULT;
+
+    /** Flag to indicate if the chunk cache size was set for this dataset. */
+    private boolean           isChunkCacheSizeSet = false;
+
+    /**
+     * The size in bytes of the chunk cache the dataset is currently opened
+     * with; CHUNK_CACHE_DEFAULT if it was opened with the library default.
+     */
+    protected long            chunkCacheBytesInUse = CHUNK_CACHE_DEFAULT;
+
+    /** The number of reads of chunked data. */
+    private long              chunkCacheReads     = 0;
+
+    /** The number of reads whose chunks did not all fit in the chunk cache. */
+    private long              chunkCacheOverflows = 0;
+
     /** The compression information. */
     protected StringBuilder   compression;
     /** The compression information default prefix. */
@@ -713,6 +747,36 @@ public abstract class Dataset extends HObject implements DataFormat
         isDataLoaded = false;
     }
 
+    /**
+     * Replaces the data buffer in memory with data which was read from file
+     * elsewhere, e.g. by another object of the same dataset on a background
+     * thread.
+     *
+     * The buffer must hold the data of the current selection exactly as read()
+     * returns it, i.e. before any conversion such as convertFromUnsignedC(). The
+     * next getData() returns the buffer without reading from file.
+     *
+     * @param d
+     *            the data read with the current selection of this dataset.
+     *
+     * @see #read()
+     * @see #getData()
+     */
+    public void setLoadedData(Object d) {
+        clearData();
+
+        if (d == null)
+            return;
+
+        log.trace("setLoadedData(): replacing data buffer");
+        data = d;
+        originalBuf = d;
+        isDataLoaded = true;
+        nPoints = 1;
+        for (int j = 0; j < selectedDims.length; j++)
+            nPoints *= selectedDims[j];
+    }
+
     /**
      * Refreshes the current object in the file.
      *
@@ -748,6 +812,44 @@ public abstract class Dataset extends HObject implements DataFormat
         return dataValue;
     }
 
+    /**
+     * Returns an iterator that reads the current selection block by block.
+     *
+     * The selection is cut into blocks of at most
+     * {@link DatasetBlockIterator#DEFAULT_BLOCK_POINTS} data points, aligned to
+     * the chunks of the dataset.
+     *
+     * @see #blockIterator(long)
+     *
+     * @return the iterator over the blocks of the current selection.
+     */
+    public DatasetBlockIterator blockIterator() {
+        return blockIterator(DatasetBlockIterator.DEFAULT_BLOCK_POINTS);
+    }
+
+    /**
+     * Returns an iterator that reads the current selection block by block.
+     *
+     * read() and getData() read the whole selection into a single array, which
+     * fails for selections of more than Integer.MAX_VALUE data points and for
+     * selections larger than the available memory. The block iterator reads the
+     * same selection as a sequence of hyperslabs of at most maxBlockPoints data
+     * points, so that very large datasets can be processed with bounded memory.
+     * Blocks are aligned to the chunks of the dataset, see getChunkSize().
+     *
+     * The data buffer of the dataset is not changed by the iterator.
+     *
+     * @see hdf.object.DatasetBlockIterator
+     *
+     * @param maxBlockPoints
+     *            the maximum number of data points in one block.
+     *
+     * @return the iterator over the blocks of the current selection.
+     */
+    public DatasetBlockIterator blockIterator(long maxBlockPoints) {
+        return new DatasetBlockIterator(this, maxBlockPoints);
+    }
+
     /**
      * Returns the dimension size of the vertical axis.
      *
@@ -956,6 +1058,208 @@ public abstract class Dataset extends HObject implements DataFormat
         return chunkSize;
     }
 
+    /**
+     * Sets the size of the raw data chunk cache used when the dataset is
+     * opened.
+     *
+     * The chunk cache keeps recently read chunks in memory, so that reading
+     * neighbouring selections, e.g. the next frame of an image stack, does not
+     * read and decompress the same chunks again. The library default of 1 MB is
+     * often smaller than the chunks a single selection touches.
+     *
+     * @param nbytes
+     *            the size of the cache in bytes, {@link #CHUNK_CACHE_DEFAULT}
+     *            for the library default, or {@link #CHUNK_CACHE_AUTO} to size
+     *            the cache from the chunks touched by the current selection.
+     *
+     * @see #getChunkCacheSize()
+     * @see #computeChunkCacheSize()
+     */
+    public void setChunkCacheSize(long nbytes) {
+        chunkCacheSize = (nbytes < 0) ? CHUNK_CACHE_DEFAULT : nbytes;
+        isChunkCacheSizeSet = true;
+    }
+
+    /**
+     * Returns the size of the raw data chunk cache set for this dataset, or
+     * the chunk cache size of its file if none was set.
+     *
+     * @return the size of the cache in bytes, {@link #CHUNK_CACHE_DEFAULT}
+     *         or {@link #CHUNK_CACHE_AUTO}.
+     *
+     * @see #setChunkCacheSize(long)
+     */
+    public long getChunkCacheSize() {
+        if (!isChunkCacheSizeSet && (getFileFormat() != null))
+            return getFileFormat().getChunkCacheSize();
+
+        return chunkCacheSize;
+    }
+
+    /**
+     * Returns the size in bytes of the chunk cache to open the dataset with,
+     * resolving {@link #CHUNK_CACHE_AUTO} against the current selection.
+     *
+     * @return the size of the cache in bytes, or {@link #CHUNK_CACHE_DEFAULT}
+     *         if the dataset is not chunked or uses the library default.
+     */
+    public long computeChunkCacheSize() {
+        long nbytes = getChunkCacheSize();
+
+        if ((chunkSize == null) || (nbytes == CHUNK_CACHE_DEFAULT))
+            return CHUNK_CACHE_DEFAULT;
+
+        if (nbytes == CHUNK_CACHE_AUTO) {
+            nbytes = getChunkWorkingSetSize();
+            if (nbytes <= 0)
+                return CHUNK_CACHE_DEFAULT;
+
+            nbytes = Math.max(DEFAULT_CHUNK_CACHE_SIZE, Math.min(MAX_AUTO_CHUNK_CACHE_SIZE, nbytes));
+        }
+
+        return nbytes;
+    }
+
+    /**
+     * Returns the number of hash table slots for a chunk cache of the given
+     * size. The HDF5 documentation recommends a prime number of about 100
+     * times the number of chunks that fit in the cache.
+     *
+     * @param nbytes
+     *            the size of the chunk cache in bytes.
+     *
+     * @return the number of slots of the chunk cache.
+     */
+    public long computeChunkCacheSlots(long nbytes) {
+        long chunkBytes = getChunkBytes();
+        long nchunks = (chunkBytes > 0) ? Math.max(1, nbytes / chunkBytes) : 1;
+        long nslots = Math.max(521, Math.min(1000003, nchunks * 100));
+
+        while (!isPrime(nslots))
+            nslots++;
+
+        return nslots;
+    }
+
+    /**
+     * Returns the size in bytes of all chunks which the current selection
+     * touches. This is the chunk cache size needed to read the selection
+     * again, or a neighbouring selection in the same chunks, without
+     * reading any chunk from the file again.
+     *
+     * @return the size of the chunks touched by the current selection, or 0 if
+     *         the dataset is not chunked or not initialized.
+     */
+    public long getChunkWorkingSetSize() {
+        long chunkBytes = getChunkBytes();
+        if ((chunkBytes <= 0) || (selectedDims == null) || (startDims == null))
+            return 0;
+
+        long nchunks = 1;
+        for (int i = 0; i < chunkSize.length && i < selectedDims.length; i++) {
+            long stride = ((selectedStride == null) || (selectedStride[i] <= 0)) ? 1 : selectedStride[i];
+            long last = startDims[i] + (selectedDims[i] - 1) * stride;
+            long first = startDims[i] / chunkSize[i];
+            long n = last / chunkSize[i] - first + 1;
+
+            // a stride larger than the chunk skips chunks
+            if (stride > chunkSize[i])
+                n = Math.min(n, selectedDims[i]);
+
+            n = Math.max(1, n);
+            if (nchunks > Long.MAX_VALUE / n / chunkBytes)
+                return Long.MAX_VALUE;
+            nchunks *= n;
+        }
+
+        return nchunks * chunkBytes;
+    }
+
+    /**
+     * Returns the size in bytes of the chunk cache the dataset is currently
+     * opened with.
+     *
+     * @return the size of the chunk cache in bytes, or
+     *         {@link #CHUNK_CACHE_DEFAULT} if the library default is used.
+     */
+    public long getChunkCacheBytesInUse() {
+        return chunkCacheBytesInUse;
+    }
+
+    /**
+     * Returns the number of reads of chunked data since the statistics were
+     * reset.
+     *
+     * @return the number of reads of chunked data.
+     */
+    public long getChunkCacheReads() {
+        return chunkCacheReads;
+    }
+
+    /**
+     * Returns the number of reads since the statistics were reset whose
+     * chunks did not all fit in the chunk cache.
+     *
+     * The HDF5 library does not count chunk cache hits. A read whose chunks
+     * do not fit evicts chunks which the next read of a neighbouring
+     * selection needs again, so a high ratio of overflows to reads means the
+     * chunk cache is too small for the access pattern.
+     *
+     * @return the number of reads which overflowed the chunk cache.
+     */
+    public long getChunkCacheOverflows() {
+        return chunkCacheOverflows;
+    }
+
+    /**
+     * Resets the chunk cache statistics of the dataset.
+     */
+    public void resetChunkCacheStatistics() {
+        chunkCacheReads = 0;
+        chunkCacheOverflows = 0;
+    }
+
+    /**
+     * Updates the chunk cache statistics for a read of the current selection.
+     * Called by the read methods of the implementing classes.
+     */
+    protected void updateChunkCacheStatistics() {
+        if (chunkSize == null)
+            return;
+
+        long cacheBytes = (chunkCacheBytesInUse > 0) ? chunkCacheBytesInUse : DEFAULT_CHUNK_CACHE_SIZE;
+
+        chunkCacheReads++;
+        if (getChunkWorkingSetSize() > cacheBytes)
+            chunkCacheOverflows++;
+    }
+
+    /**
+     * Returns the size of a chunk in bytes; 0 if the dataset is not chunked.
+     */
+    private long getChunkBytes() {
+        if ((chunkSize == null) || (datatype == null))
+            return 0;
+
+        long nbytes = datatype.getDatatypeSize();
+        for (int i = 0; i < chunkSize.length; i++)
+            nbytes *= chunkSize[i];
+
+        return nbytes;
+    }
+
+    private static boolean isPrime(long n) {
+        if (n % 2 == 0)
+            return n == 2;
+
+        for (long i = 3; i * i <= n; i += 2) {
+            if (n % i == 0)
+                return false;
+        }
+
+        return true;
+    }
+
     /**
      * Returns the datatype of the data object.
      *
@@ -1052,6 +1356,7 @@ public abstract class Dataset extends HObject implements DataFormat
             }
         }
 
+        long t0 = System.nanoTime();
         String cname = dataClass.getName();
         char dname = cname.charAt(cname.lastIndexOf('[') + 1);
         int size = Array.getLength(dataIN);
@@ -1103,6 +1408,7 @@ public abstract class Dataset extends HObject implements DataFormat
             dataOUT = dataIN;
             log.debug("convertFromUnsignedC(): Java does not support unsigned long");
         }
+        IOStatistics.getGlobal().recordUnsignedConversion(System.nanoTime() - t0);
 
         return dataOUT;
     }
@@ -1242,6 +1548,7 @@ public abstract class Dataset extends HObject implements DataFormat
             return null;
         }
 
+        long t0 = System.nanoTime();
         int n = bytes.length / length;
         log.trace("byteToString(): n={} from length of {}", n, length);
         String[] strArray = new String[n];
@@ -1260,6 +1567,7 @@ public abstract class Dataset extends HObject implements DataFormat
 
             strArray[i] = (end <= 0) ? "" : str.substring(0, end);
         }
+        IOStatistics.getGlobal().recordStringConversion(System.nanoTime() - t0);
 
         return strArray;
     }
@@ -0,0 +1,135 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+/**
+ * A DatasetBlock holds the data values of one hyperslab block of a dataset
+ * selection, as returned by {@link Dataset#blockIterator()}.
+ *
+ * The block is described by its position in the file (start, stride and
+ * count of each dimension) and by its offset within the selection it was cut
+ * from. The data buffer has the same layout as the buffer returned by
+ * {@link Dataset#read()} for the same selection, i.e. a one-dimensional array
+ * for a ScalarDS or a List of member arrays for a CompoundDS.
+ *
+ * @see hdf.object.DatasetBlockIterator
+ */
+public final class DatasetBlock
+{
+    private final long   index;
+
+    private final long[] start;
+
+    private final long[] stride;
+
+    private final long[] count;
+
+    private final long[] offset;
+
+    private final Object data;
+
+    /**
+     * Constructs a block of a dataset selection.
+     *
+     * @param index
+     *            the sequence number of the block within the selection.
+     * @param start
+     *            the starting position of the block in the file.
+     * @param stride
+     *            the stride of the block in the file.
+     * @param count
+     *            the number of data points of the block in each dimension.
+     * @param offset
+     *            the position of the block within the selection.
+     * @param data
+     *            the data values of the block.
+     */
+    public DatasetBlock(long index, long[] start, long[] stride, long[] count, long[] offset, Object data) {
+        this.index = index;
+        this.start = start;
+        this.stride = stride;
+        this.count = count;
+        this.offset = offset;
+        this.data = data;
+    }
+
+    /**
+     * Returns the sequence number of this block. Blocks are numbered from zero
+     * in the order they are returned by the iterator.
+     *
+     * @return the sequence number of this block.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the starting position of this block in the file.
+     *
+     * @return the starting position of this block in each dimension.
+     */
+    public long[] getStartDims() {
+        return start;
+    }
+
+    /**
+     * Returns the stride of this block in the file.
+     *
+     * @return the stride of this block in each dimension.
+     */
+    public long[] getStride() {
+        return stride;
+    }
+
+    /**
+     * Returns the number of data points of this block in each dimension.
+     *
+     * @return the dimension sizes of this block.
+     */
+    public long[] getSelectedDims() {
+        return count;
+    }
+
+    /**
+     * Returns the position of this block within the selection it belongs to,
+     * counted in selected data points.
+     *
+     * @return the position of this block within the selection.
+     */
+    public long[] getSelectionOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the total number of data points in this block.
+     *
+     * @return the number of data points in this block.
+     */
+    public long getSize() {
+        long size = 1;
+        for (int i = 0; i < count.length; i++)
+            size *= count[i];
+        return size;
+    }
+
+    /**
+     * Returns the data values of this block.
+     *
+     * @return the data buffer of this block.
+     */
+    public Object getData() {
+        return data;
+    }
+}
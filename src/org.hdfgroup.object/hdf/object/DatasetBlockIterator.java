@@ -0,0 +1,292 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * DatasetBlockIterator reads the current selection of a dataset one hyperslab
+ * block at a time.
+ *
+ * A selection whose number of data points does not fit into a single Java
+ * array, or which does not fit into memory, cannot be read by
+ * {@link Dataset#read()}. The block iterator cuts the selection into
+ * rectangular blocks of at most <i>maxBlockPoints</i> data points and reads
+ * the blocks in row-major order, so that the dataset can be processed with a
+ * bounded amount of memory.
+ *
+ * For a chunked dataset, the block dimensions are whole multiples of the chunk
+ * dimensions and, where the selection has a stride of one, block boundaries
+ * fall on chunk boundaries in the file. Each chunk is therefore read and
+ * decompressed only once. For a contiguous dataset, blocks are made of whole
+ * rows of the fastest-changing dimensions.
+ *
+ * Each block is read by temporarily changing the selection of the dataset and
+ * calling {@link Dataset#read()}; the original selection is restored after
+ * every read. The data of a block is returned exactly as read() returns it,
+ * e.g. unsigned integers are not converted. The dataset must not be read or
+ * modified by other threads while it is being iterated.
+ *
+ * <pre>
+ * Iterator&lt;DatasetBlock&gt; it = dataset.blockIterator();
+ * while (it.hasNext()) {
+ *     DatasetBlock block = it.next();
+ *     process(block.getSelectionOffset(), block.getSelectedDims(), block.getData());
+ * }
+ * </pre>
+ *
+ * @see hdf.object.Dataset#blockIterator(long)
+ * @see hdf.object.DatasetBlock
+ */
+public class DatasetBlockIterator implements Iterator<DatasetBlock>
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetBlockIterator.class);
+
+    /** The default maximum number of data points in one block, 16M points. */
+    public static final long DEFAULT_BLOCK_POINTS = 16L * 1024 * 1024;
+
+    private final Dataset dataset;
+
+    private final int rank;
+
+    /** the selection being iterated, copied when the iterator is created */
+    private final long[] selStart;
+    private final long[] selStride;
+    private final long[] selCount;
+
+    /** the nominal size of a block in each dimension */
+    private final long[] blockDims;
+
+    /** the size of the first, possibly shortened, block in each dimension */
+    private final long[] firstDims;
+
+    /** the number of blocks in each dimension */
+    private final long[] nBlocks;
+
+    /** the block position of the next block to read */
+    private final long[] position;
+
+    private long nextIndex = 0;
+
+    private final long totalBlocks;
+
+    /**
+     * Creates an iterator over the current selection of a dataset.
+     *
+     * @param dset
+     *            the dataset to read.
+     * @param maxBlockPoints
+     *            the maximum number of data points read at one time. The value
+     *            is limited to Integer.MAX_VALUE.
+     */
+    public DatasetBlockIterator(Dataset dset, long maxBlockPoints) {
+        if (dset == null)
+            throw new IllegalArgumentException("dataset is null");
+
+        if (!dset.isInited())
+            dset.init();
+
+        dataset = dset;
+        rank = dset.getRank();
+        if (rank <= 0)
+            throw new IllegalArgumentException("dataset " + dset.getFullName() + " has no dataspace");
+
+        if (maxBlockPoints <= 0)
+            maxBlockPoints = DEFAULT_BLOCK_POINTS;
+        maxBlockPoints = Math.min(maxBlockPoints, Integer.MAX_VALUE);
+
+        selStart = dset.getStartDims().clone();
+        selStride = dset.getStride().clone();
+        selCount = dset.getSelectedDims().clone();
+
+        blockDims = computeBlockDims(dset.getChunkSize(), maxBlockPoints);
+
+        firstDims = new long[rank];
+        nBlocks = new long[rank];
+        position = new long[rank];
+
+        long[] chunks = dset.getChunkSize();
+        long total = 1;
+        for (int i = 0; i < rank; i++) {
+            firstDims[i] = blockDims[i];
+
+            // align the first block to a chunk boundary so later blocks cover whole chunks
+            if ((chunks != null) && (selStride[i] == 1) && (blockDims[i] < selCount[i])) {
+                long misalign = selStart[i] % blockDims[i];
+                if (misalign > 0)
+                    firstDims[i] = blockDims[i] - misalign;
+            }
+            firstDims[i] = Math.min(firstDims[i], selCount[i]);
+
+            long rest = selCount[i] - firstDims[i];
+            nBlocks[i] = 1 + (rest + blockDims[i] - 1) / blockDims[i];
+            total *= nBlocks[i];
+        }
+        totalBlocks = total;
+
+        log.trace("DatasetBlockIterator: {} selection={} blockDims={} nBlocks={}", dset.getFullName(), selCount,
+                blockDims, nBlocks);
+    }
+
+    /**
+     * Computes the dimensions of a block: whole chunks (or whole rows for a
+     * contiguous dataset) grown along the fastest-changing dimensions until
+     * the block holds at most maxPoints data points.
+     */
+    private long[] computeBlockDims(long[] chunks, long maxPoints) {
+        long[] bdims = new long[rank];
+
+        for (int i = 0; i < rank; i++) {
+            if ((chunks != null) && (chunks.length == rank) && (chunks[i] > 0))
+                bdims[i] = Math.max(1, chunks[i] / selStride[i]);
+            else
+                bdims[i] = 1;
+            bdims[i] = Math.min(bdims[i], selCount[i]);
+        }
+
+        // a single chunk may already be too large; shrink from the slowest dimension
+        long points = product(bdims);
+        for (int i = 0; (i < rank) && (points > maxPoints); i++) {
+            long others = points / bdims[i];
+            bdims[i] = Math.max(1, Math.min(bdims[i], maxPoints / others));
+            points = product(bdims);
+        }
+
+        // grow from the fastest dimension by whole multiples of the base size
+        for (int i = rank - 1; i >= 0; i--) {
+            if (bdims[i] >= selCount[i])
+                continue;
+
+            long others = points / bdims[i];
+            long factor = Math.min((selCount[i] + bdims[i] - 1) / bdims[i], maxPoints / points);
+            if (factor > 1) {
+                bdims[i] = Math.min(bdims[i] * factor, selCount[i]);
+                points = others * bdims[i];
+            }
+
+            // a partial dimension makes the block non-contiguous; stop growing
+            if (bdims[i] < selCount[i])
+                break;
+        }
+
+        return bdims;
+    }
+
+    private static long product(long[] values) {
+        long p = 1;
+        for (int i = 0; i < values.length; i++)
+            p *= values[i];
+        return p;
+    }
+
+    /**
+     * Returns the nominal dimension sizes of a block. Blocks at the edges of
+     * the selection may be smaller.
+     *
+     * @return the dimension sizes of a block.
+     */
+    public long[] getBlockDims() {
+        return blockDims.clone();
+    }
+
+    /**
+     * Returns the total number of blocks in the selection.
+     *
+     * @return the number of blocks.
+     */
+    public long getBlockCount() {
+        return totalBlocks;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextIndex < totalBlocks;
+    }
+
+    @Override
+    public DatasetBlock next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        long[] offset = new long[rank];
+        long[] count = new long[rank];
+        long[] start = new long[rank];
+        for (int i = 0; i < rank; i++) {
+            if (position[i] == 0) {
+                offset[i] = 0;
+                count[i] = firstDims[i];
+            }
+            else {
+                offset[i] = firstDims[i] + (position[i] - 1) * blockDims[i];
+                count[i] = Math.min(blockDims[i], selCount[i] - offset[i]);
+            }
+            start[i] = selStart[i] + offset[i] * selStride[i];
+        }
+
+        Object blockData = null;
+        try {
+            blockData = readBlock(start, count);
+        }
+        catch (Exception ex) {
+            log.debug("next(): failed to read block {} of {}", nextIndex, dataset.getFullName(), ex);
+            throw new IllegalStateException("failed to read block " + nextIndex + " of " + dataset.getFullName()
+                    + ": " + ex.getMessage(), ex);
+        }
+
+        DatasetBlock block = new DatasetBlock(nextIndex, start, selStride.clone(), count, offset, blockData);
+
+        // advance the block position, last dimension fastest
+        nextIndex++;
+        for (int i = rank - 1; i >= 0; i--) {
+            if (++position[i] < nBlocks[i])
+                break;
+            position[i] = 0;
+        }
+
+        return block;
+    }
+
+    /**
+     * Reads one block by temporarily replacing the selection of the dataset.
+     */
+    private Object readBlock(long[] start, long[] count) throws Exception {
+        long[] dsStart = dataset.getStartDims();
+        long[] dsCount = dataset.getSelectedDims();
+        long[] dsStride = dataset.getStride();
+
+        long[] savedStart = dsStart.clone();
+        long[] savedCount = dsCount.clone();
+        long[] savedStride = dsStride.clone();
+
+        // keep the loaded data of the dataset from being reused as the read buffer
+        Object savedBuf = dataset.originalBuf;
+        dataset.originalBuf = null;
+
+        try {
+            System.arraycopy(start, 0, dsStart, 0, rank);
+            System.arraycopy(count, 0, dsCount, 0, rank);
+            System.arraycopy(selStride, 0, dsStride, 0, rank);
+
+            return dataset.read();
+        }
+        finally {
+            System.arraycopy(savedStart, 0, dsStart, 0, rank);
+            System.arraycopy(savedCount, 0, dsCount, 0, rank);
+            System.arraycopy(savedStride, 0, dsStride, 0, rank);
+            dataset.originalBuf = savedBuf;
+        }
+    }
+}
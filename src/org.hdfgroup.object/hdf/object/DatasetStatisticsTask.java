@@ -0,0 +1,209 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * DatasetStatisticsTask computes the statistics and the histogram of all
+ * values of a dataset, not only of the selection which is displayed.
+ *
+ * The dataset is streamed from the file in chunk-aligned blocks of at most
+ * BLOCK_POINTS values with a {@link DatasetBlockIterator}, and each block is
+ * folded into a {@link DataStatistics}, which processes the block in
+ * parallel. The next block is read while the previous one is processed, so
+ * at most two blocks are held in memory.
+ *
+ * The histogram needs the range of the values. For 8-bit integers the range
+ * of the datatype is used, and everything is computed in one pass; otherwise
+ * the histogram is computed in a second pass over the range found by the
+ * first.
+ *
+ * The dataset is read through a second object of the dataset, so the
+ * selection and data of the displayed dataset are not changed. The task is
+ * meant to run on a worker thread; it can be cancelled and reports its
+ * progress.
+ */
+public class DatasetStatisticsTask implements Callable<DataStatistics>
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetStatisticsTask.class);
+
+    /** the maximum number of values read from file at one time */
+    public static final long BLOCK_POINTS = 1024L * 1024;
+
+    private final Dataset dataset;
+
+    private final int nbins;
+
+    private volatile boolean cancelled = false;
+
+    /** the number of values processed so far in all passes */
+    private volatile long pointsDone = 0;
+
+    private volatile long pointsTotal = 1;
+
+    /**
+     * Creates a task for the statistics of a dataset.
+     *
+     * @param dset
+     *            the dataset, see {@link #isSupported(Object)}.
+     * @param nbins
+     *            the number of bins of the histogram; 0 for no histogram.
+     */
+    public DatasetStatisticsTask(Dataset dset, int nbins) {
+        this.dataset = dset;
+        this.nbins = nbins;
+    }
+
+    /**
+     * Returns true if the statistics of a data object can be computed, i.e.
+     * the object is a dataset of integer or floating-point type in an HDF5
+     * file, whose library serializes concurrent calls.
+     *
+     * @param dataObject
+     *            the data object.
+     *
+     * @return true if the object is a numerical dataset.
+     */
+    public static boolean isSupported(Object dataObject) {
+        if (!(dataObject instanceof ScalarDS) || (dataObject instanceof Attribute))
+            return false;
+
+        ScalarDS dset = (ScalarDS) dataObject;
+        Datatype dtype = dset.getDatatype();
+        if ((dtype == null) || !(dtype.isInteger() || dtype.isFloat()) || (dset.getFileFormat() == null))
+            return false;
+
+        FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+
+        return (h5format != null) && dset.getFileFormat().isThisType(h5format);
+    }
+
+    /**
+     * Stops the computation at the next block.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the computation has been cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the fraction of the work done, from 0 to 1.
+     */
+    public double getProgress() {
+        return Math.min(1.0, (double) pointsDone / pointsTotal);
+    }
+
+    /**
+     * Computes the statistics of all values of the dataset.
+     *
+     * @return the statistics, or null if the task was cancelled.
+     *
+     * @throws Exception if the dataset cannot be read.
+     */
+    @Override
+    public DataStatistics call() throws Exception {
+        Dataset reader = Utils.copyDataset(dataset);
+        Datatype dtype = reader.getDatatype();
+        boolean isUnsigned = dtype.isUnsigned();
+
+        // select the whole dataset
+        int rank = reader.getRank();
+        long[] dims = reader.getDims();
+        long npoints = 1;
+        for (int i = 0; i < rank; i++) {
+            reader.getStartDims()[i] = 0;
+            reader.getSelectedDims()[i] = dims[i];
+            reader.getStride()[i] = 1;
+            npoints *= dims[i];
+        }
+
+        Object fillValue = reader.getFillValue();
+        if ((fillValue != null) && isUnsigned)
+            fillValue = Dataset.convertFromUnsignedC(fillValue, null);
+
+        double[] histRange = null;
+        if ((nbins > 0) && dtype.isInteger() && (dtype.getDatatypeSize() == 1))
+            histRange = isUnsigned ? new double[] { 0, 255 } : new double[] { -128, 127 };
+
+        boolean needSecondPass = (nbins > 0) && (histRange == null);
+        pointsTotal = Math.max(1, needSecondPass ? 2 * npoints : npoints);
+        log.trace("call(): {} points, two passes={}", npoints, needSecondPass);
+
+        DataStatistics stats = new DataStatistics(fillValue, histRange, (histRange == null) ? 0 : nbins);
+        if (!readAll(reader, stats, isUnsigned))
+            return null;
+
+        if (needSecondPass && (stats.getCount() > 0)) {
+            DataStatistics hist = new DataStatistics(fillValue, new double[] { stats.getMin(), stats.getMax() }, nbins);
+            if (!readAll(reader, hist, isUnsigned))
+                return null;
+
+            // the histogram pass sees the same values, so the other results are identical
+            stats = hist;
+        }
+
+        pointsDone = pointsTotal;
+
+        return stats;
+    }
+
+    /**
+     * Reads all blocks of the selection of the reader and adds them to the
+     * statistics. A block is read while the previous block is processed.
+     *
+     * @return false if the task was cancelled.
+     */
+    private boolean readAll(Dataset reader, DataStatistics stats, boolean isUnsigned) throws Exception {
+        DatasetBlockIterator it = reader.blockIterator(BLOCK_POINTS);
+        CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+        try {
+            while (it.hasNext()) {
+                if (cancelled) {
+                    log.trace("readAll(): cancelled");
+                    return false;
+                }
+
+                DatasetBlock block = it.next();
+                Object data = block.getData();
+                if (isUnsigned)
+                    data = Dataset.convertFromUnsignedC(data, null);
+
+                final Object blockData = data;
+                final long size = block.getSize();
+
+                // wait for the previous block before adding this one
+                pending.join();
+                pending = CompletableFuture.runAsync(() -> {
+                    stats.add(blockData);
+                    pointsDone += size;
+                });
+            }
+        }
+        finally {
+            pending.join();
+        }
+
+        return !cancelled;
+    }
+}
@@ -0,0 +1,331 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * DatasetTextExporter writes the values of a numerical dataset to a text
+ * file, one row per line, with the values of a row separated by a delimiter.
+ *
+ * The values are read from the file in blocks of whole rows of at most
+ * BLOCK_POINTS values, so datasets larger than the memory can be exported.
+ * A block is cut into segments which are formatted in parallel into byte
+ * buffers by the fork/join pool of the calling thread, or else the common
+ * pool, and the buffers are written in order to a FileChannel. Integers are
+ * formatted digit by digit without creating objects; floating-point values
+ * are formatted as Float.toString() and Double.toString() do, through a
+ * StringBuilder reused by the segment. The next blocks are read while the
+ * previous ones are formatted, and at most MAX_PENDING_BLOCKS blocks are held
+ * in memory.
+ *
+ * The rows are laid out as described in {@link DatasetTextTask}.
+ */
+public class DatasetTextExporter extends DatasetTextTask
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetTextExporter.class);
+
+    /** the maximum number of values read from file at one time */
+    public static final long BLOCK_POINTS = 1024L * 1024;
+
+    /** the maximum number of blocks being formatted or waiting to be written */
+    private static final int MAX_PENDING_BLOCKS = 4;
+
+    /** the number of values formatted by one worker at a time */
+    private static final int SEGMENT_POINTS = 1 << 15;
+
+    /**
+     * Creates a task which exports a dataset to a text file.
+     *
+     * @param dset
+     *            the dataset, see {@link #isSupported(Object)}.
+     * @param file
+     *            the text file to write; an existing file is replaced.
+     * @param delimiter
+     *            the delimiter between the values of a row.
+     * @param wholeDataset
+     *            true to export all values of the dataset; false to export
+     *            the current selection as a table shows it, which requires
+     *            the row dimension of the selection to come before its column
+     *            dimension.
+     */
+    public DatasetTextExporter(Dataset dset, File file, String delimiter, boolean wholeDataset) {
+        super(dset, file, delimiter, wholeDataset);
+    }
+
+    /**
+     * Exports the dataset.
+     *
+     * @return the number of rows written, or -1 if the task was cancelled.
+     *
+     * @throws Exception if the dataset cannot be read or the file cannot be
+     *             written.
+     */
+    @Override
+    public Long call() throws Exception {
+        startTime = System.nanoTime();
+
+        Dataset reader = Utils.copyDataset(dataset);
+        boolean isUnsigned = reader.getDatatype().isUnsigned();
+        int rank = reader.getRank();
+
+        int bandDim = getBandDim();
+        long rowLength = getRowLength();
+        long bandLength = (bandDim < 0) ? 1 : selCount[bandDim];
+
+        long npoints = 1;
+        for (int i = 0; i < rank; i++)
+            npoints *= selCount[i];
+        workTotal = Math.max(1, npoints);
+
+        // a block is a band of whole rows, or a part of a single row
+        long blockCols = Math.min(rowLength, BLOCK_POINTS);
+        long bandRows = (blockCols < rowLength) ? 1 : Math.max(1, BLOCK_POINTS / Math.max(1, rowLength));
+        log.trace("call(): {} points, row length={}, rows per block={}", npoints, rowLength, bandRows);
+
+        long[] start = reader.getStartDims();
+        long[] stride = reader.getStride();
+        long[] count = reader.getSelectedDims();
+        for (int i = 0; i < rank; i++) {
+            start[i] = selStart[i];
+            stride[i] = selStride[i];
+            count[i] = 1;
+        }
+
+        long[] outer = new long[Math.max(0, bandDim)];
+        ArrayDeque<CompletableFuture<TextBuffer[]>> pending = new ArrayDeque<>();
+        ForkJoinPool pool = (ForkJoinTask.getPool() != null) ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (npoints > 0) {
+                do {
+                    for (int i = 0; i < outer.length; i++)
+                        start[i] = selStart[i] + outer[i] * selStride[i];
+
+                    for (long row = 0; row < bandLength; row += bandRows) {
+                        long nrows = Math.min(bandRows, bandLength - row);
+                        if (bandDim >= 0) {
+                            start[bandDim] = selStart[bandDim] + row * selStride[bandDim];
+                            count[bandDim] = nrows;
+                        }
+
+                        for (long col = 0; col < rowLength; col += blockCols) {
+                            if (cancelled) {
+                                log.trace("call(): cancelled");
+                                return -1L;
+                            }
+
+                            long ncols = Math.min(blockCols, rowLength - col);
+                            if (rowDim >= 0) {
+                                start[rowDim] = selStart[rowDim] + col * selStride[rowDim];
+                                count[rowDim] = ncols;
+                            }
+
+                            Object data = reader.read();
+                            long firstCol = col;
+                            pending.add(CompletableFuture.supplyAsync(
+                                    () -> formatBlock(data, isUnsigned, firstCol, rowLength), pool));
+
+                            while (pending.size() >= MAX_PENDING_BLOCKS)
+                                write(channel, pending.poll().join());
+                        }
+                    }
+                } while (nextIndex(outer));
+
+                while (!pending.isEmpty())
+                    write(channel, pending.poll().join());
+            }
+        }
+        finally {
+            for (CompletableFuture<TextBuffer[]> f : pending)
+                f.cancel(false);
+            endTime = System.nanoTime();
+        }
+
+        workDone = workTotal;
+        log.debug("call(): {} rows written to {} at {} rows/s", rowsDone, file, (long) getRowsPerSecond());
+
+        return rowsDone;
+    }
+
+    private void write(FileChannel channel, TextBuffer[] segments) throws Exception {
+        for (TextBuffer segment : segments) {
+            ByteBuffer buf = ByteBuffer.wrap(segment.bytes, 0, segment.length);
+            while (buf.hasRemaining())
+                channel.write(buf);
+
+            workDone += segment.points;
+            rowsDone += segment.rows;
+        }
+    }
+
+    /**
+     * Formats the values of a block in parallel segments. The first value of
+     * the block is in column firstCol of a row.
+     */
+    private TextBuffer[] formatBlock(Object data, boolean isUnsigned, long firstCol, long rowLength) {
+        int size = Array.getLength(data);
+        int nsegments = (size + SEGMENT_POINTS - 1) / SEGMENT_POINTS;
+
+        return IntStream.range(0, nsegments).parallel().mapToObj(s -> {
+            int from = s * SEGMENT_POINTS;
+            int to = Math.min(size, from + SEGMENT_POINTS);
+            long col = (firstCol + from) % rowLength;
+
+            return formatSegment(data, isUnsigned, from, to, col, rowLength);
+        }).toArray(TextBuffer[]::new);
+    }
+
+    /** Formats the values [from, to) of an array; the first is in column col. */
+    private TextBuffer formatSegment(Object data, boolean isUnsigned, int from, int to, long col, long rowLength) {
+        char type = Utils.getJavaObjectRuntimeClass(data);
+        int width = ((type == 'F') || (type == 'D')) ? 24 : 12;
+        TextBuffer out = new TextBuffer((to - from) * (width + delimiter.length) + 16);
+        StringBuilder sb = ((type == 'F') || (type == 'D')) ? new StringBuilder(32) : null;
+
+        out.points = to - from;
+        for (int i = from; i < to; i++) {
+            switch (type) {
+                case 'B':
+                    out.putLong(isUnsigned ? (((byte[]) data)[i] & 0xFF) : ((byte[]) data)[i]);
+                    break;
+                case 'S':
+                    out.putLong(isUnsigned ? (((short[]) data)[i] & 0xFFFF) : ((short[]) data)[i]);
+                    break;
+                case 'I':
+                    out.putLong(isUnsigned ? (((int[]) data)[i] & 0xFFFFFFFFL) : ((int[]) data)[i]);
+                    break;
+                case 'J':
+                    if (isUnsigned)
+                        out.putUnsignedLong(((long[]) data)[i]);
+                    else
+                        out.putLong(((long[]) data)[i]);
+                    break;
+                case 'F':
+                    sb.setLength(0);
+                    out.putChars(sb.append(((float[]) data)[i]));
+                    break;
+                case 'D':
+                    sb.setLength(0);
+                    out.putChars(sb.append(((double[]) data)[i]));
+                    break;
+                default:
+                    break;
+            }
+
+            if (++col == rowLength) {
+                out.put((byte) '\n');
+                out.rows++;
+                col = 0;
+            }
+            else {
+                out.put(delimiter);
+            }
+        }
+
+        return out;
+    }
+
+    /** A growable byte buffer with the formatted text of a segment. */
+    private static final class TextBuffer
+    {
+        private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+        byte[] bytes;
+        int    length = 0;
+        int    points = 0;
+        int    rows = 0;
+
+        TextBuffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void ensureCapacity(int n) {
+            if (length + n > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + n));
+        }
+
+        void put(byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+        }
+
+        void put(byte[] b) {
+            ensureCapacity(b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+        }
+
+        void putChars(CharSequence s) {
+            int n = s.length();
+            ensureCapacity(n);
+            for (int i = 0; i < n; i++)
+                bytes[length++] = (byte) s.charAt(i);
+        }
+
+        void putLong(long v) {
+            if (v == Long.MIN_VALUE) {
+                put(MIN_LONG);
+                return;
+            }
+
+            ensureCapacity(20);
+            if (v < 0) {
+                bytes[length++] = '-';
+                v = -v;
+            }
+            putDigits(v);
+        }
+
+        void putUnsignedLong(long v) {
+            ensureCapacity(20);
+            if (v < 0) {
+                // the value is above Long.MAX_VALUE; split off the last digit
+                long q = (v >>> 1) / 5;
+                putDigits(q);
+                bytes[length++] = (byte) ('0' + (v - q * 10));
+            }
+            else {
+                putDigits(v);
+            }
+        }
+
+        /** Writes the digits of a non-negative value. */
+        private void putDigits(long v) {
+            int ndigits = 1;
+            for (long t = v; t >= 10; t /= 10)
+                ndigits++;
+
+            int pos = length + ndigits;
+            length = pos;
+            do {
+                bytes[--pos] = (byte) ('0' + (v % 10));
+                v /= 10;
+            } while (v != 0);
+        }
+    }
+}
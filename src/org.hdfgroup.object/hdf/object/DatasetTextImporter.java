@@ -0,0 +1,635 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+/**
+ * DatasetTextImporter reads the values of a numerical dataset from a text
+ * file, one row per line, and writes them to the dataset in the file.
+ *
+ * The text file is mapped into memory in windows of at most MAP_SIZE bytes
+ * and is never loaded as a whole. For each block of at most BLOCK_POINTS
+ * values the lines of the block are found, split into line-aligned segments
+ * and parsed in parallel by the common fork/join pool straight from the
+ * mapped bytes, without creating a String for each value. The block is then
+ * written to the dataset as one hyperslab of whole rows, while the next block
+ * is parsed.
+ *
+ * The values of a line are separated by the delimiter or by white space. A
+ * line with more values than a row has is cut; the values missing from a
+ * shorter line keep their values in the file. Integers must fit into the
+ * datatype of the dataset; unsigned integers are given as positive numbers.
+ * Importing stops at the end of the text file or of the dataset.
+ *
+ * The rows are laid out as described in {@link DatasetTextTask}.
+ */
+public class DatasetTextImporter extends DatasetTextTask
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetTextImporter.class);
+
+    /** the maximum number of values written to the dataset at one time */
+    public static final long BLOCK_POINTS = 1024L * 1024;
+
+    /** the default maximum number of bytes of the text file mapped at one time */
+    private static final int MAP_SIZE = 1 << 28;
+
+    /** the number of bytes of text parsed by one worker at a time */
+    private static final int SEGMENT_BYTES = 1 << 18;
+
+    /** the powers of ten which are exact doubles */
+    private static final double[] DOUBLE_POW10 = new double[23];
+
+    /** the powers of ten which are exact floats */
+    private static final float[] FLOAT_POW10 = new float[11];
+
+    static {
+        DOUBLE_POW10[0] = 1;
+        for (int i = 1; i < DOUBLE_POW10.length; i++)
+            DOUBLE_POW10[i] = DOUBLE_POW10[i - 1] * 10;
+
+        FLOAT_POW10[0] = 1;
+        for (int i = 1; i < FLOAT_POW10.length; i++)
+            FLOAT_POW10[i] = FLOAT_POW10[i - 1] * 10;
+    }
+
+    /** true for the bytes which separate values */
+    private final boolean[] separators = new boolean[256];
+
+    /**
+     * the maximum number of bytes of the text file mapped at one time, which
+     * limits the length of a line
+     */
+    private int mapSize = MAP_SIZE;
+
+    /** the Java type of the values of the dataset, as in Utils.getJavaObjectRuntimeClass() */
+    private char type;
+
+    /** the range of the integer values of the dataset */
+    private long minValue;
+    private long maxValue;
+
+    private boolean isUnsigned;
+
+    /**
+     * Creates a task which imports a text file into a dataset.
+     *
+     * @param dset
+     *            the dataset, see {@link #isSupported(Object)}.
+     * @param file
+     *            the text file to read.
+     * @param delimiter
+     *            the delimiter between the values of a row, in addition to
+     *            white space.
+     * @param wholeDataset
+     *            true to import all values of the dataset; false to import
+     *            the current selection as a table shows it, which requires
+     *            the row dimension of the selection to come before its column
+     *            dimension.
+     */
+    public DatasetTextImporter(Dataset dset, File file, String delimiter, boolean wholeDataset) {
+        super(dset, file, delimiter, wholeDataset);
+
+        separators[' '] = separators['\t'] = separators['\r'] = true;
+        for (byte b : this.delimiter)
+            separators[b & 0xFF] = true;
+    }
+
+    /**
+     * Sets the maximum number of bytes of the text file which are mapped into
+     * memory at one time, MAP_SIZE by default, which limits the length of a
+     * line. It is meant for tests, which use small windows so that the lines
+     * of a small file cross the boundaries of the windows.
+     *
+     * @param size
+     *            the maximum number of bytes mapped at one time.
+     *
+     * @throws IllegalArgumentException if the size is not positive.
+     */
+    public void setMapSize(int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Invalid map size: " + size);
+
+        mapSize = size;
+    }
+
+    /**
+     * Imports the text file.
+     *
+     * @return the number of rows written, or -1 if the task was cancelled.
+     *
+     * @throws Exception if the text cannot be parsed or the dataset cannot be
+     *             written.
+     */
+    @Override
+    public Long call() throws Exception {
+        startTime = System.nanoTime();
+
+        Dataset writer = Utils.copyDataset(dataset);
+        setType(writer.getDatatype());
+        int rank = writer.getRank();
+
+        int bandDim = getBandDim();
+        long rowLength = getRowLength();
+        long bandLength = (bandDim < 0) ? 1 : selCount[bandDim];
+        if (rowLength > Integer.MAX_VALUE)
+            throw new Exception("The rows of the dataset are too long to be imported");
+
+        long bandRows = Math.max(1, BLOCK_POINTS / Math.max(1, rowLength));
+        log.trace("call(): row length={}, rows per block={}", rowLength, bandRows);
+
+        long[] stride = writer.getStride();
+        long[] start = new long[rank];
+        long[] count = new long[rank];
+        for (int i = 0; i < rank; i++) {
+            start[i] = selStart[i];
+            stride[i] = selStride[i];
+            count[i] = 1;
+        }
+
+        long[] outer = new long[Math.max(0, bandDim)];
+        Block pending = null;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            workTotal = Math.max(1, fileSize);
+
+            // the position in the text file of the next line to import
+            long pos = 0;
+            long lineNumber = 1;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+
+            if (rowLength > 0) {
+                outerLoop:
+                do {
+                    for (int i = 0; i < outer.length; i++)
+                        start[i] = selStart[i] + outer[i] * selStride[i];
+
+                    long row = 0;
+                    while (row < bandLength) {
+                        if (cancelled) {
+                            log.trace("call(): cancelled");
+                            return -1L;
+                        }
+
+                        if (pos >= fileSize)
+                            break outerLoop;
+
+                        // keep at least half a window of text ahead of the next line
+                        if ((window == null) || ((pos - windowStart > mapSize / 2) && (windowStart + window.capacity() < fileSize))) {
+                            windowStart = pos;
+                            window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(mapSize, fileSize - pos));
+                        }
+
+                        int want = (int) Math.min(bandRows, bandLength - row);
+                        int[] lines = findLines(window, (int) (pos - windowStart), want,
+                                windowStart + window.capacity() == fileSize);
+                        if (lines == null) {
+                            if (windowStart == pos)
+                                throw new Exception("Line " + lineNumber + " of the text file is too long");
+
+                            // the next line does not end in this window
+                            windowStart = pos;
+                            window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(mapSize, fileSize - pos));
+                            continue;
+                        }
+
+                        int nrows = lines.length - 1;
+                        if (bandDim >= 0) {
+                            start[bandDim] = selStart[bandDim] + row * selStride[bandDim];
+                            count[bandDim] = nrows;
+                        }
+                        if (rowDim >= 0)
+                            count[rowDim] = rowLength;
+
+                        Block block = new Block(start.clone(), count.clone(), windowStart + lines[nrows]);
+                        ByteBuffer text = window;
+                        long firstLine = lineNumber;
+                        block.values = CompletableFuture.supplyAsync(
+                                () -> parseBlock(text, lines, (int) rowLength, firstLine, block));
+
+                        // write the previous block while this one is parsed
+                        if (pending != null)
+                            write(writer, pending, (int) rowLength);
+                        pending = block;
+
+                        row += nrows;
+                        lineNumber += nrows;
+                        pos = windowStart + lines[nrows];
+                    }
+                } while (nextIndex(outer));
+            }
+
+            if (pending != null) {
+                write(writer, pending, (int) rowLength);
+                pending = null;
+            }
+        }
+        finally {
+            if (pending != null)
+                pending.values.cancel(false);
+            endTime = System.nanoTime();
+        }
+
+        workDone = workTotal;
+        log.debug("call(): {} rows imported from {} at {} rows/s", rowsDone, file, (long) getRowsPerSecond());
+
+        return rowsDone;
+    }
+
+    /** Sets the Java type and the range of the values of a datatype. */
+    private void setType(Datatype dtype) throws Exception {
+        int size = (int) dtype.getDatatypeSize();
+        isUnsigned = dtype.isUnsigned();
+
+        if (dtype.isFloat() && ((size == 4) || (size == 8))) {
+            type = (size == 4) ? 'F' : 'D';
+        }
+        else if (dtype.isInteger() && ((size == 1) || (size == 2) || (size == 4) || (size == 8))) {
+            type = (size == 1) ? 'B' : (size == 2) ? 'S' : (size == 4) ? 'I' : 'J';
+            if (size == 8) {
+                minValue = isUnsigned ? 0 : Long.MIN_VALUE;
+                maxValue = Long.MAX_VALUE;
+            }
+            else if (isUnsigned) {
+                minValue = 0;
+                maxValue = (1L << (8 * size)) - 1;
+            }
+            else {
+                minValue = -(1L << (8 * size - 1));
+                maxValue = (1L << (8 * size - 1)) - 1;
+            }
+        }
+        else {
+            throw new Exception("Unsupported datatype: " + dtype.getDescription());
+        }
+    }
+
+    /**
+     * Finds the starts of up to n lines of a text, beginning at from. The
+     * returned array holds the start of each line found and the position
+     * after the last line.
+     *
+     * @return the line starts, or null if no line ends in the text and the
+     *         text is not the end of the file.
+     */
+    private static int[] findLines(ByteBuffer text, int from, int n, boolean isEndOfFile) {
+        int[] lines = new int[n + 1];
+        int limit = text.capacity();
+        int nlines = 0;
+        int pos = from;
+
+        lines[0] = from;
+        while ((nlines < n) && (pos < limit)) {
+            if (text.get(pos++) == '\n')
+                lines[++nlines] = pos;
+        }
+
+        // the last line of the file may have no newline
+        if ((nlines < n) && isEndOfFile && (pos > lines[nlines]))
+            lines[++nlines] = pos;
+
+        if (nlines == 0)
+            return null;
+
+        if (nlines < n) {
+            int[] found = new int[nlines + 1];
+            System.arraycopy(lines, 0, found, 0, nlines + 1);
+            lines = found;
+        }
+
+        return lines;
+    }
+
+    /**
+     * Parses the lines of a block in parallel segments into a new array of
+     * rowLength values per line. The number of values found in each line is
+     * kept in the block.
+     */
+    private Object parseBlock(ByteBuffer text, int[] lines, int rowLength, long firstLine, Block block) {
+        int nrows = lines.length - 1;
+        Object values = newArray(nrows * rowLength);
+        block.rowCounts = new int[nrows];
+
+        // cut the lines into segments of about SEGMENT_BYTES bytes
+        int nsegments = Math.max(1, Math.min(nrows, (lines[nrows] - lines[0]) / SEGMENT_BYTES));
+        IntStream.range(0, nsegments).parallel().forEach(s -> {
+            int first = (int) ((long) nrows * s / nsegments);
+            int last = (int) ((long) nrows * (s + 1) / nsegments);
+            for (int i = first; i < last; i++)
+                block.rowCounts[i] = parseLine(text, lines[i], lines[i + 1], values, i * rowLength, rowLength, firstLine + i);
+        });
+
+        return values;
+    }
+
+    private Object newArray(int size) {
+        switch (type) {
+            case 'B':
+                return new byte[size];
+            case 'S':
+                return new short[size];
+            case 'I':
+                return new int[size];
+            case 'J':
+                return new long[size];
+            case 'F':
+                return new float[size];
+            default:
+                return new double[size];
+        }
+    }
+
+    /**
+     * Parses the values of a line [from, to) into the array at index offset.
+     *
+     * @return the number of values stored, at most max.
+     */
+    private int parseLine(ByteBuffer text, int from, int to, Object values, int offset, int max, long lineNumber) {
+        int n = 0;
+        int pos = from;
+
+        while ((pos < to) && (n < max)) {
+            int b = text.get(pos) & 0xFF;
+            if ((b == '\n') || separators[b]) {
+                pos++;
+                continue;
+            }
+
+            int end = pos + 1;
+            while (end < to) {
+                b = text.get(end) & 0xFF;
+                if ((b == '\n') || separators[b])
+                    break;
+                end++;
+            }
+
+            int index = offset + n;
+            switch (type) {
+                case 'B':
+                    ((byte[]) values)[index] = (byte) parseInteger(text, pos, end, lineNumber);
+                    break;
+                case 'S':
+                    ((short[]) values)[index] = (short) parseInteger(text, pos, end, lineNumber);
+                    break;
+                case 'I':
+                    ((int[]) values)[index] = (int) parseInteger(text, pos, end, lineNumber);
+                    break;
+                case 'J':
+                    ((long[]) values)[index] = parseInteger(text, pos, end, lineNumber);
+                    break;
+                case 'F':
+                    ((float[]) values)[index] = (float) parseReal(text, pos, end, true, lineNumber);
+                    break;
+                default:
+                    ((double[]) values)[index] = parseReal(text, pos, end, false, lineNumber);
+                    break;
+            }
+
+            n++;
+            pos = end;
+        }
+
+        return n;
+    }
+
+    /**
+     * Parses a decimal integer and checks that it fits into the datatype.
+     * Unsigned 64-bit values above Long.MAX_VALUE are returned as negative
+     * values with the same bits.
+     */
+    private long parseInteger(ByteBuffer text, int from, int to, long lineNumber) {
+        int pos = from;
+        boolean negative = false;
+        byte b = text.get(pos);
+        if ((b == '-') || (b == '+')) {
+            negative = (b == '-');
+            pos++;
+        }
+
+        if ((pos == to) || (to - pos > 18))
+            return parseBigInteger(text, from, to, lineNumber);
+
+        long v = 0;
+        for (; pos < to; pos++) {
+            int digit = text.get(pos) - '0';
+            if ((digit < 0) || (digit > 9))
+                throw invalidValue(text, from, to, lineNumber);
+            v = v * 10 + digit;
+        }
+        if (negative)
+            v = -v;
+
+        if ((v < minValue) || (v > maxValue))
+            throw invalidValue(text, from, to, lineNumber);
+
+        return v;
+    }
+
+    /** Parses an integer with too many digits for a long. */
+    private long parseBigInteger(ByteBuffer text, int from, int to, long lineNumber) {
+        BigInteger v;
+        try {
+            v = new BigInteger(getString(text, from, to));
+        }
+        catch (NumberFormatException ex) {
+            throw invalidValue(text, from, to, lineNumber);
+        }
+
+        boolean fits = (type == 'J') && (isUnsigned ? ((v.signum() >= 0) && (v.bitLength() <= 64)) : (v.bitLength() <= 63));
+        if (!fits)
+            throw invalidValue(text, from, to, lineNumber);
+
+        return v.longValue();
+    }
+
+    /**
+     * Parses a decimal floating-point number. Numbers with at most 19
+     * significant digits and small exponents are computed exactly from their
+     * digits with a single rounding; other numbers, and NaN and Infinity, are
+     * parsed by Double.parseDouble() or Float.parseFloat().
+     */
+    private double parseReal(ByteBuffer text, int from, int to, boolean isFloat, long lineNumber) {
+        int pos = from;
+        boolean negative = false;
+        byte b = text.get(pos);
+        if ((b == '-') || (b == '+')) {
+            negative = (b == '-');
+            pos++;
+        }
+
+        long mantissa = 0;
+        int ndigits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean isExact = true;
+        boolean isFraction = false;
+
+        for (; pos < to; pos++) {
+            b = text.get(pos);
+            if ((b == '.') && !isFraction) {
+                isFraction = true;
+                continue;
+            }
+
+            int digit = b - '0';
+            if ((digit < 0) || (digit > 9))
+                break;
+
+            hasDigits = true;
+            if ((mantissa == 0) && (digit == 0)) {
+                // leading zeros are not significant
+                if (isFraction)
+                    exponent--;
+            }
+            else if (ndigits < 19) {
+                mantissa = mantissa * 10 + digit;
+                ndigits++;
+                if (isFraction)
+                    exponent--;
+            }
+            else {
+                isExact = false;
+                if (!isFraction)
+                    exponent++;
+            }
+        }
+
+        if (hasDigits && (pos < to) && ((text.get(pos) == 'e') || (text.get(pos) == 'E'))) {
+            pos++;
+            boolean negativeExp = false;
+            if ((pos < to) && ((text.get(pos) == '-') || (text.get(pos) == '+'))) {
+                negativeExp = (text.get(pos) == '-');
+                pos++;
+            }
+
+            int exp = 0;
+            int expStart = pos;
+            for (; pos < to; pos++) {
+                int digit = text.get(pos) - '0';
+                if ((digit < 0) || (digit > 9))
+                    break;
+                exp = Math.min(exp * 10 + digit, 100000);
+            }
+            if (pos == expStart)
+                hasDigits = false;
+
+            exponent += negativeExp ? -exp : exp;
+        }
+
+        if (hasDigits && (pos == to) && isExact) {
+            double v = Double.NaN;
+            if (isFloat) {
+                if ((mantissa < (1L << 24)) && (Math.abs(exponent) < FLOAT_POW10.length))
+                    v = (exponent >= 0) ? (float) mantissa * FLOAT_POW10[exponent] : (float) mantissa / FLOAT_POW10[-exponent];
+            }
+            else if ((mantissa < (1L << 53)) && (Math.abs(exponent) < DOUBLE_POW10.length)) {
+                v = (exponent >= 0) ? mantissa * DOUBLE_POW10[exponent] : mantissa / DOUBLE_POW10[-exponent];
+            }
+
+            if (!Double.isNaN(v))
+                return negative ? -v : v;
+        }
+
+        try {
+            String s = getString(text, from, to);
+            return isFloat ? Float.parseFloat(s) : Double.parseDouble(s);
+        }
+        catch (NumberFormatException ex) {
+            throw invalidValue(text, from, to, lineNumber);
+        }
+    }
+
+    private static String getString(ByteBuffer text, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = text.get(from + i);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private NumberFormatException invalidValue(ByteBuffer text, int from, int to, long lineNumber) {
+        return new NumberFormatException("Invalid value \"" + getString(text, from, Math.min(to, from + 64))
+                + "\" in line " + lineNumber + " of " + file.getName());
+    }
+
+    /**
+     * Writes a parsed block to the dataset. The values missing from short
+     * lines are first read from the dataset.
+     */
+    private void write(Dataset writer, Block block, int rowLength) throws Exception {
+        Object values;
+        try {
+            values = block.values.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw ex;
+        }
+
+        System.arraycopy(block.start, 0, writer.getStartDims(), 0, block.start.length);
+        System.arraycopy(block.count, 0, writer.getSelectedDims(), 0, block.count.length);
+
+        int[] rowCounts = block.rowCounts;
+        boolean isComplete = true;
+        for (int n : rowCounts)
+            isComplete &= (n == rowLength);
+
+        if (!isComplete) {
+            Object current = writer.read();
+            for (int i = 0; i < rowCounts.length; i++) {
+                int from = i * rowLength + rowCounts[i];
+                System.arraycopy(current, from, values, from, rowLength - rowCounts[i]);
+            }
+        }
+
+        writer.write(values);
+
+        rowsDone += rowCounts.length;
+        workDone = block.end;
+    }
+
+    /** A block of rows being parsed, and where it is written. */
+    private static final class Block
+    {
+        final long[] start;
+        final long[] count;
+
+        /** the position in the text file after the last line of the block */
+        final long   end;
+
+        CompletableFuture<Object> values;
+
+        /** the number of values found in each line */
+        volatile int[] rowCounts;
+
+        Block(long[] start, long[] count, long end) {
+            this.start = start;
+            this.count = count;
+            this.end = end;
+        }
+    }
+}
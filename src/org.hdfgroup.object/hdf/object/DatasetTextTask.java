@@ -0,0 +1,234 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
+/**
+ * DatasetTextTask is the base class of the tasks which transfer the values of
+ * a numerical dataset between the file and a text file, one row per line.
+ *
+ * A row is made of the values of the last dimension of the dataset, or, when
+ * only the current selection is transferred, of the column dimension of the
+ * selection, as a table shows it. The values of a one-dimensional dataset
+ * are one per line. The rows are counted along the dimension before the row
+ * dimension, the band dimension, for each index of the dimensions before
+ * that.
+ *
+ * The dataset is accessed through a second object of the dataset, so the
+ * selection and data of the displayed dataset are not changed. A task is
+ * meant to run on a worker thread; it can be cancelled and reports its
+ * progress and the number of rows transferred per second.
+ */
+public abstract class DatasetTextTask implements Callable<Long>
+{
+    /** the dataset */
+    protected final Dataset dataset;
+
+    /** the text file */
+    protected final File file;
+
+    /** the delimiter between the values of a row */
+    protected final byte[] delimiter;
+
+    /** the start of each dimension of the transferred values */
+    protected final long[] selStart;
+
+    /** the stride of each dimension of the transferred values */
+    protected final long[] selStride;
+
+    /** the count of each dimension of the transferred values */
+    protected final long[] selCount;
+
+    /** the dimension whose values make up a row; -1 for one value per row */
+    protected final int rowDim;
+
+    /** set when the task is cancelled; checked before each block */
+    protected volatile boolean cancelled = false;
+
+    /** the amount of work done, in units of the task */
+    protected volatile long workDone = 0;
+
+    /** the total amount of work, in units of the task */
+    protected volatile long workTotal = 1;
+
+    /** the number of rows transferred */
+    protected volatile long rowsDone = 0;
+
+    /** the time the task started, from System.nanoTime() */
+    protected volatile long startTime = 0;
+
+    /** the time the task ended, from System.nanoTime() */
+    protected volatile long endTime = 0;
+
+    /**
+     * Creates a task which transfers the values of a dataset.
+     *
+     * @param dset
+     *            the dataset, see {@link #isSupported(Object)}.
+     * @param file
+     *            the text file.
+     * @param delimiter
+     *            the delimiter between the values of a row.
+     * @param wholeDataset
+     *            true for all values of the dataset; false for the current
+     *            selection as a table shows it, which requires the row
+     *            dimension of the selection to come before its column
+     *            dimension.
+     */
+    protected DatasetTextTask(Dataset dset, File file, String delimiter, boolean wholeDataset) {
+        this.dataset = dset;
+        this.file = file;
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+
+        int rank = dset.getRank();
+        long[] dims = dset.getDims();
+
+        if (wholeDataset) {
+            selStart = new long[rank];
+            selStride = new long[rank];
+            selCount = dims.clone();
+            for (int i = 0; i < rank; i++)
+                selStride[i] = 1;
+            rowDim = (rank > 1) ? rank - 1 : -1;
+        }
+        else {
+            selStart = dset.getStartDims().clone();
+            selStride = dset.getStride().clone();
+            selCount = dset.getSelectedDims().clone();
+            rowDim = (rank > 1) ? dset.getSelectedIndex()[1] : -1;
+
+            // the dimensions after the row dimension are not shown in a table
+            for (int i = rowDim + 1; (rowDim >= 0) && (i < rank); i++) {
+                if (selCount[i] > 1)
+                    throw new IllegalArgumentException("The selection cannot be transferred as a table");
+            }
+        }
+    }
+
+    /**
+     * Returns true if a data object can be transferred, i.e. the object is a
+     * dataset of integer or floating-point type in an HDF5 file, whose library
+     * serializes concurrent calls.
+     *
+     * @param dataObject
+     *            the data object.
+     *
+     * @return true if the object is a numerical dataset.
+     */
+    public static boolean isSupported(Object dataObject) {
+        if (!(dataObject instanceof ScalarDS) || (dataObject instanceof Attribute))
+            return false;
+
+        ScalarDS dset = (ScalarDS) dataObject;
+        Datatype dtype = dset.getDatatype();
+        if ((dtype == null) || !(dtype.isInteger() || dtype.isFloat()) || (dset.getFileFormat() == null))
+            return false;
+
+        FileFormat h5format = FileFormat.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+
+        return (h5format != null) && dset.getFileFormat().isThisType(h5format);
+    }
+
+    /**
+     * @return the dataset.
+     */
+    public Dataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * @return the text file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Stops the task at the next block.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the task has been cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the fraction of the work done, from 0 to 1.
+     */
+    public double getProgress() {
+        return Math.min(1.0, (double) workDone / workTotal);
+    }
+
+    /**
+     * @return the number of rows transferred so far.
+     */
+    public long getRowCount() {
+        return rowsDone;
+    }
+
+    /**
+     * @return the number of rows transferred per second since the task
+     *         started.
+     */
+    public double getRowsPerSecond() {
+        if (startTime == 0)
+            return 0;
+
+        long end = (endTime != 0) ? endTime : System.nanoTime();
+
+        return rowsDone * 1e9 / Math.max(1, end - startTime);
+    }
+
+    /**
+     * @return the dimension along which the rows are counted, or -1 if there
+     *         is a single row.
+     */
+    protected int getBandDim() {
+        return (rowDim < 0) ? 0 : rowDim - 1;
+    }
+
+    /**
+     * @return the number of values in a row.
+     */
+    protected long getRowLength() {
+        return (rowDim < 0) ? 1 : selCount[rowDim];
+    }
+
+    /**
+     * Steps to the next index of the dimensions before the band dimension.
+     *
+     * @param index
+     *            the index of the dimensions before the band dimension.
+     *
+     * @return false if the index was the last one.
+     */
+    protected boolean nextIndex(long[] index) {
+        for (int i = index.length - 1; i >= 0; i--) {
+            if (++index[i] < selCount[i])
+                return true;
+            index[i] = 0;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+/**
+ * A DeferredObject stands in the member list of a group for a data object
+ * whose concrete class has not been determined yet.
+ *
+ * Finding out whether a dataset is, for example, a scalar or a compound
+ * dataset requires opening the dataset and reading its datatype. A FileFormat
+ * can avoid doing this for every dataset while it builds the file structure by
+ * adding a DeferredObject to the member list instead. The group replaces the
+ * placeholder with the object returned by {@link #resolve()} the first time
+ * the member is accessed through {@link Group#getMember(int)} or
+ * {@link Group#getMemberList()}, so that applications never see the
+ * placeholder itself.
+ *
+ * @see hdf.object.Group
+ */
+public interface DeferredObject
+{
+    /**
+     * Determines the concrete class of the object and creates it.
+     *
+     * The method must not return null. If the object cannot be classified, an
+     * instance of the most general class that fits the object is returned.
+     *
+     * @return the object this placeholder stands for.
+     */
+    HObject resolve();
+
+    /**
+     * Checks whether the object this placeholder stands for, once resolved,
+     * has the given object ID.
+     *
+     * The object ID of a placeholder may differ from the one of the resolved
+     * object, and the check must be cheaper than resolving the placeholder, so
+     * that an object can be looked up by its ID without resolving every
+     * placeholder of the file.
+     *
+     * @param theID
+     *            the object ID to compare.
+     *
+     * @return true if the resolved object has the given object ID.
+     *
+     * @see HObject#equalsOID(long[])
+     */
+    boolean equalsResolvedOID(long[] theID);
+}
@@ -15,9 +15,13 @@
 package hdf.object;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.Vector;
@@ -191,6 +195,42 @@ public abstract class FileFormat extends File {
      */
     private int                                  start_members      = 0;          // 0 by default
 
+    /**
+     * Flag to indicate if the members of a group are loaded into memory only
+     * when the group is first accessed, instead of loading the whole file
+     * structure when the file is opened.
+     */
+    private boolean                              isLazyLoad         = false;
+
+    /**
+     * The maximum number of dataset identifiers kept open after a read or
+     * write. 0 means datasets are closed after every access.
+     */
+    private int                                  datasetCacheSize   = 0;
+
+    /**
+     * The default size in bytes of the raw data chunk cache of the datasets of
+     * this file, Dataset.CHUNK_CACHE_DEFAULT or Dataset.CHUNK_CACHE_AUTO.
+     */
+    private long                                 chunkCacheSize     = Dataset.CHUNK_CACHE_DEFAULT;
+
+    /**
+     * The I/O statistics of this file, created when first used.
+     */
+    private transient IOStatistics               ioStatistics       = null;
+
+    /**
+     * Index of the objects in memory by their full path, maintained by
+     * {@link Group#addToMemberList(HObject)} and
+     * {@link Group#removeFromMemberList(HObject)}.
+     */
+    private transient Map<String, HObject>       pathIndex          = null;
+
+    /**
+     * Index of the objects in memory by their object ID.
+     */
+    private transient Map<ObjectKey, HObject>    oidIndex           = null;
+
     /**
      * File identifier. -1 indicates the file is not open.
      */
@@ -892,6 +932,295 @@ public abstract class FileFormat extends File {
         return start_members;
     }
 
+    /**
+     * Sets whether the file structure is loaded into memory group by group, as
+     * the groups are accessed.
+     *
+     * By default, open() loads the whole file structure into memory, which can
+     * take a long time for files with a large number of objects. With lazy
+     * loading, open() loads only the members of the root group. The members of
+     * any other group are loaded by {@link #loadMembers(Group)} when the member
+     * list of the group is first requested.
+     *
+     * The flag must be set before the file is opened. It has no effect on file
+     * formats that do not support lazy loading.
+     *
+     * @param lazy
+     *            true to load the members of a group only when it is accessed.
+     * @see #isLazyLoad()
+     */
+    public final void setLazyLoad(boolean lazy) {
+        isLazyLoad = lazy;
+    }
+
+    /**
+     * Checks if the file structure is loaded into memory group by group.
+     *
+     * @return true if the members of a group are loaded only when it is
+     *         accessed; otherwise, returns false.
+     * @see #setLazyLoad(boolean)
+     */
+    public final boolean isLazyLoad() {
+        return isLazyLoad;
+    }
+
+    /**
+     * Loads the members of a group from the file into memory.
+     *
+     * This method is called by {@link Group#getMemberList()} for a group whose
+     * members have not yet been loaded because the file was opened with lazy
+     * loading. Only the direct members of the group are loaded; member groups
+     * are loaded in turn when they are accessed.
+     *
+     * The default implementation does nothing. File formats which support lazy
+     * loading must override it.
+     *
+     * @param group
+     *            the group whose members are loaded.
+     *
+     * @throws Exception
+     *             if the members of the group cannot be retrieved from the file.
+     * @see #setLazyLoad(boolean)
+     */
+    public void loadMembers(Group group) throws Exception {
+        // lazy loading is not supported by default
+    }
+
+    /**
+     * Sets the maximum number of dataset identifiers which are kept open after
+     * a read or write, so that the next access to the same dataset object does
+     * not have to open it again. Caching is off by default.
+     *
+     * The default implementation only records the size. File formats which
+     * support caching open datasets must override it.
+     *
+     * @param size
+     *            the maximum number of open dataset identifiers; 0 disables
+     *            the cache.
+     * @see #getDatasetCacheSize()
+     */
+    public void setDatasetCacheSize(int size) {
+        datasetCacheSize = Math.max(0, size);
+    }
+
+    /**
+     * Returns the maximum number of dataset identifiers which are kept open
+     * after a read or write.
+     *
+     * @return the maximum number of open dataset identifiers.
+     * @see #setDatasetCacheSize(int)
+     */
+    public final int getDatasetCacheSize() {
+        return datasetCacheSize;
+    }
+
+    /**
+     * Sets the default size of the raw data chunk cache of the datasets of
+     * this file. A dataset uses it unless its own chunk cache size is set.
+     *
+     * @param nbytes
+     *            the size of the cache in bytes, Dataset.CHUNK_CACHE_DEFAULT
+     *            for the library default, or Dataset.CHUNK_CACHE_AUTO to size
+     *            the cache of each dataset from its current selection.
+     * @see hdf.object.Dataset#setChunkCacheSize(long)
+     */
+    public final void setChunkCacheSize(long nbytes) {
+        chunkCacheSize = (nbytes < 0) ? Dataset.CHUNK_CACHE_DEFAULT : nbytes;
+    }
+
+    /**
+     * Returns the default size of the raw data chunk cache of the datasets of
+     * this file.
+     *
+     * @return the size of the cache in bytes, Dataset.CHUNK_CACHE_DEFAULT or
+     *         Dataset.CHUNK_CACHE_AUTO.
+     * @see #setChunkCacheSize(long)
+     */
+    public final long getChunkCacheSize() {
+        return chunkCacheSize;
+    }
+
+    /**
+     * Returns the number of dataset opens which were served by the cache of
+     * open dataset identifiers since the file was opened.
+     *
+     * @return the number of cache hits; 0 if the file format does not cache
+     *         open datasets.
+     */
+    public long getDatasetCacheHits() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of dataset opens which had to open the dataset in
+     * the file since the file was opened.
+     *
+     * @return the number of cache misses; 0 if the file format does not cache
+     *         open datasets.
+     */
+    public long getDatasetCacheMisses() {
+        return 0;
+    }
+
+    /**
+     * Returns the I/O statistics of this file. Everything they count is also
+     * added to {@link IOStatistics#getGlobal()}.
+     *
+     * @return the I/O statistics of this file.
+     */
+    public final synchronized IOStatistics getIOStatistics() {
+        if (ioStatistics == null)
+            ioStatistics = new IOStatistics(IOStatistics.getGlobal());
+
+        return ioStatistics;
+    }
+
+    /**
+     * Adds an object to the path and OID indexes of this file. Called when the
+     * object is added to the member list of a group.
+     *
+     * DeferredObject placeholders are only indexed by path, since their object
+     * ID is not the object ID of the object they stand for; findObject(file,
+     * oid) finds them with DeferredObject.equalsResolvedOID() instead.
+     *
+     * @param obj
+     *            the object to add to the indexes.
+     */
+    final synchronized void addToObjectIndex(HObject obj) {
+        if (obj == null)
+            return;
+
+        if (obj.getFullName() != null) {
+            if (pathIndex == null)
+                pathIndex = new HashMap<>();
+            pathIndex.put(obj.getFullName(), obj);
+        }
+
+        if (!(obj instanceof DeferredObject) && (obj.getOID() != null)) {
+            if (oidIndex == null)
+                oidIndex = new HashMap<>();
+            oidIndex.put(new ObjectKey(obj.getOID()), obj);
+        }
+    }
+
+    /**
+     * Removes an object from the path and OID indexes of this file. Called when
+     * the object is removed from the member list of a group.
+     *
+     * @param obj
+     *            the object to remove from the indexes.
+     */
+    final synchronized void removeFromObjectIndex(HObject obj) {
+        if (obj == null)
+            return;
+
+        if ((pathIndex != null) && (obj.getFullName() != null))
+            pathIndex.remove(obj.getFullName(), obj);
+
+        if ((oidIndex != null) && (obj.getOID() != null))
+            oidIndex.remove(new ObjectKey(obj.getOID()), obj);
+    }
+
+    /**
+     * Moves an object to its new full name in the path index of this file.
+     * Called when the name or the path of the object changed, e.g. when the
+     * object or a group above it was renamed. Objects which are not in the
+     * index are left out of it.
+     *
+     * @param obj
+     *            the object which was renamed or moved.
+     * @param oldFullName
+     *            the full name of the object before the change.
+     */
+    final synchronized void renameInObjectIndex(HObject obj, String oldFullName) {
+        if ((pathIndex == null) || !pathIndex.remove(oldFullName, obj))
+            return;
+
+        if (obj.getFullName() != null)
+            pathIndex.put(obj.getFullName(), obj);
+    }
+
+    /**
+     * Removes all objects from the path and OID indexes of this file. File
+     * formats call this method when the structure of the file in memory is
+     * discarded, e.g. when the file is closed.
+     */
+    protected final synchronized void clearObjectIndex() {
+        pathIndex = null;
+        oidIndex = null;
+    }
+
+    /**
+     * Returns the objects of this file in memory, in no particular order.
+     *
+     * Unlike {@link Group#breadthFirstMemberList()}, this method neither loads
+     * the members of groups which have not been loaded yet nor resolves
+     * DeferredObject placeholders. The root object is not included.
+     *
+     * @return the objects in the path index of this file.
+     */
+    protected final synchronized List<HObject> getObjectsInMemory() {
+        if (pathIndex == null)
+            return new ArrayList<>();
+
+        return new ArrayList<>(pathIndex.values());
+    }
+
+    /**
+     * Looks up an object in the path index. Entries which no longer match the
+     * object, e.g. after the object was renamed, are dropped.
+     */
+    private synchronized HObject getIndexedObject(String fullName) {
+        if (pathIndex == null)
+            return null;
+
+        HObject obj = pathIndex.get(fullName);
+        if ((obj != null) && (!fullName.equals(obj.getFullName()) || (obj.getPath() == null))) {
+            pathIndex.remove(fullName);
+            obj = null;
+        }
+
+        return obj;
+    }
+
+    /**
+     * Looks up an object in the OID index.
+     */
+    private synchronized HObject getIndexedObject(long[] oid) {
+        if (oidIndex == null)
+            return null;
+
+        HObject obj = oidIndex.get(new ObjectKey(oid));
+        if ((obj != null) && !obj.equalsOID(oid)) {
+            oidIndex.remove(new ObjectKey(oid));
+            obj = null;
+        }
+
+        return obj;
+    }
+
+    /**
+     * Key of the OID index. Object IDs are long arrays, which do not implement
+     * equals() and hashCode() by content.
+     */
+    private static final class ObjectKey {
+        private final long[] oid;
+
+        ObjectKey(long[] oid) {
+            this.oid = oid;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof ObjectKey) && Arrays.equals(oid, ((ObjectKey) obj).oid);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(oid);
+        }
+    }
+
     /**
      * Returns the number of objects in memory.
      *
@@ -932,7 +1261,7 @@ public abstract class FileFormat extends File {
 
         // Account for root object
         if (rootObject != null)
-            return ((Group) rootObject).depthFirstMemberList().size() + 1;
+            return ((Group) rootObject).depthFirstMemberList(false).size() + 1;
 
         return 0;
     }
@@ -1769,19 +2098,35 @@ public abstract class FileFormat extends File {
             return null;
         }
 
-        HObject theObj = null;
+        HObject theObj = file.getIndexedObject(oid);
+        if (theObj != null)
+            return theObj;
 
         HObject theRoot = file.getRootObject();
         if (theRoot == null) {
             log.debug("findObject(): rootObject is null");
             return null;
         }
+        else if (theRoot.equalsOID(oid)) {
+            return theRoot;
+        }
 
-        Iterator<HObject> member_it = ((Group) theRoot).breadthFirstMemberList().iterator();
+        // not in the index, e.g. an OID prefix or a placeholder; fall back to a
+        // scan which resolves only the placeholder of the object found
+        Iterator<HObject> member_it = ((Group) theRoot).breadthFirstMemberList(false).iterator();
         while (member_it.hasNext()) {
-            theObj = member_it.next();
-            if (theObj.equalsOID(oid))
+            HObject obj = member_it.next();
+            if (obj instanceof DeferredObject) {
+                if (((DeferredObject) obj).equalsResolvedOID(oid)) {
+                    theObj = resolveIndexedObject(file, theRoot, obj);
+                    break;
+                }
+            }
+            else if (obj.equalsOID(oid)) {
+                theObj = obj;
+                file.addToObjectIndex(theObj);
                 break;
+            }
         }
 
         return theObj;
@@ -1819,7 +2164,22 @@ public abstract class FileFormat extends File {
             return theRoot;
         }
 
-        Iterator<HObject> member_it = ((Group) theRoot).breadthFirstMemberList().iterator();
+        String fullName = path.substring(0, path.length() - 1);
+        HObject indexed = file.getIndexedObject(fullName);
+        if (indexed instanceof DeferredObject)
+            indexed = resolveIndexedObject(file, theRoot, indexed);
+        if (indexed != null)
+            return indexed;
+
+        // walk down the path so that only the groups on the path are loaded
+        if (file.isLazyLoad()) {
+            HObject found = findObjectByPath((Group) theRoot, path);
+            if (found != null)
+                file.addToObjectIndex(found);
+            return found;
+        }
+
+        Iterator<HObject> member_it = ((Group) theRoot).breadthFirstMemberList(false).iterator();
         HObject theObj = null;
         while (member_it.hasNext()) {
             theObj = member_it.next();
@@ -1831,6 +2191,70 @@ public abstract class FileFormat extends File {
                 theObj = null;
         }
 
+        if (theObj instanceof DeferredObject)
+            theObj = resolveIndexedObject(file, theRoot, theObj);
+        else if (theObj != null)
+            file.addToObjectIndex(theObj);
+
+        return theObj;
+    }
+
+    /**
+     * Replaces a DeferredObject placeholder found in the path index by the
+     * object it stands for, in the member list of its parent group.
+     */
+    private static HObject resolveIndexedObject(FileFormat file, HObject theRoot, HObject placeholder) {
+        String parentPath = placeholder.getPath();
+        HObject parent = theRoot;
+        if ((parentPath != null) && !parentPath.equals(HObject.SEPARATOR)) {
+            if (parentPath.endsWith(HObject.SEPARATOR))
+                parentPath = parentPath.substring(0, parentPath.length() - 1);
+            parent = file.getIndexedObject(parentPath);
+        }
+
+        if (!(parent instanceof Group))
+            return null;
+
+        return ((Group) parent).resolveMember(placeholder);
+    }
+
+    /**
+     * Finds an object by walking down its path from the given group, loading
+     * only the members of the groups along the path.
+     */
+    private static HObject findObjectByPath(Group theRoot, String path) {
+        String[] names = path.split(HObject.SEPARATOR);
+        HObject theObj = theRoot;
+
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].length() == 0)
+                continue;
+
+            if (!(theObj instanceof Group))
+                return null;
+
+            HObject member = null;
+            Iterator<HObject> it = ((Group) theObj).getMembers(false).iterator();
+            while (it.hasNext()) {
+                HObject obj = it.next();
+                if (names[i].equals(obj.getName())) {
+                    member = obj;
+                    break;
+                }
+            }
+
+            // resolve only the member on the path, not its siblings
+            if (member instanceof DeferredObject)
+                member = ((Group) theObj).resolveMember(member);
+
+            if (member == null) {
+                log.trace("findObjectByPath({}): {} not found", path, names[i]);
+                return null;
+            }
+
+            theObj = member;
+        }
+
         return theObj;
     }
 
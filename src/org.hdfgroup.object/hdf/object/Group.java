@@ -35,6 +35,8 @@ public abstract class Group extends HObject implements MetaDataContainer {
 
     private static final long serialVersionUID = 3913174542591568052L;
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(Group.class);
+
     /**
      * The list of members (Groups and Datasets) of this group in memory.
      */
@@ -51,6 +53,18 @@ public abstract class Group extends HObject implements MetaDataContainer {
      */
     protected int nMembersInFile;
 
+    /**
+     * Flag to indicate if the members of this group have been loaded from the
+     * file. It is false only for groups found in a file opened with lazy
+     * loading whose members have not been accessed yet.
+     */
+    private boolean isMemberListLoaded = true;
+
+    /**
+     * The number of DeferredObject placeholders in the member list.
+     */
+    private int nDeferredMembers = 0;
+
     /** The value of LINK_TYPE_HARD */
     public static final int LINK_TYPE_HARD = 0;
 
@@ -118,8 +132,15 @@ public abstract class Group extends HObject implements MetaDataContainer {
      * needed.
      */
     public void clear() {
-        if (memberList != null)
+        if (memberList != null) {
+            FileFormat theFile = this.getFileFormat();
+            if (theFile != null) {
+                for (HObject obj : memberList)
+                    theFile.removeFromObjectIndex(obj);
+            }
             ((Vector<HObject>) memberList).setSize(0);
+        }
+        nDeferredMembers = 0;
     }
 
     /**
@@ -134,8 +155,15 @@ public abstract class Group extends HObject implements MetaDataContainer {
             memberList = new Vector<>(size + 5);
         }
 
-        if ((object != null) && !memberList.contains(object))
+        if ((object != null) && !memberList.contains(object)) {
             memberList.add(object);
+
+            if (object instanceof DeferredObject)
+                nDeferredMembers++;
+
+            if (this.getFileFormat() != null)
+                this.getFileFormat().addToObjectIndex(object);
+        }
     }
 
     /**
@@ -146,8 +174,14 @@ public abstract class Group extends HObject implements MetaDataContainer {
      *            list.
      */
     public void removeFromMemberList(HObject object) {
-        if (memberList != null)
-            memberList.remove(object);
+        if ((memberList == null) || !memberList.remove(object))
+            return;
+
+        if (object instanceof DeferredObject)
+            nDeferredMembers--;
+
+        if (this.getFileFormat() != null)
+            this.getFileFormat().removeFromObjectIndex(object);
     }
 
     /**
@@ -159,6 +193,13 @@ public abstract class Group extends HObject implements MetaDataContainer {
     public List<HObject> getMemberList() {
         FileFormat theFile = this.getFileFormat();
 
+        loadMemberList();
+
+        if (nDeferredMembers > 0) {
+            for (int i = 0; i < memberList.size(); i++)
+                resolveMember(i);
+        }
+
         if ((memberList == null) && (theFile != null)) {
             int size = Math.min(getNumberOfMembersInFile(), this.getFileFormat().getMaxMembers());
             memberList = new Vector<>(size + 5); // avoid infinite loop search for groups without members
@@ -178,7 +219,7 @@ public abstract class Group extends HObject implements MetaDataContainer {
             HObject root = theFile.getRootObject();
             if (root == null) return memberList;
 
-            Iterator<HObject> it = ((Group) root).depthFirstMemberList().iterator();
+            Iterator<HObject> it = ((Group) root).depthFirstMemberList(false).iterator();
             Group g = null;
             Object uObj = null;
             while (it.hasNext()) {
@@ -200,22 +241,77 @@ public abstract class Group extends HObject implements MetaDataContainer {
         return memberList;
     }
 
+    /**
+     * Loads the members of a group of a file opened with lazy loading, without
+     * resolving the DeferredObject placeholders among them.
+     */
+    private void loadMemberList() {
+        FileFormat theFile = this.getFileFormat();
+
+        if (!isMemberListLoaded && (theFile != null)) {
+            // the file was opened with lazy loading; load the members of this group now.
+            // The group stays unloaded if this fails, so that the next call tries again.
+            try {
+                theFile.loadMembers(this);
+                isMemberListLoaded = true;
+            }
+            catch (Exception ex) {
+                log.debug("loadMemberList(): failed to load members of {}: ", getFullName(), ex);
+            }
+
+            if (memberList == null)
+                memberList = new Vector<>();
+        }
+    }
+
+    /**
+     * Returns the members of this group, resolved or as they are in memory.
+     */
+    List<HObject> getMembers(boolean resolve) {
+        if (resolve)
+            return getMemberList();
+
+        loadMemberList();
+
+        if (memberList == null)
+            return getMemberList();
+
+        return memberList;
+    }
+
     /**
      * @return the members of this Group in breadth-first order.
      */
     public List<HObject> breadthFirstMemberList() {
+        return breadthFirstMemberList(true);
+    }
+
+    /**
+     * Returns the members of this Group in breadth-first order.
+     *
+     * With resolve set to false, the DeferredObject placeholders in the member
+     * lists are returned as they are instead of being resolved, so that a walk
+     * which only needs the names of the objects, or whether they are groups,
+     * does not open the data objects of the file.
+     *
+     * @param resolve
+     *            true to resolve the DeferredObject placeholders.
+     *
+     * @return the members of this Group in breadth-first order.
+     */
+    public List<HObject> breadthFirstMemberList(boolean resolve) {
         Vector<HObject> members = new Vector<>();
         Queue<HObject> queue = new LinkedList<>();
         HObject currentObj = this;
 
-        queue.addAll(((Group) currentObj).getMemberList());
+        queue.addAll(((Group) currentObj).getMembers(resolve));
 
         while(!queue.isEmpty()) {
             currentObj = queue.remove();
             members.add(currentObj);
 
             if(currentObj instanceof Group && ((Group) currentObj).getNumberOfMembersInFile() > 0)
-                queue.addAll(((Group) currentObj).getMemberList());
+                queue.addAll(((Group) currentObj).getMembers(resolve));
         }
 
         return members;
@@ -225,12 +321,29 @@ public abstract class Group extends HObject implements MetaDataContainer {
      * @return the members of this Group in depth-first order.
      */
     public List<HObject> depthFirstMemberList() {
+        return depthFirstMemberList(true);
+    }
+
+    /**
+     * Returns the members of this Group in depth-first order.
+     *
+     * With resolve set to false, the DeferredObject placeholders in the member
+     * lists are returned as they are instead of being resolved.
+     *
+     * @param resolve
+     *            true to resolve the DeferredObject placeholders.
+     *
+     * @return the members of this Group in depth-first order.
+     *
+     * @see #breadthFirstMemberList(boolean)
+     */
+    public List<HObject> depthFirstMemberList(boolean resolve) {
         Vector<HObject> members = new Vector<>();
         Stack<HObject> stack = new Stack<>();
         HObject currentObj = this;
 
         // Push elements onto the stack in reverse order
-        List<HObject> list = ((Group) currentObj).getMemberList();
+        List<HObject> list = ((Group) currentObj).getMembers(resolve);
         for(int i = list.size() - 1; i >= 0; i--)
             stack.push(list.get(i));
 
@@ -239,7 +352,7 @@ public abstract class Group extends HObject implements MetaDataContainer {
             members.add(currentObj);
 
             if(currentObj instanceof Group && ((Group) currentObj).getNumberOfMembersInFile() > 0) {
-                list = ((Group) currentObj).getMemberList();
+                list = ((Group) currentObj).getMembers(resolve);
                 for(int i = list.size() - 1; i >= 0; i--)
                     stack.push(list.get(i));
             }
@@ -312,15 +425,99 @@ public abstract class Group extends HObject implements MetaDataContainer {
         return nMembersInFile;
     }
 
+    /**
+     * Checks if the members of this group have been loaded from the file.
+     *
+     * The members of a group in a file opened with lazy loading are loaded by
+     * the first call to getMemberList().
+     *
+     * @return true if the members of this group are in memory; otherwise, returns false.
+     * @see hdf.object.FileFormat#setLazyLoad(boolean)
+     */
+    public boolean isMemberListLoaded() {
+        return isMemberListLoaded;
+    }
+
+    /**
+     * Sets whether the members of this group have been loaded from the file.
+     *
+     * A FileFormat which loads its structure lazily marks the groups it has not
+     * yet visited as not loaded, so that their members are loaded by the first
+     * call to getMemberList().
+     *
+     * @param loaded
+     *            false if the members of this group still have to be loaded.
+     */
+    public void setMemberListLoaded(boolean loaded) {
+        isMemberListLoaded = loaded;
+    }
+
     /**
      * Get the HObject at the specified index in this Group's member list.
      * @param idx The index of the HObject to get.
      * @return The HObject at the specified index.
      */
     public HObject getMember(int idx) {
+        if (!isMemberListLoaded)
+            loadMemberList();
+
         if(memberList.size() <= 0 || idx >= memberList.size())
             return null;
 
-        return memberList.get(idx);
+        return resolveMember(idx);
+    }
+
+    /**
+     * Returns the number of members of this group in memory.
+     *
+     * Unlike getMemberList().size(), this method does not resolve the
+     * DeferredObject placeholders in the member list, so that it can be used to
+     * size a view of the group without opening all of its members.
+     *
+     * @return the number of members of this group in memory.
+     */
+    public int getNumberOfMembersInMemory() {
+        if (!isMemberListLoaded)
+            loadMemberList();
+
+        return (memberList == null) ? 0 : memberList.size();
+    }
+
+    /**
+     * Replaces a DeferredObject placeholder in the member list by the object
+     * it stands for.
+     */
+    private HObject resolveMember(int idx) {
+        HObject obj = memberList.get(idx);
+
+        if (obj instanceof DeferredObject) {
+            HObject placeholder = obj;
+            obj = ((DeferredObject) placeholder).resolve();
+            memberList.set(idx, obj);
+            nDeferredMembers--;
+
+            FileFormat theFile = this.getFileFormat();
+            if (theFile != null) {
+                theFile.removeFromObjectIndex(placeholder);
+                theFile.addToObjectIndex(obj);
+            }
+        }
+
+        return obj;
+    }
+
+    /**
+     * Replaces a DeferredObject placeholder in the member list by the object
+     * it stands for.
+     *
+     * @return the resolved object, or null if the placeholder is not a member
+     *         of this group.
+     */
+    HObject resolveMember(HObject placeholder) {
+        int idx = (memberList == null) ? -1 : memberList.indexOf(placeholder);
+        if (idx < 0)
+            return null;
+
+        return resolveMember(idx);
     }
 }
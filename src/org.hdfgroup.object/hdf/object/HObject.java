@@ -297,6 +297,7 @@ public abstract class HObject implements Serializable
             throw new IllegalArgumentException("The new name contains the SEPARATOR character: " + HObject.SEPARATOR);
 
         name = newName;
+        updateFullname();
     }
 
     /**
@@ -317,6 +318,19 @@ public abstract class HObject implements Serializable
             newPath = "/";
 
         path = newPath;
+        updateFullname();
+    }
+
+    /**
+     * Updates the full name of the object after its name or path changed, and
+     * moves the object to its new full name in the path index of its file.
+     */
+    private void updateFullname() {
+        String oldFullName = fullName;
+        fullName = createFullname(path, name);
+
+        if ((fileFormat != null) && (oldFullName != null) && !oldFullName.equals(fullName))
+            fileFormat.renameInObjectIndex(this, oldFullName);
     }
 
     /**
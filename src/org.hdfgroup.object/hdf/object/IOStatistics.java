@@ -0,0 +1,390 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * IOStatistics counts the raw data I/O of the object library: reads and
+ * writes with the bytes moved and their latencies, the sizes of the
+ * hyperslabs, the datasets opened, the time to load the file structure and
+ * the time of the conversions of unsigned integers and of bytes to strings.
+ *
+ * Each FileFormat has its own statistics, see
+ * {@link FileFormat#getIOStatistics()}, which also add everything they count
+ * to the global statistics of all files, see {@link #getGlobal()}. The
+ * conversions are static methods of Dataset and only counted globally.
+ *
+ * The counters can be updated by many threads at the same time. The
+ * statistics of open files and the global statistics are registered as
+ * MBeans named "hdf.object:type=IOStatistics,name=...", so they can be
+ * watched with JConsole or any other JMX client. The global statistics are
+ * registered by {@link #registerGlobal()} when the first file is opened, not
+ * when the class is loaded, which may happen in the middle of a read.
+ */
+public final class IOStatistics implements IOStatisticsMBean
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(IOStatistics.class);
+
+    /** the number of bins of the histograms */
+    public static final int            HISTOGRAM_BINS = 40;
+
+    /** the domain of the MBeans */
+    public static final String         JMX_DOMAIN     = "hdf.object";
+
+    private static final IOStatistics  GLOBAL         = new IOStatistics(null);
+
+    private final IOStatistics    parent;
+
+    private final LongAdder       reads            = new LongAdder();
+    private final LongAdder       bytesRead        = new LongAdder();
+    private final LongAdder       readNanos        = new LongAdder();
+    private final LongAccumulator maxReadNanos     = new LongAccumulator(Long::max, 0);
+    private final AtomicLongArray readLatency      = new AtomicLongArray(HISTOGRAM_BINS);
+
+    private final LongAdder       writes           = new LongAdder();
+    private final LongAdder       bytesWritten     = new LongAdder();
+    private final LongAdder       writeNanos       = new LongAdder();
+    private final LongAccumulator maxWriteNanos    = new LongAccumulator(Long::max, 0);
+    private final AtomicLongArray writeLatency     = new AtomicLongArray(HISTOGRAM_BINS);
+
+    private final AtomicLongArray hyperslabSizes   = new AtomicLongArray(HISTOGRAM_BINS);
+
+    private final LongAdder       datasetOpens     = new LongAdder();
+
+    private final LongAdder       treeLoads        = new LongAdder();
+    private final LongAdder       treeLoadNanos    = new LongAdder();
+
+    private final LongAdder       unsignedConversions     = new LongAdder();
+    private final LongAdder       unsignedConversionNanos = new LongAdder();
+    private final LongAdder       stringConversions       = new LongAdder();
+    private final LongAdder       stringConversionNanos   = new LongAdder();
+
+    /** the name of the MBean, or null if not registered */
+    private ObjectName            objectName       = null;
+
+    /**
+     * Creates statistics which add everything they count to the parent
+     * statistics too.
+     *
+     * @param parent
+     *            the parent statistics, or null.
+     */
+    public IOStatistics(IOStatistics parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return the statistics of all files.
+     */
+    public static IOStatistics getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Registers the global statistics as the MBean named "global", unless
+     * they are registered already.
+     *
+     * @see #register(String)
+     */
+    public static void registerGlobal() {
+        GLOBAL.register("global");
+    }
+
+    /**
+     * Returns the bin of a histogram in which a value is counted, i.e. the
+     * floor of its base 2 logarithm.
+     *
+     * @param value
+     *            the value.
+     *
+     * @return the bin of the value.
+     */
+    public static int getHistogramBin(long value) {
+        if (value <= 1)
+            return 0;
+
+        return Math.min(HISTOGRAM_BINS - 1, 63 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Counts a read of raw data.
+     *
+     * @param nanos
+     *            the duration of the read in nanoseconds.
+     * @param points
+     *            the number of points selected.
+     * @param bytes
+     *            the number of bytes read.
+     */
+    public void recordRead(long nanos, long points, long bytes) {
+        reads.increment();
+        bytesRead.add(bytes);
+        readNanos.add(nanos);
+        maxReadNanos.accumulate(nanos);
+        readLatency.incrementAndGet(getHistogramBin(nanos / 1000));
+        hyperslabSizes.incrementAndGet(getHistogramBin(points));
+
+        if (parent != null)
+            parent.recordRead(nanos, points, bytes);
+    }
+
+    /**
+     * Counts a write of raw data.
+     *
+     * @param nanos
+     *            the duration of the write in nanoseconds.
+     * @param points
+     *            the number of points selected.
+     * @param bytes
+     *            the number of bytes written.
+     */
+    public void recordWrite(long nanos, long points, long bytes) {
+        writes.increment();
+        bytesWritten.add(bytes);
+        writeNanos.add(nanos);
+        maxWriteNanos.accumulate(nanos);
+        writeLatency.incrementAndGet(getHistogramBin(nanos / 1000));
+        hyperslabSizes.incrementAndGet(getHistogramBin(points));
+
+        if (parent != null)
+            parent.recordWrite(nanos, points, bytes);
+    }
+
+    /**
+     * Counts the opening of a dataset in the file.
+     */
+    public void recordDatasetOpen() {
+        datasetOpens.increment();
+
+        if (parent != null)
+            parent.recordDatasetOpen();
+    }
+
+    /**
+     * Counts a load of the file structure or of the members of a group.
+     *
+     * @param nanos
+     *            the duration of the load in nanoseconds.
+     */
+    public void recordTreeLoad(long nanos) {
+        treeLoads.increment();
+        treeLoadNanos.add(nanos);
+
+        if (parent != null)
+            parent.recordTreeLoad(nanos);
+    }
+
+    /**
+     * Counts a conversion of unsigned integers.
+     *
+     * @param nanos
+     *            the duration of the conversion in nanoseconds.
+     */
+    public void recordUnsignedConversion(long nanos) {
+        unsignedConversions.increment();
+        unsignedConversionNanos.add(nanos);
+
+        if (parent != null)
+            parent.recordUnsignedConversion(nanos);
+    }
+
+    /**
+     * Counts a conversion of bytes to strings.
+     *
+     * @param nanos
+     *            the duration of the conversion in nanoseconds.
+     */
+    public void recordStringConversion(long nanos) {
+        stringConversions.increment();
+        stringConversionNanos.add(nanos);
+
+        if (parent != null)
+            parent.recordStringConversion(nanos);
+    }
+
+    @Override
+    public long getReadCount() {
+        return reads.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public double getReadTimeMillis() {
+        return readNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMaxReadMillis() {
+        return maxReadNanos.get() / 1e6;
+    }
+
+    @Override
+    public long[] getReadLatencyHistogram() {
+        return toArray(readLatency);
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public double getWriteTimeMillis() {
+        return writeNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMaxWriteMillis() {
+        return maxWriteNanos.get() / 1e6;
+    }
+
+    @Override
+    public long[] getWriteLatencyHistogram() {
+        return toArray(writeLatency);
+    }
+
+    @Override
+    public long[] getHyperslabSizeHistogram() {
+        return toArray(hyperslabSizes);
+    }
+
+    @Override
+    public long getDatasetOpenCount() {
+        return datasetOpens.sum();
+    }
+
+    @Override
+    public long getTreeLoadCount() {
+        return treeLoads.sum();
+    }
+
+    @Override
+    public double getTreeLoadMillis() {
+        return treeLoadNanos.sum() / 1e6;
+    }
+
+    @Override
+    public long getUnsignedConversionCount() {
+        return unsignedConversions.sum();
+    }
+
+    @Override
+    public double getUnsignedConversionMillis() {
+        return unsignedConversionNanos.sum() / 1e6;
+    }
+
+    @Override
+    public long getStringConversionCount() {
+        return stringConversions.sum();
+    }
+
+    @Override
+    public double getStringConversionMillis() {
+        return stringConversionNanos.sum() / 1e6;
+    }
+
+    /**
+     * Resets these statistics. The statistics of the parent are not changed.
+     */
+    @Override
+    public void reset() {
+        reads.reset();
+        bytesRead.reset();
+        readNanos.reset();
+        maxReadNanos.reset();
+        writes.reset();
+        bytesWritten.reset();
+        writeNanos.reset();
+        maxWriteNanos.reset();
+        datasetOpens.reset();
+        treeLoads.reset();
+        treeLoadNanos.reset();
+        unsignedConversions.reset();
+        unsignedConversionNanos.reset();
+        stringConversions.reset();
+        stringConversionNanos.reset();
+        for (int i = 0; i < HISTOGRAM_BINS; i++) {
+            readLatency.set(i, 0);
+            writeLatency.set(i, 0);
+            hyperslabSizes.set(i, 0);
+        }
+    }
+
+    /**
+     * Registers the statistics as an MBean with the platform MBean server,
+     * named "hdf.object:type=IOStatistics,name=" and the given name. Failures
+     * are logged and otherwise ignored, since the statistics are still
+     * counted.
+     *
+     * @param name
+     *            the name of the statistics, e.g. the path of the file.
+     */
+    public synchronized void register(String name) {
+        if (objectName != null)
+            return;
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName oname = new ObjectName(JMX_DOMAIN + ":type=IOStatistics,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(oname)) {
+                server.registerMBean(this, oname);
+                objectName = oname;
+            }
+        }
+        catch (Exception | LinkageError ex) {
+            log.debug("register(): failed to register {}:", name, ex);
+        }
+    }
+
+    /**
+     * Removes the MBean of the statistics from the platform MBean server.
+     */
+    public synchronized void unregister() {
+        if (objectName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (Exception ex) {
+            log.debug("unregister(): failed to unregister {}:", objectName, ex);
+        }
+        objectName = null;
+    }
+
+    private static long[] toArray(AtomicLongArray histogram) {
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = histogram.get(i);
+
+        return counts;
+    }
+}
@@ -0,0 +1,84 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object;
+
+/**
+ * The management interface of {@link IOStatistics}, through which the I/O
+ * statistics of the object library are exported over JMX.
+ *
+ * The latency histograms count operations by duration in microseconds, and
+ * the hyperslab histogram counts reads and writes by the number of points
+ * selected: bin i counts the values v with 2^i &lt;= v &lt; 2^(i+1), and bin
+ * 0 also counts 0.
+ */
+public interface IOStatisticsMBean
+{
+    /** @return the number of raw data reads. */
+    long getReadCount();
+
+    /** @return the number of bytes read. */
+    long getBytesRead();
+
+    /** @return the total time of the reads in milliseconds. */
+    double getReadTimeMillis();
+
+    /** @return the longest read in milliseconds. */
+    double getMaxReadMillis();
+
+    /** @return the histogram of the read latencies. */
+    long[] getReadLatencyHistogram();
+
+    /** @return the number of raw data writes. */
+    long getWriteCount();
+
+    /** @return the number of bytes written. */
+    long getBytesWritten();
+
+    /** @return the total time of the writes in milliseconds. */
+    double getWriteTimeMillis();
+
+    /** @return the longest write in milliseconds. */
+    double getMaxWriteMillis();
+
+    /** @return the histogram of the write latencies. */
+    long[] getWriteLatencyHistogram();
+
+    /** @return the histogram of the number of points of the reads and writes. */
+    long[] getHyperslabSizeHistogram();
+
+    /** @return the number of datasets opened in the file. */
+    long getDatasetOpenCount();
+
+    /** @return the number of loads of the file structure or of a group. */
+    long getTreeLoadCount();
+
+    /** @return the total time of the loads of the file structure in milliseconds. */
+    double getTreeLoadMillis();
+
+    /** @return the number of conversions of unsigned integers. */
+    long getUnsignedConversionCount();
+
+    /** @return the total time of the conversions of unsigned integers in milliseconds. */
+    double getUnsignedConversionMillis();
+
+    /** @return the number of conversions of bytes to strings. */
+    long getStringConversionCount();
+
+    /** @return the total time of the conversions of bytes to strings in milliseconds. */
+    double getStringConversionMillis();
+
+    /** Resets all statistics to 0. */
+    void reset();
+}
@@ -14,6 +14,8 @@
 
 package hdf.object;
 
+import java.lang.reflect.Constructor;
+
 /** General utility class */
 public final class Utils {
     private Utils() {
@@ -46,4 +48,27 @@ public final class Utils {
         return ' ';
     }
 
-}
\ No newline at end of file
+    /**
+     * Creates a second, initialized object of a dataset in the same file.
+     *
+     * The copy has its own selection and data buffer, so it can be read or
+     * written by a background thread while the original dataset is in use.
+     *
+     * @param dset
+     *            the dataset to copy.
+     *
+     * @return the new dataset object with the default selection.
+     *
+     * @throws Exception
+     *             if the dataset object cannot be created or initialized.
+     */
+    public static Dataset copyDataset(Dataset dset) throws Exception {
+        Constructor<? extends Dataset> constructor = dset.getClass().getConstructor(FileFormat.class,
+                String.class, String.class, long[].class);
+        Dataset copy = constructor.newInstance(dset.getFileFormat(), dset.getName(), dset.getPath(),
+                dset.getOID());
+        copy.init();
+
+        return copy;
+    }
+}
@@ -344,6 +344,8 @@ public class H4File extends FileFormat {
                 else if (theObj instanceof Group)
                     ((Group) theObj).clear();
             }
+
+            clearObjectIndex();
         }
 
         try {
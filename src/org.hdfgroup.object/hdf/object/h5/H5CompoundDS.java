@@ -17,11 +17,15 @@ package hdf.object.h5;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import hdf.hdf5lib.H5;
@@ -114,6 +118,9 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
     /** the list of virtual names */
     private List<String> virtualNameList;
 
+    /** flag to indicate if the selected atomic members are read together with a single H5Dread */
+    private boolean isPackedRead = true;
+
     /**
      * Constructs an instance of a HDF5 compound dataset with given file, dataset name and path.
      *
@@ -196,13 +203,32 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
         if (getFID() < 0)
             log.trace("open(): file id for:{} is invalid", getPath() + getName());
         else {
-            try {
-                did = H5.H5Dopen(getFID(), getPath() + getName(), HDF5Constants.H5P_DEFAULT);
-                log.trace("open(): did={}", did);
+            long cacheBytes = computeChunkCacheSize();
+
+            H5DatasetCache cache = H5DatasetCache.of(this);
+            if (cache != null) {
+                did = cache.acquire(this);
+
+                // reopen the dataset if its chunk cache size has changed
+                if ((did >= 0) && (cacheBytes != chunkCacheBytesInUse)) {
+                    cache.release(this, did);
+                    cache.remove(this);
+                    did = HDF5Constants.H5I_INVALID_HID;
+                }
             }
-            catch (HDF5Exception ex) {
-                log.debug("open(): Failed to open dataset {}", getPath() + getName(), ex);
-                did = HDF5Constants.H5I_INVALID_HID;
+
+            if (did < 0) {
+                try {
+                    did = H5Utils.openDataset(getFID(), getPath() + getName(), cacheBytes,
+                            computeChunkCacheSlots(cacheBytes));
+                    chunkCacheBytesInUse = cacheBytes;
+                    getFileFormat().getIOStatistics().recordDatasetOpen();
+                    log.trace("open(): did={}", did);
+                }
+                catch (HDF5Exception ex) {
+                    log.debug("open(): Failed to open dataset {}", getPath() + getName(), ex);
+                    did = HDF5Constants.H5I_INVALID_HID;
+                }
             }
         }
 
@@ -223,6 +249,12 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
             catch (Exception ex) {
                 log.debug("close(): H5Fflush(did {}) failure: ", did, ex);
             }
+
+            // keep the dataset open for the next access
+            H5DatasetCache cache = H5DatasetCache.of(this);
+            if ((cache != null) && cache.release(this, did))
+                return;
+
             try {
                 H5.H5Dclose(did);
             }
@@ -302,6 +334,13 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                     int nfiles = H5.H5Pget_external_count(pid);
                     isExternal = (nfiles > 0);
                     int layoutType = H5.H5Pget_layout(pid);
+                    if (layoutType == HDF5Constants.H5D_CHUNKED) {
+                        // the chunk dimensions are needed to align block reads to chunks
+                        long[] chunks = new long[H5Utils.MAX_RANK];
+                        int chunkRank = H5.H5Pget_chunk(pid, chunks.length, chunks);
+                        chunkSize = Arrays.copyOf(chunks, chunkRank);
+                        log.trace("init(): chunkSize={}", chunkSize);
+                    }
                     if (isVirtual = (layoutType == HDF5Constants.H5D_VIRTUAL)) {
                         try {
                             long vmaps = H5.H5Pget_virtual_count(pid);
@@ -556,12 +595,7 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                     catch (HDF5Exception ex) {
                         log.debug("getDatatype(): H5Tclose(tid {}) failure: ", tid, ex);
                     }
-                    try {
-                        H5.H5Dclose(did);
-                    }
-                    catch (HDF5Exception ex) {
-                        log.debug("getDatatype(): H5Dclose(did {}) failure: ", did, ex);
-                    }
+                    close(did);
                 }
             }
         }
@@ -630,7 +664,9 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                 theData = new byte[(int)size];
 
                 log.trace("readBytes(): H5Dread: did={} tid={} fspace={} mspace={}", did, tid, fspace, mspace);
+                long t0 = System.nanoTime();
                 H5.H5Dread(did, tid, mspace, fspace, HDF5Constants.H5P_DEFAULT, theData);
+                getFileFormat().getIOStatistics().recordRead(System.nanoTime() - t0, lsize[0], size);
             }
             catch (Exception ex) {
                 log.debug("readBytes(): failed to read data: ", ex);
@@ -800,6 +836,37 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
         }
     }
 
+    /**
+     * Sets whether the selected members of this dataset are read together or
+     * one at a time.
+     *
+     * By default, read() reads all selected atomic members at the top level of
+     * the compound datatype with a single H5Dread call into a packed buffer,
+     * which is then split into one array per member. This touches every chunk
+     * of the dataset only once. When packed reading is turned off, each member
+     * is read with its own H5Dread call, as done in earlier versions. Nested
+     * compound, variable-length and reference members are always read one at a
+     * time.
+     *
+     * @param packed
+     *            true to read the selected members with a single H5Dread call.
+     */
+    public void setPackedRead(boolean packed) {
+        isPackedRead = packed;
+    }
+
+    /**
+     * Checks if the selected members of this dataset are read together with a
+     * single H5Dread call.
+     *
+     * @return true if packed reading is enabled; otherwise, false.
+     *
+     * @see #setPackedRead(boolean)
+     */
+    public boolean isPackedRead() {
+        return isPackedRead;
+    }
+
     /*
      * Routine to convert datatypes that are read in as byte arrays to
      * regular types.
@@ -860,6 +927,9 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                 long totalSelectedSpacePoints = H5Utils.getTotalSelectedSpacePoints(did, dims, startDims,
                         selectedStride, selectedDims, spaceIDs);
 
+                if (ioType == H5File.IO_TYPE.READ)
+                    updateChunkCacheStatistics();
+
                 theData = compoundTypeIO(ioType, did, spaceIDs, (int) totalSelectedSpacePoints, dsDatatype, writeBuf, new int[]{0});
             }
             finally {
@@ -941,9 +1011,19 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
 
             log.trace("compoundTypeIO(): {} {} members:", (ioType == H5File.IO_TYPE.READ) ? "read" : "write", typeList.size());
 
-            if (ioType == H5File.IO_TYPE.READ)
+            /*
+             * Members read together with a single H5Dread, keyed by their index in typeList.
+             * Only the atomic members at the top level of the dataset's datatype are packed.
+             */
+            Map<Integer, Object> packedData = null;
+
+            if (ioType == H5File.IO_TYPE.READ) {
                 memberDataList = (List<Object>) H5Datatype.allocateArray(cmpdType, nSelPoints);
 
+                if (isPackedRead && (cmpdType == getDatatype()))
+                    packedData = readPackedCompoundMembers(did, spaceIDs, nSelPoints, cmpdType, globalMemberIndex[0]);
+            }
+
             try {
                 for (int i = 0, writeListIndex = 0; i < typeList.size(); i++) {
                     H5Datatype memberType = null;
@@ -1013,12 +1093,18 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                                     memberData = compoundTypeIO(ioType, did, spaceIDs, nSelPoints, memberType, writeBuf, globalMemberIndex);
                                 }
                                 else {
-                                    memberData = readSingleCompoundMember(did, spaceIDs, nSelPoints, memberType, memberName);
+                                    if ((packedData != null) && packedData.containsKey(i))
+                                        memberData = packedData.get(i);
+                                    else
+                                        memberData = readSingleCompoundMember(did, spaceIDs, nSelPoints, memberType, memberName);
                                     globalMemberIndex[0]++;
                                 }
                             }
                             else {
-                                memberData = readSingleCompoundMember(did, spaceIDs, nSelPoints, memberType, memberName);
+                                if ((packedData != null) && packedData.containsKey(i))
+                                    memberData = packedData.get(i);
+                                else
+                                    memberData = readSingleCompoundMember(did, spaceIDs, nSelPoints, memberType, memberName);
                                 globalMemberIndex[0]++;
                             }
                         }
@@ -1128,6 +1214,7 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
              * Actually read the data for this member now that everything has been setup.
              */
             try {
+                long t0 = System.nanoTime();
                 if (memberType.isVLEN() || (memberType.isArray() && memberType.getDatatypeBase().isVLEN())) {
                     log.trace("readSingleCompoundMember(): H5DreadVL did={} compTid={} spaceIDs[0]={} spaceIDs[1]={}",
                             dsetID, compTid, (spaceIDs[0] == HDF5Constants.H5P_DEFAULT) ? "H5P_DEFAULT" : spaceIDs[0],
@@ -1142,6 +1229,8 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
 
                     H5.H5Dread(dsetID, compTid, spaceIDs[0], spaceIDs[1], HDF5Constants.H5P_DEFAULT, memberData);
                 }
+                getFileFormat().getIOStatistics().recordRead(System.nanoTime() - t0, nSelPoints,
+                        (long) nSelPoints * memberType.getDatatypeSize());
             }
             catch (HDF5DataFiltersException exfltr) {
                 log.debug("readSingleCompoundMember(): read failure: ", exfltr);
@@ -1155,22 +1244,239 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                 dsDatatype.close(compTid);
             }
 
+            memberData = convertCompoundMember(memberType, memberData);
+        }
+
+        return memberData;
+    }
+
+    /*
+     * Private routine to perform any necessary data conversions on the data of a
+     * compound member after it has been read.
+     */
+    private Object convertCompoundMember(final H5Datatype memberType, Object memberData) {
+        if (memberType.isUnsigned()) {
+            log.trace("convertCompoundMember(): converting from unsigned C-type integers");
+            memberData = Dataset.convertFromUnsignedC(memberData, null);
+        }
+        else if (Utils.getJavaObjectRuntimeClass(memberData) == 'B') {
+            log.trace("convertCompoundMember(): converting byte array member into Object");
+
             /*
-             * Perform any necessary data conversions.
+             * For all other types that get read into memory as a byte[] (such as nested
+             * compounds and arrays of compounds), we must manually convert the byte[] into
+             * something usable.
              */
-            if (memberType.isUnsigned()) {
-                log.trace("readSingleCompoundMember(): converting from unsigned C-type integers");
-                memberData = Dataset.convertFromUnsignedC(memberData, null);
+            memberData = convertByteMember(memberType, (byte[]) memberData);
+        }
+
+        return memberData;
+    }
+
+    /*
+     * Private routine to read all selected atomic members at the top level of a
+     * compound datatype with a single H5Dread. A packed compound memory datatype
+     * holding only those members is created, the data is read into one byte
+     * buffer, and the buffer is then split into one array per member.
+     *
+     * Returns the data of each packed member keyed by its index in the compound
+     * member type list, or null if fewer than two members can be packed or the
+     * packed read fails. Members which are not in the map are left to
+     * readSingleCompoundMember().
+     */
+    private Map<Integer, Object> readPackedCompoundMembers(long dsetID, long[] spaceIDs, int nSelPoints,
+            final H5Datatype cmpdType, int firstMemberIndex) {
+        List<Datatype> typeList = cmpdType.getCompoundMemberTypes();
+        List<Integer> packedIndices = new ArrayList<>();
+        List<String> packedNames = new ArrayList<>();
+
+        /*
+         * Walk the member list the same way compoundTypeIO() does, so that each member
+         * is matched with its entry in the flattened member name and selection lists.
+         */
+        int flatIndex = firstMemberIndex;
+        for (int i = 0; i < typeList.size(); i++) {
+            H5Datatype memberType = (H5Datatype) typeList.get(i);
+
+            int nFlatMembers = 1;
+            if (memberType.isCompound() || memberType.isArray()) {
+                List<Datatype> nestedTypes = new ArrayList<>();
+                H5Datatype.extractCompoundInfo(memberType, "", null, nestedTypes);
+                nFlatMembers = memberType.isCompound() ? nestedTypes.size() : 1 + nestedTypes.size();
             }
-            else if (Utils.getJavaObjectRuntimeClass(memberData) == 'B') {
-                log.trace("readSingleCompoundMember(): converting byte array member into Object");
 
-                /*
-                 * For all other types that get read into memory as a byte[] (such as nested
-                 * compounds and arrays of compounds), we must manually convert the byte[] into
-                 * something usable.
-                 */
-                memberData = convertByteMember(memberType, (byte[]) memberData);
+            if (isPackableMember(memberType) && isMemberSelected[flatIndex % this.getMemberCount()]) {
+                packedIndices.add(i);
+                packedNames.add(flatNameList.get(flatIndex));
+            }
+
+            flatIndex += nFlatMembers;
+        }
+
+        int nPacked = packedIndices.size();
+        if (nPacked < 2) {
+            log.trace("readPackedCompoundMembers(): {} packable members, reading members one at a time", nPacked);
+            return null;
+        }
+
+        Map<Integer, Object> packedData = null;
+        long packedTid = HDF5Constants.H5I_INVALID_HID;
+        long[] memberTids = new long[nPacked];
+        int[] memberSizes = new int[nPacked];
+        int[] memberOffsets = new int[nPacked];
+        Arrays.fill(memberTids, HDF5Constants.H5I_INVALID_HID);
+
+        try {
+            int packedSize = 0;
+            for (int j = 0; j < nPacked; j++) {
+                H5Datatype memberType = (H5Datatype) typeList.get(packedIndices.get(j));
+                memberTids[j] = memberType.createNative();
+                memberSizes[j] = (int) H5.H5Tget_size(memberTids[j]);
+                memberOffsets[j] = packedSize;
+                packedSize += memberSizes[j];
+            }
+
+            if ((long) nSelPoints * packedSize > Integer.MAX_VALUE) {
+                log.debug("readPackedCompoundMembers(): packed buffer of {} points * {} bytes is too large", nSelPoints, packedSize);
+                return null;
+            }
+
+            packedTid = H5.H5Tcreate(HDF5Constants.H5T_COMPOUND, packedSize);
+            for (int j = 0; j < nPacked; j++)
+                H5.H5Tinsert(packedTid, packedNames.get(j), memberOffsets[j], memberTids[j]);
+
+            byte[] packedBuf = new byte[nSelPoints * packedSize];
+
+            log.trace("readPackedCompoundMembers(): H5Dread did={} packedTid={} members={} size={}", dsetID, packedTid,
+                    nPacked, packedSize);
+
+            long t0 = System.nanoTime();
+            H5.H5Dread(dsetID, packedTid, spaceIDs[0], spaceIDs[1], HDF5Constants.H5P_DEFAULT, packedBuf);
+            getFileFormat().getIOStatistics().recordRead(System.nanoTime() - t0, nSelPoints, packedBuf.length);
+
+            packedData = new HashMap<>(nPacked * 2);
+            for (int j = 0; j < nPacked; j++) {
+                H5Datatype memberType = (H5Datatype) typeList.get(packedIndices.get(j));
+                Object memberData = unpackCompoundMember(packedBuf, packedSize, memberOffsets[j], memberSizes[j],
+                        memberType, nSelPoints);
+                packedData.put(packedIndices.get(j), convertCompoundMember(memberType, memberData));
+            }
+        }
+        catch (OutOfMemoryError err) {
+            log.debug("readPackedCompoundMembers(): out of memory, reading members one at a time");
+            packedData = null;
+        }
+        catch (Exception ex) {
+            log.debug("readPackedCompoundMembers(): packed read failure, reading members one at a time: ", ex);
+            packedData = null;
+        }
+        finally {
+            cmpdType.close(packedTid);
+            for (int j = 0; j < nPacked; j++)
+                cmpdType.close(memberTids[j]);
+        }
+
+        return packedData;
+    }
+
+    /*
+     * Checks if a compound member can be read into a packed buffer, i.e. it is an
+     * atomic type, or an array of atomic types, with a fixed size in memory.
+     */
+    private static boolean isPackableMember(final Datatype memberType) {
+        Datatype dtype = memberType;
+
+        while (dtype != null) {
+            if (dtype.isCompound() || dtype.isVLEN() || dtype.isVarStr() || dtype.isRef())
+                return false;
+
+            if (!dtype.isArray())
+                break;
+
+            dtype = dtype.getDatatypeBase();
+        }
+
+        return (dtype != null);
+    }
+
+    /*
+     * Decodes the values of one member of a packed compound buffer into the
+     * array that a single member read would have produced. The values are read
+     * in place from the packed buffer, without copying the member's bytes out
+     * first.
+     */
+    private static Object unpackCompoundMember(byte[] packedBuf, int packedSize, int memberOffset, int memberSize,
+            final H5Datatype memberType, int nSelPoints) throws Exception {
+        Object memberData = H5Datatype.allocateArray(memberType, nSelPoints);
+        char dname = Utils.getJavaObjectRuntimeClass(memberData);
+
+        int elementSize;
+        switch (dname) {
+            case 'B':
+                elementSize = 1;
+                break;
+            case 'S':
+                elementSize = 2;
+                break;
+            case 'I':
+            case 'F':
+                elementSize = 4;
+                break;
+            case 'J':
+            case 'D':
+                elementSize = 8;
+                break;
+            default:
+                throw new Exception("unsupported member buffer type " + dname);
+        }
+
+        int memberBytes = nSelPoints * memberSize;
+        if ((long) Array.getLength(memberData) * elementSize != memberBytes)
+            throw new Exception("member buffer size does not match member datatype size " + memberSize);
+
+        // the number of values of the member in each point, more than one for an array member
+        int nValues = memberSize / elementSize;
+
+        ByteBuffer bb = ByteBuffer.wrap(packedBuf).order(ByteOrder.nativeOrder());
+        int dst = 0;
+        for (int p = 0, src = memberOffset; p < nSelPoints; p++, src += packedSize) {
+            switch (dname) {
+                case 'B':
+                    System.arraycopy(packedBuf, src, (byte[]) memberData, dst, nValues);
+                    dst += nValues;
+                    break;
+                case 'S': {
+                    short[] values = (short[]) memberData;
+                    for (int k = 0, pos = src; k < nValues; k++, pos += 2)
+                        values[dst++] = bb.getShort(pos);
+                    break;
+                }
+                case 'I': {
+                    int[] values = (int[]) memberData;
+                    for (int k = 0, pos = src; k < nValues; k++, pos += 4)
+                        values[dst++] = bb.getInt(pos);
+                    break;
+                }
+                case 'J': {
+                    long[] values = (long[]) memberData;
+                    for (int k = 0, pos = src; k < nValues; k++, pos += 8)
+                        values[dst++] = bb.getLong(pos);
+                    break;
+                }
+                case 'F': {
+                    float[] values = (float[]) memberData;
+                    for (int k = 0, pos = src; k < nValues; k++, pos += 4)
+                        values[dst++] = bb.getFloat(pos);
+                    break;
+                }
+                case 'D': {
+                    double[] values = (double[]) memberData;
+                    for (int k = 0, pos = src; k < nValues; k++, pos += 8)
+                        values[dst++] = bb.getDouble(pos);
+                    break;
+                }
+                default:
+                    break;
             }
         }
 
@@ -1249,6 +1555,7 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
          * Actually write the data now that everything has been setup.
          */
         try {
+            long t0 = System.nanoTime();
             if (memberType.isVarStr()) {
                 log.trace("writeSingleCompoundMember(): H5Dwrite_string did={} compTid={} spaceIDs[0]={} spaceIDs[1]={}",
                         dsetID, compTid, (spaceIDs[0] == HDF5Constants.H5P_DEFAULT) ? "H5P_DEFAULT" : spaceIDs[0],
@@ -1266,6 +1573,8 @@ public class H5CompoundDS extends CompoundDS implements MetaDataContainer
                 // error or C library error.
                 H5.H5Dwrite(dsetID, compTid, spaceIDs[0], spaceIDs[1], HDF5Constants.H5P_DEFAULT, tmpData);
             }
+            getFileFormat().getIOStatistics().recordWrite(System.nanoTime() - t0, nSelPoints,
+                    (long) nSelPoints * memberType.getDatatypeSize());
         }
         catch (Exception ex) {
             log.debug("writeSingleCompoundMember(): write failure: ", ex);
@@ -0,0 +1,273 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object.h5;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hdf.hdf5lib.H5;
+import hdf.hdf5lib.HDF5Constants;
+import hdf.hdf5lib.exceptions.HDF5Exception;
+
+import hdf.object.FileFormat;
+import hdf.object.HObject;
+
+/**
+ * A bounded, least recently used cache of open dataset identifiers of a file.
+ *
+ * H5ScalarDS and H5CompoundDS open the dataset for every read, write and
+ * init(). With the cache, the identifier returned by open() is kept open when
+ * the dataset is closed, and the next open() of the same dataset object
+ * returns it without calling H5Dopen again.
+ *
+ * Entries are keyed by the dataset object, not by its path, so that renaming
+ * or deleting an object in the file can never hand out the identifier of a
+ * different object. An identifier which is in use, i.e. which was returned by
+ * open() and not yet passed to close(), is never closed by eviction. An
+ * identifier which is removed from the cache while it is in use is closed
+ * when its last user hands it back.
+ *
+ * The cache is owned by an H5File and is cleared when the file is closed.
+ */
+final class H5DatasetCache
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(H5DatasetCache.class);
+
+    /** An open dataset identifier and the number of its current users. */
+    private static final class Entry {
+        private final long did;
+        private int        refCount = 0;
+
+        Entry(long did) {
+            this.did = did;
+        }
+    }
+
+    /** The entries in least recently used order. */
+    private final Map<HObject, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The entries removed while in use, by identifier; they are closed by their last release. */
+    private final Map<Long, Entry> removedEntries = new HashMap<>();
+
+    /** The maximum number of identifiers kept open. */
+    private int capacity;
+
+    /** The number of opens served from the cache. */
+    private long hitCount = 0;
+
+    /** The number of opens which had to open the dataset. */
+    private long missCount = 0;
+
+    /**
+     * Constructs a cache which keeps at most capacity dataset identifiers open.
+     *
+     * @param capacity
+     *            the maximum number of identifiers kept open; 0 disables the cache.
+     */
+    H5DatasetCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Returns the dataset cache of the file of the given object.
+     *
+     * @param obj
+     *            the dataset object.
+     *
+     * @return the cache, or null if the object does not belong to an H5File.
+     */
+    static H5DatasetCache of(HObject obj) {
+        FileFormat file = obj.getFileFormat();
+
+        return (file instanceof H5File) ? ((H5File) file).getDatasetCache() : null;
+    }
+
+    /**
+     * Returns the cached identifier of a dataset and marks it as in use.
+     *
+     * @param obj
+     *            the dataset object.
+     *
+     * @return the open dataset identifier, or H5I_INVALID_HID if the dataset
+     *         is not in the cache.
+     */
+    synchronized long acquire(HObject obj) {
+        if (capacity <= 0)
+            return HDF5Constants.H5I_INVALID_HID;
+
+        Entry entry = entries.get(obj);
+        if (entry == null) {
+            missCount++;
+            return HDF5Constants.H5I_INVALID_HID;
+        }
+
+        hitCount++;
+        entry.refCount++;
+        log.trace("acquire(): {} did={} refCount={}", obj, entry.did, entry.refCount);
+
+        return entry.did;
+    }
+
+    /**
+     * Hands back a dataset identifier which was returned by open().
+     *
+     * If the identifier is not cached yet, it is added to the cache, evicting
+     * the least recently used identifiers which are not in use.
+     *
+     * @param obj
+     *            the dataset object.
+     * @param did
+     *            the dataset identifier.
+     *
+     * @return true if the cache took care of the identifier; false if the
+     *         caller has to close it.
+     */
+    synchronized boolean release(HObject obj, long did) {
+        Entry entry = removedEntries.get(did);
+        if (entry != null) {
+            if (--entry.refCount <= 0) {
+                removedEntries.remove(did);
+                closeEntry(entry);
+            }
+            return true;
+        }
+
+        entry = entries.get(obj);
+        if (entry != null) {
+            if (entry.did != did)
+                return false;
+
+            if (entry.refCount > 0)
+                entry.refCount--;
+            return true;
+        }
+
+        if (capacity <= 0)
+            return false;
+
+        entries.put(obj, new Entry(did));
+        evict(capacity);
+
+        return true;
+    }
+
+    /**
+     * Removes a dataset from the cache and closes its identifier. An
+     * identifier which is in use is closed when its last user releases it,
+     * instead of being cached again.
+     *
+     * @param obj
+     *            the dataset object.
+     */
+    synchronized void remove(HObject obj) {
+        Entry entry = entries.remove(obj);
+        if (entry == null)
+            return;
+
+        if (entry.refCount == 0)
+            closeEntry(entry);
+        else
+            removedEntries.put(entry.did, entry);
+    }
+
+    /**
+     * Closes all cached identifiers and empties the cache.
+     */
+    synchronized void clear() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext())
+            closeEntry(it.next());
+
+        it = removedEntries.values().iterator();
+        while (it.hasNext())
+            closeEntry(it.next());
+
+        entries.clear();
+        removedEntries.clear();
+    }
+
+    /**
+     * Sets the maximum number of dataset identifiers kept open.
+     *
+     * @param capacity
+     *            the maximum number of identifiers; 0 disables the cache.
+     */
+    synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        evict(this.capacity);
+    }
+
+    /**
+     * @return the maximum number of dataset identifiers kept open.
+     */
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of dataset identifiers in the cache.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of opens served from the cache.
+     */
+    synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of opens which were not served from the cache.
+     */
+    synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * Closes the least recently used identifiers which are not in use until
+     * at most maxSize identifiers are left.
+     */
+    private void evict(int maxSize) {
+        Iterator<Entry> it = entries.values().iterator();
+        while ((entries.size() > maxSize) && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.refCount == 0) {
+                it.remove();
+                closeEntry(entry);
+            }
+        }
+    }
+
+    private static void closeEntry(Entry entry) {
+        try {
+            H5.H5Dclose(entry.did);
+        }
+        catch (HDF5Exception ex) {
+            log.debug("closeEntry(): H5Dclose(did {}) failure: ", entry.did, ex);
+        }
+    }
+}
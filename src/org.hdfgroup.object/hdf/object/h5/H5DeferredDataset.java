@@ -0,0 +1,208 @@
+/*****************************************************************************
+ * Copyright by The HDF Group.                                               *
+ * Copyright by the Board of Trustees of the University of Illinois.         *
+ * All rights reserved.                                                      *
+ *                                                                           *
+ * This file is part of the HDF Java Products distribution.                  *
+ * The full copyright notice, including terms governing use, modification,   *
+ * and redistribution, is contained in the files COPYING and Copyright.html. *
+ * COPYING can be found at the root of the source code distribution tree.    *
+ * Or, see https://support.hdfgroup.org/products/licenses.html               *
+ * If you do not have access to either file, you may request a copy from     *
+ * help@hdfgroup.org.                                                        *
+ ****************************************************************************/
+
+package hdf.object.h5;
+
+import hdf.hdf5lib.H5;
+import hdf.hdf5lib.HDF5Constants;
+import hdf.hdf5lib.HDFNativeData;
+
+import hdf.object.DeferredObject;
+import hdf.object.FileFormat;
+import hdf.object.HObject;
+
+/**
+ * A placeholder for an HDF5 dataset whose datatype has not been read yet.
+ *
+ * H5File adds an H5DeferredDataset to the member list of a group for each
+ * dataset it finds while loading the file structure. The dataset is opened
+ * and its datatype class is read only when the member is first accessed, at
+ * which point the placeholder is replaced by an H5CompoundDS or an
+ * H5ScalarDS. This saves opening every dataset of a large file when the file
+ * is opened.
+ *
+ * @see hdf.object.DeferredObject
+ */
+public class H5DeferredDataset extends HObject implements DeferredObject
+{
+    private static final long serialVersionUID = 5140539618322713871L;
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(H5DeferredDataset.class);
+
+    /** the object ID of the resolved dataset, created by the first equalsResolvedOID() */
+    private long[] resolvedOID = null;
+
+    /**
+     * Constructs a placeholder for the dataset with the given name and path.
+     *
+     * @param theFile
+     *            the file that contains the dataset.
+     * @param theName
+     *            the name of the dataset, e.g. "dset".
+     * @param thePath
+     *            the full path of the dataset, e.g. "/arrays/".
+     * @param oid
+     *            the object token of the dataset, used to identify the
+     *            placeholder until it is resolved.
+     */
+    @SuppressWarnings("deprecation")
+    public H5DeferredDataset(FileFormat theFile, String theName, String thePath, long[] oid) {
+        super(theFile, theName, thePath, oid);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.HObject#open()
+     */
+    @Override
+    public long open() {
+        long did = HDF5Constants.H5I_INVALID_HID;
+
+        try {
+            did = H5.H5Dopen(getFID(), getFullName(), HDF5Constants.H5P_DEFAULT);
+            getFileFormat().getIOStatistics().recordDatasetOpen();
+        }
+        catch (Exception ex) {
+            log.debug("open(): failed to open dataset {}: ", getFullName(), ex);
+            did = HDF5Constants.H5I_INVALID_HID;
+        }
+
+        return did;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.HObject#close(int)
+     */
+    @Override
+    public void close(long did) {
+        if (did >= 0) {
+            try {
+                H5.H5Dclose(did);
+            }
+            catch (Exception ex) {
+                log.debug("close(): H5Dclose(did {}) failure: ", did, ex);
+            }
+        }
+    }
+
+    /**
+     * Reads the datatype class of the dataset and creates an H5CompoundDS for
+     * a dataset of compound datatype, or of array or variable-length of
+     * compound datatype. An H5ScalarDS is created for all other datasets, and
+     * for datasets whose datatype cannot be read.
+     *
+     * @return the H5CompoundDS or H5ScalarDS for this dataset.
+     */
+    @Override
+    public HObject resolve() {
+        int tclass = getDatatypeClass();
+
+        log.trace("resolve(): {} datatype class={}", getFullName(), tclass);
+
+        if (tclass == HDF5Constants.H5T_COMPOUND)
+            return new H5CompoundDS(getFileFormat(), getName(), getPath());
+        else
+            return new H5ScalarDS(getFileFormat(), getName(), getPath());
+    }
+
+    /**
+     * Compares the given object ID with the one of the H5ScalarDS or
+     * H5CompoundDS this placeholder resolves to. The object ID is created from
+     * an object reference to the dataset, as the datasets do, which does not
+     * open the dataset.
+     */
+    @Override
+    public boolean equalsResolvedOID(long[] theID) {
+        if ((theID == null) || (theID.length == 0))
+            return false;
+
+        if (resolvedOID == null) {
+            byte[] refBuf = null;
+            try {
+                refBuf = H5.H5Rcreate_object(getFID(), getFullName(), HDF5Constants.H5P_DEFAULT);
+                resolvedOID = HDFNativeData.byteToLong(refBuf);
+            }
+            catch (Exception ex) {
+                log.debug("equalsResolvedOID(): {} H5Rcreate_object failure: ", getFullName(), ex);
+                return false;
+            }
+            finally {
+                if (refBuf != null)
+                    H5.H5Rdestroy(refBuf);
+            }
+        }
+
+        int n = Math.min(resolvedOID.length, theID.length);
+        for (int i = 0; i < n; i++) {
+            if (resolvedOID[i] != theID[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the datatype class of the dataset; for ARRAY and VLEN datatypes,
+     * the class of the base datatype.
+     */
+    private int getDatatypeClass() {
+        long did = HDF5Constants.H5I_INVALID_HID;
+        long tid = HDF5Constants.H5I_INVALID_HID;
+        int tclass = -1;
+
+        try {
+            did = open();
+            if (did >= 0) {
+                tid = H5.H5Dget_type(did);
+
+                tclass = H5.H5Tget_class(tid);
+                if ((tclass == HDF5Constants.H5T_ARRAY) || (tclass == HDF5Constants.H5T_VLEN)) {
+                    // for ARRAY, the type is determined by the base type
+                    long btid = H5.H5Tget_super(tid);
+
+                    tclass = H5.H5Tget_class(btid);
+
+                    try {
+                        H5.H5Tclose(btid);
+                    }
+                    catch (Exception ex) {
+                        log.debug("getDatatypeClass(): {} H5Tclose(btid {}) failure: ", getFullName(), btid, ex);
+                    }
+                }
+            }
+            else {
+                log.debug("getDatatypeClass(): {} dataset open failure", getFullName());
+            }
+        }
+        catch (Exception ex) {
+            log.debug("getDatatypeClass(): {} dataset access failure: ", getFullName(), ex);
+        }
+        finally {
+            if (tid >= 0) {
+                try {
+                    H5.H5Tclose(tid);
+                }
+                catch (Exception ex) {
+                    log.debug("getDatatypeClass(): {} H5Tclose(tid {}) failure: ", getFullName(), tid, ex);
+                }
+            }
+            close(did);
+        }
+
+        return tclass;
+    }
+}
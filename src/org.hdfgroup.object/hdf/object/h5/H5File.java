@@ -39,6 +39,7 @@ import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
 import hdf.object.HObject;
+import hdf.object.IOStatistics;
 import hdf.object.ScalarDS;
 
 import hdf.object.h5.H5Attribute;
@@ -120,6 +121,11 @@ public class H5File extends FileFormat
      */
     private static final int attrNameLen = 256;
 
+    /**
+     * The cache of open dataset identifiers of this file.
+     */
+    private transient H5DatasetCache datasetCache = null;
+
     /**
      * The library version bounds
      */
@@ -841,12 +847,7 @@ public class H5File extends FileFormat
                 catch (Exception ex) {
                     log.debug("updateReferenceDataset(): H5ScalarDS reference[{}] H5Sclose(sid {}) failure: ", i, sid, ex);
                 }
-                try {
-                    H5.H5Dclose(did);
-                }
-                catch (Exception ex) {
-                    log.debug("updateReferenceDataset(): H5ScalarDS reference[{}] H5Dclose(did {}) failure: ", i, did, ex);
-                }
+                d.close(did);
             }
 
             refs = null;
@@ -1217,10 +1218,20 @@ public class H5File extends FileFormat
         }
         System.setProperty("user.dir", rootPath);//H5.H5Dchdir_ext(rootPath);
 
-        // clean up unused objects
+        // close the cached dataset identifiers
+        getDatasetCacheInstance().clear();
+        getDatasetCacheInstance().resetStatistics();
+
+        getIOStatistics().unregister();
+
+        // clean up unused objects; the objects in memory are taken from the
+        // object index so that closing the file does not load unloaded groups
+        // or open deferred datasets
         if (rootObject != null) {
             HObject theObj = null;
-            Iterator<HObject> it = getMembersBreadthFirst(rootObject).iterator();
+            List<HObject> objs = getObjectsInMemory();
+            objs.add(0, rootObject);
+            Iterator<HObject> it = objs.iterator();
             while (it.hasNext()) {
                 theObj = it.next();
 
@@ -1233,6 +1244,8 @@ public class H5File extends FileFormat
                     ((Group) theObj).clear();
                 }
             }
+
+            clearObjectIndex();
         }
 
         // Close all open objects associated with this file.
@@ -1316,6 +1329,56 @@ public class H5File extends FileFormat
         fid = -1;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.FileFormat#setDatasetCacheSize(int)
+     */
+    @Override
+    public void setDatasetCacheSize(int size) {
+        super.setDatasetCacheSize(size);
+        getDatasetCacheInstance().setCapacity(getDatasetCacheSize());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.FileFormat#getDatasetCacheHits()
+     */
+    @Override
+    public long getDatasetCacheHits() {
+        return getDatasetCacheInstance().getHitCount();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see hdf.object.FileFormat#getDatasetCacheMisses()
+     */
+    @Override
+    public long getDatasetCacheMisses() {
+        return getDatasetCacheInstance().getMissCount();
+    }
+
+    /**
+     * Returns the cache of open dataset identifiers of this file, or null for a
+     * file opened for SWMR reading, whose datasets must be reopened to see the
+     * data appended by the writer.
+     */
+    H5DatasetCache getDatasetCache() {
+        if ((flag & HDF5Constants.H5F_ACC_SWMR_READ) != 0)
+            return null;
+
+        return getDatasetCacheInstance();
+    }
+
+    private synchronized H5DatasetCache getDatasetCacheInstance() {
+        if (datasetCache == null)
+            datasetCache = new H5DatasetCache(getDatasetCacheSize());
+
+        return datasetCache;
+    }
+
     /**
      * Returns the root object of the open HDF5 File.
      *
@@ -1401,6 +1464,7 @@ public class H5File extends FileFormat
                     long did = -1;
                     try {
                         did = H5.H5Dopen(fid, path, HDF5Constants.H5P_DEFAULT);
+                        getIOStatistics().recordDatasetOpen();
                         obj = getDataset(did, name, pPath);
                     }
                     finally {
@@ -1912,7 +1976,51 @@ public class H5File extends FileFormat
             return;
         }
 
+        long t0 = System.nanoTime();
         depth_first(g, Integer.MIN_VALUE);
+        getIOStatistics().recordTreeLoad(System.nanoTime() - t0);
+    }
+
+    /**
+     * Loads the members of a group from the file when the file is opened with
+     * lazy loading. The members are retrieved with a single call to
+     * H5Gget_obj_info_full; member groups are marked as not loaded and are
+     * loaded in turn when they are accessed.
+     *
+     * @param g
+     *            the group whose members are loaded.
+     *
+     * @throws Exception
+     *            If the file is not open.
+     *
+     * @see hdf.object.FileFormat#loadMembers(hdf.object.Group)
+     */
+    @Override
+    public void loadMembers(Group g) throws Exception {
+        if (fid < 0 || rootObject == null || g == null) {
+            log.debug("loadMembers(): Invalid fid or null object");
+            throw new HDF5Exception("file is not open");
+        }
+
+        log.trace("loadMembers({}): start", g);
+        long t0 = System.nanoTime();
+
+        // depth_first() skips a group it cannot read, which would leave the
+        // group empty for good; check that the group can be read first
+        long gid = g.open();
+        if (gid < 0) {
+            log.debug("loadMembers({}): failed to open group", g);
+            throw new HDF5Exception("failed to open group " + g.getFullName());
+        }
+        try {
+            H5.H5Gget_info(gid);
+        }
+        finally {
+            g.close(gid);
+        }
+
+        depth_first(g, 0);
+        getIOStatistics().recordTreeLoad(System.nanoTime() - t0);
     }
 
     /*
@@ -1971,6 +2079,7 @@ public class H5File extends FileFormat
 
         String name = obj.getPath() + obj.getName();
 
+        getDatasetCacheInstance().remove(obj);
         H5.H5Ldelete(fid, name, HDF5Constants.H5P_DEFAULT);
     }
 
@@ -2242,6 +2351,11 @@ public class H5File extends FileFormat
 
         initLibBounds();
 
+        if (fid >= 0) {
+            IOStatistics.registerGlobal();
+            getIOStatistics().register(fullFileName);
+        }
+
         if ((fid >= 0) && loadFullHierarchy) {
             long n = H5.H5Fget_obj_count(fid, HDF5Constants.H5F_OBJ_ALL);
             log.trace("open(): open objects={}", n);
@@ -2269,9 +2383,12 @@ public class H5File extends FileFormat
          * depth_first method will have to be changed to setup other object paths
          * appropriately, as it currently assumes the root path to be null.
          */
+        clearObjectIndex();
         rootObject = new H5Group(this, "/", null, null);
         log.trace("loadIntoMemory(): depth_first on root");
+        long t0 = System.nanoTime();
         depth_first(rootObject, 0);
+        getIOStatistics().recordTreeLoad(System.nanoTime() - t0);
     }
 
     /**
@@ -2281,6 +2398,9 @@ public class H5File extends FileFormat
      * It also detects and stops loops. A loop is detected if there exists an object with the same object ID by tracing
      * a path back up to the root.
      *
+     * Datasets are added to the member lists as H5DeferredDataset placeholders, so that no dataset needs to be
+     * opened while the structure is retrieved.
+     *
      * @param parentObject
      *            the parent object.
      */
@@ -2393,67 +2513,21 @@ public class H5File extends FileFormat
 
                 // recursively go through the next group
                 // stops if it has loop.
+                // with lazy loading, the group is loaded when it is first accessed
                 if (!hasLoop) {
-                    nTotal = depth_first(g, nTotal);
+                    if (isLazyLoad())
+                        g.setMemberListLoaded(false);
+                    else
+                        nTotal = depth_first(g, nTotal);
                 }
             }
             else if (skipLoad) {
                 continue;
             }
             else if (obj_type == HDF5Constants.H5O_TYPE_DATASET) {
-                long did = -1;
-                long tid = -1;
-                int tclass = -1;
-                try {
-                    did = H5.H5Dopen(fid, fullPath + obj_name, HDF5Constants.H5P_DEFAULT);
-                    if (did >= 0) {
-                        tid = H5.H5Dget_type(did);
-
-                        tclass = H5.H5Tget_class(tid);
-                        if ((tclass == HDF5Constants.H5T_ARRAY) || (tclass == HDF5Constants.H5T_VLEN)) {
-                            // for ARRAY, the type is determined by the base type
-                            long btid = H5.H5Tget_super(tid);
-
-                            tclass = H5.H5Tget_class(btid);
-
-                            try {
-                                H5.H5Tclose(btid);
-                            }
-                            catch (Exception ex) {
-                                log.debug("depth_first({})[{}] dataset {} H5Tclose(btid {}) failure: ", parentObject, i, obj_name, btid, ex);
-                            }
-                        }
-                    }
-                    else {
-                        log.debug("depth_first({})[{}] {} dataset open failure", parentObject, i, obj_name);
-                    }
-                }
-                catch (Exception ex) {
-                    log.debug("depth_first({})[{}] {} dataset access failure: ", parentObject, i, obj_name, ex);
-                }
-                finally {
-                    try {
-                        H5.H5Tclose(tid);
-                    }
-                    catch (Exception ex) {
-                        log.debug("depth_first({})[{}] daatset {} H5Tclose(tid {}) failure: ", parentObject, i, obj_name, tid, ex);
-                    }
-                    try {
-                        H5.H5Dclose(did);
-                    }
-                    catch (Exception ex) {
-                        log.debug("depth_first({})[{}] dataset {} H5Dclose(did {}) failure: ", parentObject, i, obj_name, did, ex);
-                    }
-                }
-                Dataset d = null;
-                if (tclass == HDF5Constants.H5T_COMPOUND) {
-                    // create a new compound dataset
-                    d = new H5CompoundDS(this, obj_name, fullPath);
-                }
-                else {
-                    // create a new scalar dataset
-                    d = new H5ScalarDS(this, obj_name, fullPath);
-                }
+                // the dataset is opened and classified as scalar or compound
+                // when it is first accessed
+                H5DeferredDataset d = new H5DeferredDataset(this, obj_name, fullPath, objtok);
                 oid = d.getOID();
 
                 pgroup.addToMemberList(d);
@@ -2834,6 +2908,7 @@ public class H5File extends FileFormat
 
                 try {
                     did = H5.H5Dopen(fid, memberFullName, HDF5Constants.H5P_DEFAULT);
+                    getIOStatistics().recordDatasetOpen();
                     d = getDataset(did, link_name, thisFullName);
                 }
                 finally {
@@ -17,6 +17,7 @@ package hdf.object.h5;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Vector;
 
@@ -168,13 +169,32 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
         if (getFID() < 0)
             log.trace("open(): file id for:{} is invalid", getPath() + getName());
         else {
-            try {
-                did = H5.H5Dopen(getFID(), getPath() + getName(), HDF5Constants.H5P_DEFAULT);
-                log.trace("open(): did={}", did);
+            long cacheBytes = computeChunkCacheSize();
+
+            H5DatasetCache cache = H5DatasetCache.of(this);
+            if (cache != null) {
+                did = cache.acquire(this);
+
+                // reopen the dataset if its chunk cache size has changed
+                if ((did >= 0) && (cacheBytes != chunkCacheBytesInUse)) {
+                    cache.release(this, did);
+                    cache.remove(this);
+                    did = HDF5Constants.H5I_INVALID_HID;
+                }
             }
-            catch (HDF5Exception ex) {
-                log.debug("open(): Failed to open dataset {}", getPath() + getName(), ex);
-                did = HDF5Constants.H5I_INVALID_HID;
+
+            if (did < 0) {
+                try {
+                    did = H5Utils.openDataset(getFID(), getPath() + getName(), cacheBytes,
+                            computeChunkCacheSlots(cacheBytes));
+                    chunkCacheBytesInUse = cacheBytes;
+                    getFileFormat().getIOStatistics().recordDatasetOpen();
+                    log.trace("open(): did={}", did);
+                }
+                catch (HDF5Exception ex) {
+                    log.debug("open(): Failed to open dataset {}", getPath() + getName(), ex);
+                    did = HDF5Constants.H5I_INVALID_HID;
+                }
             }
         }
 
@@ -195,6 +215,12 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
             catch (Exception ex) {
                 log.debug("close(): H5Fflush(did {}) failure: ", did, ex);
             }
+
+            // keep the dataset open for the next access
+            H5DatasetCache cache = H5DatasetCache.of(this);
+            if ((cache != null) && cache.release(this, did))
+                return;
+
             try {
                 H5.H5Dclose(did);
             }
@@ -279,6 +305,13 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                     int nfiles = H5.H5Pget_external_count(pid);
                     isExternal = (nfiles > 0);
                     int layoutType = H5.H5Pget_layout(pid);
+                    if (layoutType == HDF5Constants.H5D_CHUNKED) {
+                        // the chunk dimensions are needed to align block reads to chunks
+                        long[] chunks = new long[H5Utils.MAX_RANK];
+                        int chunkRank = H5.H5Pget_chunk(pid, chunks.length, chunks);
+                        chunkSize = Arrays.copyOf(chunks, chunkRank);
+                        log.trace("init(): chunkSize={}", chunkSize);
+                    }
                     if (isVirtual = (layoutType == HDF5Constants.H5D_VIRTUAL)) {
                         try {
                             long vmaps = H5.H5Pget_virtual_count(pid);
@@ -631,12 +664,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                     catch (HDF5Exception ex) {
                         log.debug("getDatatype(): H5Tclose(tid {}) failure: ", tid, ex);
                     }
-                    try {
-                        H5.H5Dclose(did);
-                    }
-                    catch (HDF5Exception ex) {
-                        log.debug("getDatatype(): H5Dclose(did {}) failure: ", did, ex);
-                    }
+                    close(did);
                 }
             }
         }
@@ -717,7 +745,9 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                 theData = new byte[(int)size];
 
                 log.trace("readBytes(): H5Dread: did={} tid={} fspace={} mspace={}", did, tid, fspace, mspace);
+                long t0 = System.nanoTime();
                 H5.H5Dread(did, tid, mspace, fspace, HDF5Constants.H5P_DEFAULT, theData);
+                getFileFormat().getIOStatistics().recordRead(System.nanoTime() - t0, lsize[0], size);
             }
             catch (Exception ex) {
                 log.debug("readBytes(): failed to read data: ", ex);
@@ -907,6 +937,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                         selectedStride, selectedDims, spaceIDs);
 
                 if (ioType == H5File.IO_TYPE.READ) {
+                    updateChunkCacheStatistics();
                     log.trace("scalarDatasetCommonIO():read ioType isNamed={} isEnum={} isText={} isRefObj={}", dsDatatype.isNamed(), dsDatatype.isEnum(), dsDatatype.isText(), dsDatatype.isRefObj());
                     if ((originalBuf == null) || dsDatatype.isEnum() || dsDatatype.isText() || dsDatatype.isRefObj()
                             || ((originalBuf != null) && (totalSelectedSpacePoints != nPoints))) {
@@ -933,6 +964,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                             log.trace("scalarDatasetCommonIO():read ioType create native");
                             tid = dsDatatype.createNative();
 
+                            long t0 = System.nanoTime();
                             if (dsDatatype.isVLEN() || (dsDatatype.isArray() && dsDatatype.getDatatypeBase().isVLEN())) {
                                 log.trace("scalarDatasetCommonIO(): H5DreadVL did={} tid={} spaceIDs[0]={} spaceIDs[1]={}",
                                         did, tid, (spaceIDs[0] == HDF5Constants.H5P_DEFAULT) ? "H5P_DEFAULT" : spaceIDs[0],
@@ -948,6 +980,8 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
 
                                 H5.H5Dread(did, tid, spaceIDs[0], spaceIDs[1], HDF5Constants.H5P_DEFAULT, theData);
                             }
+                            getFileFormat().getIOStatistics().recordRead(System.nanoTime() - t0,
+                                    totalSelectedSpacePoints, totalSelectedSpacePoints * dsDatatype.getDatatypeSize());
                         }
                         catch (HDF5DataFiltersException exfltr) {
                             log.debug("scalarDatasetCommonIO(): read failure: ", exfltr);
@@ -1030,6 +1064,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                     try {
                         tid = dsDatatype.createNative();
 
+                        long t0 = System.nanoTime();
                         if (dsDatatype.isVLEN() || (dsDatatype.isArray() && dsDatatype.getDatatypeBase().isVLEN())) {
                             log.trace("scalarDatasetCommonIO(): H5DwriteVL did={} tid={} spaceIDs[0]={} spaceIDs[1]={}",
                                     did, tid, (spaceIDs[0] == HDF5Constants.H5P_DEFAULT) ? "H5P_DEFAULT" : spaceIDs[0],
@@ -1044,6 +1079,8 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
 
                             H5.H5Dwrite(did, tid, spaceIDs[0], spaceIDs[1], HDF5Constants.H5P_DEFAULT, tmpData);
                         }
+                        getFileFormat().getIOStatistics().recordWrite(System.nanoTime() - t0,
+                                totalSelectedSpacePoints, totalSelectedSpacePoints * dsDatatype.getDatatypeSize());
                     }
                     catch (Exception ex) {
                         log.debug("scalarDatasetCommonIO(): write failure: ", ex);
@@ -2022,12 +2059,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                         H5File.copyAttributes(srcdid, dstdid);
                     }
                     finally {
-                        try {
-                            H5.H5Dclose(dstdid);
-                        }
-                        catch (Exception ex) {
-                            log.debug("copy(): H5Dclose(dstdid {}) failure: ", dstdid, ex);
-                        }
+                        dataset.close(dstdid);
                     }
                 }
             }
@@ -2050,12 +2082,7 @@ public class H5ScalarDS extends ScalarDS implements MetaDataContainer
                 catch (Exception ex) {
                     log.debug("copy(): H5Tclose(tid {}) failure: ", tid, ex);
                 }
-                try {
-                    H5.H5Dclose(srcdid);
-                }
-                catch (Exception ex) {
-                    log.debug("copy(): H5Dclose(srcdid {}) failure: ", srcdid, ex);
-                }
+                close(srcdid);
             }
         }
 
@@ -23,6 +23,9 @@ public final class H5Utils {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(H5Utils.class);
 
+    /** The maximum rank of an HDF5 dataspace (H5S_MAX_RANK). */
+    public static final int MAX_RANK = 32;
+
     /**
      * Set up a hyperslab selection within a dataset.
      *
@@ -96,6 +99,45 @@ public final class H5Utils {
         return lsize;
     }
 
+    /**
+     * Opens a dataset with a raw data chunk cache of the given size.
+     *
+     * @param fid
+     *            IN file or group ID
+     * @param name
+     *            IN name of the dataset
+     * @param cacheBytes
+     *            IN size of the chunk cache in bytes; 0 or less opens the
+     *            dataset with the default chunk cache of the file
+     * @param cacheSlots
+     *            IN number of hash table slots of the chunk cache
+     *
+     * @return the dataset ID
+     *
+     * @throws HDF5Exception
+     *             If there is an error at the HDF5 library level.
+     */
+    public static final long openDataset(long fid, String name, long cacheBytes, long cacheSlots) throws HDF5Exception {
+        if (cacheBytes <= 0)
+            return H5.H5Dopen(fid, name, HDF5Constants.H5P_DEFAULT);
+
+        long dapl = H5.H5Pcreate(HDF5Constants.H5P_DATASET_ACCESS);
+        try {
+            H5.H5Pset_chunk_cache(dapl, cacheSlots, cacheBytes, HDF5Constants.H5D_CHUNK_CACHE_W0_DEFAULT);
+            log.trace("openDataset(): {} chunk cache nbytes={} nslots={}", name, cacheBytes, cacheSlots);
+
+            return H5.H5Dopen(fid, name, dapl);
+        }
+        finally {
+            try {
+                H5.H5Pclose(dapl);
+            }
+            catch (Exception ex) {
+                log.debug("openDataset(): H5Pclose(dapl {}) failure: ", dapl, ex);
+            }
+        }
+    }
+
     /**
      * Get the total number of datapoints for the hyperslab selection within a dataset.
      *
@@ -130,7 +172,8 @@ public final class H5Utils {
 
         if (totalSelectedSpacePoints < Integer.MIN_VALUE || totalSelectedSpacePoints > Integer.MAX_VALUE) {
             log.debug("getTotalSelectedSpacePoints(): totalSelectedSpacePoints outside valid Java int range; unsafe cast");
-            throw new HDF5Exception("Invalid int size");
+            throw new HDF5Exception("Invalid int size: the selection of " + totalSelectedSpacePoints
+                    + " points is too large to read at once; read it in blocks with Dataset.blockIterator()");
         }
 
         if (log.isDebugEnabled()) {
@@ -10,5 +10,6 @@ module org.hdfgroup.object {
     requires fits;
     requires jarhdf;
     requires jarhdf5;
+    requires java.management;
     requires org.slf4j;
 }
@@ -1,6 +1,8 @@
 /** the hdfview test module */
 module org.hdfgroup.hdfview.test {
     requires org.hdfgroup.hdfview;
+    requires org.hdfgroup.object;
+    requires org.eclipse.nebula.widgets.nattable.core;
     requires org.eclipse.swtbot;
     requires org.eclipse.swtbot.nebula.nattable.finder;
     requires org.eclipse.swtbot.swt.finder;
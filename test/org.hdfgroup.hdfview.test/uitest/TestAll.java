@@ -19,7 +19,8 @@ import org.junit.runners.Suite;
     TestTreeViewExport.class,
     TestHDFViewTAttr2.class,
     TestTreeViewNewVLDatatypes.class,
-    TestHDFViewRefs.class
+    TestHDFViewRefs.class,
+    TestDataProviderValues.class
 })
 
 public class TestAll {
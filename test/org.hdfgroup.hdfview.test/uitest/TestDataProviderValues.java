@@ -0,0 +1,152 @@
+package uitest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hdf.object.Dataset;
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+import hdf.view.TableView.DataProviderFactory;
+import hdf.view.TableView.DataProviderFactory.HDFDataProvider;
+
+/*
+ * Tests the cell values returned by the data providers of numerical datasets,
+ * which read the cells from the primitive array of the data buffer. Every
+ * cell of a table of each integer and floating-point type is compared with
+ * the value at the same position of the buffer, shown as is and transposed.
+ *
+ * The tables do not need a display, so the test does not open HDFView.
+ */
+public class TestDataProviderValues {
+    private static final String FILENAME = "testDataProviderValues.h5";
+
+    private static final int NROWS = 37;
+
+    private static final int NCOLS = 11;
+
+    private static final String[] NAMES = { "byte", "short", "int", "long", "float", "double", "ulong" };
+
+    private static final Class<?>[] VALUE_CLASSES = { Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigInteger.class };
+
+    @BeforeClass
+    public static void createFile() throws Exception {
+        final long[] dims = { NROWS, NCOLS };
+        final int size = NROWS * NCOLS;
+        final byte[] bytes = new byte[size];
+        final short[] shorts = new short[size];
+        final int[] ints = new int[size];
+        final long[] longs = new long[size];
+        final float[] floats = new float[size];
+        final double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i - 128);
+            shorts[i] = (short) (i * 77 - 30000);
+            ints[i] = i * 1000003 - 100000000;
+            longs[i] = i * 10000000019L - Long.MAX_VALUE / 2;
+            floats[i] = i * 0.25f - 17;
+            doubles[i] = i * -1.5e100;
+        }
+
+        // unsigned 64-bit values above Long.MAX_VALUE are shown as BigIntegers
+        final long[] ulongs = new long[size];
+        for (int i = 0; i < size; i++)
+            ulongs[i] = -1L - i;
+
+        final H5File file = new H5File(FILENAME, FileFormat.CREATE);
+        file.open();
+        try {
+            file.createScalarDS("byte", null, new H5Datatype(Datatype.CLASS_INTEGER, 1, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, bytes);
+            file.createScalarDS("short", null, new H5Datatype(Datatype.CLASS_INTEGER, 2, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, shorts);
+            file.createScalarDS("int", null, new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, ints);
+            file.createScalarDS("long", null, new H5Datatype(Datatype.CLASS_INTEGER, 8, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, longs);
+            file.createScalarDS("float", null, new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, floats);
+            file.createScalarDS("double", null, new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE),
+                    dims, null, null, -1, doubles);
+            file.createScalarDS("ulong", null, new H5Datatype(Datatype.CLASS_INTEGER, 8, Datatype.NATIVE, Datatype.SIGN_NONE),
+                    dims, null, null, -1, ulongs);
+        }
+        finally {
+            file.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        new File(FILENAME).delete();
+    }
+
+    @Test
+    public void checkCellValues() {
+        checkCellValues(false);
+    }
+
+    @Test
+    public void checkTransposedCellValues() {
+        checkCellValues(true);
+    }
+
+    private void checkCellValues(boolean transposed) {
+        H5File file = null;
+
+        try {
+            file = new H5File(FILENAME, FileFormat.READ);
+            file.open();
+
+            for (int n = 0; n < NAMES.length; n++) {
+                final Dataset dset = (Dataset) file.get(NAMES[n]);
+                assertNotNull(NAMES[n], dset);
+                dset.init();
+                final Object data = dset.getData();
+
+                final HDFDataProvider provider = DataProviderFactory.getDataProvider(dset, data, transposed);
+                assertNotNull(NAMES[n], provider);
+                assertEquals(NAMES[n], NROWS, provider.getRowCount());
+                assertEquals(NAMES[n], NCOLS, provider.getColumnCount());
+
+                for (int r = 0; r < NROWS; r++) {
+                    for (int c = 0; c < NCOLS; c++) {
+                        final int index = transposed ? (c * NROWS + r) : (r * NCOLS + c);
+                        Object expected = Array.get(data, index);
+                        if (VALUE_CLASSES[n] == BigInteger.class)
+                            expected = new BigInteger(Long.toUnsignedString((Long) expected));
+
+                        final Object value = provider.getDataValue(c, r);
+                        final String cell = NAMES[n] + "(" + r + ", " + c + ")";
+                        assertNotNull(cell, value);
+                        assertEquals(cell, VALUE_CLASSES[n], value.getClass());
+                        assertEquals(cell, expected, value);
+                    }
+                }
+            }
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            fail("checkCellValues(" + transposed + ") failed: " + ex);
+        }
+        finally {
+            if (file != null) {
+                try {
+                    file.close();
+                }
+                catch (Exception ex) {}
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package misc;
+
+import java.util.Vector;
+
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.h5.H5CompoundDS;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+
+/**
+ * Compares the time of reading a wide compound dataset with a single packed
+ * H5Dread against reading the same dataset one member at a time.
+ *
+ * Usage: TestH5CompoundRead [nrows nmembers chunkrows gzip]
+ */
+public class TestH5CompoundRead {
+    private static final int NLOOPS = 5;
+
+    public static void main(final String[] args) {
+        long nrows = 1000000;
+        int nmembers = 16;
+        long chunkRows = 16384;
+        int gzip = 0;
+
+        if (args.length > 3)
+        {
+            try {
+                nrows = Long.parseLong(args[0]);
+                nmembers = Integer.parseInt(args[1]);
+                chunkRows = Long.parseLong(args[2]);
+                gzip = Integer.parseInt(args[3]);
+            } catch (final Exception ex) {
+                ex.printStackTrace();
+                System.exit(0);
+            }
+        }
+
+        try {
+            testCompoundRead(nrows, nmembers, chunkRows, gzip);
+        } catch (final Exception ex) {
+            ex.printStackTrace();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Test the performance of reading all members of a compound dataset.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static final void testCompoundRead(final long nrows, final int nmembers, final long chunkRows, final int gzip)
+            throws Exception
+    {
+        final String dname = "/table";
+        final int size = (int) nrows;
+
+        // alternate between int, float, long and double members
+        final String[] memberNames = new String[nmembers];
+        final H5Datatype[] memberTypes = new H5Datatype[nmembers];
+        final Vector data = new Vector(nmembers);
+        long rowSize = 0;
+        for (int m = 0; m < nmembers; m++) {
+            memberNames[m] = "m" + m;
+            switch (m % 4) {
+                case 0:
+                    memberTypes[m] = new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+                    final int[] ints = new int[size];
+                    for (int i = 0; i < size; i++)
+                        ints[i] = i + m;
+                    data.add(ints);
+                    break;
+                case 1:
+                    memberTypes[m] = new H5Datatype(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, Datatype.NATIVE);
+                    final float[] floats = new float[size];
+                    for (int i = 0; i < size; i++)
+                        floats[i] = i + m / 100.0f;
+                    data.add(floats);
+                    break;
+                case 2:
+                    memberTypes[m] = new H5Datatype(Datatype.CLASS_INTEGER, 8, Datatype.NATIVE, Datatype.NATIVE);
+                    final long[] longs = new long[size];
+                    for (int i = 0; i < size; i++)
+                        longs[i] = (long) i * m;
+                    data.add(longs);
+                    break;
+                default:
+                    memberTypes[m] = new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE);
+                    final double[] doubles = new double[size];
+                    for (int i = 0; i < size; i++)
+                        doubles[i] = i + m / 1000.0;
+                    data.add(doubles);
+                    break;
+            }
+            rowSize += memberTypes[m].getDatatypeSize();
+        }
+
+        final H5File file = new H5File("testH5CompoundRead.h5", FileFormat.CREATE);
+        file.open();
+
+        try {
+            file.createCompoundDS(dname, null, new long[] { nrows }, null, new long[] { Math.min(chunkRows, nrows) },
+                    gzip, memberNames, memberTypes, null, data);
+            file.close();
+
+            final long nbytes = nrows * rowSize;
+            System.out.println("\nReading a " + nrows + " x " + nmembers + " member table, chunk=" + chunkRows
+                    + " gzip=" + gzip + " [MB/s]");
+
+            for (boolean packed : new boolean[] { false, true, false, true }) {
+                long best = Long.MAX_VALUE;
+                for (int loop = 0; loop < NLOOPS; loop++) {
+                    final H5File rfile = new H5File(file.getFilePath(), FileFormat.READ);
+                    rfile.open();
+                    final H5CompoundDS dset = (H5CompoundDS) rfile.get(dname);
+                    dset.init();
+                    dset.setPackedRead(packed);
+                    collectGarbage();
+
+                    final long t0 = System.nanoTime();
+                    dset.read();
+                    final long t1 = System.nanoTime();
+                    best = Math.min(best, t1 - t0);
+
+                    rfile.close();
+                }
+                System.out.println((packed ? "packed read:     \t" : "per-member read: \t") + (nbytes * 1000L / best)
+                        + "\t(" + (best / 1000000L) + " ms)");
+            }
+        } finally {
+            // delete the testing file
+            file.deleteOnExit();
+        }
+    }
+
+    private static void collectGarbage() {
+        try {
+            System.gc();
+            Thread.sleep(100);
+        }
+        catch (final Exception ex){
+            ex.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package misc;
+
+import java.util.List;
+
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.HObject;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+
+/**
+ * Measures the time to open a file with many datasets, and the time to
+ * classify all datasets afterwards.
+ *
+ * The datasets are only opened and classified as scalar or compound when they
+ * are accessed, so open() no longer includes the cost of opening every dataset
+ * in the file. The second number is the cost which open() used to include.
+ *
+ * Usage: TestH5OpenTime [ngroups ndatasets]
+ */
+public class TestH5OpenTime {
+    private static final int NLOOPS = 5;
+
+    public static void main(final String[] args) {
+        int ngroups = 100;
+        int ndatasets = 1000;
+
+        if (args.length > 1)
+        {
+            try {
+                ngroups = Integer.parseInt(args[0]);
+                ndatasets = Integer.parseInt(args[1]);
+            } catch (final Exception ex) {
+                ex.printStackTrace();
+                System.exit(0);
+            }
+        }
+
+        try {
+            testOpenTime(ngroups, ndatasets);
+        } catch (final Exception ex) {
+            ex.printStackTrace();
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Test the time of opening a file with ngroups groups of ndatasets datasets.
+     */
+    public static final void testOpenTime(final int ngroups, final int ndatasets) throws Exception
+    {
+        final String fname = "testH5OpenTime.h5";
+        final long[] dims = { 10 };
+        final H5Datatype intType = new H5Datatype(Datatype.CLASS_INTEGER, 4, Datatype.NATIVE, Datatype.NATIVE);
+        final String[] memberNames = { "a", "b" };
+        final Datatype[] memberTypes = { intType,
+                new H5Datatype(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, Datatype.NATIVE) };
+
+        final H5File file = new H5File(fname, FileFormat.CREATE);
+        file.open();
+
+        try {
+            for (int g = 0; g < ngroups; g++) {
+                final Group group = file.createGroup("g" + g, null);
+                for (int d = 0; d < ndatasets; d++) {
+                    if (d % 10 == 0)
+                        file.createCompoundDS("c" + d, group, dims, null, null, -1, memberNames, memberTypes, null, null);
+                    else
+                        file.createScalarDS("d" + d, group, intType, dims, null, null, -1, null);
+                }
+            }
+            file.close();
+
+            long bestOpen = Long.MAX_VALUE;
+            long bestResolve = Long.MAX_VALUE;
+            for (int loop = 0; loop < NLOOPS; loop++) {
+                final H5File rfile = new H5File(fname, FileFormat.READ);
+
+                long t0 = System.nanoTime();
+                rfile.open();
+                long t1 = System.nanoTime();
+                bestOpen = Math.min(bestOpen, t1 - t0);
+
+                // accessing the member lists classifies all datasets
+                t0 = System.nanoTime();
+                final List<HObject> members = ((Group) rfile.getRootObject()).depthFirstMemberList();
+                t1 = System.nanoTime();
+                bestResolve = Math.min(bestResolve, t1 - t0);
+
+                if (members.size() != ngroups * (ndatasets + 1))
+                    System.out.println("unexpected number of objects: " + members.size());
+
+                rfile.close();
+            }
+
+            System.out.println("\nOpening a file of " + ngroups + " groups x " + ndatasets + " datasets [ms]:");
+            System.out.println("open():                  \t" + (bestOpen / 1000000L));
+            System.out.println("classify all datasets:   \t" + (bestResolve / 1000000L));
+        } finally {
+            // delete the testing file
+            file.deleteOnExit();
+        }
+    }
+}
@@ -2,5 +2,6 @@
 module org.hdfgroup.object.test {
     requires java.management;
     requires org.hdfgroup.object;
+    requires org.hdfgroup.cli;
     requires org.slf4j;
 }
@@ -19,11 +19,15 @@ import org.junit.runners.Suite;
 // hdf.object package
     CompoundDSTest.class, 
     DatasetTest.class, 
+    DatasetTextImporterTest.class, 
+    DataStatisticsTest.class, 
     ScalarDSTest.class, 
     AttributeTest.class, 
+    BinaryIOTest.class, 
     DatatypeTest.class, 
     FileFormatTest.class, 
     GroupTest.class, 
+    HDFCliTest.class, 
     HObjectTest.class
 })
 
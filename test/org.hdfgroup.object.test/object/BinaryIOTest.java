@@ -0,0 +1,216 @@
+package object;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hdf.hdf5lib.H5;
+
+import hdf.object.BinaryIO;
+import hdf.object.FileFormat;
+import hdf.object.h5.H5File;
+import hdf.object.h5.H5ScalarDS;
+
+/**
+ * TestCase for BinaryIO.
+ *
+ * Arrays and selections of the datasets of the test file are written to a
+ * binary file in both byte orders, and are read back and compared.
+ */
+public class BinaryIOTest
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BinaryIOTest.class);
+    private static final H5File H5FILE = new H5File();
+    private static final String BINARY_FILE = "TestBinaryIO.bin";
+    private static final ByteOrder[] ORDERS = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+
+    private H5File testFile = null;
+    private File binFile = null;
+
+    @BeforeClass
+    public static void createFile() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("BinaryIOTest BeforeClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        try {
+            H5TestFile.createTestFile(null);
+        }
+        catch (final Exception ex) {
+            System.out.println("*** Unable to create HDF5 test file. " + ex);
+            System.exit(-1);
+        }
+    }
+
+    @AfterClass
+    public static void checkIDs() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("BinaryIOTest AfterClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Before
+    public void openFiles() throws Exception {
+        try {
+            testFile = (H5File) H5FILE.createInstance(H5TestFile.NAME_FILE_H5, FileFormat.READ);
+            testFile.open();
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        assertNotNull(testFile);
+
+        binFile = new File(BINARY_FILE);
+    }
+
+    @After
+    public void removeFiles() throws Exception {
+        if (testFile != null) {
+            try {
+                testFile.close();
+            }
+            catch (final Exception ex) {}
+            testFile = null;
+        }
+        binFile.delete();
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                log.debug("After: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link hdf.object.BinaryIO#write(java.nio.channels.WritableByteChannel, Object, ByteOrder)}
+     * and {@link hdf.object.BinaryIO#read(File, Object, ByteOrder)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>write arrays of integers and doubles in both byte orders
+     * <li>check the bytes of the file
+     * <li>read the file back and check the values
+     * <li>read a file shorter than the array
+     * </ul>
+     */
+    @Test
+    public void testWriteReadArray() {
+        log.debug("testWriteReadArray");
+        for (ByteOrder order : ORDERS) {
+            try {
+                try (FileChannel channel = FileChannel.open(binFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    BinaryIO.write(channel, H5TestFile.DATA_INT, order);
+                }
+
+                final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(binFile.toPath())).order(order);
+                assertEquals(H5TestFile.DIM_SIZE * 4, bytes.capacity());
+                for (int i = 0; i < H5TestFile.DIM_SIZE; i++)
+                    assertEquals(H5TestFile.DATA_INT[i], bytes.getInt(i * 4));
+
+                final int[] ints = new int[H5TestFile.DIM_SIZE];
+                assertEquals(H5TestFile.DIM_SIZE, BinaryIO.read(binFile, ints, order));
+                for (int i = 0; i < H5TestFile.DIM_SIZE; i++)
+                    assertEquals(H5TestFile.DATA_INT[i], ints[i]);
+
+                // the file holds fewer values than the array
+                final int[] longer = new int[H5TestFile.DIM_SIZE + 7];
+                assertEquals(H5TestFile.DIM_SIZE, BinaryIO.read(binFile, longer, order));
+                assertEquals(0, longer[H5TestFile.DIM_SIZE]);
+
+                final double[] doubles = new double[H5TestFile.DIM_SIZE];
+                for (int i = 0; i < doubles.length; i++)
+                    doubles[i] = H5TestFile.DATA_FLOAT[i] * -1.5e100;
+                try (FileChannel channel = FileChannel.open(binFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    BinaryIO.write(channel, doubles, order);
+                }
+
+                final double[] values = new double[doubles.length];
+                assertEquals(doubles.length, BinaryIO.read(binFile, values, order));
+                for (int i = 0; i < doubles.length; i++)
+                    assertEquals(Double.doubleToLongBits(doubles[i]), Double.doubleToLongBits(values[i]));
+            }
+            catch (final Exception ex) {
+                fail("Binary round trip in " + order + " failed. " + ex);
+            }
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link hdf.object.BinaryIO#write(hdf.object.Dataset, File, ByteOrder, long)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>write the whole dataset and a selection which is not aligned to its
+     * chunks, in blocks smaller than a chunk, of several chunks and of the
+     * whole selection
+     * <li>write in both byte orders
+     * <li>check that the file holds the values of the selection as read()
+     * returns them
+     * </ul>
+     */
+    @Test
+    public void testWriteDataset() {
+        log.debug("testWriteDataset");
+        final long[][] starts = { { 0, 0 }, { 3, 2 } };
+        final long[][] counts = { H5TestFile.DIMs, { 40, 7 } };
+        final long[] blockPoints = { 20, 100, 300, 1L << 22 };
+
+        for (int s = 0; s < starts.length; s++) {
+            for (long maxPoints : blockPoints) {
+                for (ByteOrder order : ORDERS) {
+                    try {
+                        final H5ScalarDS dset = (H5ScalarDS) testFile.get(H5TestFile.NAME_DATASET_INT);
+                        dset.init();
+                        System.arraycopy(starts[s], 0, dset.getStartDims(), 0, 2);
+                        System.arraycopy(counts[s], 0, dset.getSelectedDims(), 0, 2);
+
+                        BinaryIO.write(dset, binFile, order, maxPoints);
+
+                        // the selection of the dataset is unchanged
+                        dset.clearData();
+                        final int[] expected = (int[]) dset.read();
+                        assertEquals(counts[s][0] * counts[s][1], expected.length);
+                        assertEquals(expected.length * 4L, binFile.length());
+
+                        final int[] ints = new int[expected.length];
+                        assertEquals(expected.length, BinaryIO.read(binFile, ints, order));
+                        for (int i = 0; i < expected.length; i++)
+                            assertEquals(expected[i], ints[i]);
+                    }
+                    catch (final Exception ex) {
+                        fail("Binary export of selection " + s + " in blocks of " + maxPoints + " in " + order
+                                + " failed. " + ex);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package object;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import hdf.object.DataStatistics;
+
+/**
+ * TestCase for DataStatistics.
+ *
+ * The statistics of arrays large enough to be split across the fork/join pool
+ * are compared with the statistics of the same values added in blocks which
+ * are processed serially, and with a straightforward two-pass computation.
+ */
+public class DataStatisticsTest
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DataStatisticsTest.class);
+
+    /** more values than several segments of DataStatistics, and not a multiple of them */
+    private static final int SIZE = 200003;
+
+    /** the size of the blocks added serially, below the segment size of DataStatistics */
+    private static final int BLOCK_SIZE = 1000;
+
+    private static final double EPSILON = 1.0e-9;
+
+    /**
+     * Test method for {@link hdf.object.DataStatistics#compute(Object, Object, double[], int)}
+     * and {@link hdf.object.DataStatistics#add(Object)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>compute the statistics of a large array of each type in parallel
+     * <li>add the same values in small blocks, which are not split
+     * <li>check that count, range, histogram, mean and standard deviation are
+     * the same, and match a two-pass computation
+     * </ul>
+     */
+    @Test
+    public void testSplitEqualsSerial() {
+        log.debug("testSplitEqualsSerial");
+        final Random random = new Random(1234);
+        final double[] values = new double[SIZE];
+        for (int i = 0; i < SIZE; i++)
+            values[i] = Math.rint(random.nextGaussian() * 1000 + 50);
+
+        final short[] shorts = new short[SIZE];
+        final int[] ints = new int[SIZE];
+        final long[] longs = new long[SIZE];
+        final float[] floats = new float[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            shorts[i] = (short) values[i];
+            ints[i] = (int) values[i];
+            longs[i] = (long) values[i];
+            floats[i] = (float) values[i];
+        }
+        final Object[] arrays = { shorts, ints, longs, floats, values };
+
+        final double[] range = { -2000, 2000 };
+        for (Object array : arrays) {
+            final String type = array.getClass().getSimpleName();
+
+            final DataStatistics split = DataStatistics.compute(array, null, range, 64);
+            assertNotNull(split);
+
+            final DataStatistics serial = new DataStatistics(null, range, 64);
+            for (int from = 0; from < SIZE; from += BLOCK_SIZE) {
+                final int n = Math.min(BLOCK_SIZE, SIZE - from);
+                final double[] block = new double[n];
+                System.arraycopy(values, from, block, 0, n);
+                serial.add(block);
+            }
+
+            assertEquals(type, SIZE, split.getCount());
+            assertEquals(type, serial.getCount(), split.getCount());
+            assertEquals(type, serial.getMin(), split.getMin(), 0);
+            assertEquals(type, serial.getMax(), split.getMax(), 0);
+            assertArrayEquals(type, serial.getHistogram(), split.getHistogram());
+            assertEquals(type, serial.getMean(), split.getMean(), EPSILON * Math.abs(serial.getMean()));
+            assertEquals(type, serial.getStandardDeviation(), split.getStandardDeviation(),
+                    EPSILON * serial.getStandardDeviation());
+
+            double sum = 0;
+            for (double v : values)
+                sum += v;
+            final double mean = sum / SIZE;
+            double m2 = 0;
+            for (double v : values)
+                m2 += (v - mean) * (v - mean);
+            final double stdev = Math.sqrt(m2 / (SIZE - 1));
+
+            assertEquals(type, mean, split.getMean(), EPSILON * Math.abs(mean));
+            assertEquals(type, stdev, split.getStandardDeviation(), EPSILON * stdev);
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DataStatistics#compute(Object, Object, double[], int)}
+     * with fill values, NaN and infinite values.
+     *
+     * What to test:
+     * <ul>
+     * <li>exclude the fill value, NaN and infinite values from the statistics
+     * <li>count the NaN values
+     * <li>ignore a fill value which is not given as a numerical array
+     * </ul>
+     */
+    @Test
+    public void testFillValueAndNaN() {
+        log.debug("testFillValueAndNaN");
+        final float[] data = { 1, Float.NaN, -999, 2, Float.POSITIVE_INFINITY, 3, Float.NaN, Float.NEGATIVE_INFINITY };
+
+        DataStatistics stats = DataStatistics.compute(data, new float[] { -999 }, null, 0);
+        assertNotNull(stats);
+        assertEquals(3, stats.getCount());
+        assertEquals(2, stats.getNaNCount());
+        assertEquals(1, stats.getMin(), 0);
+        assertEquals(3, stats.getMax(), 0);
+        assertEquals(2, stats.getMean(), EPSILON);
+        assertEquals(1, stats.getStandardDeviation(), EPSILON);
+        assertNull(stats.getHistogram());
+
+        stats = DataStatistics.compute(data, "-999", null, 0);
+        assertNotNull(stats);
+        assertEquals(4, stats.getCount());
+        assertEquals(-999, stats.getMin(), 0);
+
+        // only fill values and NaN
+        stats = DataStatistics.compute(new double[] { -999, Double.NaN }, new double[] { -999 }, null, 0);
+        assertNotNull(stats);
+        assertEquals(0, stats.getCount());
+        assertEquals(1, stats.getNaNCount());
+        assertEquals(Double.POSITIVE_INFINITY, stats.getMin(), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, stats.getMax(), 0);
+        assertEquals(0, stats.getMean(), 0);
+        assertEquals(0, stats.getStandardDeviation(), 0);
+    }
+
+    /**
+     * Test method for {@link hdf.object.DataStatistics#getHistogram()}.
+     *
+     * What to test:
+     * <ul>
+     * <li>count one value into each bin, including both ends of the range
+     * <li>leave values out of the range out of the histogram, but not out of
+     * the statistics
+     * <li>count all values of a range of zero width into the first bin
+     * <li>merge the histograms of two arrays
+     * </ul>
+     */
+    @Test
+    public void testHistogram() {
+        log.debug("testHistogram");
+        final int[] data = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, -1, 10 };
+
+        final DataStatistics stats = DataStatistics.compute(data, null, new double[] { 0, 9 }, 10);
+        assertNotNull(stats);
+        assertEquals(data.length, stats.getCount());
+        assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 }, stats.getHistogram());
+        assertArrayEquals(new double[] { 0, 9 }, stats.getHistogramRange(), 0);
+
+        final DataStatistics flat = DataStatistics.compute(new byte[] { 5, 5, 5, 6 }, null, new double[] { 5, 5 }, 4);
+        assertNotNull(flat);
+        assertArrayEquals(new int[] { 3, 0, 0, 0 }, flat.getHistogram());
+
+        final DataStatistics merged = DataStatistics.compute(new long[] { 0, 9 }, null, new double[] { 0, 9 }, 10);
+        assertNotNull(merged);
+        merged.merge(DataStatistics.compute(new long[] { 9, 4 }, null, new double[] { 0, 9 }, 10));
+        assertArrayEquals(new int[] { 1, 0, 0, 0, 1, 0, 0, 0, 0, 2 }, merged.getHistogram());
+        assertEquals(4, merged.getCount());
+        assertEquals(5.5, merged.getMean(), EPSILON);
+    }
+
+    /**
+     * Test method for {@link hdf.object.DataStatistics#isSupported(Object)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>return null for data which is not a primitive numerical array
+     * <li>throw an exception when such data is added
+     * <li>compute empty statistics of an empty array
+     * </ul>
+     */
+    @Test
+    public void testUnsupportedData() {
+        log.debug("testUnsupportedData");
+        assertNull(DataStatistics.compute(null, null, null, 0));
+        assertNull(DataStatistics.compute(new String[] { "1" }, null, null, 0));
+        assertNull(DataStatistics.compute(new char[] { '1' }, null, null, 0));
+
+        try {
+            new DataStatistics(null, null, 0).add(new Object[1]);
+            fail("add() of an Object array did not fail");
+        }
+        catch (final IllegalArgumentException ex) {} // Expected - intentional
+
+        final DataStatistics stats = DataStatistics.compute(new double[0], null, new double[] { 0, 1 }, 2);
+        assertNotNull(stats);
+        assertEquals(0, stats.getCount());
+        assertArrayEquals(new int[] { 0, 0 }, stats.getHistogram());
+    }
+}
@@ -0,0 +1,471 @@
+package object;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hdf.hdf5lib.H5;
+
+import hdf.object.DatasetTextExporter;
+import hdf.object.DatasetTextImporter;
+import hdf.object.Datatype;
+import hdf.object.FileFormat;
+import hdf.object.Group;
+import hdf.object.h5.H5Datatype;
+import hdf.object.h5.H5File;
+import hdf.object.h5.H5ScalarDS;
+
+/**
+ * TestCase for DatasetTextImporter.
+ *
+ * The values of datasets created in the test file are exported to a text file
+ * with DatasetTextExporter and imported back with DatasetTextImporter, or are
+ * imported from text files written by the tests. The datasets are removed from
+ * the test file after each test.
+ */
+public class DatasetTextImporterTest
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatasetTextImporterTest.class);
+    private static final H5File H5FILE = new H5File();
+    private static final String DNAME = "/tmpDatasetText";
+    private static final String TEXT_FILE = "TestDatasetText.txt";
+
+    /** the integer types as size and sign */
+    private static final int[][] INTEGER_TYPES = { { 1, Datatype.SIGN_2 }, { 1, Datatype.SIGN_NONE },
+            { 2, Datatype.SIGN_2 }, { 2, Datatype.SIGN_NONE }, { 4, Datatype.SIGN_2 }, { 4, Datatype.SIGN_NONE },
+            { 8, Datatype.SIGN_2 }, { 8, Datatype.SIGN_NONE } };
+
+    /** the smallest, largest and two other values of each integer type */
+    private static final Object[] INTEGER_VALUES = { new byte[] { -128, 127, 0, -1 },
+            new byte[] { 0, (byte) 255, 1, (byte) 128 }, new short[] { -32768, 32767, 0, -1 },
+            new short[] { 0, (short) 65535, 1, (short) 32768 },
+            new int[] { Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1 }, new int[] { 0, -1, 1, Integer.MIN_VALUE },
+            new long[] { Long.MIN_VALUE, Long.MAX_VALUE, 0, -1 }, new long[] { 0, -1, 1, Long.MIN_VALUE } };
+
+    /** the values of INTEGER_VALUES as text */
+    private static final String[][] INTEGER_TEXT = { { "-128", "127", "0", "-1" }, { "0", "255", "1", "128" },
+            { "-32768", "32767", "0", "-1" }, { "0", "65535", "1", "32768" },
+            { "-2147483648", "2147483647", "0", "-1" }, { "0", "4294967295", "1", "2147483648" },
+            { "-9223372036854775808", "9223372036854775807", "0", "-1" },
+            { "0", "18446744073709551615", "1", "9223372036854775808" } };
+
+    /** values out of the range of each integer type */
+    private static final String[][] INTEGER_INVALID = { { "128", "-129" }, { "256", "-1" }, { "32768", "-32769" },
+            { "65536", "-1" }, { "2147483648", "-2147483649" }, { "4294967296", "-1" },
+            { "9223372036854775808", "-9223372036854775809" }, { "18446744073709551616", "-1" } };
+
+    /** numbers parsed exactly from their digits and numbers left to Double.parseDouble() or Float.parseFloat() */
+    private static final String[] REAL_TEXT = { "0", "0.1", "-0.0", "+2.5", ".5", "5.", "1E5", "0.000001",
+            "1234567.125", "16777217", "9007199254740993", "0.30000000000000004", "1e22", "1e23",
+            "123456789012345678901", "99999999999999999999e-5", "3.4028235e38", "1.17549435E-38",
+            "2.2250738585072014E-308", "4.9e-324", "NaN", "Infinity", "-Infinity" };
+
+    private H5File testFile = null;
+    private H5ScalarDS testDataset = null;
+    private File textFile = null;
+
+    @BeforeClass
+    public static void createFile() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("DatasetTextImporterTest BeforeClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        try {
+            H5TestFile.createTestFile(null);
+        }
+        catch (final Exception ex) {
+            System.out.println("*** Unable to create HDF5 test file. " + ex);
+            System.exit(-1);
+        }
+    }
+
+    @AfterClass
+    public static void checkIDs() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("DatasetTextImporterTest AfterClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Before
+    public void openFiles() throws Exception {
+        try {
+            testFile = (H5File) H5FILE.createInstance(H5TestFile.NAME_FILE_H5, FileFormat.WRITE);
+            testFile.open();
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        assertNotNull(testFile);
+
+        textFile = new File(TEXT_FILE);
+    }
+
+    @After
+    public void removeFiles() throws Exception {
+        if (testFile != null) {
+            try {
+                if (testDataset != null)
+                    testFile.delete(testDataset);
+                testFile.close();
+            }
+            catch (final Exception ex) {}
+            testFile = null;
+            testDataset = null;
+        }
+        textFile.delete();
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                log.debug("After: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Creates the test dataset, replacing the one of a previous step of the test. */
+    private H5ScalarDS createDataset(int tclass, int tsize, int tsign, long[] dims, long[] chunks, Object data)
+            throws Exception {
+        if (testDataset != null) {
+            testFile.delete(testDataset);
+            testDataset = null;
+        }
+
+        final H5Datatype dtype = new H5Datatype(tclass, tsize, Datatype.NATIVE, tsign);
+        testDataset = (H5ScalarDS) H5ScalarDS.create(DNAME, (Group) testFile.get("/"), dtype, dims, null, chunks, 0,
+                data);
+        testDataset.init();
+
+        return testDataset;
+    }
+
+    /** Reads all values of a dataset from the file. */
+    private static Object readAll(H5ScalarDS dset) throws Exception {
+        dset.clearData();
+
+        return dset.read();
+    }
+
+    /** Imports the text file into a dataset and returns the number of rows written. */
+    private long importText(H5ScalarDS dset) throws Exception {
+        return new DatasetTextImporter(dset, textFile, ",", true).call().longValue();
+    }
+
+    /** Exports a dataset, overwrites it with zeros and imports it again. */
+    private Object exportAndImport(H5ScalarDS dset, Object zeros) throws Exception {
+        final long rows = new DatasetTextExporter(dset, textFile, ",", true).call().longValue();
+
+        dset.write(zeros);
+        assertEquals(rows, importText(dset));
+
+        return readAll(dset);
+    }
+
+    private void writeText(String text) throws Exception {
+        Files.write(textFile.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with
+     * integer datasets.
+     *
+     * What to test:
+     * <ul>
+     * <li>export the smallest and largest values of signed and unsigned
+     * 8-, 16-, 32- and 64-bit integers and check the text
+     * <li>import the text and check the values
+     * </ul>
+     */
+    @Test
+    public void testIntegerRoundTrip() {
+        log.debug("testIntegerRoundTrip");
+        for (int t = 0; t < INTEGER_TYPES.length; t++) {
+            final Object values = INTEGER_VALUES[t];
+            final int n = Array.getLength(values);
+            try {
+                final H5ScalarDS dset = createDataset(Datatype.CLASS_INTEGER, INTEGER_TYPES[t][0], INTEGER_TYPES[t][1],
+                        new long[] { n }, null, values);
+                final Object data = exportAndImport(dset, Array.newInstance(values.getClass().getComponentType(), n));
+
+                final List<String> lines = Files.readAllLines(textFile.toPath(), StandardCharsets.US_ASCII);
+                assertEquals(n, lines.size());
+                for (int i = 0; i < n; i++) {
+                    assertEquals(INTEGER_TEXT[t][i], lines.get(i));
+                    assertEquals(Array.getLong(values, i), Array.getLong(data, i));
+                }
+            }
+            catch (final Exception ex) {
+                fail("Round trip of integers of size " + INTEGER_TYPES[t][0] + " failed. " + ex);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with
+     * invalid integers.
+     *
+     * What to test:
+     * <ul>
+     * <li>import values out of the range of each integer type
+     * <li>import values which are not integers
+     * <li>check that the import fails with a NumberFormatException
+     * </ul>
+     */
+    @Test
+    public void testIntegerInvalid() {
+        log.debug("testIntegerInvalid");
+        for (int t = 0; t < INTEGER_TYPES.length; t++) {
+            final String[] invalid = INTEGER_INVALID[t];
+            final String[] notIntegers = { "12a", "-", "1.5", "1e3" };
+            final String[][] cases = { invalid, notIntegers };
+
+            for (String[] values : cases) {
+                for (String value : values) {
+                    try {
+                        final H5ScalarDS dset = createDataset(Datatype.CLASS_INTEGER, INTEGER_TYPES[t][0],
+                                INTEGER_TYPES[t][1], new long[] { 2 }, null, null);
+                        writeText("0\n" + value + "\n");
+                        importText(dset);
+                        fail("Import of " + value + " into integers of size " + INTEGER_TYPES[t][0] + " succeeded");
+                    }
+                    catch (final NumberFormatException ex) {
+                        assertTrue(ex.getMessage().contains("\"" + value + "\" in line 2"));
+                    }
+                    catch (final Exception ex) {
+                        fail("Import of " + value + " failed with " + ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with
+     * floating-point datasets.
+     *
+     * What to test:
+     * <ul>
+     * <li>import numbers which are parsed exactly from their digits and
+     * numbers which are parsed by Double.parseDouble() or Float.parseFloat()
+     * <li>check that the values are those of Double.parseDouble() and
+     * Float.parseFloat()
+     * <li>import invalid numbers and check that the import fails
+     * </ul>
+     */
+    @Test
+    public void testParseReal() {
+        log.debug("testParseReal");
+        final int n = REAL_TEXT.length;
+        final StringBuilder text = new StringBuilder();
+        for (String value : REAL_TEXT)
+            text.append(value).append('\n');
+
+        try {
+            writeText(text.toString());
+
+            H5ScalarDS dset = createDataset(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, new long[] { n }, null, null);
+            assertEquals(n, importText(dset));
+            final double[] doubles = (double[]) readAll(dset);
+            for (int i = 0; i < n; i++)
+                assertEquals(REAL_TEXT[i], Double.doubleToLongBits(Double.parseDouble(REAL_TEXT[i])),
+                        Double.doubleToLongBits(doubles[i]));
+
+            dset = createDataset(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, new long[] { n }, null, null);
+            assertEquals(n, importText(dset));
+            final float[] floats = (float[]) readAll(dset);
+            for (int i = 0; i < n; i++)
+                assertEquals(REAL_TEXT[i], Float.floatToIntBits(Float.parseFloat(REAL_TEXT[i])),
+                        Float.floatToIntBits(floats[i]));
+        }
+        catch (final Exception ex) {
+            fail("Import of real numbers failed. " + ex);
+        }
+
+        for (String value : new String[] { "abc", "1.2.3", "1e", "--1", "0x10" }) {
+            try {
+                final H5ScalarDS dset = createDataset(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, new long[] { 1 }, null,
+                        null);
+                writeText(value + "\n");
+                importText(dset);
+                fail("Import of " + value + " succeeded");
+            }
+            catch (final NumberFormatException ex) {
+                assertTrue(ex.getMessage().contains("\"" + value + "\" in line 1"));
+            }
+            catch (final Exception ex) {
+                fail("Import of " + value + " failed with " + ex);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with
+     * values exported by DatasetTextExporter.
+     *
+     * What to test:
+     * <ul>
+     * <li>export random doubles and floats of a wide range of magnitudes
+     * <li>import them and check that the values are unchanged
+     * </ul>
+     */
+    @Test
+    public void testRealRoundTrip() {
+        log.debug("testRealRoundTrip");
+        final int n = 4096;
+        final Random random = new Random(20260916);
+        final double[] doubles = new double[n];
+        final float[] floats = new float[n];
+        for (int i = 0; i < n; i++) {
+            doubles[i] = Math.scalb(random.nextDouble() - 0.5, random.nextInt(200) - 100);
+            floats[i] = Math.scalb(random.nextFloat() - 0.5f, random.nextInt(60) - 30);
+        }
+
+        try {
+            H5ScalarDS dset = createDataset(Datatype.CLASS_FLOAT, 8, Datatype.NATIVE, new long[] { n / 8, 8 }, null,
+                    doubles);
+            final double[] doubleData = (double[]) exportAndImport(dset, new double[n]);
+            for (int i = 0; i < n; i++)
+                assertEquals(Double.doubleToLongBits(doubles[i]), Double.doubleToLongBits(doubleData[i]));
+
+            dset = createDataset(Datatype.CLASS_FLOAT, 4, Datatype.NATIVE, new long[] { n / 8, 8 }, null, floats);
+            final float[] floatData = (float[]) exportAndImport(dset, new float[n]);
+            for (int i = 0; i < n; i++)
+                assertEquals(Float.floatToIntBits(floats[i]), Float.floatToIntBits(floatData[i]));
+        }
+        catch (final Exception ex) {
+            fail("Round trip of real numbers failed. " + ex);
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with lines
+     * of different lengths.
+     *
+     * What to test:
+     * <ul>
+     * <li>import lines with fewer values than a row, an empty line and a line
+     * with more values than a row
+     * <li>check that the values missing from short lines keep their values in
+     * the file and that long lines are cut
+     * </ul>
+     */
+    @Test
+    public void testShortLines() {
+        log.debug("testShortLines");
+        final int[] values = new int[20];
+        for (int i = 0; i < values.length; i++)
+            values[i] = 100 + i;
+
+        try {
+            final H5ScalarDS dset = createDataset(Datatype.CLASS_INTEGER, 4, Datatype.SIGN_2, new long[] { 4, 5 },
+                    null, values);
+            writeText("1,2,3,4,5\n6,7\n8,9,10,11,12,13,14\n\n");
+            assertEquals(4, importText(dset));
+
+            final int[] expected = { 1, 2, 3, 4, 5, 6, 7, 107, 108, 109, 8, 9, 10, 11, 12, 115, 116, 117, 118, 119 };
+            final int[] data = (int[]) readAll(dset);
+            for (int i = 0; i < expected.length; i++)
+                assertEquals(expected[i], data[i]);
+        }
+        catch (final Exception ex) {
+            fail("Import of short lines failed. " + ex);
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with the
+     * line endings of different systems.
+     *
+     * What to test:
+     * <ul>
+     * <li>import lines which end with CR LF, with the values separated by the
+     * delimiter, a space or a tab
+     * <li>import a last line without a newline
+     * </ul>
+     */
+    @Test
+    public void testLineEndings() {
+        log.debug("testLineEndings");
+        try {
+            final H5ScalarDS dset = createDataset(Datatype.CLASS_INTEGER, 4, Datatype.SIGN_2, new long[] { 3, 2 },
+                    null, null);
+            writeText("1,2\r\n3 4\r\n5\t6");
+            assertEquals(3, importText(dset));
+
+            final int[] data = (int[]) readAll(dset);
+            for (int i = 0; i < data.length; i++)
+                assertEquals(i + 1, data[i]);
+        }
+        catch (final Exception ex) {
+            fail("Import of CR LF lines failed. " + ex);
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.DatasetTextImporter#call()} with a
+     * text file larger than the mapped window.
+     *
+     * What to test:
+     * <ul>
+     * <li>export a chunked dataset and import it with a small window, so that
+     * the window is mapped again at many positions of the file
+     * <li>check the values
+     * <li>check that a line longer than the window fails the import
+     * </ul>
+     */
+    @Test
+    public void testWindowRemap() {
+        log.debug("testWindowRemap");
+        try {
+            final H5ScalarDS dset = createDataset(Datatype.CLASS_INTEGER, 4, Datatype.SIGN_2, H5TestFile.DIMs,
+                    H5TestFile.CHUNKs, H5TestFile.DATA_INT);
+            new DatasetTextExporter(dset, textFile, ",", true).call();
+            assertTrue(textFile.length() > 1024);
+            dset.write(new int[H5TestFile.DIM_SIZE]);
+
+            final DatasetTextImporter importer = new DatasetTextImporter(dset, textFile, ",", true);
+            importer.setMapSize(256);
+            assertEquals(H5TestFile.DIM1, importer.call().longValue());
+
+            final int[] data = (int[]) readAll(dset);
+            for (int i = 0; i < H5TestFile.DIM_SIZE; i++)
+                assertEquals(H5TestFile.DATA_INT[i], data[i]);
+        }
+        catch (final Exception ex) {
+            fail("Import with a small window failed. " + ex);
+        }
+
+        try {
+            final DatasetTextImporter importer = new DatasetTextImporter(testDataset, textFile, ",", true);
+            importer.setMapSize(16);
+            importer.call();
+            fail("Import of lines longer than the window succeeded");
+        }
+        catch (final Exception ex) {
+            assertTrue(ex.getMessage().contains("too long"));
+        }
+    }
+}
@@ -732,6 +732,77 @@ public class H5CompoundDSTest
         } //  (int loop=0; loop<NLOOPS; loop++) {
     }
 
+    /**
+     * Test method for {@link hdf.object.h5.H5CompoundDS#setPackedRead(boolean)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>Read all members with a single packed read and one member at a time
+     * <li>Read a subset of members with a single packed read and one member at a time
+     * <li>Check that both reads return the same data
+     * </ul>
+     */
+    @Test
+    public void testReadPacked() {
+        log.debug("testReadPacked");
+        final int[][] selections = { null, { 1, 3 } };
+
+        for (int[] selection : selections) {
+            List<?> packedData = null;
+            List<?> memberData = null;
+
+            for (boolean packed : new boolean[] { true, false }) {
+                testDataset.clearData();
+                testDataset.init();
+                testDataset.setPackedRead(packed);
+                assertEquals(packed, testDataset.isPackedRead());
+
+                if (selection != null) {
+                    testDataset.setAllMemberSelection(false);
+                    for (int i : selection)
+                        testDataset.selectMember(i);
+                }
+
+                List<?> data = null;
+                try {
+                    data = (List<?>) testDataset.getData();
+                }
+                catch (final Exception ex) {
+                    fail("getData() failed. " + ex);
+                }
+                assertNotNull(data);
+
+                if (packed)
+                    packedData = data;
+                else
+                    memberData = data;
+            }
+            testDataset.setPackedRead(true);
+
+            assertEquals(memberData.size(), packedData.size());
+            if (selection != null)
+                assertEquals(selection.length, packedData.size());
+
+            for (int i = 0; i < packedData.size(); i++) {
+                final Object expected = memberData.get(i);
+                final Object actual = packedData.get(i);
+                assertEquals(expected.getClass(), actual.getClass());
+                assertEquals(Array.getLength(expected), Array.getLength(actual));
+                for (int j = 0; j < Array.getLength(expected); j++)
+                    assertEquals(Array.get(expected, j), Array.get(actual, j));
+            }
+
+            if (selection != null) {
+                final float[] floats = (float[]) packedData.get(0);
+                final long[] longs = (long[]) packedData.get(1);
+                for (int j = 0; j < H5TestFile.DIM_SIZE; j++) {
+                    assertEquals(H5TestFile.DATA_FLOAT[j], floats[j], Float.MIN_VALUE);
+                    assertEquals(H5TestFile.DATA_LONG[j], longs[j]);
+                }
+            }
+        }
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5CompoundDS#readBytes()}.
      *
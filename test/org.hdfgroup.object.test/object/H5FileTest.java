@@ -29,9 +29,11 @@ import hdf.hdf5lib.structs.H5L_info_t;
 import hdf.object.Attribute;
 import hdf.object.Dataset;
 import hdf.object.Datatype;
+import hdf.object.DeferredObject;
 import hdf.object.FileFormat;
 import hdf.object.Group;
 import hdf.object.HObject;
+import hdf.object.h5.H5CompoundDS;
 import hdf.object.h5.H5Datatype;
 import hdf.object.h5.H5File;
 import hdf.object.h5.H5Group;
@@ -251,6 +253,205 @@ public class H5FileTest
         } //  (int i=0; i<NLOOPS; i++)
     }
 
+    /**
+     * Test method for {@link hdf.object.FileFormat#setLazyLoad(boolean)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>open a file with lazy loading
+     * <li>check that only the members of the root group are loaded
+     * <li>check that a group is loaded when its members are accessed
+     * <li>access all objects in the file
+     * </ul>
+     */
+    @Test
+    public void testOpenLazyLoad() {
+        log.debug("testOpenLazyLoad");
+        // Close default testFile
+        closeFile();
+
+        final H5File file = new H5File(H5TestFile.NAME_FILE_H5, FileFormat.READ);
+        file.setLazyLoad(true);
+        assertTrue(file.isLazyLoad());
+
+        try {
+            assertTrue(file.open() > 0);
+        }
+        catch (final Exception ex) {
+            fail("file.open() failed. " + ex);
+        }
+
+        try {
+            final Group root = (Group) file.getRootObject();
+            assertNotNull(root);
+            assertTrue(root.isMemberListLoaded());
+
+            Group g0 = null;
+            for (HObject obj : root.getMemberList()) {
+                if (obj instanceof Group)
+                    assertFalse(((Group) obj).isMemberListLoaded());
+                if (H5TestFile.NAME_GROUP.equals(obj.getFullName()))
+                    g0 = (Group) obj;
+            }
+            assertNotNull(g0);
+
+            // the first access loads the members of the group
+            assertTrue(g0.getMemberList().size() > 0);
+            assertTrue(g0.isMemberListLoaded());
+
+            // objects in groups which have not been loaded are found by path
+            for (int j = 0; j < H5TestFile.OBJ_NAMES.length; j++) {
+                final HObject obj = file.get(H5TestFile.OBJ_NAMES[j]);
+                assertNotNull(obj);
+                assertEquals(H5TestFile.OBJ_NAMES[j], obj.getFullName());
+            }
+        }
+        catch (final Exception ex) {
+            fail("file.get() failed. " + ex);
+        }
+        finally {
+            try {
+                file.close();
+            }
+            catch (final Exception ex) {
+                fail("file.close() failed. " + ex);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.object.Group#getMemberList()} when the members
+     * of a group cannot be loaded from a file opened with lazy loading.
+     * <p>
+     * What to test:
+     * <ul>
+     * <li>Close the file before the members of a group are loaded
+     * <li>Check that the group is not marked as loaded
+     * </ul>
+     */
+    @Test
+    public void testLazyLoadFailure() {
+        log.debug("testLazyLoadFailure");
+        // Close default testFile
+        closeFile();
+
+        final H5File file = new H5File(H5TestFile.NAME_FILE_H5, FileFormat.READ);
+        file.setLazyLoad(true);
+
+        Group g0 = null;
+        try {
+            assertTrue(file.open() > 0);
+
+            for (HObject obj : ((Group) file.getRootObject()).getMemberList()) {
+                if (H5TestFile.NAME_GROUP.equals(obj.getFullName()))
+                    g0 = (Group) obj;
+            }
+            assertNotNull(g0);
+            assertFalse(g0.isMemberListLoaded());
+
+            file.close();
+        }
+        catch (final Exception ex) {
+            fail("file.open() failed. " + ex);
+        }
+
+        // loading fails after the file is closed; the group stays unloaded
+        assertTrue(g0.getMemberList().isEmpty());
+        assertFalse(g0.isMemberListLoaded());
+    }
+
+    /**
+     * Test method for {@link hdf.object.Group#getMember(int)} with datasets
+     * which are classified when they are first accessed.
+     *
+     * What to test:
+     * <ul>
+     * <li>open a file
+     * <li>check the number of members in memory without resolving them
+     * <li>check that members are resolved to scalar and compound datasets
+     * </ul>
+     */
+    @Test
+    public void testDeferredDatasets() {
+        log.debug("testDeferredDatasets");
+
+        final Group root = (Group) testFile.getRootObject();
+        assertNotNull(root);
+
+        final int n = root.getNumberOfMembersInMemory();
+        assertTrue(n > 0);
+
+        for (int i = 0; i < n; i++) {
+            final HObject obj = root.getMember(i);
+            assertNotNull(obj);
+            assertFalse(obj instanceof DeferredObject);
+
+            if (H5TestFile.NAME_DATASET_COMPOUND.equals(obj.getFullName()))
+                assertTrue(obj instanceof H5CompoundDS);
+            else if (H5TestFile.NAME_DATASET_INT.equals(obj.getFullName()))
+                assertTrue(obj instanceof H5ScalarDS);
+        }
+
+        final List<HObject> members = root.getMemberList();
+        assertEquals(n, members.size());
+        for (HObject obj : members)
+            assertFalse(obj instanceof DeferredObject);
+    }
+
+    /**
+     * Test method for {@link hdf.object.FileFormat#findObject(FileFormat, String)} and
+     * {@link hdf.object.FileFormat#findObject(FileFormat, long[])}.
+     *
+     * What to test:
+     * <ul>
+     * <li>find objects by path and by OID
+     * <li>find an object which was removed from its group
+     * <li>find an object by its new path after it was moved
+     * </ul>
+     */
+    @Test
+    public void testFindObject() {
+        log.debug("testFindObject");
+
+        final HObject dset = FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB);
+        assertNotNull(dset);
+        assertFalse(dset instanceof DeferredObject);
+        assertEquals(H5TestFile.NAME_DATASET_INT_SUB, dset.getFullName());
+        assertTrue(dset == FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB + "/"));
+        assertTrue(dset == FileFormat.findObject(testFile, dset.getOID()));
+
+        final HObject grp = FileFormat.findObject(testFile, H5TestFile.NAME_GROUP);
+        assertNotNull(grp);
+        assertTrue(grp instanceof Group);
+        assertTrue(grp == FileFormat.findObject(testFile, grp.getOID()));
+
+        assertNull(FileFormat.findObject(testFile, "/no such object"));
+        assertNull(FileFormat.findObject(testFile, new long[] { -1 }));
+
+        ((Group) grp).removeFromMemberList(dset);
+        assertNull(FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB));
+        assertNull(FileFormat.findObject(testFile, dset.getOID()));
+
+        ((Group) grp).addToMemberList(dset);
+        assertTrue(dset == FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB));
+        assertTrue(dset == FileFormat.findObject(testFile, dset.getOID()));
+
+        // setPath() changes the path in memory only
+        try {
+            dset.setPath("/moved/");
+            assertEquals("/moved/" + dset.getName(), dset.getFullName());
+            assertTrue(dset == FileFormat.findObject(testFile, "/moved/" + dset.getName()));
+            assertNull(FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB));
+
+            dset.setPath(H5TestFile.NAME_GROUP + "/");
+            assertTrue(dset == FileFormat.findObject(testFile, H5TestFile.NAME_DATASET_INT_SUB));
+            assertNull(FileFormat.findObject(testFile, "/moved/" + dset.getName()));
+        }
+        catch (final Exception ex) {
+            fail("setPath() failed. " + ex);
+        }
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5File#create(java.lang.String)}.
      *
@@ -15,6 +15,8 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
 
@@ -32,6 +34,7 @@ import hdf.hdf5lib.exceptions.HDF5Exception;
 
 import hdf.object.Attribute;
 import hdf.object.Dataset;
+import hdf.object.DatasetBlock;
 import hdf.object.Datatype;
 import hdf.object.FileFormat;
 import hdf.object.Group;
@@ -728,6 +731,241 @@ public class H5ScalarDSTest
         log.trace("testReadByRow testDataset finished");
     }
 
+    /**
+     * Test method for {@link hdf.object.Dataset#blockIterator(long)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>Read the whole dataset block by block
+     * <li>check that no block is larger than the requested size
+     * <li>check the data content of every block
+     * <li>check that the selection of the dataset is unchanged
+     * </ul>
+     */
+    @Test
+    public void testBlockIterator() {
+        log.debug("testBlockIterator");
+        final int maxPoints = 64;
+
+        testDataset.init();
+        final long[] start = testDataset.getStartDims().clone();
+        final long[] count = testDataset.getSelectedDims().clone();
+
+        long nread = 0;
+        final Iterator<DatasetBlock> it = testDataset.blockIterator(maxPoints);
+        while (it.hasNext()) {
+            DatasetBlock block = null;
+            try {
+                block = it.next();
+            }
+            catch (final Exception ex) {
+                fail("blockIterator().next() failed. " + ex);
+            }
+            assertNotNull(block);
+
+            final int[] ints = (int[]) block.getData();
+            assertNotNull(ints);
+            assertTrue(ints.length <= maxPoints);
+            assertEquals(block.getSize(), ints.length);
+
+            // check the data content against the position of the block in the dataset
+            final long[] offset = block.getSelectionOffset();
+            final long[] bdims = block.getSelectedDims();
+            for (int i = 0; i < ints.length; i++) {
+                final long row = offset[0] + i / bdims[1];
+                final long col = offset[1] + i % bdims[1];
+                assertEquals(H5TestFile.DATA_INT[(int) (row * H5TestFile.DIM2 + col)], ints[i]);
+            }
+            nread += ints.length;
+        }
+        assertEquals(H5TestFile.DIM1 * H5TestFile.DIM2, nread);
+
+        assertTrue(Arrays.equals(start, testDataset.getStartDims()));
+        assertTrue(Arrays.equals(count, testDataset.getSelectedDims()));
+    }
+
+    /**
+     * Test method for {@link hdf.object.FileFormat#setDatasetCacheSize(int)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>read the dataset several times with the dataset cache enabled
+     * <li>check the hit and miss counters
+     * <li>check that disabling the cache closes the dataset
+     * </ul>
+     */
+    @Test
+    public void testDatasetCache() {
+        log.debug("testDatasetCache");
+
+        testFile.setDatasetCacheSize(4);
+        final long hits = testFile.getDatasetCacheHits();
+        final long misses = testFile.getDatasetCacheMisses();
+
+        for (int loop = 0; loop < NLOOPS; loop++) {
+            testDataset.clearData();
+            int[] ints = null;
+            try {
+                ints = (int[]) testDataset.read();
+            }
+            catch (final Exception ex) {
+                fail("testDataset.read() failed. " + ex);
+            }
+            assertNotNull(ints);
+            for (int i = 0; i < H5TestFile.DIM_SIZE; i++)
+                assertEquals(H5TestFile.DATA_INT[i], ints[i]);
+        }
+
+        // only the first open of the dataset misses the cache
+        assertEquals(misses + 1, testFile.getDatasetCacheMisses());
+        assertTrue(testFile.getDatasetCacheHits() >= hits + NLOOPS - 1);
+
+        testFile.setDatasetCacheSize(0);
+        checkObjCount(testFile.getFID());
+    }
+
+    /**
+     * Test method for {@link hdf.object.Dataset#setChunkCacheSize(long)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>compute the size of the chunks touched by a selection
+     * <li>size the chunk cache automatically and explicitly
+     * <li>read the dataset and check the chunk cache statistics
+     * </ul>
+     */
+    @Test
+    public void testChunkCache() {
+        log.debug("testChunkCache");
+        final long chunkBytes = H5TestFile.CHUNKs[0] * H5TestFile.CHUNKs[1] * DATATYPE_SIZE;
+
+        testDataset.init();
+        assertEquals(Dataset.CHUNK_CACHE_DEFAULT, testDataset.getChunkCacheSize());
+        assertEquals(Dataset.CHUNK_CACHE_DEFAULT, testDataset.computeChunkCacheSize());
+
+        // the whole dataset touches all four chunks, a single row two of them
+        assertEquals(4 * chunkBytes, testDataset.getChunkWorkingSetSize());
+        testDataset.getSelectedDims()[0] = 1;
+        assertEquals(2 * chunkBytes, testDataset.getChunkWorkingSetSize());
+
+        testDataset.setChunkCacheSize(Dataset.CHUNK_CACHE_AUTO);
+        assertEquals(Dataset.DEFAULT_CHUNK_CACHE_SIZE, testDataset.computeChunkCacheSize());
+
+        final long cacheBytes = 4L * 1024 * 1024;
+        testDataset.setChunkCacheSize(cacheBytes);
+        assertEquals(cacheBytes, testDataset.computeChunkCacheSize());
+        assertTrue(testDataset.computeChunkCacheSlots(cacheBytes) >= 521);
+
+        testDataset.resetChunkCacheStatistics();
+        int[] ints = null;
+        try {
+            ints = (int[]) testDataset.read();
+        }
+        catch (final Exception ex) {
+            fail("testDataset.read() failed. " + ex);
+        }
+        assertNotNull(ints);
+        for (int i = 0; i < H5TestFile.DIM2; i++)
+            assertEquals(H5TestFile.DATA_INT[i], ints[i]);
+
+        assertEquals(cacheBytes, testDataset.getChunkCacheBytesInUse());
+        assertEquals(1, testDataset.getChunkCacheReads());
+        assertEquals(0, testDataset.getChunkCacheOverflows());
+    }
+
+    /**
+     * Test method for {@link hdf.object.Dataset#setChunkCacheSize(long)} with
+     * the dataset cache enabled.
+     *
+     * What to test:
+     * <ul>
+     * <li>change the chunk cache size while the cached identifier is in use
+     * <li>check that the dataset is reopened with the new chunk cache
+     * <li>check that the old identifier is closed instead of cached again
+     * </ul>
+     */
+    @Test
+    public void testChunkCacheChangeInUse() {
+        log.debug("testChunkCacheChangeInUse");
+
+        testFile.setDatasetCacheSize(4);
+        testDataset.close(testDataset.open());
+
+        // the cached identifier is in use while the chunk cache size changes
+        final long oldDid = testDataset.open();
+        assertTrue(oldDid >= 0);
+
+        final long cacheBytes = 2L * 1024 * 1024;
+        testDataset.setChunkCacheSize(cacheBytes);
+        final long newDid = testDataset.open();
+        assertTrue(newDid >= 0);
+        assertTrue(newDid != oldDid);
+        assertEquals(cacheBytes, testDataset.getChunkCacheBytesInUse());
+
+        testDataset.close(oldDid);
+        testDataset.close(newDid);
+
+        // the next open returns the identifier with the new chunk cache
+        final long did = testDataset.open();
+        assertEquals(newDid, did);
+        testDataset.close(did);
+
+        testFile.setDatasetCacheSize(0);
+        checkObjCount(testFile.getFID());
+    }
+
+    /**
+     * Test method for {@link hdf.object.Dataset#setLoadedData(Object)}.
+     *
+     * What to test:
+     * <ul>
+     * <li>read a row with a second object of the same dataset
+     * <li>hand the row over to the dataset and check getData() returns it
+     * <li>clear the data and check getData() reads from file again
+     * </ul>
+     */
+    @Test
+    public void testSetLoadedData() {
+        log.debug("testSetLoadedData");
+        final H5ScalarDS reader = new H5ScalarDS(testFile, testDataset.getName(), testDataset.getPath());
+        reader.init();
+        reader.getSelectedDims()[0] = 1;
+        reader.getStartDims()[0] = 1;
+
+        int[] row = null;
+        try {
+            row = (int[]) reader.read();
+        }
+        catch (final Exception ex) {
+            fail("reader.read() failed. " + ex);
+        }
+        assertNotNull(row);
+
+        testDataset.init();
+        testDataset.getSelectedDims()[0] = 1;
+        testDataset.getStartDims()[0] = 1;
+        testDataset.setLoadedData(row);
+
+        try {
+            assertTrue(row == testDataset.getData());
+        }
+        catch (final Exception ex) {
+            fail("testDataset.getData() failed. " + ex);
+        }
+
+        testDataset.clearData();
+        int[] ints = null;
+        try {
+            ints = (int[]) testDataset.getData();
+        }
+        catch (final Exception ex) {
+            fail("testDataset.getData() failed. " + ex);
+        }
+        assertNotNull(ints);
+        for (int i = 0; i < H5TestFile.DIM2; i++)
+            assertEquals(H5TestFile.DATA_INT[(int) H5TestFile.DIM2 + i], ints[i]);
+    }
+
     /**
      * Test method for {@link hdf.object.h5.H5ScalarDS#readBytes()}.
      *
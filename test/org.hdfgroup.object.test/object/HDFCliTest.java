@@ -0,0 +1,207 @@
+package object;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import hdf.hdf5lib.H5;
+
+import hdf.cli.HDFCli;
+import hdf.object.DataStatistics;
+
+/**
+ * TestCase for HDFCli.
+ *
+ * The command line is parsed and the list and stats commands are run on the
+ * HDF5 test file; the output is compared with the objects and values of the
+ * file.
+ */
+public class HDFCliTest
+{
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(HDFCliTest.class);
+
+    private final ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+
+    @BeforeClass
+    public static void createFile() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("HDFCliTest BeforeClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        try {
+            H5TestFile.createTestFile(null);
+        }
+        catch (final Exception ex) {
+            System.out.println("*** Unable to create HDF5 test file. " + ex);
+            System.exit(-1);
+        }
+    }
+
+    @AfterClass
+    public static void checkIDs() throws Exception {
+        try {
+            int openID = H5.getOpenIDCount();
+            if (openID > 0)
+                System.out.println("HDFCliTest AfterClass: Number of IDs still open: " + openID);
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Runs a command line, and returns its status. */
+    private int run(String... args) {
+        outBytes.reset();
+        errBytes.reset();
+        try (PrintStream out = new PrintStream(outBytes, true, "UTF-8");
+                PrintStream err = new PrintStream(errBytes, true, "UTF-8")) {
+            return HDFCli.run(args, out, err);
+        }
+        catch (final java.io.UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String getOutput() {
+        return new String(outBytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String getErrors() {
+        return new String(errBytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test method for {@link hdf.cli.HDFCli#run(String[], PrintStream, PrintStream)}
+     * with invalid command lines.
+     *
+     * What to test:
+     * <ul>
+     * <li>print the usage and return 0 for -help
+     * <li>return 2 and print the error and the usage for a missing command,
+     * an unknown command or option, a missing or invalid option value and a
+     * missing file
+     * <li>process no file when the command line is invalid
+     * </ul>
+     */
+    @Test
+    public void testParse() {
+        log.debug("testParse");
+        assertEquals(0, run("-help"));
+        assertTrue(getOutput().startsWith("Usage: hdfcli"));
+
+        final String[][] invalid = {
+                {},
+                { "-jobs" },
+                { "-jobs", "0", "list", H5TestFile.NAME_FILE_H5 },
+                { "-threads", "x", "list", H5TestFile.NAME_FILE_H5 },
+                { "-verbose", "1", "list", H5TestFile.NAME_FILE_H5 },
+                { "dump", H5TestFile.NAME_FILE_H5 },
+                { "list" },
+                { "list", "-bins", "4", H5TestFile.NAME_FILE_H5 },
+                { "stats", "-bins", "-1", H5TestFile.NAME_FILE_H5 },
+                { "stats", H5TestFile.NAME_FILE_H5, "-path" } };
+        for (String[] args : invalid) {
+            final String line = Arrays.toString(args);
+            assertEquals(line, 2, run(args));
+            assertTrue(line, getErrors().startsWith("hdfcli: "));
+            assertTrue(line, getErrors().contains("Usage: hdfcli"));
+            assertEquals(line, "", getOutput());
+        }
+    }
+
+    /**
+     * Test method for {@link hdf.cli.HDFCli#run(String[], PrintStream, PrintStream)}
+     * with the list command.
+     *
+     * What to test:
+     * <ul>
+     * <li>list the groups and datasets of the file with their dimensions
+     * <li>list only the objects below the group given by -path
+     * <li>print the output of several files in order with several jobs
+     * <li>return 1 and print an error for a file which does not exist,
+     * but still list the other files
+     * </ul>
+     */
+    @Test
+    public void testList() {
+        log.debug("testList");
+        final String dims = " " + Arrays.toString(H5TestFile.DIMs) + " ";
+
+        assertEquals(getErrors(), 0, run("list", H5TestFile.NAME_FILE_H5));
+        String output = getOutput();
+        assertTrue(output, output.startsWith(H5TestFile.NAME_FILE_H5 + System.lineSeparator()));
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_GROUP + "  Group"));
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_DATASET_INT + "  Dataset" + dims));
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_DATASET_FLOAT_SUB_SUB + "  Dataset" + dims));
+
+        assertEquals(getErrors(), 0, run("list", "-path", H5TestFile.NAME_GROUP, H5TestFile.NAME_FILE_H5));
+        output = getOutput();
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_DATASET_INT_SUB + "  Dataset" + dims));
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_GROUP_SUB + "  Group"));
+        assertFalse(output, output.contains("  " + H5TestFile.NAME_DATASET_INT + "  "));
+
+        assertEquals(getErrors(), 0,
+                run("-jobs", "3", "list", "-path", H5TestFile.NAME_GROUP, H5TestFile.NAME_FILE_H5,
+                        H5TestFile.NAME_FILE_H5, H5TestFile.NAME_FILE_H5));
+        final String single = output;
+        assertEquals(single + single + single, getOutput());
+
+        final String missing = "HDFCliTestMissing.h5";
+        assertEquals(1, run("list", "-path", H5TestFile.NAME_GROUP, missing, H5TestFile.NAME_FILE_H5));
+        assertEquals(single, getOutput());
+        assertTrue(getErrors(), getErrors().startsWith(missing + ": "));
+    }
+
+    /**
+     * Test method for {@link hdf.cli.HDFCli#run(String[], PrintStream, PrintStream)}
+     * with the stats command.
+     *
+     * What to test:
+     * <ul>
+     * <li>print the statistics and histogram of a dataset given by -path
+     * <li>compare them with the statistics of the values written to the file
+     * <li>get the same output on the common pool and with -threads
+     * </ul>
+     */
+    @Test
+    public void testStats() {
+        log.debug("testStats");
+        final DataStatistics stats = DataStatistics.compute(H5TestFile.DATA_INT, null, null, 0);
+        final double[] range = { stats.getMin(), stats.getMax() };
+        final DataStatistics hist = DataStatistics.compute(H5TestFile.DATA_INT, null, range, 8);
+        final String nl = System.lineSeparator();
+        final String expected = H5TestFile.NAME_FILE_H5 + nl
+                + "  " + H5TestFile.NAME_DATASET_INT + "  " + Arrays.toString(H5TestFile.DIMs) + nl
+                + "    count=" + H5TestFile.DIM_SIZE + " nan=0 min=" + stats.getMin() + " max=" + stats.getMax()
+                + " mean=" + stats.getMean() + " stddev=" + stats.getStandardDeviation() + nl
+                + "    histogram " + Arrays.toString(range) + " " + Arrays.toString(hist.getHistogram()) + nl;
+
+        assertEquals(getErrors(), 0, run("stats", "-path", H5TestFile.NAME_DATASET_INT, "-bins", "8",
+                H5TestFile.NAME_FILE_H5));
+        assertEquals(expected, getOutput());
+
+        assertEquals(getErrors(), 0, run("-threads", "2", "-jobs", "2", "stats", "-bins", "8", "-path",
+                H5TestFile.NAME_DATASET_INT, H5TestFile.NAME_FILE_H5, H5TestFile.NAME_FILE_H5));
+        assertEquals(expected + expected, getOutput());
+
+        // the statistics of a group list its numerical datasets only
+        assertEquals(getErrors(), 0, run("stats", H5TestFile.NAME_FILE_H5));
+        final String output = getOutput();
+        assertTrue(output, output.contains("  " + H5TestFile.NAME_DATASET_FLOAT + "  "));
+        assertFalse(output, output.contains("  " + H5TestFile.NAME_DATASET_STR + "  "));
+    }
+}